@@ -0,0 +1,23 @@
+package com.hotel.booking.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Runs every endpoint of the annotated controller inside the group's compartment: a bounded
+// number of concurrent requests, a bounded wait queue, and the group's own connection pool
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    Group value();
+
+    enum Group {
+        PAYMENTS, BOOKINGS, ROOMS, MESSAGES;
+
+        public String propertyPrefix() {
+            return "bulkheads." + name().toLowerCase() + ".";
+        }
+    }
+}
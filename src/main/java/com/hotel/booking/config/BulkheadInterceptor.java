@@ -0,0 +1,55 @@
+package com.hotel.booking.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+// Enters the controller's bulkhead before the handler runs and leaves it when the request
+// completes. An async request leaves as soon as the handler returns, since it no longer holds
+// a request thread; its later dispatch does not enter again.
+@Component
+@RequiredArgsConstructor
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ENTERED = BulkheadInterceptor.class.getName() + ".ENTERED";
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        Bulkhead bulkhead = method.getBeanType().getAnnotation(Bulkhead.class);
+        if (bulkhead == null) {
+            return true;
+        }
+        bulkheadRegistry.acquire(bulkhead.value());
+        request.setAttribute(ENTERED, bulkhead.value());
+        BulkheadRoutingDataSource.enter(bulkhead.value());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        leave(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        leave(request);
+    }
+
+    private void leave(HttpServletRequest request) {
+        Object group = request.getAttribute(ENTERED);
+        if (group != null) {
+            request.removeAttribute(ENTERED);
+            BulkheadRoutingDataSource.exit();
+            bulkheadRegistry.release((Bulkhead.Group) group);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.hotel.booking.config;
+
+import com.hotel.booking.dto.BulkheadStatsResponse;
+import com.hotel.booking.exception.ServiceUnavailableException;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Concurrency compartments for the controller groups. A group admits up to max-concurrent
+// requests; up to max-waiting more may wait wait-timeout-ms for a slot, and anything beyond
+// that is rejected at once. A spike in one group therefore ties up at most its own share of
+// request threads and its own connection pool. A group with its own pool never admits more
+// requests than the pool has connections, so admitted requests do not queue inside the pool;
+// the pool should be a little larger still, for work that briefly needs a second connection.
+@Component
+@Slf4j
+public class BulkheadRegistry {
+
+    private final Map<Bulkhead.Group, Compartment> compartments = new EnumMap<>(Bulkhead.Group.class);
+    private final BulkheadRoutingDataSource routingDataSource;
+    private final long waitTimeoutMs;
+
+    public BulkheadRegistry(Environment environment, BulkheadRoutingDataSource routingDataSource) {
+        this.routingDataSource = routingDataSource;
+        this.waitTimeoutMs = environment.getProperty("bulkheads.wait-timeout-ms", Long.class, 500L);
+        for (Bulkhead.Group group : Bulkhead.Group.values()) {
+            int maxConcurrent = environment.getProperty(group.propertyPrefix() + "max-concurrent", Integer.class, 50);
+            int poolSize = environment.getProperty(group.propertyPrefix() + "pool-size", Integer.class, 0);
+            if (poolSize > 0 && maxConcurrent > poolSize) {
+                log.warn("Bulkhead {} allows {} concurrent requests but its pool has {} connections; using {}",
+                        group, maxConcurrent, poolSize, poolSize);
+                maxConcurrent = poolSize;
+            }
+            int maxWaiting = environment.getProperty(group.propertyPrefix() + "max-waiting", Integer.class, 50);
+            compartments.put(group, new Compartment(maxConcurrent, maxWaiting));
+        }
+    }
+
+    // Blocks for at most the wait timeout; every successful call must be paired with release
+    public void acquire(Bulkhead.Group group) {
+        Compartment compartment = compartments.get(group);
+        if (compartment.permits.tryAcquire()) {
+            compartment.admitted.increment();
+            return;
+        }
+        if (compartment.waiting.incrementAndGet() > compartment.maxWaiting) {
+            compartment.waiting.decrementAndGet();
+            compartment.rejected.increment();
+            throw new ServiceUnavailableException(busy(group));
+        }
+        try {
+            if (!compartment.permits.tryAcquire(waitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                compartment.rejected.increment();
+                throw new ServiceUnavailableException(busy(group));
+            }
+            compartment.admitted.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException(busy(group));
+        } finally {
+            compartment.waiting.decrementAndGet();
+        }
+    }
+
+    public void release(Bulkhead.Group group) {
+        compartments.get(group).permits.release();
+    }
+
+    public List<BulkheadStatsResponse> getStats() {
+        List<BulkheadStatsResponse> stats = new ArrayList<>();
+        compartments.forEach((group, compartment) -> {
+            HikariDataSource pool = routingDataSource.getPool(group);
+            HikariPoolMXBean poolBean = pool != null ? pool.getHikariPoolMXBean() : null;
+            stats.add(BulkheadStatsResponse.builder()
+                    .group(group.name())
+                    .maxConcurrent(compartment.maxConcurrent)
+                    .maxWaiting(compartment.maxWaiting)
+                    .active(compartment.maxConcurrent - compartment.permits.availablePermits())
+                    .waiting(compartment.waiting.get())
+                    .admitted(compartment.admitted.sum())
+                    .rejected(compartment.rejected.sum())
+                    .poolSize(pool != null ? pool.getMaximumPoolSize() : null)
+                    .poolActive(poolBean != null ? poolBean.getActiveConnections() : null)
+                    .poolPending(poolBean != null ? poolBean.getThreadsAwaitingConnection() : null)
+                    .build());
+        });
+        return stats;
+    }
+
+    private static String busy(Bulkhead.Group group) {
+        return "Too many " + group.name().toLowerCase() + " requests in progress, please retry shortly";
+    }
+
+    private static final class Compartment {
+        final int maxConcurrent;
+        final int maxWaiting;
+        final Semaphore permits;
+        final AtomicInteger waiting = new AtomicInteger();
+        final LongAdder admitted = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        Compartment(int maxConcurrent, int maxWaiting) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxWaiting = maxWaiting;
+            this.permits = new Semaphore(maxConcurrent);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.hotel.booking.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+// Sends each connection request to the pool of the bulkhead the current thread is running in,
+// so a slow group exhausts only its own connections. Threads outside any bulkhead (other
+// controllers, scheduled jobs, startup) use the main pool.
+public class BulkheadRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Bulkhead.Group> CURRENT = new ThreadLocal<>();
+
+    private final Map<Bulkhead.Group, HikariDataSource> pools;
+
+    public BulkheadRoutingDataSource(HikariDataSource mainPool, Map<Bulkhead.Group, HikariDataSource> pools) {
+        this.pools = new EnumMap<>(Bulkhead.Group.class);
+        this.pools.putAll(pools);
+        setDefaultTargetDataSource(mainPool);
+        setTargetDataSources(new HashMap<>(this.pools));
+        afterPropertiesSet();
+    }
+
+    public static void enter(Bulkhead.Group group) {
+        CURRENT.set(group);
+    }
+
+    public static void exit() {
+        CURRENT.remove();
+    }
+
+    // null when the group shares the main pool
+    public HikariDataSource getPool(Bulkhead.Group group) {
+        return pools.get(group);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return CURRENT.get();
+    }
+
+    // The main pool is a bean of its own and closed by the container
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,52 @@
+package com.hotel.booking.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration
+public class DataSourceConfig {
+
+    // The main pool, bound to spring.datasource.* and spring.datasource.hikari.* as Boot would
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource hikariDataSource(DataSourceProperties properties, PoolMonitor poolMonitor) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setMetricsTrackerFactory(poolMonitor);
+        return dataSource;
+    }
+
+    // One sub-pool per bulkhead with bulkheads.<group>.pool-size > 0, configured like the main pool
+    @Bean(destroyMethod = "close")
+    public BulkheadRoutingDataSource bulkheadRoutingDataSource(HikariDataSource hikariDataSource, Environment environment) {
+        Map<Bulkhead.Group, HikariDataSource> pools = new EnumMap<>(Bulkhead.Group.class);
+        for (Bulkhead.Group group : Bulkhead.Group.values()) {
+            int size = environment.getProperty(group.propertyPrefix() + "pool-size", Integer.class, 0);
+            if (size > 0) {
+                HikariConfig config = new HikariConfig();
+                hikariDataSource.copyStateTo(config);
+                config.setPoolName("HikariPool-" + group.name().toLowerCase());
+                config.setMaximumPoolSize(size);
+                config.setMinimumIdle(Math.min(1, size));
+                pools.put(group, new HikariDataSource(config));
+            }
+        }
+        return new BulkheadRoutingDataSource(hikariDataSource, pools);
+    }
+
+    // What JPA and JdbcTemplate use: the routed pools behind per-request query timeouts
+    @Bean
+    @Primary
+    public DataSource dataSource(BulkheadRoutingDataSource bulkheadRoutingDataSource) {
+        return new QueryTimeoutDataSource(bulkheadRoutingDataSource);
+    }
+}
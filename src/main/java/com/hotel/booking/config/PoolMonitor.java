@@ -0,0 +1,85 @@
+package com.hotel.booking.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+// Connection pool saturation as seen by Hikari: a moving average of how long getConnection()
+// waited, the number of threads waiting right now, and acquisition timeouts, summed over the
+// main pool and the bulkhead sub-pools. Registered as each pool's metrics tracker, so a sample
+// costs one CAS on the acquiring thread.
+@Component
+public class PoolMonitor implements MetricsTrackerFactory {
+
+    // Each sample moves the average 1/8 of the way, so a burst of slow waits shows within a few requests
+    private static final int SMOOTHING_SHIFT = 3;
+
+    private final AtomicLong averageWaitMicros = new AtomicLong();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final Map<String, PoolStats> pools = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        pools.put(poolName, poolStats);
+        return new IMetricsTracker() {
+            @Override
+            public void close() {
+                pools.remove(poolName, poolStats);
+            }
+
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquisitions.increment();
+                long sample = TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos);
+                averageWaitMicros.getAndUpdate(average -> average + ((sample - average) >> SMOOTHING_SHIFT));
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    public double getAverageWaitMillis() {
+        return averageWaitMicros.get() / 1000.0;
+    }
+
+    // Refreshed by Hikari at most once a second; a pool counts once it has started
+    public int getPendingThreads() {
+        return sum(PoolStats::getPendingThreads);
+    }
+
+    public int getActiveConnections() {
+        return sum(PoolStats::getActiveConnections);
+    }
+
+    public int getMaxConnections() {
+        return sum(PoolStats::getMaxConnections);
+    }
+
+    public long getAcquisitions() {
+        return acquisitions.sum();
+    }
+
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    private int sum(ToIntFunction<PoolStats> metric) {
+        int total = 0;
+        for (PoolStats poolStats : pools.values()) {
+            total += metric.applyAsInt(poolStats);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,101 @@
+package com.hotel.booking.config;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Applies the current request's query timeout to every statement it creates. The timeout is
+// set per thread by the admission filter from the request's priority class; threads with no
+// timeout set, like scheduled jobs, run unbounded. H2 keeps the timeout on the session, so it is
+// written whenever it differs from the thread's, or a pooled connection would carry the last
+// request's value. A transaction deadline is applied after creation and still wins.
+public class QueryTimeoutDataSource extends DelegatingDataSource {
+
+    private static final ThreadLocal<Integer> TIMEOUT_SECONDS = new ThreadLocal<>();
+
+    public QueryTimeoutDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    public static void setTimeoutSeconds(int seconds) {
+        TIMEOUT_SECONDS.set(seconds);
+    }
+
+    public static void clearTimeout() {
+        TIMEOUT_SECONDS.remove();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return withTimeouts(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return withTimeouts(super.getConnection(username, password));
+    }
+
+    private static Connection withTimeouts(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(QueryTimeoutDataSource.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new TimeoutInvocationHandler(connection));
+    }
+
+    // Identity and unwrapping answer for the proxy itself, as Spring's own connection proxies do;
+    // everything else goes to the target, and statements pick up the thread's timeout on the way out
+    private static final class TimeoutInvocationHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        TimeoutInvocationHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Query timeout proxy for " + target;
+                case "getTargetConnection":
+                    return target;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            if (result instanceof Statement statement) {
+                Integer seconds = TIMEOUT_SECONDS.get();
+                int timeout = seconds != null && seconds > 0 ? seconds : 0;
+                if (statement.getQueryTimeout() != timeout) {
+                    statement.setQueryTimeout(timeout);
+                }
+            }
+            return result;
+        }
+    }
+}
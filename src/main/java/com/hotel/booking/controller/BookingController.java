@@ -1,27 +1,42 @@
 package com.hotel.booking.controller;
 
+import com.hotel.booking.config.Bulkhead;
 import com.hotel.booking.dto.ApiResponse;
 import com.hotel.booking.dto.BookingRequest;
 import com.hotel.booking.dto.BookingResponse;
 import com.hotel.booking.dto.CancelBookingRequest;
+import com.hotel.booking.dto.LifecycleSweepResponse;
+import com.hotel.booking.dto.RoomAssignmentResponse;
+import com.hotel.booking.security.ClientIdentity;
+import com.hotel.booking.service.BookingLifecycleService;
 import com.hotel.booking.service.BookingService;
+import com.hotel.booking.service.IdempotencyService;
+import com.hotel.booking.service.RoomAssignmentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/bookings")
 @RequiredArgsConstructor
+@Bulkhead(Bulkhead.Group.BOOKINGS)
 @Tag(name = "Booking Management", description = "APIs for managing hotel bookings")
 public class BookingController {
 
     private final BookingService bookingService;
+    private final BookingLifecycleService bookingLifecycleService;
+    private final RoomAssignmentService roomAssignmentService;
+    private final IdempotencyService idempotencyService;
+    private final ClientIdentity clientIdentity;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -40,8 +55,13 @@ public class BookingController {
 
     @PostMapping
     @Operation(summary = "Create booking", description = "Create a new hotel booking")
-    public ResponseEntity<ApiResponse<BookingResponse>> createBooking(@Valid @RequestBody BookingRequest request) {
-        BookingResponse booking = bookingService.createBooking(request);
+    public ResponseEntity<ApiResponse<BookingResponse>> createBooking(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest httpRequest,
+            @Valid @RequestBody BookingRequest request) {
+        BookingResponse booking = idempotencyService.execute(
+                "bookings", clientIdentity.of(httpRequest), idempotencyKey, request, BookingResponse.class,
+                () -> bookingService.createBooking(request));
         return ResponseEntity.ok(ApiResponse.success("Booking created successfully", booking));
     }
 
@@ -72,6 +92,14 @@ public class BookingController {
         return ResponseEntity.ok(ApiResponse.success("Booking confirmed successfully", booking));
     }
 
+    @PutMapping("/{id}/room/{roomId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Assign room", description = "Assign a concrete room to a room-type booking (Admin only)")
+    public ResponseEntity<ApiResponse<BookingResponse>> assignRoom(@PathVariable Long id, @PathVariable Long roomId) {
+        BookingResponse booking = bookingService.assignRoom(id, roomId);
+        return ResponseEntity.ok(ApiResponse.success("Room assigned successfully", booking));
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Delete booking", description = "Delete a booking (Admin only)")
@@ -79,4 +107,23 @@ public class BookingController {
         bookingService.deleteBooking(id);
         return ResponseEntity.ok(ApiResponse.success("Booking deleted successfully", null));
     }
+
+    @PostMapping("/lifecycle/sweep")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Run lifecycle sweep", description = "Expire stale holds, mark no-shows and complete past stays now (Admin only)")
+    public ResponseEntity<ApiResponse<LifecycleSweepResponse>> runLifecycleSweep() {
+        LifecycleSweepResponse result = bookingLifecycleService.sweep();
+        return ResponseEntity.ok(ApiResponse.success("Lifecycle sweep completed", result));
+    }
+
+    @PostMapping("/assign-rooms")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Assign rooms", description = "Assign physical rooms to room-type bookings in a date window (Admin only)")
+    public ResponseEntity<ApiResponse<RoomAssignmentResponse>> assignRooms(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "false") boolean dryRun) {
+        RoomAssignmentResponse result = roomAssignmentService.assignRooms(from, to, dryRun);
+        return ResponseEntity.ok(ApiResponse.success(dryRun ? "Room assignment planned" : "Rooms assigned", result));
+    }
 }
\ No newline at end of file
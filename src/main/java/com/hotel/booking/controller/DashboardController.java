@@ -0,0 +1,28 @@
+package com.hotel.booking.controller;
+
+import com.hotel.booking.dto.ApiResponse;
+import com.hotel.booking.dto.LiveDashboardResponse;
+import com.hotel.booking.service.DashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/dashboard")
+@RequiredArgsConstructor
+@Tag(name = "Front Desk Dashboard", description = "Live operational counters for the front desk")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping("/live")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Live counters", description = "Today's arrivals, departures, in-house guests and open work (Admin only)")
+    public ResponseEntity<ApiResponse<LiveDashboardResponse>> getLiveCounters() {
+        LiveDashboardResponse counters = dashboardService.getLiveCounters();
+        return ResponseEntity.ok(ApiResponse.success("Dashboard retrieved successfully", counters));
+    }
+}
@@ -0,0 +1,59 @@
+package com.hotel.booking.controller;
+
+import com.hotel.booking.dto.ApiResponse;
+import com.hotel.booking.dto.FrontDeskBoardResponse;
+import com.hotel.booking.dto.FrontDeskRequest;
+import com.hotel.booking.dto.FrontDeskResultResponse;
+import com.hotel.booking.service.FrontDeskService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/front-desk")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Front Desk", description = "APIs for checking guests in and out")
+public class FrontDeskController {
+
+    private final FrontDeskService frontDeskService;
+
+    @GetMapping("/board")
+    @Operation(summary = "Today's board", description = "Today's arrivals and departures, overdue departures first, with room, guest and payment state (Admin only)")
+    public ResponseEntity<ApiResponse<FrontDeskBoardResponse>> getBoard() {
+        FrontDeskBoardResponse board = frontDeskService.getBoard();
+        return ResponseEntity.ok(ApiResponse.success("Front desk board retrieved successfully", board));
+    }
+
+    @PostMapping("/check-in")
+    @Operation(summary = "Bulk check-in", description = "Check in several of today's arrivals; bookings that cannot be checked in are reported individually (Admin only)")
+    public ResponseEntity<ApiResponse<FrontDeskResultResponse>> checkIn(@Valid @RequestBody FrontDeskRequest request) {
+        FrontDeskResultResponse result = frontDeskService.checkIn(request.getBookingIds());
+        return ResponseEntity.ok(ApiResponse.success("Check-in processed", result));
+    }
+
+    @PostMapping("/check-out")
+    @Operation(summary = "Bulk check-out", description = "Check out several of today's departures; bookings that cannot be checked out are reported individually (Admin only)")
+    public ResponseEntity<ApiResponse<FrontDeskResultResponse>> checkOut(@Valid @RequestBody FrontDeskRequest request) {
+        FrontDeskResultResponse result = frontDeskService.checkOut(request.getBookingIds());
+        return ResponseEntity.ok(ApiResponse.success("Check-out processed", result));
+    }
+
+    @PostMapping("/bookings/{id}/check-in")
+    @Operation(summary = "Check in", description = "Check in one of today's arrivals (Admin only)")
+    public ResponseEntity<ApiResponse<FrontDeskResultResponse>> checkInBooking(@PathVariable Long id) {
+        FrontDeskResultResponse result = frontDeskService.checkIn(id);
+        return ResponseEntity.ok(ApiResponse.success("Guest checked in successfully", result));
+    }
+
+    @PostMapping("/bookings/{id}/check-out")
+    @Operation(summary = "Check out", description = "Check out one of today's departures (Admin only)")
+    public ResponseEntity<ApiResponse<FrontDeskResultResponse>> checkOutBooking(@PathVariable Long id) {
+        FrontDeskResultResponse result = frontDeskService.checkOut(id);
+        return ResponseEntity.ok(ApiResponse.success("Guest checked out successfully", result));
+    }
+}
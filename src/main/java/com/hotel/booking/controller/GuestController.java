@@ -0,0 +1,101 @@
+package com.hotel.booking.controller;
+
+import com.hotel.booking.dto.ApiResponse;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.dto.GuestDedupResponse;
+import com.hotel.booking.dto.GuestIdentityStatsResponse;
+import com.hotel.booking.dto.GuestLinkRequest;
+import com.hotel.booking.dto.GuestResponse;
+import com.hotel.booking.dto.RoomRecommendationResponse;
+import com.hotel.booking.service.GuestCounterService;
+import com.hotel.booking.service.GuestDedupService;
+import com.hotel.booking.service.GuestHistoryService;
+import com.hotel.booking.service.GuestIdentityService;
+import com.hotel.booking.service.GuestService;
+import com.hotel.booking.service.RoomRecommendationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/guests")
+@RequiredArgsConstructor
+@Tag(name = "Guest Management", description = "APIs for guest profiles and loyalty counters")
+public class GuestController {
+
+    private final GuestService guestService;
+    private final GuestCounterService guestCounterService;
+    private final GuestDedupService guestDedupService;
+    private final GuestHistoryService guestHistoryService;
+    private final GuestIdentityService guestIdentityService;
+    private final RoomRecommendationService roomRecommendationService;
+
+    @GetMapping("/me/bookings")
+    @Operation(summary = "My bookings", description = "Booking history of the signed-in guest, newest first")
+    public ResponseEntity<ApiResponse<List<BookingResponse>>> getMyBookings(Authentication authentication) {
+        List<BookingResponse> bookings = guestHistoryService.getMyBookings(authentication.getName());
+        return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
+    }
+
+    @PostMapping("/me/link")
+    @Operation(summary = "Link my guest profile", description = "Attach the guest of a booking to the signed-in account, proven by booking number and email")
+    public ResponseEntity<ApiResponse<GuestResponse>> linkMyProfile(Authentication authentication,
+                                                                    @Valid @RequestBody GuestLinkRequest request) {
+        GuestResponse guest = guestService.linkAccount(authentication.getName(), request);
+        return ResponseEntity.ok(ApiResponse.success("Guest profile linked successfully", guest));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get guest by ID", description = "Retrieve a guest profile with current loyalty counters (Admin only)")
+    public ResponseEntity<ApiResponse<GuestResponse>> getGuestById(@PathVariable Long id) {
+        GuestResponse guest = guestService.getGuestById(id);
+        return ResponseEntity.ok(ApiResponse.success("Guest retrieved successfully", guest));
+    }
+
+    @GetMapping("/{id}/recommendations")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Room recommendations", description = "Free rooms ranked against the guest's preferences and past stays (Admin only)")
+    public ResponseEntity<ApiResponse<List<RoomRecommendationResponse>>> getRecommendations(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam(defaultValue = "1") int guests,
+            @RequestParam(defaultValue = "5") int limit) {
+        List<RoomRecommendationResponse> rooms = roomRecommendationService.recommend(id, checkIn, checkOut, guests, limit);
+        return ResponseEntity.ok(ApiResponse.success("Recommendations retrieved successfully", rooms));
+    }
+
+    @GetMapping("/identity/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Guest identity cache stats", description = "Email lookup cache size, hit rate and guest creations (Admin only)")
+    public ResponseEntity<ApiResponse<GuestIdentityStatsResponse>> getIdentityStats() {
+        GuestIdentityStatsResponse stats = guestIdentityService.getStats();
+        return ResponseEntity.ok(ApiResponse.success("Guest identity stats retrieved successfully", stats));
+    }
+
+    @PostMapping("/counters/reconcile")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Reconcile guest counters", description = "Recompute booking totals and loyalty points from bookings (Admin only)")
+    public ResponseEntity<ApiResponse<Integer>> reconcileCounters() {
+        int guests = guestCounterService.reconcile();
+        return ResponseEntity.ok(ApiResponse.success("Guest counters reconciled", guests));
+    }
+
+    @PostMapping("/deduplicate")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "De-duplicate guests", description = "Find duplicate guest records and merge them into the oldest one; dry run by default (Admin only)")
+    public ResponseEntity<ApiResponse<GuestDedupResponse>> deduplicate(@RequestParam(defaultValue = "true") boolean dryRun) {
+        GuestDedupResponse result = guestDedupService.deduplicate(dryRun);
+        return ResponseEntity.ok(ApiResponse.success(dryRun ? "Guest duplicates found" : "Guest duplicates merged", result));
+    }
+}
@@ -0,0 +1,51 @@
+package com.hotel.booking.controller;
+
+import com.hotel.booking.dto.ApiResponse;
+import com.hotel.booking.dto.MaintenanceBlockRequest;
+import com.hotel.booking.dto.MaintenanceBlockResponse;
+import com.hotel.booking.service.MaintenanceBlockService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/maintenance-blocks")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Maintenance", description = "APIs for scheduling rooms out of service")
+public class MaintenanceBlockController {
+
+    private final MaintenanceBlockService maintenanceBlockService;
+
+    @PostMapping
+    @Operation(summary = "Block room or floor", description = "Take a room, or every room on a floor, out of sale for a date range (Admin only)")
+    public ResponseEntity<ApiResponse<List<MaintenanceBlockResponse>>> createBlock(
+            @Valid @RequestBody MaintenanceBlockRequest request) {
+        List<MaintenanceBlockResponse> blocks = maintenanceBlockService.createBlock(request);
+        return ResponseEntity.ok(ApiResponse.success("Maintenance block created successfully", blocks));
+    }
+
+    @GetMapping
+    @Operation(summary = "Get blocks", description = "Retrieve maintenance blocks touching a date range (Admin only)")
+    public ResponseEntity<ApiResponse<List<MaintenanceBlockResponse>>> getBlocks(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<MaintenanceBlockResponse> blocks = maintenanceBlockService.getBlocks(from, to);
+        return ResponseEntity.ok(ApiResponse.success("Maintenance blocks retrieved successfully", blocks));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Remove block", description = "Remove a maintenance block and put its remaining nights back on sale (Admin only)")
+    public ResponseEntity<ApiResponse<Object>> deleteBlock(@PathVariable Long id) {
+        maintenanceBlockService.deleteBlock(id);
+        return ResponseEntity.ok(ApiResponse.success("Maintenance block removed successfully", null));
+    }
+}
@@ -1,27 +1,33 @@
 package com.hotel.booking.controller;
 
+import com.hotel.booking.config.Bulkhead;
 import com.hotel.booking.dto.ApiResponse;
 import com.hotel.booking.dto.MessageRequest;
 import com.hotel.booking.dto.MessageResponse;
 import com.hotel.booking.dto.MessageResponseRequest;
 import com.hotel.booking.service.MessageService;
+import com.hotel.booking.service.MessageStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/messages")
 @RequiredArgsConstructor
+@Bulkhead(Bulkhead.Group.MESSAGES)
 @Tag(name = "Message Management", description = "APIs for managing guest messages and communication")
 public class MessageController {
 
     private final MessageService messageService;
+    private final MessageStreamService messageStreamService;
 
     @PostMapping
     @Operation(summary = "Send message", description = "Send a message to hotel staff")
@@ -64,6 +70,13 @@ public class MessageController {
         return ResponseEntity.ok(ApiResponse.success("Unread messages retrieved successfully", messages));
     }
 
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Stream message changes", description = "Server-sent events: the unread count, then new messages and status changes as they happen; send Last-Event-ID to resume (Admin only)")
+    public SseEmitter streamMessages(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return messageStreamService.subscribe(lastEventId);
+    }
+
     @PutMapping("/{id}/mark-read")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Mark message as read", description = "Mark a message as read (Admin only)")
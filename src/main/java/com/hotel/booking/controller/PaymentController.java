@@ -1,12 +1,16 @@
 package com.hotel.booking.controller;
 
+import com.hotel.booking.config.Bulkhead;
 import com.hotel.booking.dto.ApiResponse;
 import com.hotel.booking.dto.PaymentRequest;
 import com.hotel.booking.dto.PaymentResponse;
 import com.hotel.booking.dto.RefundRequest;
+import com.hotel.booking.security.ClientIdentity;
+import com.hotel.booking.service.IdempotencyService;
 import com.hotel.booking.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -18,15 +22,23 @@ import java.util.List;
 @RestController
 @RequestMapping("/payments")
 @RequiredArgsConstructor
+@Bulkhead(Bulkhead.Group.PAYMENTS)
 @Tag(name = "Payment Management", description = "APIs for managing payments and refunds")
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
+    private final ClientIdentity clientIdentity;
 
     @PostMapping
     @Operation(summary = "Create payment", description = "Process a payment for a booking")
-    public ResponseEntity<ApiResponse<PaymentResponse>> createPayment(@Valid @RequestBody PaymentRequest request) {
-        PaymentResponse payment = paymentService.createPayment(request);
+    public ResponseEntity<ApiResponse<PaymentResponse>> createPayment(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            HttpServletRequest httpRequest,
+            @Valid @RequestBody PaymentRequest request) {
+        PaymentResponse payment = idempotencyService.execute(
+                "payments", clientIdentity.of(httpRequest), idempotencyKey, request, PaymentResponse.class,
+                () -> paymentService.createPayment(request));
         return ResponseEntity.ok(ApiResponse.success("Payment processed successfully", payment));
     }
 
@@ -0,0 +1,77 @@
+package com.hotel.booking.controller;
+
+import com.hotel.booking.dto.ApiResponse;
+import com.hotel.booking.dto.RecurringBookingRequest;
+import com.hotel.booking.dto.RecurringBookingResponse;
+import com.hotel.booking.dto.RecurringExceptionRequest;
+import com.hotel.booking.dto.RecurringOccurrenceResponse;
+import com.hotel.booking.service.RecurringBookingService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/bookings/recurring")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Recurring Bookings", description = "APIs for long-stay and recurring booking series")
+public class RecurringBookingController {
+
+    private final RecurringBookingService recurringBookingService;
+
+    @PostMapping
+    @Operation(summary = "Create series", description = "Book a room on the given weekday nights between two dates (Admin only)")
+    public ResponseEntity<ApiResponse<RecurringBookingResponse>> createSeries(
+            @Valid @RequestBody RecurringBookingRequest request) {
+        RecurringBookingResponse series = recurringBookingService.createSeries(request);
+        return ResponseEntity.ok(ApiResponse.success("Recurring booking created successfully", series));
+    }
+
+    @GetMapping
+    @Operation(summary = "Get all series", description = "Retrieve all recurring booking series (Admin only)")
+    public ResponseEntity<ApiResponse<List<RecurringBookingResponse>>> getAllSeries() {
+        List<RecurringBookingResponse> series = recurringBookingService.getAllSeries();
+        return ResponseEntity.ok(ApiResponse.success("Recurring bookings retrieved successfully", series));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get series", description = "Retrieve a recurring booking series by its ID (Admin only)")
+    public ResponseEntity<ApiResponse<RecurringBookingResponse>> getSeriesById(@PathVariable Long id) {
+        RecurringBookingResponse series = recurringBookingService.getSeriesById(id);
+        return ResponseEntity.ok(ApiResponse.success("Recurring booking retrieved successfully", series));
+    }
+
+    @GetMapping("/{id}/occurrences")
+    @Operation(summary = "Get occurrences", description = "Expand the stays of a series inside an optional date window (Admin only)")
+    public ResponseEntity<ApiResponse<List<RecurringOccurrenceResponse>>> getOccurrences(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        List<RecurringOccurrenceResponse> occurrences = recurringBookingService.getOccurrences(id, from, to);
+        return ResponseEntity.ok(ApiResponse.success("Occurrences retrieved successfully", occurrences));
+    }
+
+    @PostMapping("/{id}/exceptions")
+    @Operation(summary = "Skip nights", description = "Remove single nights from a series and release them (Admin only)")
+    public ResponseEntity<ApiResponse<RecurringBookingResponse>> addExceptions(
+            @PathVariable Long id,
+            @Valid @RequestBody RecurringExceptionRequest request) {
+        RecurringBookingResponse series = recurringBookingService.addExceptions(id, request.getNights());
+        return ResponseEntity.ok(ApiResponse.success("Nights removed from series successfully", series));
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Cancel series", description = "Cancel a series and release its remaining nights (Admin only)")
+    public ResponseEntity<ApiResponse<RecurringBookingResponse>> cancelSeries(@PathVariable Long id) {
+        RecurringBookingResponse series = recurringBookingService.cancelSeries(id);
+        return ResponseEntity.ok(ApiResponse.success("Recurring booking cancelled successfully", series));
+    }
+}
@@ -0,0 +1,55 @@
+package com.hotel.booking.controller;
+
+import com.hotel.booking.dto.ApiResponse;
+import com.hotel.booking.dto.OccupancyReportResponse;
+import com.hotel.booking.dto.ReportRebuildResponse;
+import com.hotel.booking.dto.RoomRevenueResponse;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.service.ReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reports", description = "Occupancy and revenue reporting for management")
+public class ReportController {
+
+    private final ReportService reportService;
+
+    @GetMapping("/occupancy")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Daily occupancy", description = "Daily occupancy %, ADR and RevPAR per room type (Admin only)")
+    public ResponseEntity<ApiResponse<List<OccupancyReportResponse>>> getDailyOccupancy(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Room.RoomType roomType) {
+        List<OccupancyReportResponse> report = reportService.getDailyOccupancy(from, to, roomType);
+        return ResponseEntity.ok(ApiResponse.success("Occupancy report retrieved successfully", report));
+    }
+
+    @GetMapping("/top-rooms")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Top rooms by revenue", description = "Rooms ranked by booked revenue (Admin only)")
+    public ResponseEntity<ApiResponse<List<RoomRevenueResponse>>> getTopRooms(
+            @RequestParam(defaultValue = "10") int limit) {
+        List<RoomRevenueResponse> rooms = reportService.getTopRoomsByRevenue(limit);
+        return ResponseEntity.ok(ApiResponse.success("Top rooms retrieved successfully", rooms));
+    }
+
+    @PostMapping("/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Rebuild reports", description = "Recompute all rollups from booking history (Admin only)")
+    public ResponseEntity<ApiResponse<ReportRebuildResponse>> rebuild() {
+        ReportRebuildResponse result = reportService.rebuild();
+        return ResponseEntity.ok(ApiResponse.success("Reports rebuilt successfully", result));
+    }
+}
@@ -1,28 +1,50 @@
 package com.hotel.booking.controller;
 
+import com.hotel.booking.config.Bulkhead;
 import com.hotel.booking.dto.ApiResponse;
+import com.hotel.booking.dto.RoomCalendarResponse;
 import com.hotel.booking.dto.RoomRequest;
+import com.hotel.booking.dto.ReviewRequest;
+import com.hotel.booking.dto.ReviewResponse;
 import com.hotel.booking.dto.RoomResponse;
+import com.hotel.booking.dto.RoomTypeAvailabilityResponse;
+import com.hotel.booking.dto.StayWindowResponse;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.security.ClientIdentity;
+import com.hotel.booking.service.AvailabilityService;
+import com.hotel.booking.service.AvailabilityStreamService;
+import com.hotel.booking.service.ReviewService;
+import com.hotel.booking.service.RoomCalendarService;
 import com.hotel.booking.service.RoomService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
 @RequestMapping("/rooms")
 @RequiredArgsConstructor
+@Bulkhead(Bulkhead.Group.ROOMS)
 @Tag(name = "Room Management", description = "APIs for managing hotel rooms")
 public class RoomController {
 
     private final RoomService roomService;
+    private final ReviewService reviewService;
+    private final AvailabilityService availabilityService;
+    private final RoomCalendarService roomCalendarService;
+    private final AvailabilityStreamService availabilityStreamService;
+    private final ClientIdentity clientIdentity;
 
     @GetMapping
     @Operation(summary = "Get all rooms", description = "Retrieve all hotel rooms")
@@ -47,6 +69,48 @@ public class RoomController {
         return ResponseEntity.ok(ApiResponse.success("Available rooms retrieved successfully", availableRooms));
     }
 
+    @GetMapping(value = "/available/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream room availability", description = "Server-sent events: a snapshot of available rooms for the dates, then deltas as bookings change")
+    public SseEmitter streamAvailableRooms(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            HttpServletRequest httpRequest) {
+        return availabilityStreamService.subscribe(checkIn, checkOut, clientIdentity.of(httpRequest));
+    }
+
+    @GetMapping("/types/availability")
+    @Operation(summary = "Get room type availability", description = "Remaining units per room type for specific dates")
+    public ResponseEntity<ApiResponse<List<RoomTypeAvailabilityResponse>>> getRoomTypeAvailability(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut) {
+        List<RoomTypeAvailabilityResponse> availability = roomService.getRoomTypeAvailability(checkIn, checkOut);
+        return ResponseEntity.ok(ApiResponse.success("Room type availability retrieved successfully", availability));
+    }
+
+    @GetMapping("/flexible-search")
+    @Operation(summary = "Flexible date search", description = "Best stay windows of a given length within a date range, ranked by price or availability")
+    public ResponseEntity<ApiResponse<List<StayWindowResponse>>> searchFlexibleDates(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam int nights,
+            @RequestParam(defaultValue = "1") int guests,
+            @RequestParam(required = false) Room.RoomType roomType,
+            @RequestParam(defaultValue = "PRICE") AvailabilityService.SortBy sortBy,
+            @RequestParam(defaultValue = "10") int limit) {
+        List<StayWindowResponse> windows = availabilityService.searchFlexible(
+                from, to, nights, guests, roomType, sortBy, limit);
+        return ResponseEntity.ok(ApiResponse.success("Stay windows retrieved successfully", windows));
+    }
+
+    @GetMapping("/calendar")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Room calendar", description = "Status and booking of every room for each night of a month, as dense arrays (Admin only)")
+    public ResponseEntity<ApiResponse<RoomCalendarResponse>> getCalendar(
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        RoomCalendarResponse calendar = roomCalendarService.getCalendar(month != null ? month : YearMonth.now());
+        return ResponseEntity.ok(ApiResponse.success("Room calendar retrieved successfully", calendar));
+    }
+
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Create new room", description = "Create a new hotel room (Admin only)")
@@ -72,4 +136,22 @@ public class RoomController {
         roomService.deleteRoom(id);
         return ResponseEntity.ok(ApiResponse.success("Room deleted successfully", null));
     }
+
+    @GetMapping("/{id}/reviews")
+    @Operation(summary = "Get room reviews", description = "Most recent guest reviews for a room")
+    public ResponseEntity<ApiResponse<List<ReviewResponse>>> getRoomReviews(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "20") int limit) {
+        List<ReviewResponse> reviews = reviewService.getReviewsByRoom(id, limit);
+        return ResponseEntity.ok(ApiResponse.success("Reviews retrieved successfully", reviews));
+    }
+
+    @PostMapping("/{id}/reviews")
+    @Operation(summary = "Review a room", description = "Post a review for a checked-out stay, verified by booking number and email")
+    public ResponseEntity<ApiResponse<ReviewResponse>> createReview(
+            @PathVariable Long id,
+            @Valid @RequestBody ReviewRequest request) {
+        ReviewResponse review = reviewService.createReview(id, request);
+        return ResponseEntity.ok(ApiResponse.success("Review posted successfully", review));
+    }
 }
\ No newline at end of file
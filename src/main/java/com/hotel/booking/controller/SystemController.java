@@ -0,0 +1,60 @@
+package com.hotel.booking.controller;
+
+import com.hotel.booking.config.BulkheadRegistry;
+import com.hotel.booking.dto.AdmissionStatsResponse;
+import com.hotel.booking.dto.ApiResponse;
+import com.hotel.booking.dto.BulkheadStatsResponse;
+import com.hotel.booking.dto.LoginStatsResponse;
+import com.hotel.booking.dto.RateLimitStatsResponse;
+import com.hotel.booking.security.AdmissionControlFilter;
+import com.hotel.booking.security.RateLimiter;
+import com.hotel.booking.service.AuthService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/system")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "System", description = "APIs for operational metrics")
+public class SystemController {
+
+    private final RateLimiter rateLimiter;
+    private final AdmissionControlFilter admissionControlFilter;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final AuthService authService;
+
+    @GetMapping("/rate-limits")
+    @Operation(summary = "Rate limit stats", description = "Policy, tracked clients and admitted/rejected counts per route group (Admin only)")
+    public ResponseEntity<ApiResponse<List<RateLimitStatsResponse>>> getRateLimits() {
+        List<RateLimitStatsResponse> stats = rateLimiter.getStats();
+        return ResponseEntity.ok(ApiResponse.success("Rate limit stats retrieved successfully", stats));
+    }
+
+    @GetMapping("/admission")
+    @Operation(summary = "Admission control stats", description = "In-flight requests, connection pool saturation and shed counts per priority (Admin only)")
+    public ResponseEntity<ApiResponse<AdmissionStatsResponse>> getAdmission() {
+        AdmissionStatsResponse stats = admissionControlFilter.getStats();
+        return ResponseEntity.ok(ApiResponse.success("Admission stats retrieved successfully", stats));
+    }
+
+    @GetMapping("/bulkheads")
+    @Operation(summary = "Bulkhead stats", description = "Concurrency, queue and connection pool use per controller group (Admin only)")
+    public ResponseEntity<ApiResponse<List<BulkheadStatsResponse>>> getBulkheads() {
+        List<BulkheadStatsResponse> stats = bulkheadRegistry.getStats();
+        return ResponseEntity.ok(ApiResponse.success("Bulkhead stats retrieved successfully", stats));
+    }
+
+    @GetMapping("/logins")
+    @Operation(summary = "Login stats", description = "Password hashing pool use, login throughput and latency (Admin only)")
+    public ResponseEntity<ApiResponse<LoginStatsResponse>> getLogins() {
+        LoginStatsResponse stats = authService.getStats();
+        return ResponseEntity.ok(ApiResponse.success("Login stats retrieved successfully", stats));
+    }
+}
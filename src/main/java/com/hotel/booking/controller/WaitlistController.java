@@ -0,0 +1,55 @@
+package com.hotel.booking.controller;
+
+import com.hotel.booking.dto.ApiResponse;
+import com.hotel.booking.dto.WaitlistRequest;
+import com.hotel.booking.dto.WaitlistResponse;
+import com.hotel.booking.service.WaitlistService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/waitlist")
+@RequiredArgsConstructor
+@Tag(name = "Waitlist", description = "APIs for waiting on sold-out dates")
+public class WaitlistController {
+
+    private final WaitlistService waitlistService;
+
+    @PostMapping
+    @Operation(summary = "Join waitlist", description = "Wait for a room or room type to free up for the given dates")
+    public ResponseEntity<ApiResponse<WaitlistResponse>> joinWaitlist(@Valid @RequestBody WaitlistRequest request) {
+        WaitlistResponse entry = waitlistService.joinWaitlist(request);
+        return ResponseEntity.ok(ApiResponse.success("Added to waitlist successfully", entry));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get waiting entries", description = "Retrieve all entries still waiting, oldest first (Admin only)")
+    public ResponseEntity<ApiResponse<List<WaitlistResponse>>> getWaitingEntries() {
+        List<WaitlistResponse> entries = waitlistService.getWaitingEntries();
+        return ResponseEntity.ok(ApiResponse.success("Waitlist retrieved successfully", entries));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get waitlist entry", description = "Retrieve a waitlist entry by its ID (Admin only)")
+    public ResponseEntity<ApiResponse<WaitlistResponse>> getEntryById(@PathVariable Long id) {
+        WaitlistResponse entry = waitlistService.getEntryById(id);
+        return ResponseEntity.ok(ApiResponse.success("Waitlist entry retrieved successfully", entry));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Cancel waitlist entry", description = "Remove a waiting entry from the waitlist (Admin only)")
+    public ResponseEntity<ApiResponse<WaitlistResponse>> cancelEntry(@PathVariable Long id) {
+        WaitlistResponse entry = waitlistService.cancelEntry(id);
+        return ResponseEntity.ok(ApiResponse.success("Waitlist entry cancelled successfully", entry));
+    }
+}
@@ -0,0 +1,23 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionStatsResponse {
+    private int inFlight;
+    private int poolActive;
+    private int poolMax;
+    private int poolPending;
+    private double averageWaitMillis;
+    private long poolTimeouts;
+    private Map<String, Long> admitted;
+    private Map<String, Long> shed;
+}
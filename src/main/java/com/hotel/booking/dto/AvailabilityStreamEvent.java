@@ -0,0 +1,24 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// A snapshot lists every available room; a delta only the rooms and type counts that changed
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityStreamEvent {
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private List<Long> availableRoomIds;
+    private List<Long> addedRoomIds;
+    private List<Long> removedRoomIds;
+    private Map<String, Integer> remainingByType;
+}
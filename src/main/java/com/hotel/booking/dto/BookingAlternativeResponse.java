@@ -0,0 +1,25 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingAlternativeResponse {
+    // SAME_TYPE, SHIFTED_DATES or UPGRADE
+    private String kind;
+    // Null when only the room type is offered
+    private Long roomId;
+    private String roomNumber;
+    private String roomType;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private Double pricePerNight;
+    private Double totalPrice;
+}
@@ -1,6 +1,7 @@
 package com.hotel.booking.dto;
 
 import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.Room;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,9 +16,11 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class BookingRequest {
 
-    @NotNull(message = "Room ID is required")
+    // Either a concrete room or a room type; a room-type booking gets its room assigned later
     private Long roomId;
 
+    private Room.RoomType roomType;
+
     private Long guestId;
 
     @NotBlank(message = "Guest name is required")
@@ -36,6 +36,8 @@ public class BookingResponse {
     private String cancellationPolicy;
     private String confirmationCode;
     private LocalDateTime confirmedAt;
+    private LocalDateTime checkedInAt;
+    private LocalDateTime checkedOutAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
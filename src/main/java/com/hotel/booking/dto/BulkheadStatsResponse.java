@@ -0,0 +1,23 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkheadStatsResponse {
+    private String group;
+    private int maxConcurrent;
+    private int maxWaiting;
+    private int active;
+    private int waiting;
+    private long admitted;
+    private long rejected;
+    private Integer poolSize;
+    private Integer poolActive;
+    private Integer poolPending;
+}
@@ -0,0 +1,21 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FrontDeskBoardResponse {
+    private LocalDate date;
+    private List<FrontDeskEntryResponse> arrivals;
+    private List<FrontDeskEntryResponse> departures;
+    private LocalDateTime loadedAt;
+}
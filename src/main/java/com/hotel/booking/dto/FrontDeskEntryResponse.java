@@ -0,0 +1,32 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FrontDeskEntryResponse {
+    private Long bookingId;
+    private String bookingNumber;
+    private Long guestId;
+    private String guestName;
+    private String guestPhone;
+    private Long roomId;
+    private String roomNumber;
+    private String roomType;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private Integer numberOfGuests;
+    private String status;
+    private String paymentStatus;
+    private Double remainingAmount;
+    private String specialRequests;
+    // A departure whose date has already passed
+    private boolean overdue;
+}
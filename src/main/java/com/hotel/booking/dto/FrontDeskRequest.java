@@ -0,0 +1,21 @@
+package com.hotel.booking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FrontDeskRequest {
+
+    @NotEmpty(message = "At least one booking is required")
+    @Size(max = 1000, message = "At most 1000 bookings per request")
+    private List<Long> bookingIds;
+}
@@ -0,0 +1,21 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FrontDeskResultResponse {
+    private String action;
+    private int requested;
+    private int processed;
+    private List<Long> processedBookingIds;
+    private Map<Long, String> rejected;
+}
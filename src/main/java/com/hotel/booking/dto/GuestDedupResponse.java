@@ -0,0 +1,39 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestDedupResponse {
+    private boolean dryRun;
+    private int guestsScanned;
+    private int blocks;
+    private int oversizedBlocks;
+    private long comparisons;
+    private int duplicateGroups;
+    private int duplicatesFound;
+    private int guestsMerged;
+    private int bookingsRepointed;
+    private int failedGroups;
+    private List<Group> groups;
+    private long durationMillis;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+        private Long survivorId;
+        private String survivorName;
+        private String survivorEmail;
+        private List<Long> duplicateIds;
+        private List<String> reasons;
+    }
+}
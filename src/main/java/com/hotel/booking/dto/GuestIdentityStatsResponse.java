@@ -0,0 +1,20 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestIdentityStatsResponse {
+    private int cachedEmails;
+    private int capacity;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long guestsCreated;
+    private long createConflicts;
+}
@@ -0,0 +1,22 @@
+package com.hotel.booking.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestLinkRequest {
+
+    @NotBlank(message = "Booking number is required")
+    private String bookingNumber;
+
+    @NotBlank(message = "Guest email is required")
+    @Email(message = "Invalid email format")
+    private String guestEmail;
+}
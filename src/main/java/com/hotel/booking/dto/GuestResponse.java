@@ -0,0 +1,29 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestResponse {
+    private Long id;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String phone;
+    private String nationality;
+    private String preferredRoomType;
+    private Boolean smokingPreference;
+    private String floorPreference;
+    private Integer loyaltyPoints;
+    private String membershipTier;
+    private Integer totalBookings;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
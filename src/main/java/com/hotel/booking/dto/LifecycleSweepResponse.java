@@ -0,0 +1,27 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LifecycleSweepResponse {
+    private int expiredPending;
+    private int markedNoShow;
+    private int completed;
+    // Checked in and past the departure date; reported, not changed
+    private long overdueCheckedIn;
+    private int chunks;
+    private long durationMillis;
+    private LocalDateTime sweptAt;
+
+    public int getTotalUpdated() {
+        return expiredPending + markedNoShow + completed;
+    }
+}
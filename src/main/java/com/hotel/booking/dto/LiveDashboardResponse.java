@@ -0,0 +1,24 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveDashboardResponse {
+    private LocalDate date;
+    private long arrivals;
+    private long departures;
+    private long inHouse;
+    private long pendingConfirmations;
+    private long outstandingPayments;
+    private long unreadMessages;
+    private LocalDateTime lastVerifiedAt;
+}
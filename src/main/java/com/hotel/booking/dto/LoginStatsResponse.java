@@ -0,0 +1,25 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginStatsResponse {
+    private int bcryptStrength;
+    private int hasherThreads;
+    private int hasherActive;
+    private int hasherQueued;
+    private long attempts;
+    private long succeeded;
+    private long failed;
+    private long rejected;
+    private long rehashed;
+    private double loginsPerSecond;
+    private double averageLatencyMillis;
+    private double maxLatencyMillis;
+}
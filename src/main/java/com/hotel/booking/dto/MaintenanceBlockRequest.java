@@ -0,0 +1,34 @@
+package com.hotel.booking.dto;
+
+import com.hotel.booking.entity.MaintenanceBlock;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Exactly one of roomId and floor; a floor blocks every room on it
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceBlockRequest {
+
+    private Long roomId;
+
+    private Integer floor;
+
+    // First blocked night
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    // Day the room is back in service (exclusive)
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+
+    private MaintenanceBlock.BlockKind kind;
+
+    private String reason;
+}
@@ -0,0 +1,25 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MaintenanceBlockResponse {
+    private Long id;
+    private Long roomId;
+    private String roomNumber;
+    private Integer floor;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String kind;
+    private String reason;
+    private LocalDateTime createdAt;
+}
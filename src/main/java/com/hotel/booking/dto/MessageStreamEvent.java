@@ -0,0 +1,32 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageStreamEvent {
+    private Long messageId;
+    private String subject;
+    private String senderName;
+    private String priority;
+    private String previousStatus;
+    private String status;
+    private LocalDateTime occurredAt;
+
+    // Sent first on every connection; resync means the missed changes were no longer buffered
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class UnreadCount {
+        private long unreadMessages;
+        private boolean resync;
+    }
+}
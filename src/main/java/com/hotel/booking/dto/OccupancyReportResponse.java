@@ -0,0 +1,23 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OccupancyReportResponse {
+    private LocalDate date;
+    private String roomType;
+    private long roomsAvailable;
+    private long roomNightsSold;
+    private double occupancyPercent;
+    private double revenue;
+    private double adr;
+    private double revpar;
+}
@@ -0,0 +1,20 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateLimitStatsResponse {
+    private String group;
+    private long requestsPerMinute;
+    private long burst;
+    private int trackedClients;
+    private long allowed;
+    private long rejected;
+    private long overflowed;
+}
@@ -0,0 +1,56 @@
+package com.hotel.booking.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringBookingRequest {
+
+    @NotNull(message = "Room ID is required")
+    private Long roomId;
+
+    @NotBlank(message = "Guest name is required")
+    private String guestName;
+
+    @NotBlank(message = "Guest email is required")
+    @Email(message = "Invalid email format")
+    private String guestEmail;
+
+    @NotBlank(message = "Guest phone is required")
+    private String guestPhone;
+
+    @NotNull(message = "Number of guests is required")
+    @Min(value = 1, message = "At least 1 guest is required")
+    private Integer numberOfGuests;
+
+    // First night of the series
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    // Day after the last possible night
+    @NotNull(message = "End date is required")
+    private LocalDate endDate;
+
+    // Weekday nights to book, e.g. MONDAY..THURSDAY for a Monday check-in and Friday check-out
+    @NotEmpty(message = "At least one night of the week is required")
+    private List<DayOfWeek> nights;
+
+    // Nights inside the range that are not booked
+    private List<LocalDate> exceptions;
+
+    private String notes;
+}
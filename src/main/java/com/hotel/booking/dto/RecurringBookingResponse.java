@@ -0,0 +1,38 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringBookingResponse {
+    private Long id;
+    private String seriesNumber;
+    private Long roomId;
+    private String roomNumber;
+    private String roomType;
+    private Long guestId;
+    private String guestName;
+    private String guestEmail;
+    private String guestPhone;
+    private Integer numberOfGuests;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private List<String> nights;
+    private List<LocalDate> exceptions;
+    private int totalNights;
+    private Double pricePerNight;
+    private Double totalPrice;
+    private String status;
+    private String notes;
+    private LocalDateTime cancelledAt;
+    private LocalDateTime createdAt;
+}
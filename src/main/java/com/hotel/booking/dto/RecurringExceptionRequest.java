@@ -0,0 +1,20 @@
+package com.hotel.booking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringExceptionRequest {
+
+    @NotEmpty(message = "At least one night is required")
+    private List<LocalDate> nights;
+}
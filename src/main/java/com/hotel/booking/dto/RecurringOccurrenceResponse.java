@@ -0,0 +1,18 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringOccurrenceResponse {
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private int nights;
+}
@@ -0,0 +1,19 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportRebuildResponse {
+    private int bookingsProcessed;
+    private int daysTracked;
+    private long durationMillis;
+    private LocalDateTime rebuiltAt;
+}
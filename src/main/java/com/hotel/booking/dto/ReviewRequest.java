@@ -0,0 +1,37 @@
+package com.hotel.booking.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewRequest {
+
+    @NotBlank(message = "Booking number is required")
+    private String bookingNumber;
+
+    @NotBlank(message = "Guest email is required")
+    @Email(message = "Invalid email format")
+    private String guestEmail;
+
+    @NotNull(message = "Rating is required")
+    @Min(value = 1, message = "Rating must be between 1 and 5")
+    @Max(value = 5, message = "Rating must be between 1 and 5")
+    private Integer rating;
+
+    @Size(max = 255, message = "Title must be at most 255 characters")
+    private String title;
+
+    @Size(max = 2000, message = "Comment must be at most 2000 characters")
+    private String comment;
+}
@@ -0,0 +1,22 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewResponse {
+    private Long id;
+    private Long roomId;
+    private String reviewerName;
+    private Integer rating;
+    private String title;
+    private String comment;
+    private LocalDateTime createdAt;
+}
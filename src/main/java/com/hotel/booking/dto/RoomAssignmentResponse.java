@@ -0,0 +1,38 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomAssignmentResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private boolean dryRun;
+    private int candidates;
+    private int assigned;
+    private Map<String, Integer> assignedByRoomType;
+    private List<Long> unassignedBookingIds;
+    private List<Assignment> assignments;
+    private long durationMillis;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Assignment {
+        private Long bookingId;
+        private String bookingNumber;
+        private Long roomId;
+        private String roomNumber;
+        private int cost;
+    }
+}
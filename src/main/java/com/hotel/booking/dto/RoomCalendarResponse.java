@@ -0,0 +1,28 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Room x night grid for one month. Row i describes roomIds[i]: statuses[i] holds one status code
+// per night, and bookingIds[i * days + night] the booking (or recurring series) on it, 0 if none.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomCalendarResponse {
+    private String month;
+    private LocalDate firstNight;
+    private int days;
+    private Map<Character, String> legend;
+    private long[] roomIds;
+    private String[] roomNumbers;
+    private String[] roomTypes;
+    private String[] statuses;
+    private long[] bookingIds;
+}
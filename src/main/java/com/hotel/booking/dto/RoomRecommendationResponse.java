@@ -0,0 +1,24 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomRecommendationResponse {
+    private Long roomId;
+    private String roomNumber;
+    private String roomType;
+    private Integer floor;
+    private String view;
+    private Double pricePerNight;
+    private Double totalPrice;
+    private Double score;
+    private List<String> reasons;
+}
@@ -38,4 +38,8 @@ public class RoomRequest {
     private String view;
     private Boolean smokingAllowed = false;
     private Boolean petFriendly = false;
+
+    // Left out, the room keeps its current sale status
+    private Boolean isAvailable;
+    private Room.MaintenanceStatus maintenanceStatus;
 }
@@ -0,0 +1,17 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomRevenueResponse {
+    private Long roomId;
+    private String roomNumber;
+    private String roomType;
+    private double revenue;
+}
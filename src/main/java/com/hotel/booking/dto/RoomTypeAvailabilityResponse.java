@@ -0,0 +1,18 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomTypeAvailabilityResponse {
+    private String roomType;
+    private int totalRooms;
+    private int remaining;
+    private Double fromPricePerNight;
+    private int maxCapacity;
+}
@@ -0,0 +1,24 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StayWindowResponse {
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private int nights;
+    private int availableRooms;
+    private Map<String, Integer> availableByRoomType;
+    private String cheapestRoomType;
+    private Double lowestPricePerNight;
+    private Double lowestTotalPrice;
+}
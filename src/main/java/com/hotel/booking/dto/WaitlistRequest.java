@@ -0,0 +1,48 @@
+package com.hotel.booking.dto;
+
+import com.hotel.booking.entity.Room;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistRequest {
+
+    // A specific room, or any room of the given type
+    private Long roomId;
+
+    private Room.RoomType roomType;
+
+    @NotBlank(message = "Guest name is required")
+    private String guestName;
+
+    @NotBlank(message = "Guest email is required")
+    @Email(message = "Invalid email format")
+    private String guestEmail;
+
+    @NotBlank(message = "Guest phone is required")
+    private String guestPhone;
+
+    @NotNull(message = "Check-in date is required")
+    @Future(message = "Check-in date must be in the future")
+    private LocalDate checkInDate;
+
+    @NotNull(message = "Check-out date is required")
+    @Future(message = "Check-out date must be in the future")
+    private LocalDate checkOutDate;
+
+    @NotNull(message = "Number of guests is required")
+    @Min(value = 1, message = "At least 1 guest is required")
+    private Integer numberOfGuests;
+}
@@ -0,0 +1,28 @@
+package com.hotel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WaitlistResponse {
+    private Long id;
+    private String guestName;
+    private String guestEmail;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private Integer numberOfGuests;
+    private Long roomId;
+    private String roomType;
+    private String status;
+    private Long bookingId;
+    private LocalDateTime fulfilledAt;
+    private LocalDateTime createdAt;
+}
@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = @Index(name = "idx_bookings_guest_created", columnList = "guest_id, created_at"))
 @EntityListeners(AuditingEntityListener.class)
 public class Booking {
 
@@ -26,10 +26,14 @@ public class Booking {
     @Column(nullable = false, unique = true)
     private String bookingNumber;
 
+    // Null while a room-type booking is waiting for a concrete room assignment
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "room_id", nullable = false)
+    @JoinColumn(name = "room_id")
     private Room room;
 
+    @Enumerated(EnumType.STRING)
+    private Room.RoomType roomType;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "guest_id")
     private Guest guest;
@@ -99,6 +103,8 @@ public class Booking {
     private Double cancellationFee;
 
     private LocalDateTime confirmedAt;
+    private LocalDateTime checkedInAt;
+    private LocalDateTime checkedOutAt;
 
     @CreatedDate
     @Column(nullable = false, updatable = false)
@@ -17,7 +17,7 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "guests")
+@Table(name = "guests", uniqueConstraints = @UniqueConstraint(name = "uk_guests_email", columnNames = "email"))
 @EntityListeners(AuditingEntityListener.class)
 public class Guest {
 
@@ -31,7 +31,8 @@ public class Guest {
     @Column(nullable = false)
     private String lastName;
 
-    @Column(nullable = false, unique = true)
+    // Stored lower-case; GuestIdentityService guarantees one guest per address
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -68,13 +69,16 @@ public class Guest {
     @Column(length = 500)
     private String specialRequests;
 
-    // Loyalty Program
+    // Loyalty Program. Points and booking totals are maintained by GuestCounterService with
+    // relative updates, so entity saves must never write them back.
+    @Column(updatable = false)
     private Integer loyaltyPoints = 0;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private MembershipTier membershipTier = MembershipTier.BRONZE;
 
+    @Column(updatable = false)
     private Integer totalBookings = 0;
 
     @CreatedDate
@@ -0,0 +1,49 @@
+package com.hotel.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// A room taken out of sale for the nights in [startDate, endDate), scheduled ahead of time
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "maintenance_blocks", indexes = @Index(name = "idx_maintenance_room_dates", columnList = "room_id, start_date, end_date"))
+@EntityListeners(AuditingEntityListener.class)
+public class MaintenanceBlock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", nullable = false)
+    private Room room;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private LocalDate endDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BlockKind kind = BlockKind.MAINTENANCE;
+
+    private String reason;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum BlockKind {
+        MAINTENANCE, OUT_OF_ORDER
+    }
+}
@@ -0,0 +1,89 @@
+package com.hotel.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+// A series of stays in one room stored as a rule: the weekday nights of nightMask between
+// startDate (inclusive) and endDate (exclusive), minus the exception nights
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "recurring_bookings", indexes = @Index(name = "idx_recurring_room_dates", columnList = "room_id, start_date, end_date"))
+@EntityListeners(AuditingEntityListener.class)
+public class RecurringBooking {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String seriesNumber;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id", nullable = false)
+    private Room room;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "guest_id")
+    private Guest guest;
+
+    @Column(nullable = false)
+    private String guestName;
+
+    @Column(nullable = false)
+    private String guestEmail;
+
+    @Column(nullable = false)
+    private String guestPhone;
+
+    @Column(nullable = false)
+    private Integer numberOfGuests;
+
+    @Column(nullable = false)
+    private LocalDate startDate;
+
+    @Column(nullable = false)
+    private LocalDate endDate;
+
+    // Bit 0 = Monday night ... bit 6 = Sunday night
+    @Column(nullable = false)
+    private Integer nightMask;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "recurring_booking_exceptions", joinColumns = @JoinColumn(name = "recurring_booking_id"))
+    @Column(name = "night")
+    private Set<LocalDate> exceptions = new HashSet<>();
+
+    @Column(nullable = false)
+    private Double pricePerNight;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SeriesStatus status = SeriesStatus.ACTIVE;
+
+    private String notes;
+
+    private LocalDateTime cancelledAt;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public enum SeriesStatus {
+        ACTIVE, CANCELLED
+    }
+}
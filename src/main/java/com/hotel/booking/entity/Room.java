@@ -73,8 +73,11 @@ public class Room {
     @Column(nullable = false)
     private MaintenanceStatus maintenanceStatus = MaintenanceStatus.AVAILABLE;
 
+    // Maintained by RoomRatingService from the review aggregates; entity saves never write them
+    @Column(updatable = false)
     private Double rating;
 
+    @Column(updatable = false)
     private Integer reviewCount = 0;
 
     @CreatedDate
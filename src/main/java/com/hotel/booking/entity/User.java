@@ -38,6 +38,11 @@ public class User {
     @Column(nullable = false)
     private Boolean enabled = true;
 
+    // The guest profile this account proved it owns with a booking number and email
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "guest_id")
+    private Guest guest;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
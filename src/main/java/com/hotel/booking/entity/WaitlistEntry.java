@@ -0,0 +1,72 @@
+package com.hotel.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "waitlist_entries", indexes = @Index(name = "idx_waitlist_status_check_in", columnList = "status, check_in_date"))
+@EntityListeners(AuditingEntityListener.class)
+public class WaitlistEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String guestName;
+
+    @Column(nullable = false)
+    private String guestEmail;
+
+    @Column(nullable = false)
+    private String guestPhone;
+
+    @Column(nullable = false)
+    private LocalDate checkInDate;
+
+    @Column(nullable = false)
+    private LocalDate checkOutDate;
+
+    @Column(nullable = false)
+    private Integer numberOfGuests;
+
+    // Either a specific room or any room of the type; roomType is always set
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "room_id")
+    private Room room;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Room.RoomType roomType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private WaitlistStatus status = WaitlistStatus.WAITING;
+
+    // Booking created when the entry was fulfilled
+    private Long bookingId;
+
+    private LocalDateTime fulfilledAt;
+
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @LastModifiedDate
+    private LocalDateTime updatedAt;
+
+    public enum WaitlistStatus {
+        WAITING, FULFILLED, CANCELLED, EXPIRED
+    }
+}
@@ -0,0 +1,17 @@
+package com.hotel.booking.event;
+
+// Published after every booking state change; before is null on creation, after is null on deletion
+public record BookingChangedEvent(BookingSnapshot before, BookingSnapshot after) {
+
+    public static BookingChangedEvent created(BookingSnapshot after) {
+        return new BookingChangedEvent(null, after);
+    }
+
+    public static BookingChangedEvent deleted(BookingSnapshot before) {
+        return new BookingChangedEvent(before, null);
+    }
+
+    public Long bookingId() {
+        return after != null ? after.id() : before.id();
+    }
+}
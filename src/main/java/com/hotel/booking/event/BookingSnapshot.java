@@ -0,0 +1,54 @@
+package com.hotel.booking.event;
+
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.Room;
+
+import java.time.LocalDate;
+
+// Immutable view of the fields that derived structures (rollups, counters, caches) care about
+public record BookingSnapshot(
+        Long id,
+        Long roomId,
+        Room.RoomType roomType,
+        Long guestId,
+        LocalDate checkInDate,
+        LocalDate checkOutDate,
+        Booking.BookingStatus status,
+        Booking.PaymentStatus paymentStatus,
+        Double totalPrice) {
+
+    public static BookingSnapshot of(Booking booking) {
+        Room room = booking.getRoom();
+        Room.RoomType roomType = booking.getRoomType() != null ? booking.getRoomType()
+                : room != null ? room.getType() : null;
+        return new BookingSnapshot(
+                booking.getId(),
+                room != null ? room.getId() : null,
+                roomType,
+                booking.getGuest() != null ? booking.getGuest().getId() : null,
+                booking.getCheckInDate(),
+                booking.getCheckOutDate(),
+                booking.getStatus(),
+                booking.getPaymentStatus(),
+                booking.getTotalPrice());
+    }
+
+    public BookingSnapshot withStatus(Booking.BookingStatus newStatus) {
+        return new BookingSnapshot(id, roomId, roomType, guestId, checkInDate, checkOutDate,
+                newStatus, paymentStatus, totalPrice);
+    }
+
+    public BookingSnapshot withRoomType(Room.RoomType newRoomType) {
+        return new BookingSnapshot(id, roomId, newRoomType, guestId, checkInDate, checkOutDate,
+                status, paymentStatus, totalPrice);
+    }
+
+    public BookingSnapshot withRoomId(Long newRoomId) {
+        return new BookingSnapshot(id, newRoomId, roomType, guestId, checkInDate, checkOutDate,
+                status, paymentStatus, totalPrice);
+    }
+
+    public int nights() {
+        return (int) (checkOutDate.toEpochDay() - checkInDate.toEpochDay());
+    }
+}
@@ -0,0 +1,9 @@
+package com.hotel.booking.event;
+
+import com.hotel.booking.entity.Room;
+
+import java.time.LocalDate;
+
+// Published when a block is deleted; [from, to) are the nights that went back on sale
+public record MaintenanceBlockRemovedEvent(Long roomId, Room.RoomType roomType, LocalDate from, LocalDate to) {
+}
@@ -0,0 +1,18 @@
+package com.hotel.booking.event;
+
+import com.hotel.booking.entity.Message;
+
+// Published after every message status change; before is null for a newly received message
+public record MessageChangedEvent(
+        Long messageId,
+        String subject,
+        String senderName,
+        Message.Priority priority,
+        Message.MessageStatus before,
+        Message.MessageStatus after) {
+
+    public static MessageChangedEvent of(Message message, Message.MessageStatus before) {
+        return new MessageChangedEvent(message.getId(), message.getSubject(), message.getSenderName(),
+                message.getPriority(), before, message.getStatus());
+    }
+}
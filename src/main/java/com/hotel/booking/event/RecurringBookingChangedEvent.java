@@ -0,0 +1,13 @@
+package com.hotel.booking.event;
+
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.service.RecurrencePattern;
+
+// Nights of a series before and after a change; null when the series did not hold them
+public record RecurringBookingChangedEvent(Long seriesId,
+                                           Long roomId,
+                                           Room.RoomType roomType,
+                                           double pricePerNight,
+                                           RecurrencePattern before,
+                                           RecurrencePattern after) {
+}
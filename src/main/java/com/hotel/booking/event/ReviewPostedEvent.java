@@ -0,0 +1,4 @@
+package com.hotel.booking.event;
+
+public record ReviewPostedEvent(Long roomId, int rating) {
+}
@@ -0,0 +1,8 @@
+package com.hotel.booking.exception;
+
+// The request clashes with one still being processed; the client may retry once it completes
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
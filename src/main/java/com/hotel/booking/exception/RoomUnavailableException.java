@@ -0,0 +1,20 @@
+package com.hotel.booking.exception;
+
+import com.hotel.booking.dto.BookingAlternativeResponse;
+
+import java.util.List;
+
+// Rejection that carries bookable alternatives, so the client does not have to search again
+public class RoomUnavailableException extends BadRequestException {
+
+    private final List<BookingAlternativeResponse> alternatives;
+
+    public RoomUnavailableException(String message, List<BookingAlternativeResponse> alternatives) {
+        super(message);
+        this.alternatives = alternatives;
+    }
+
+    public List<BookingAlternativeResponse> getAlternatives() {
+        return alternatives;
+    }
+}
@@ -0,0 +1,8 @@
+package com.hotel.booking.exception;
+
+// The request was turned away to protect capacity; the client may retry shortly
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,26 +1,47 @@
 package com.hotel.booking.repository;
 
 import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingSnapshot;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
+
+    String SNAPSHOT_SELECT = "SELECT new com.hotel.booking.event.BookingSnapshot(" +
+            "b.id, r.id, COALESCE(b.roomType, r.type), g.id, b.checkInDate, b.checkOutDate, b.status, b.paymentStatus, b.totalPrice) " +
+            "FROM Booking b LEFT JOIN b.room r LEFT JOIN b.guest g ";
+
     Optional<Booking> findByBookingNumber(String bookingNumber);
     Optional<Booking> findByConfirmationCode(String confirmationCode);
     List<Booking> findByGuestEmail(String guestEmail);
     List<Booking> findByStatus(Booking.BookingStatus status);
     List<Booking> findByRoomId(Long roomId);
     Boolean existsByRoomIdAndStatus(Long roomId, Booking.BookingStatus status);
+    long countByStatus(Booking.BookingStatus status);
+    long countByCheckInDateAndStatusIn(LocalDate checkInDate, Collection<Booking.BookingStatus> statuses);
+    long countByCheckOutDateAndStatus(LocalDate checkOutDate, Booking.BookingStatus status);
+    long countByStatusAndCheckOutDateBefore(Booking.BookingStatus status, LocalDate checkOutDate);
+    long countByStatusInAndPaymentStatusIn(
+            Collection<Booking.BookingStatus> statuses, Collection<Booking.PaymentStatus> paymentStatuses);
     
     @Query("SELECT b FROM Booking b WHERE b.guest.id = :guestId ORDER BY b.createdAt DESC")
     List<Booking> findByGuestId(@Param("guestId") Long guestId);
+
+    // Walks idx_bookings_guest_created in order; the room comes along so rendering needs no more queries
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.room WHERE b.guest.id = :guestId ORDER BY b.createdAt DESC")
+    List<Booking> findHistoryByGuestId(@Param("guestId") Long guestId);
     
     @Query("SELECT b FROM Booking b WHERE b.checkInDate >= :startDate AND b.checkOutDate <= :endDate")
     List<Booking> findBookingsBetweenDates(
@@ -28,8 +49,8 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             @Param("endDate") LocalDate endDate);
     
     @Query("SELECT b FROM Booking b WHERE b.room.id = :roomId " +
-           "AND b.status NOT IN ('CANCELLED', 'COMPLETED') " +
-           "AND ((b.checkInDate <= :checkOut AND b.checkOutDate >= :checkIn))")
+           "AND b.status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW') " +
+           "AND b.checkInDate < :checkOut AND b.checkOutDate > :checkIn")
     List<Booking> findConflictingBookings(
             @Param("roomId") Long roomId,
             @Param("checkIn") LocalDate checkIn,
@@ -37,11 +58,143 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     
     @Query("SELECT b FROM Booking b WHERE b.room.id = :roomId " +
            "AND b.id != :excludeBookingId " +
-           "AND b.status NOT IN ('CANCELLED', 'COMPLETED') " +
-           "AND ((b.checkInDate <= :checkOut AND b.checkOutDate >= :checkIn))")
+           "AND b.status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW') " +
+           "AND b.checkInDate < :checkOut AND b.checkOutDate > :checkIn")
     List<Booking> findConflictingBookingsExcluding(
             @Param("roomId") Long roomId,
             @Param("checkIn") LocalDate checkIn,
             @Param("checkOut") LocalDate checkOut,
             @Param("excludeBookingId") Long excludeBookingId);
+
+    @Query(SNAPSHOT_SELECT)
+    List<BookingSnapshot> findAllSnapshots();
+
+    // Bookings that still hold inventory on or after the given night
+    @Query(SNAPSHOT_SELECT + "WHERE b.status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW') AND b.checkOutDate > :date")
+    List<BookingSnapshot> findHoldingSnapshotsEndingAfter(@Param("date") LocalDate date);
+
+    @Query(SNAPSHOT_SELECT + "WHERE r.id = :roomId AND b.status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW') " +
+           "AND b.checkOutDate > :date")
+    List<BookingSnapshot> findHoldingSnapshotsForRoomEndingAfter(@Param("roomId") Long roomId,
+                                                                 @Param("date") LocalDate date);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.roomType = :type WHERE b.room.id = :roomId AND b.id IN :ids")
+    int updateRoomType(@Param("roomId") Long roomId,
+                       @Param("ids") Collection<Long> ids,
+                       @Param("type") Room.RoomType type);
+
+    // Room-level holds touching [from, to); stays are half-open so a checkout day is free to sell
+    @Query(SNAPSHOT_SELECT + "WHERE r IS NOT NULL AND b.status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW') " +
+           "AND b.checkInDate < :to AND b.checkOutDate > :from")
+    List<BookingSnapshot> findAssignedHoldingSnapshotsOverlapping(
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // Rooms on the floor with a stay still holding inventory in [from, to)
+    @Query("SELECT DISTINCT r.roomNumber FROM Booking b JOIN b.room r WHERE r.floor = :floor " +
+           "AND b.status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW') AND b.checkInDate < :to AND b.checkOutDate > :from")
+    List<String> findOccupiedRoomNumbersOnFloor(
+            @Param("floor") Integer floor,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // Every room-level stay touching [from, to), past ones included; only cancellations are left out
+    @Query(SNAPSHOT_SELECT + "WHERE r IS NOT NULL AND b.status <> 'CANCELLED' " +
+           "AND b.checkInDate < :to AND b.checkOutDate > :from")
+    List<BookingSnapshot> findAssignedSnapshotsOverlapping(
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.guest WHERE b.room IS NULL " +
+           "AND b.status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW') " +
+           "AND b.checkInDate < :to AND b.checkOutDate > :from")
+    List<Booking> findUnassignedOverlapping(
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to);
+
+    // Rooms of the guest's past and current stays, one row per stay
+    @Query("SELECT b.room.id FROM Booking b WHERE b.guest.id = :guestId AND b.room IS NOT NULL " +
+           "AND b.status <> 'CANCELLED'")
+    List<Long> findStayedRoomIdsByGuestId(@Param("guestId") Long guestId);
+
+    // Front desk working sets: room, guest and payment state in one query per list
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.room LEFT JOIN FETCH b.guest " +
+           "WHERE b.checkInDate = :date AND b.status IN :statuses ORDER BY b.guestName")
+    List<Booking> findArrivalsWithDetails(
+            @Param("date") LocalDate date,
+            @Param("statuses") Collection<Booking.BookingStatus> statuses);
+
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.room LEFT JOIN FETCH b.guest " +
+           "WHERE b.status = 'CHECKED_IN' AND b.checkOutDate <= :date ORDER BY b.guestName")
+    List<Booking> findDeparturesWithDetails(@Param("date") LocalDate date);
+
+    @Query(SNAPSHOT_SELECT + "WHERE b.id IN :ids")
+    List<BookingSnapshot> findSnapshotsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Lifecycle sweeper: selection is paged so each bulk UPDATE touches a bounded chunk
+    @Query(SNAPSHOT_SELECT + "WHERE b.status = :status " +
+           "AND b.paymentStatus = :paymentStatus AND b.createdAt < :cutoff ORDER BY b.id")
+    List<BookingSnapshot> findSnapshotsByStatusAndPaymentStatusCreatedBefore(
+            @Param("status") Booking.BookingStatus status,
+            @Param("paymentStatus") Booking.PaymentStatus paymentStatus,
+            @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable);
+
+    @Query(SNAPSHOT_SELECT + "WHERE b.status IN :statuses AND b.checkInDate < :date ORDER BY b.id")
+    List<BookingSnapshot> findSnapshotsByStatusInAndCheckInBefore(
+            @Param("statuses") Collection<Booking.BookingStatus> statuses,
+            @Param("date") LocalDate date,
+            Pageable pageable);
+
+    @Query(SNAPSHOT_SELECT + "WHERE b.status IN :statuses AND b.checkOutDate < :date ORDER BY b.id")
+    List<BookingSnapshot> findSnapshotsByStatusInAndCheckOutBefore(
+            @Param("statuses") Collection<Booking.BookingStatus> statuses,
+            @Param("date") LocalDate date,
+            Pageable pageable);
+
+    // Locks the rows no other transaction holds and returns their ids; the rest are skipped
+    @Query(value = "SELECT id FROM bookings WHERE id IN (:ids) FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockSkippingLocked(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = :to, b.updatedAt = :now " +
+           "WHERE b.id IN :ids AND b.status IN :from")
+    int bulkTransition(
+            @Param("ids") Collection<Long> ids,
+            @Param("from") Collection<Booking.BookingStatus> from,
+            @Param("to") Booking.BookingStatus to,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'CHECKED_IN', b.checkedInAt = :now, b.updatedAt = :now " +
+           "WHERE b.id IN :ids AND b.status IN :from AND b.room IS NOT NULL")
+    int bulkCheckIn(
+            @Param("ids") Collection<Long> ids,
+            @Param("from") Collection<Booking.BookingStatus> from,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'CHECKED_OUT', b.checkedOutAt = :now, b.updatedAt = :now " +
+           "WHERE b.id IN :ids AND b.status = 'CHECKED_IN'")
+    int bulkCheckOut(
+            @Param("ids") Collection<Long> ids,
+            @Param("now") LocalDateTime now);
+
+    // Rows a bulk check-in/out wrote, recognised by the timestamp that statement set
+    @Query("SELECT b.id FROM Booking b WHERE b.id IN :ids AND b.checkedInAt = :at")
+    List<Long> findIdsCheckedInAt(@Param("ids") Collection<Long> ids, @Param("at") LocalDateTime at);
+
+    @Query("SELECT b.id FROM Booking b WHERE b.id IN :ids AND b.checkedOutAt = :at")
+    List<Long> findIdsCheckedOutAt(@Param("ids") Collection<Long> ids, @Param("at") LocalDateTime at);
+
+    @Modifying
+    @Query("UPDATE Booking b SET b.status = 'CANCELLED', b.cancelledAt = :now, b.cancelledBy = :cancelledBy, " +
+           "b.cancellationReason = :reason, b.updatedAt = :now " +
+           "WHERE b.id IN :ids AND b.status = 'PENDING' AND b.paymentStatus = 'PENDING'")
+    int bulkExpirePending(
+            @Param("ids") Collection<Long> ids,
+            @Param("cancelledBy") String cancelledBy,
+            @Param("reason") String reason,
+            @Param("now") LocalDateTime now);
 }
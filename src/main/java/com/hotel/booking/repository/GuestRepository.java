@@ -2,6 +2,8 @@ package com.hotel.booking.repository;
 
 import com.hotel.booking.entity.Guest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +12,7 @@ import java.util.Optional;
 public interface GuestRepository extends JpaRepository<Guest, Long> {
     Optional<Guest> findByEmail(String email);
     Boolean existsByEmail(String email);
+
+    @Query("SELECT g.id FROM Guest g WHERE g.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
 }
@@ -0,0 +1,57 @@
+package com.hotel.booking.repository;
+
+import com.hotel.booking.entity.MaintenanceBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MaintenanceBlockRepository extends JpaRepository<MaintenanceBlock, Long> {
+
+    @Query("SELECT COUNT(m) > 0 FROM MaintenanceBlock m " +
+           "WHERE m.room.id = :roomId AND m.startDate < :to AND m.endDate > :from")
+    boolean existsOverlapping(@Param("roomId") Long roomId,
+                              @Param("from") LocalDate from,
+                              @Param("to") LocalDate to);
+
+    @Query("SELECT COUNT(m) > 0 FROM MaintenanceBlock m " +
+           "WHERE m.room.floor = :floor AND m.startDate < :to AND m.endDate > :from")
+    boolean existsOverlappingOnFloor(@Param("floor") Integer floor,
+                                     @Param("from") LocalDate from,
+                                     @Param("to") LocalDate to);
+
+    @Query("SELECT m FROM MaintenanceBlock m JOIN FETCH m.room " +
+           "WHERE m.startDate < :to AND m.endDate > :from ORDER BY m.startDate")
+    List<MaintenanceBlock> findOverlapping(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT m FROM MaintenanceBlock m WHERE m.room.id = :roomId AND m.startDate < :to AND m.endDate > :from")
+    List<MaintenanceBlock> findByRoomOverlapping(@Param("roomId") Long roomId,
+                                                 @Param("from") LocalDate from,
+                                                 @Param("to") LocalDate to);
+
+    @Query("SELECT m FROM MaintenanceBlock m JOIN FETCH m.room WHERE m.endDate > :date")
+    List<MaintenanceBlock> findEndingAfter(@Param("date") LocalDate date);
+
+    @Query("SELECT m FROM MaintenanceBlock m JOIN FETCH m.room r " +
+           "WHERE r.floor = :floor AND m.startDate = :from AND m.endDate = :to ORDER BY r.roomNumber")
+    List<MaintenanceBlock> findFloorBlocks(@Param("floor") Integer floor,
+                                           @Param("from") LocalDate from,
+                                           @Param("to") LocalDate to);
+
+    // One statement blocks every room on the floor, however many there are
+    @Modifying
+    @Query("INSERT INTO MaintenanceBlock (room, startDate, endDate, kind, reason, createdAt) " +
+           "SELECT r, :from, :to, :kind, :reason, :createdAt FROM Room r WHERE r.floor = :floor")
+    int insertForFloor(@Param("floor") Integer floor,
+                       @Param("from") LocalDate from,
+                       @Param("to") LocalDate to,
+                       @Param("kind") MaintenanceBlock.BlockKind kind,
+                       @Param("reason") String reason,
+                       @Param("createdAt") LocalDateTime createdAt);
+}
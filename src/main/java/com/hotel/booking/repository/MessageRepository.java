@@ -14,4 +14,5 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     List<Message> findByBookingId(Long bookingId);
     List<Message> findByOrderByCreatedAtDesc();
     List<Message> findByStatusOrderByCreatedAtDesc(Message.MessageStatus status);
+    long countByStatus(Message.MessageStatus status);
 }
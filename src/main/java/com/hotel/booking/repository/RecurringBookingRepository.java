@@ -0,0 +1,36 @@
+package com.hotel.booking.repository;
+
+import com.hotel.booking.entity.RecurringBooking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RecurringBookingRepository extends JpaRepository<RecurringBooking, Long> {
+
+    // Active series whose date range touches [from, to); the caller checks the weekday pattern
+    @Query("SELECT DISTINCT s FROM RecurringBooking s JOIN FETCH s.room LEFT JOIN FETCH s.exceptions " +
+           "WHERE s.status = 'ACTIVE' AND s.startDate < :to AND s.endDate > :from")
+    List<RecurringBooking> findActiveOverlapping(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT DISTINCT s FROM RecurringBooking s JOIN FETCH s.room LEFT JOIN FETCH s.exceptions " +
+           "WHERE s.status = 'ACTIVE' AND s.room.id = :roomId AND s.startDate < :to AND s.endDate > :from")
+    List<RecurringBooking> findActiveByRoomOverlapping(@Param("roomId") Long roomId,
+                                                       @Param("from") LocalDate from,
+                                                       @Param("to") LocalDate to);
+
+    @Query("SELECT DISTINCT s FROM RecurringBooking s JOIN FETCH s.room LEFT JOIN FETCH s.exceptions " +
+           "WHERE s.status = 'ACTIVE'")
+    List<RecurringBooking> findAllActive();
+
+    @Query("SELECT DISTINCT s FROM RecurringBooking s JOIN FETCH s.room LEFT JOIN FETCH s.exceptions " +
+           "WHERE s.status = 'CANCELLED'")
+    List<RecurringBooking> findAllCancelled();
+
+    @Query("SELECT s FROM RecurringBooking s JOIN FETCH s.room ORDER BY s.createdAt DESC")
+    List<RecurringBooking> findAllWithRoom();
+}
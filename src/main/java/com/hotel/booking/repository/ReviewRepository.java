@@ -0,0 +1,23 @@
+package com.hotel.booking.repository;
+
+import com.hotel.booking.entity.Review;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReviewRepository extends JpaRepository<Review, Long> {
+
+    boolean existsByBookingId(Long bookingId);
+
+    @Query("SELECT r FROM Review r WHERE r.room.id = :roomId ORDER BY r.createdAt DESC")
+    List<Review> findByRoomId(@Param("roomId") Long roomId, Pageable pageable);
+
+    // Per room: { roomId, SUM(rating), COUNT }
+    @Query("SELECT r.room.id, SUM(r.rating), COUNT(r) FROM Review r GROUP BY r.room.id")
+    List<Object[]> summarizeRatingsByRoom();
+}
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,15 +17,46 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     Boolean existsByRoomNumber(String roomNumber);
     List<Room> findByIsAvailable(Boolean isAvailable);
     List<Room> findByType(Room.RoomType type);
+    List<Room> findAllByOrderByRoomNumberAsc();
     
     @Query("SELECT r FROM Room r WHERE r.isAvailable = true AND r.maintenanceStatus = 'AVAILABLE' " +
-           "AND r.id NOT IN (SELECT b.room.id FROM Booking b WHERE " +
-           "b.status NOT IN ('CANCELLED', 'COMPLETED') AND " +
-           "((b.checkInDate <= :checkOut AND b.checkOutDate >= :checkIn)))")
+           "AND r.id NOT IN (SELECT b.room.id FROM Booking b WHERE b.room IS NOT NULL AND " +
+           "b.status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW') AND " +
+           "b.checkInDate < :checkOut AND b.checkOutDate > :checkIn) " +
+           "AND r.id NOT IN (SELECT m.room.id FROM MaintenanceBlock m WHERE " +
+           "m.startDate < :checkOut AND m.endDate > :checkIn)")
     List<Room> findAvailableRoomsBetweenDates(
             @Param("checkIn") LocalDate checkIn, 
             @Param("checkOut") LocalDate checkOut);
     
+    @Query("SELECT r FROM Room r WHERE r.isAvailable = true AND r.maintenanceStatus = 'AVAILABLE' " +
+           "ORDER BY r.type, r.pricePerNight")
+    List<Room> findSellableRooms();
+
+    @Query("SELECT DISTINCT r FROM Room r LEFT JOIN FETCH r.amenities " +
+           "WHERE r.isAvailable = true AND r.maintenanceStatus = 'AVAILABLE'")
+    List<Room> findSellableRoomsWithAmenities();
+
+    @Query("SELECT r.id FROM Room r WHERE r.id NOT IN (SELECT s.id FROM Room s " +
+           "WHERE s.isAvailable = true AND s.maintenanceStatus = 'AVAILABLE')")
+    List<Long> findUnsellableRoomIds();
+
+    // Per type: room count, lowest nightly rate and largest capacity
+    @Query("SELECT r.type, COUNT(r), MIN(r.pricePerNight), MAX(r.capacity) FROM Room r " +
+           "WHERE r.isAvailable = true AND r.maintenanceStatus = 'AVAILABLE' GROUP BY r.type")
+    List<Object[]> summarizeSellableRoomsByType();
+
+    @Query("SELECT r.type, COUNT(r) FROM Room r WHERE r.floor = :floor AND r.isAvailable = true " +
+           "AND r.maintenanceStatus = 'AVAILABLE' GROUP BY r.type")
+    List<Object[]> countSellableRoomsOnFloorByType(@Param("floor") Integer floor);
+
+    // Serializes everything that puts a stay on these rooms; taken in id order so writers never deadlock
+    @Query(value = "SELECT id FROM rooms WHERE id IN (:ids) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT id FROM rooms WHERE floor = :floor ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByFloor(@Param("floor") Integer floor);
+
     // Alias for the service layer
     default List<Room> findAvailableRooms(LocalDate checkIn, LocalDate checkOut) {
         return findAvailableRoomsBetweenDates(checkIn, checkOut);
@@ -2,6 +2,9 @@ package com.hotel.booking.repository;
 
 import com.hotel.booking.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -10,4 +13,12 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Boolean existsByUsername(String username);
+
+    @Query("SELECT u.guest.id FROM User u WHERE u.username = :username")
+    Optional<Long> findGuestIdByUsername(@Param("username") String username);
+
+    // Only replaces the hash the login verified, so a concurrent password change is kept
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id AND u.password = :current")
+    int updatePasswordHash(@Param("id") Long id, @Param("current") String current, @Param("password") String password);
 }
@@ -0,0 +1,48 @@
+package com.hotel.booking.repository;
+
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.entity.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WaitlistRepository extends JpaRepository<WaitlistEntry, Long> {
+
+    List<WaitlistEntry> findByStatusOrderByCreatedAtAsc(WaitlistEntry.WaitlistStatus status);
+
+    @Query("SELECT w FROM WaitlistEntry w LEFT JOIN FETCH w.room WHERE w.status = 'WAITING' " +
+           "AND w.checkInDate >= :today ORDER BY w.id")
+    List<WaitlistEntry> findOpenEntries(@Param("today") LocalDate today);
+
+    @Query("SELECT COUNT(w) > 0 FROM WaitlistEntry w WHERE w.status = 'WAITING' " +
+           "AND LOWER(w.guestEmail) = LOWER(:email) AND w.checkInDate = :checkIn AND w.checkOutDate = :checkOut " +
+           "AND w.roomType = :roomType")
+    boolean existsWaiting(@Param("email") String email,
+                          @Param("checkIn") LocalDate checkIn,
+                          @Param("checkOut") LocalDate checkOut,
+                          @Param("roomType") Room.RoomType roomType);
+
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'EXPIRED', w.updatedAt = :now " +
+           "WHERE w.status = 'WAITING' AND w.checkInDate < :today")
+    int expireStarted(@Param("today") LocalDate today, @Param("now") LocalDateTime now);
+
+    // Both transitions out of WAITING are conditional, so a cancellation and a fulfilment of
+    // the same entry cannot both succeed
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'CANCELLED', w.updatedAt = :now " +
+           "WHERE w.id = :id AND w.status = 'WAITING'")
+    int cancelWaiting(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE WaitlistEntry w SET w.status = 'FULFILLED', w.bookingId = :bookingId, " +
+           "w.fulfilledAt = :now, w.updatedAt = :now WHERE w.id = :id AND w.status = 'WAITING'")
+    int fulfilWaiting(@Param("id") Long id, @Param("bookingId") Long bookingId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,161 @@
+package com.hotel.booking.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.booking.config.PoolMonitor;
+import com.hotel.booking.config.QueryTimeoutDataSource;
+import com.hotel.booking.dto.AdmissionStatsResponse;
+import com.hotel.booking.dto.ApiResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Sheds load before it reaches the connection pool. Every request is classed by route; when
+// threads are already queueing for connections and the average wait climbs, low-priority reads
+// are turned away first, then ordinary traffic, while booking creation, payments and the front
+// desk are always admitted. Rejections are immediate 503s instead of seconds in the pool queue.
+// The class also sets the request's JDBC query timeout.
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public enum Priority {
+        CRITICAL, NORMAL, LOW
+    }
+
+    private final PoolMonitor poolMonitor;
+    private final ObjectMapper objectMapper;
+
+    @Value("${admission.enabled:true}")
+    private boolean enabled;
+
+    @Value("${admission.low.max-wait-ms:50}")
+    private long lowMaxWaitMs;
+
+    @Value("${admission.low.max-in-flight:100}")
+    private int lowMaxInFlight;
+
+    @Value("${admission.normal.max-wait-ms:250}")
+    private long normalMaxWaitMs;
+
+    @Value("${admission.normal.max-in-flight:180}")
+    private int normalMaxInFlight;
+
+    @Value("${admission.query-timeout-seconds.low:3}")
+    private int lowQueryTimeout;
+
+    @Value("${admission.query-timeout-seconds.normal:10}")
+    private int normalQueryTimeout;
+
+    @Value("${admission.query-timeout-seconds.critical:30}")
+    private int criticalQueryTimeout;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Map<Priority, LongAdder> admitted = counters();
+    private final Map<Priority, LongAdder> shed = counters();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Priority priority = priorityOf(request);
+        if (enabled && shouldShed(priority)) {
+            shed.get(priority).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("Service is busy, please retry shortly"));
+            return;
+        }
+        admitted.get(priority).increment();
+        inFlight.incrementAndGet();
+        QueryTimeoutDataSource.setTimeoutSeconds(queryTimeoutOf(priority));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            QueryTimeoutDataSource.clearTimeout();
+            inFlight.decrementAndGet();
+        }
+    }
+
+    public AdmissionStatsResponse getStats() {
+        return AdmissionStatsResponse.builder()
+                .inFlight(inFlight.get())
+                .poolActive(poolMonitor.getActiveConnections())
+                .poolMax(poolMonitor.getMaxConnections())
+                .poolPending(poolMonitor.getPendingThreads())
+                .averageWaitMillis(Math.round(poolMonitor.getAverageWaitMillis() * 100) / 100.0)
+                .poolTimeouts(poolMonitor.getTimeouts())
+                .admitted(totals(admitted))
+                .shed(totals(shed))
+                .build();
+    }
+
+    // Only a pool that has threads queueing counts as saturated; the average alone lags behind recovery
+    private boolean shouldShed(Priority priority) {
+        int running = inFlight.get();
+        switch (priority) {
+            case LOW:
+                return running >= lowMaxInFlight
+                        || (poolMonitor.getPendingThreads() > 0 && poolMonitor.getAverageWaitMillis() >= lowMaxWaitMs);
+            case NORMAL:
+                return running >= normalMaxInFlight
+                        || (poolMonitor.getPendingThreads() >= Math.max(1, poolMonitor.getMaxConnections())
+                                && poolMonitor.getAverageWaitMillis() >= normalMaxWaitMs);
+            default:
+                return false;
+        }
+    }
+
+    private int queryTimeoutOf(Priority priority) {
+        switch (priority) {
+            case LOW:
+                return lowQueryTimeout;
+            case NORMAL:
+                return normalQueryTimeout;
+            default:
+                return criticalQueryTimeout;
+        }
+    }
+
+    private static Priority priorityOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if (("POST".equals(method) && (path.equals("/bookings") || path.equals("/payments")))
+                || path.startsWith("/front-desk/")) {
+            return Priority.CRITICAL;
+        }
+        if ("GET".equals(method) && (path.equals("/rooms") || path.startsWith("/rooms/")
+                || path.startsWith("/messages") || path.startsWith("/reports/"))) {
+            return Priority.LOW;
+        }
+        return Priority.NORMAL;
+    }
+
+    private static Map<Priority, LongAdder> counters() {
+        Map<Priority, LongAdder> counters = new EnumMap<>(Priority.class);
+        for (Priority priority : Priority.values()) {
+            counters.put(priority, new LongAdder());
+        }
+        return counters;
+    }
+
+    private static Map<String, Long> totals(Map<Priority, LongAdder> counters) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        counters.forEach((priority, count) -> totals.put(priority.name(), count.sum()));
+        return totals;
+    }
+}
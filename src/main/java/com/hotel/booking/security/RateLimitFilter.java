@@ -0,0 +1,68 @@
+package com.hotel.booking.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.booking.dto.ApiResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+// Runs after JWT authentication so signed-in clients are limited per user; anonymous clients
+// are limited per address. Rejections get 429 with Retry-After in whole seconds.
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ClientIdentity clientIdentity;
+    private final ObjectMapper objectMapper;
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = rateLimiter.tryAcquire(groupOf(request), clientIdentity.of(request));
+        if (waitNanos == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many requests, retry after " + retryAfter + " seconds"));
+    }
+
+    private static RateLimiter.Group groupOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if (path.startsWith("/auth/")) {
+            return RateLimiter.Group.AUTH;
+        }
+        if ("POST".equals(method) && (path.equals("/bookings") || path.equals("/payments")
+                || path.equals("/messages") || path.equals("/waitlist")
+                || (path.startsWith("/rooms/") && path.endsWith("/reviews")))) {
+            return RateLimiter.Group.WRITES;
+        }
+        if ("GET".equals(method) && (path.equals("/rooms") || path.startsWith("/rooms/"))) {
+            return RateLimiter.Group.BROWSE;
+        }
+        return RateLimiter.Group.DEFAULT;
+    }
+}
@@ -0,0 +1,176 @@
+package com.hotel.booking.security;
+
+import com.hotel.booking.dto.RateLimitStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-client token buckets, one policy per route group. Each bucket is a single AtomicLong
+// holding the theoretical arrival time of the next request (GCRA): admitting a request is one
+// compare-and-set, with no lock and no refill timer. A bucket whose arrival time has passed is
+// full, so it carries no state and can be dropped; when a group reaches its client limit those
+// are swept, and clients beyond the limit share a fixed array of hashed buckets instead.
+@Component
+public class RateLimiter {
+
+    public enum Group {
+        AUTH, WRITES, BROWSE, DEFAULT
+    }
+
+    private static final int OVERFLOW_SLOTS = 4096;
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Policy[] policies = new Policy[Group.values().length];
+
+    public RateLimiter(@Value("${rate-limit.max-clients:100000}") int maxClients,
+                       @Value("${rate-limit.auth.per-minute:10}") long authPerMinute,
+                       @Value("${rate-limit.auth.burst:5}") long authBurst,
+                       @Value("${rate-limit.writes.per-minute:30}") long writesPerMinute,
+                       @Value("${rate-limit.writes.burst:10}") long writesBurst,
+                       @Value("${rate-limit.browse.per-minute:600}") long browsePerMinute,
+                       @Value("${rate-limit.browse.burst:60}") long browseBurst,
+                       @Value("${rate-limit.default.per-minute:1200}") long defaultPerMinute,
+                       @Value("${rate-limit.default.burst:200}") long defaultBurst) {
+        policies[Group.AUTH.ordinal()] = new Policy(Group.AUTH, authPerMinute, authBurst, maxClients);
+        policies[Group.WRITES.ordinal()] = new Policy(Group.WRITES, writesPerMinute, writesBurst, maxClients);
+        policies[Group.BROWSE.ordinal()] = new Policy(Group.BROWSE, browsePerMinute, browseBurst, maxClients);
+        policies[Group.DEFAULT.ordinal()] = new Policy(Group.DEFAULT, defaultPerMinute, defaultBurst, maxClients);
+    }
+
+    // Returns 0 when the request is admitted, otherwise the nanoseconds until it would be
+    public long tryAcquire(Group group, String client) {
+        return tryAcquire(group, client, System.nanoTime());
+    }
+
+    // With the clock supplied by the caller, so tests can step through refills
+    long tryAcquire(Group group, String client, long now) {
+        return policies[group.ordinal()].tryAcquire(client, now);
+    }
+
+    public List<RateLimitStatsResponse> getStats() {
+        List<RateLimitStatsResponse> stats = new ArrayList<>(policies.length);
+        for (Policy policy : policies) {
+            stats.add(RateLimitStatsResponse.builder()
+                    .group(policy.group.name())
+                    .requestsPerMinute(policy.perMinute)
+                    .burst(policy.burst)
+                    .trackedClients(policy.buckets.size())
+                    .allowed(policy.allowed.sum())
+                    .rejected(policy.rejected.sum())
+                    .overflowed(policy.overflowed.sum())
+                    .build());
+        }
+        return stats;
+    }
+
+    private static final class Policy {
+        final Group group;
+        final long perMinute;
+        final long burst;
+        final int maxClients;
+        // Nanoseconds between requests at the sustained rate, and how far ahead a client may run
+        final long interval;
+        final long tolerance;
+        final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        // Slots taken in buckets, reserved before an insert so racing new clients cannot pass the cap
+        final AtomicInteger tracked = new AtomicInteger();
+        final AtomicLongArray overflow = new AtomicLongArray(OVERFLOW_SLOTS);
+        final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+        final LongAdder allowed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder overflowed = new LongAdder();
+
+        Policy(Group group, long perMinute, long burst, int maxClients) {
+            this.group = group;
+            this.perMinute = perMinute;
+            this.burst = burst;
+            this.maxClients = maxClients;
+            this.interval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.tolerance = interval * Math.max(1, burst);
+            long start = System.nanoTime() - tolerance;
+            for (int i = 0; i < OVERFLOW_SLOTS; i++) {
+                overflow.set(i, start);
+            }
+        }
+
+        long tryAcquire(String client, long now) {
+            AtomicLong bucket = buckets.get(client);
+            if (bucket == null) {
+                if (!reserveSlot(now)) {
+                    overflowed.increment();
+                    return acquireOverflow(Math.floorMod(client.hashCode(), OVERFLOW_SLOTS), now);
+                }
+                AtomicLong created = new AtomicLong(now);
+                bucket = buckets.putIfAbsent(client, created);
+                if (bucket == null) {
+                    bucket = created;
+                } else {
+                    // Another request of the same client got there first
+                    tracked.decrementAndGet();
+                }
+            }
+            while (true) {
+                long arrival = bucket.get();
+                long next = Math.max(arrival, now) + interval;
+                if (next - now > tolerance) {
+                    rejected.increment();
+                    return next - tolerance - now;
+                }
+                if (bucket.compareAndSet(arrival, next)) {
+                    allowed.increment();
+                    return 0;
+                }
+            }
+        }
+
+        private long acquireOverflow(int slot, long now) {
+            while (true) {
+                long arrival = overflow.get(slot);
+                long next = Math.max(arrival, now) + interval;
+                if (next - now > tolerance) {
+                    rejected.increment();
+                    return next - tolerance - now;
+                }
+                if (overflow.compareAndSet(slot, arrival, next)) {
+                    allowed.increment();
+                    return 0;
+                }
+            }
+        }
+
+        private boolean reserveSlot(long now) {
+            if (tracked.incrementAndGet() <= maxClients) {
+                return true;
+            }
+            tracked.decrementAndGet();
+            sweep(now);
+            if (tracked.incrementAndGet() <= maxClients) {
+                return true;
+            }
+            tracked.decrementAndGet();
+            return false;
+        }
+
+        // At most one sweep per interval; a racing update to a dropped bucket only admits one request
+        private void sweep(long now) {
+            long due = nextSweep.get();
+            if (now - due < 0 || !nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+                return;
+            }
+            for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+                if (entry.getValue().get() - now <= 0 && buckets.remove(entry.getKey(), entry.getValue())) {
+                    tracked.decrementAndGet();
+                }
+            }
+        }
+    }
+}
@@ -2,43 +2,111 @@ package com.hotel.booking.service;
 
 import com.hotel.booking.dto.LoginRequest;
 import com.hotel.booking.dto.AuthResponse;
+import com.hotel.booking.dto.LoginStatsResponse;
 import com.hotel.booking.entity.User;
+import com.hotel.booking.exception.ServiceUnavailableException;
 import com.hotel.booking.repository.UserRepository;
+import com.hotel.booking.security.CustomUserDetailsService;
 import com.hotel.booking.security.JwtUtil;
+import com.hotel.booking.security.PasswordHasher;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Login loads the user once and checks the password on the hashing pool. A hash stored at a
+// different cost than configured is replaced in the background after a successful login.
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AuthService {
 
-    private final AuthenticationManager authenticationManager;
-    private final UserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+    private final long startedAt = System.nanoTime();
 
     public AuthResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-        );
-
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(request.getUsername());
-        final String jwt = jwtUtil.generateToken(userDetails);
-
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        return AuthResponse.builder()
-                .token(jwt)
-                .type("Bearer")
-                .id(user.getId())
-                .username(user.getUsername())
-                .name(user.getName())
-                .role(user.getRole().name())
+        attempts.increment();
+        long start = System.nanoTime();
+        try {
+            User user = userRepository.findByUsername(request.getUsername()).orElse(null);
+            boolean matches = passwordHasher.matches(request.getPassword(), user != null ? user.getPassword() : null);
+            if (user == null || !matches || !user.getEnabled()) {
+                failed.increment();
+                throw new BadCredentialsException("Invalid username or password");
+            }
+            if (passwordHasher.needsRehash(user.getPassword())) {
+                rehash(user.getId(), user.getPassword(), request.getPassword());
+            }
+            succeeded.increment();
+
+            final String jwt = jwtUtil.generateToken(CustomUserDetailsService.toUserDetails(user));
+
+            return AuthResponse.builder()
+                    .token(jwt)
+                    .type("Bearer")
+                    .id(user.getId())
+                    .username(user.getUsername())
+                    .name(user.getName())
+                    .role(user.getRole().name())
+                    .build();
+        } catch (ServiceUnavailableException e) {
+            rejected.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            latencyNanos.add(elapsed);
+            maxLatencyNanos.accumulate(elapsed);
+        }
+    }
+
+    public LoginStatsResponse getStats() {
+        long completed = succeeded.sum() + failed.sum();
+        double uptimeSeconds = Math.max(1e-9, (System.nanoTime() - startedAt) / 1e9);
+        return LoginStatsResponse.builder()
+                .bcryptStrength(passwordHasher.getStrength())
+                .hasherThreads(passwordHasher.getThreads())
+                .hasherActive(passwordHasher.getActive())
+                .hasherQueued(passwordHasher.getQueued())
+                .attempts(attempts.sum())
+                .succeeded(succeeded.sum())
+                .failed(failed.sum())
+                .rejected(rejected.sum())
+                .rehashed(rehashed.sum())
+                .loginsPerSecond(Math.round(completed / uptimeSeconds * 100) / 100.0)
+                .averageLatencyMillis(attempts.sum() == 0 ? 0
+                        : Math.round(latencyNanos.sum() / 1e4 / attempts.sum()) / 100.0)
+                .maxLatencyMillis(Math.round(maxLatencyNanos.get() / 1e4) / 100.0)
                 .build();
     }
+
+    // Conditional on the verified hash, so a password changed meanwhile is not overwritten
+    private void rehash(Long userId, String currentHash, String rawPassword) {
+        passwordHasher.encodeAsync(rawPassword)
+                .thenAccept(newHash -> {
+                    Integer updated = transactionTemplate.execute(status ->
+                            userRepository.updatePasswordHash(userId, currentHash, newHash));
+                    if (updated != null && updated > 0) {
+                        rehashed.increment();
+                    }
+                })
+                .exceptionally(e -> {
+                    log.warn("Could not rehash password for user {}: {}", userId, e.getMessage());
+                    return null;
+                });
+    }
 }
@@ -0,0 +1,212 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.StayWindowResponse;
+import com.hotel.booking.entity.MaintenanceBlock;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.MaintenanceBlockRepository;
+import com.hotel.booking.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+@Service
+@RequiredArgsConstructor
+public class AvailabilityService {
+
+    private static final int MAX_SEARCH_DAYS = 93;
+    private static final int MAX_STAY_NIGHTS = 30;
+    private static final int MAX_RESULTS = 50;
+    private static final Room.RoomType[] ROOM_TYPES = Room.RoomType.values();
+
+    public enum SortBy {
+        PRICE, AVAILABILITY
+    }
+
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final MaintenanceBlockRepository maintenanceBlockRepository;
+    private final RoomInventoryService roomInventoryService;
+    private final RecurringBookingService recurringBookingService;
+
+    // Occupancy of every sellable room over [from, to), built from one overlap query per kind of booking
+    public AvailabilitySnapshot snapshot(LocalDate from, LocalDate to) {
+        List<Room> rooms = roomRepository.findSellableRooms();
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            positions.put(rooms.get(i).getId(), i);
+        }
+        BitSet[] occupied = occupancy(positions, rooms.size(), from, to);
+        int[][] typeRemaining = new int[ROOM_TYPES.length][];
+        for (Room.RoomType type : ROOM_TYPES) {
+            typeRemaining[type.ordinal()] = roomInventoryService.remainingByNight(type, from, to);
+        }
+        return new AvailabilitySnapshot(from, (int) ChronoUnit.DAYS.between(from, to), rooms, occupied, typeRemaining);
+    }
+
+    // Occupancy alone, for callers that already hold the rooms: positions maps a room id to its
+    // slot in the returned array, and rooms missing from it are ignored
+    public BitSet[] occupancy(Map<Long, Integer> positions, int rooms, LocalDate from, LocalDate to) {
+        int days = (int) ChronoUnit.DAYS.between(from, to);
+        BitSet[] occupied = new BitSet[rooms];
+        for (int i = 0; i < rooms; i++) {
+            occupied[i] = new BitSet(days);
+        }
+        for (BookingSnapshot stay : bookingRepository.findAssignedHoldingSnapshotsOverlapping(from, to)) {
+            Integer position = positions.get(stay.roomId());
+            if (position != null) {
+                int start = (int) Math.max(0, ChronoUnit.DAYS.between(from, stay.checkInDate()));
+                int end = (int) Math.min(days, ChronoUnit.DAYS.between(from, stay.checkOutDate()));
+                occupied[position].set(start, end);
+            }
+        }
+        for (MaintenanceBlock block : maintenanceBlockRepository.findOverlapping(from, to)) {
+            Integer position = positions.get(block.getRoom().getId());
+            if (position != null) {
+                int start = (int) Math.max(0, ChronoUnit.DAYS.between(from, block.getStartDate()));
+                int end = (int) Math.min(days, ChronoUnit.DAYS.between(from, block.getEndDate()));
+                occupied[position].set(start, end);
+            }
+        }
+        recurringBookingService.findOccupancy(from, to).forEach((roomId, stays) -> {
+            Integer position = positions.get(roomId);
+            if (position != null) {
+                stays.forEach(stay -> occupied[position].set((int) ChronoUnit.DAYS.between(from, stay[0]),
+                        (int) ChronoUnit.DAYS.between(from, stay[1])));
+            }
+        });
+        return occupied;
+    }
+
+    // Slides a stay of the given length across [from, to) and ranks every start day. All windows
+    // are evaluated against one snapshot, so the whole search costs a single pair of queries.
+    public List<StayWindowResponse> searchFlexible(LocalDate from, LocalDate to, int nights, int guests,
+                                                   Room.RoomType roomType, SortBy sortBy, int limit) {
+        if (from == null || to == null || !from.isBefore(to) || from.isBefore(LocalDate.now())) {
+            throw new BadRequestException("Invalid date range");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_SEARCH_DAYS) {
+            throw new BadRequestException("Search range cannot exceed " + MAX_SEARCH_DAYS + " days");
+        }
+        if (nights < 1 || nights > MAX_STAY_NIGHTS) {
+            throw new BadRequestException("Nights must be between 1 and " + MAX_STAY_NIGHTS);
+        }
+        if (ChronoUnit.DAYS.between(from, to) < nights) {
+            throw new BadRequestException("Search range is shorter than the stay");
+        }
+        if (guests < 1) {
+            throw new BadRequestException("At least 1 guest is required");
+        }
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_RESULTS);
+        }
+
+        AvailabilitySnapshot snapshot = snapshot(from, to);
+        Comparator<StayWindowResponse> ranking = ranking(sortBy);
+        // Bounded max-heap of the best windows seen so far; the worst is evicted first
+        PriorityQueue<StayWindowResponse> best = new PriorityQueue<>(ranking.reversed());
+        for (int start = 0; start + nights <= snapshot.days(); start++) {
+            StayWindowResponse window = evaluate(snapshot, start, nights, guests, roomType);
+            if (window == null) {
+                continue;
+            }
+            best.offer(window);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<StayWindowResponse> result = new ArrayList<>(best);
+        result.sort(ranking);
+        return result;
+    }
+
+    private static StayWindowResponse evaluate(AvailabilitySnapshot snapshot, int start, int nights, int guests,
+                                               Room.RoomType roomType) {
+        int[] freeRooms = new int[ROOM_TYPES.length];
+        double[] lowestRate = new double[ROOM_TYPES.length];
+        List<Room> rooms = snapshot.rooms();
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            if ((roomType != null && room.getType() != roomType) || room.getCapacity() < guests
+                    || !snapshot.isFree(i, start, nights)) {
+                continue;
+            }
+            int type = room.getType().ordinal();
+            if (freeRooms[type] == 0 || room.getPricePerNight() < lowestRate[type]) {
+                lowestRate[type] = room.getPricePerNight();
+            }
+            freeRooms[type]++;
+        }
+
+        Map<String, Integer> byType = new LinkedHashMap<>();
+        int total = 0;
+        Room.RoomType cheapest = null;
+        for (Room.RoomType type : ROOM_TYPES) {
+            // Free physical rooms are still capped by type-level holds that have no room yet
+            int available = Math.min(freeRooms[type.ordinal()], snapshot.typeRemaining(type, start, nights));
+            if (available <= 0) {
+                continue;
+            }
+            byType.put(type.name(), available);
+            total += available;
+            if (cheapest == null || lowestRate[type.ordinal()] < lowestRate[cheapest.ordinal()]) {
+                cheapest = type;
+            }
+        }
+        if (total == 0) {
+            return null;
+        }
+        double rate = lowestRate[cheapest.ordinal()];
+        return StayWindowResponse.builder()
+                .checkInDate(snapshot.from().plusDays(start))
+                .checkOutDate(snapshot.from().plusDays(start + nights))
+                .nights(nights)
+                .availableRooms(total)
+                .availableByRoomType(byType)
+                .cheapestRoomType(cheapest.name())
+                .lowestPricePerNight(rate)
+                .lowestTotalPrice(Math.round(rate * nights * 100.0) / 100.0)
+                .build();
+    }
+
+    private static Comparator<StayWindowResponse> ranking(SortBy sortBy) {
+        Comparator<StayWindowResponse> byPrice = Comparator.comparingDouble(StayWindowResponse::getLowestTotalPrice);
+        Comparator<StayWindowResponse> byAvailability =
+                Comparator.comparingInt(StayWindowResponse::getAvailableRooms).reversed();
+        Comparator<StayWindowResponse> primary = sortBy == SortBy.AVAILABILITY
+                ? byAvailability.thenComparing(byPrice)
+                : byPrice.thenComparing(byAvailability);
+        return primary.thenComparing(StayWindowResponse::getCheckInDate);
+    }
+
+    // Day i of the snapshot is from + i; bit i of a room's set means the room is taken that night
+    public record AvailabilitySnapshot(LocalDate from, int days, List<Room> rooms, BitSet[] occupied,
+                                       int[][] typeRemaining) {
+
+        public boolean isFree(int room, int start, int nights) {
+            int next = occupied[room].nextSetBit(start);
+            return next < 0 || next >= start + nights;
+        }
+
+        public int typeRemaining(Room.RoomType type, int start, int nights) {
+            int[] remaining = typeRemaining[type.ordinal()];
+            int min = Integer.MAX_VALUE;
+            for (int day = start; day < start + nights; day++) {
+                min = Math.min(min, remaining[day]);
+            }
+            return min;
+        }
+    }
+}
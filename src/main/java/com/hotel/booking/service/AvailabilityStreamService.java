@@ -0,0 +1,348 @@
+package com.hotel.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.booking.dto.AvailabilityStreamEvent;
+import com.hotel.booking.dto.RoomTypeAvailabilityResponse;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.event.RecurringBookingChangedEvent;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+// Pushes availability changes for a date range to booking front-ends over server-sent events.
+// Subscribers are grouped by range, so a range is computed once however many pages watch it.
+// Booking changes only mark the ranges they overlap; after a short coalescing delay one thread
+// recomputes each marked range, diffs it against what was last sent and queues the delta,
+// serialized once, into each page's outbox. A burst of bookings therefore costs one
+// recomputation per affected range. Writes happen on a separate writer pool, so the dispatcher
+// never waits on a page, and a page that overflows its outbox or stalls a write past the send
+// timeout is dropped. The endpoint is public, so streams are capped per client, and ranges must
+// start within a bounded horizon with only a bounded number of distinct ranges watched at once.
+@Service
+@Slf4j
+public class AvailabilityStreamService {
+
+    private static final int MAX_RANGE_NIGHTS = 30;
+
+    private final RoomService roomService;
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final int maxPerClient;
+    private final int maxRanges;
+    private final int maxDaysAhead;
+    private final long timeoutMs;
+    private final long coalesceMs;
+    private final int queueSize;
+    private final long sendTimeoutNanos;
+    private final Map<Range, RangeState> ranges = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicInteger rangeCount = new AtomicInteger();
+    private final Map<String, Integer> streamsByClient = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Predicate<Range>> changes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    // Every computation happens on this thread, so range state needs no locking
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "availability-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService writers;
+
+    public AvailabilityStreamService(RoomService roomService, ObjectMapper objectMapper,
+                                     @Value("${availability.stream.max-subscribers:10000}") int maxSubscribers,
+                                     @Value("${availability.stream.max-per-client:10}") int maxPerClient,
+                                     @Value("${availability.stream.max-ranges:2000}") int maxRanges,
+                                     @Value("${availability.stream.max-days-ahead:365}") int maxDaysAhead,
+                                     @Value("${availability.stream.timeout-ms:1800000}") long timeoutMs,
+                                     @Value("${availability.stream.coalesce-ms:500}") long coalesceMs,
+                                     @Value("${availability.stream.queue-size:64}") int queueSize,
+                                     @Value("${availability.stream.send-timeout-ms:10000}") long sendTimeoutMs,
+                                     @Value("${availability.stream.writer-threads:4}") int writerThreads) {
+        this.roomService = roomService;
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPerClient = maxPerClient;
+        this.maxRanges = maxRanges;
+        this.maxDaysAhead = maxDaysAhead;
+        this.timeoutMs = timeoutMs;
+        this.coalesceMs = coalesceMs;
+        this.queueSize = queueSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "availability-stream-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        writers.shutdownNow();
+        ranges.values().forEach(state -> state.subscribers.forEach(outbox -> outbox.close(null)));
+        ranges.clear();
+    }
+
+    public SseEmitter subscribe(LocalDate checkIn, LocalDate checkOut, String client) {
+        return register(new SseEmitter(timeoutMs), checkIn, checkOut, client);
+    }
+
+    // Split from subscribe so the fan-out can be exercised without a servlet container
+    SseEmitter register(SseEmitter emitter, LocalDate checkIn, LocalDate checkOut, String client) {
+        LocalDate today = LocalDate.now();
+        if (checkIn == null || checkOut == null || !checkIn.isBefore(checkOut) || checkIn.isBefore(today)) {
+            throw new BadRequestException("Invalid date range");
+        }
+        if (ChronoUnit.DAYS.between(checkIn, checkOut) > MAX_RANGE_NIGHTS) {
+            throw new BadRequestException("Date range cannot exceed " + MAX_RANGE_NIGHTS + " nights");
+        }
+        if (checkIn.isAfter(today.plusDays(maxDaysAhead))) {
+            throw new BadRequestException("Check-in cannot be more than " + maxDaysAhead + " days ahead");
+        }
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ServiceUnavailableException("Too many availability streams open, please retry shortly");
+        }
+        if (streamsByClient.merge(client, 1, Integer::sum) > maxPerClient) {
+            release(client);
+            throw new ServiceUnavailableException("Too many availability streams open from this client");
+        }
+        Range range = new Range(checkIn, checkOut);
+        SseOutbox outbox = new SseOutbox(emitter, queueSize, writers, closed -> unsubscribe(range, client, closed));
+        RangeState state;
+        try {
+            state = ranges.compute(range, (key, current) -> {
+                if (current == null && rangeCount.incrementAndGet() > maxRanges) {
+                    rangeCount.decrementAndGet();
+                    throw new ServiceUnavailableException("Too many distinct date ranges watched, please retry shortly");
+                }
+                RangeState result = current != null ? current : new RangeState(key);
+                result.subscribers.add(outbox);
+                return result;
+            });
+        } catch (ServiceUnavailableException e) {
+            release(client);
+            throw e;
+        }
+        emitter.onCompletion(outbox::discard);
+        emitter.onTimeout(outbox::discard);
+        emitter.onError(e -> outbox.discard());
+        dispatcher.execute(() -> sendSnapshot(state, outbox));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        BookingSnapshot before = event.before();
+        BookingSnapshot after = event.after();
+        if (before != null && after != null && Objects.equals(before.roomId(), after.roomId())
+                && before.roomType() == after.roomType() && before.status() == after.status()
+                && before.checkInDate().equals(after.checkInDate()) && before.checkOutDate().equals(after.checkOutDate())) {
+            // Payment or price only
+            return;
+        }
+        for (BookingSnapshot booking : new BookingSnapshot[] {before, after}) {
+            if (booking != null) {
+                LocalDate from = booking.checkInDate();
+                LocalDate to = booking.checkOutDate();
+                changes.add(range -> range.checkIn.isBefore(to) && from.isBefore(range.checkOut));
+            }
+        }
+        scheduleFlush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecurringBookingChanged(RecurringBookingChangedEvent event) {
+        if (event.before() != null) {
+            changes.add(range -> event.before().overlaps(range.checkIn, range.checkOut));
+        }
+        if (event.after() != null) {
+            changes.add(range -> event.after().overlaps(range.checkIn, range.checkOut));
+        }
+        scheduleFlush();
+    }
+
+    // Comments keep proxies from closing idle streams and reveal pages that have gone away
+    @Scheduled(fixedDelayString = "${availability.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (RangeState state : ranges.values()) {
+            for (SseOutbox outbox : state.subscribers) {
+                outbox.offer(SseEmitter.event().comment("keep-alive"));
+            }
+        }
+    }
+
+    // A page whose socket stopped draining would otherwise hold a writer until the container
+    // gives up on the write
+    @Scheduled(fixedDelayString = "${availability.stream.watchdog-ms:1000}")
+    public void expireStalledStreams() {
+        long now = System.nanoTime();
+        for (RangeState state : ranges.values()) {
+            for (SseOutbox outbox : state.subscribers) {
+                if (outbox.expire(now, sendTimeoutNanos)) {
+                    log.debug("Dropped an availability stream whose client stopped reading");
+                }
+            }
+        }
+    }
+
+    int streamCount(String client) {
+        return streamsByClient.getOrDefault(client, 0);
+    }
+
+    int rangeCount() {
+        return rangeCount.get();
+    }
+
+    // Runs once per outbox, whichever way the stream ended
+    private void unsubscribe(Range range, String client, SseOutbox outbox) {
+        subscriberCount.decrementAndGet();
+        release(client);
+        ranges.computeIfPresent(range, (key, state) -> {
+            state.subscribers.remove(outbox);
+            if (!state.subscribers.isEmpty()) {
+                return state;
+            }
+            rangeCount.decrementAndGet();
+            return null;
+        });
+    }
+
+    private void release(String client) {
+        streamsByClient.computeIfPresent(client, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            dispatcher.schedule(this::flush, coalesceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        flushScheduled.set(false);
+        List<Predicate<Range>> pending = new ArrayList<>();
+        for (Predicate<Range> change; (change = changes.poll()) != null; ) {
+            pending.add(change);
+        }
+        for (RangeState state : ranges.values()) {
+            if (state.roomIds == null || pending.stream().noneMatch(change -> change.test(state.range))) {
+                continue;
+            }
+            Set<Long> previousRooms = state.roomIds;
+            Map<String, Integer> previousRemaining = state.remainingByType;
+            if (!refresh(state)) {
+                continue;
+            }
+            List<Long> added = state.roomIds.stream().filter(id -> !previousRooms.contains(id)).toList();
+            List<Long> removed = previousRooms.stream().filter(id -> !state.roomIds.contains(id)).toList();
+            Map<String, Integer> remaining = new LinkedHashMap<>();
+            state.remainingByType.forEach((type, count) -> {
+                if (!count.equals(previousRemaining.get(type))) {
+                    remaining.put(type, count);
+                }
+            });
+            if (added.isEmpty() && removed.isEmpty() && remaining.isEmpty()) {
+                continue;
+            }
+            String delta = serialize(AvailabilityStreamEvent.builder()
+                    .checkIn(state.range.checkIn)
+                    .checkOut(state.range.checkOut)
+                    .addedRoomIds(added.isEmpty() ? null : added)
+                    .removedRoomIds(removed.isEmpty() ? null : removed)
+                    .remainingByType(remaining.isEmpty() ? null : remaining)
+                    .build());
+            if (delta != null) {
+                for (SseOutbox outbox : state.subscribers) {
+                    outbox.offer(SseEmitter.event().name("delta").data(delta, MediaType.APPLICATION_JSON));
+                }
+            }
+        }
+    }
+
+    // The first subscriber to a range pays for computing it; later ones reuse the last state sent
+    private void sendSnapshot(RangeState state, SseOutbox outbox) {
+        if (state.roomIds == null && !refresh(state)) {
+            outbox.close(new IllegalStateException("Availability could not be computed"));
+            return;
+        }
+        String snapshot = serialize(AvailabilityStreamEvent.builder()
+                .checkIn(state.range.checkIn)
+                .checkOut(state.range.checkOut)
+                .availableRoomIds(new ArrayList<>(state.roomIds))
+                .remainingByType(state.remainingByType)
+                .build());
+        if (snapshot != null) {
+            outbox.offer(SseEmitter.event().name("snapshot").data(snapshot, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private boolean refresh(RangeState state) {
+        try {
+            state.roomIds = new HashSet<>(roomService.getAvailableRoomIds(state.range.checkIn, state.range.checkOut));
+            Map<String, Integer> remaining = new LinkedHashMap<>();
+            for (RoomTypeAvailabilityResponse type
+                    : roomService.getRoomTypeAvailability(state.range.checkIn, state.range.checkOut)) {
+                remaining.put(type.getRoomType(), type.getRemaining());
+            }
+            state.remainingByType = remaining;
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Could not compute availability for {} to {}: {}",
+                    state.range.checkIn, state.range.checkOut, e.getMessage());
+            return false;
+        }
+    }
+
+    private String serialize(AvailabilityStreamEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize availability for {} to {}: {}",
+                    event.getCheckIn(), event.getCheckOut(), e.getMessage());
+            return null;
+        }
+    }
+
+    private record Range(LocalDate checkIn, LocalDate checkOut) {
+    }
+
+    private static final class RangeState {
+        final Range range;
+        final Set<SseOutbox> subscribers = ConcurrentHashMap.newKeySet();
+        // Null until first computed
+        Set<Long> roomIds;
+        Map<String, Integer> remainingByType;
+
+        RangeState(Range range) {
+            this.range = range;
+        }
+    }
+}
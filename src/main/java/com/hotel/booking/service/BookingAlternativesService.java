@@ -0,0 +1,119 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingAlternativeResponse;
+import com.hotel.booking.entity.Room;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+// Alternatives offered with a rejected booking, ranked: the same type on the same dates (as a
+// room-type booking when a specific room was taken), then the same type on nearby dates, then an
+// upgrade. Everything is answered from the in-memory type inventory, so a rejection inside the
+// booking transaction costs no query, and the search stops once the latency budget is spent.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingAlternativesService {
+
+    private static final int MAX_SHIFT_DAYS = 7;
+    private static final int MAX_PER_KIND = 3;
+    private static final int MAX_UPGRADES = 2;
+
+    private final RoomInventoryService roomInventoryService;
+
+    @Value("${booking.alternatives.budget-ms:50}")
+    private long budgetMillis;
+
+    // requestedRoom is null for room-type bookings
+    public List<BookingAlternativeResponse> suggest(Room requestedRoom, Room.RoomType roomType,
+                                                    LocalDate checkIn, LocalDate checkOut, int guests) {
+        long deadline = System.nanoTime() + budgetMillis * 1_000_000;
+        LocalDate today = LocalDate.now();
+        LocalDate from = checkIn.minusDays(MAX_SHIFT_DAYS).isBefore(today) ? today : checkIn.minusDays(MAX_SHIFT_DAYS);
+        LocalDate to = checkOut.plusDays(MAX_SHIFT_DAYS);
+        int offset = (int) ChronoUnit.DAYS.between(from, checkIn);
+        int nights = (int) ChronoUnit.DAYS.between(checkIn, checkOut);
+        RoomInventoryService.TypeSummary requested = roomInventoryService.getSummary(roomType);
+        // Same-type suggestions are type bookings, so they are quoted at the type's rate
+        double typeRate = rateOrZero(requested.lowestRate());
+        double referenceRate = requestedRoom != null ? requestedRoom.getPricePerNight() : typeRate;
+        List<BookingAlternativeResponse> alternatives = new ArrayList<>();
+        int[] remaining = roomInventoryService.remainingByNight(roomType, from, to);
+        boolean typeFits = requested.rooms() > 0 && requested.maxCapacity() >= guests;
+
+        // A specific room was taken but its type still has a unit on every night
+        if (requestedRoom != null && typeFits && min(remaining, offset, nights) > 0) {
+            alternatives.add(alternative("SAME_TYPE", roomType, checkIn, nights, typeRate));
+        }
+
+        // Same type shifted by +1, -1, +2, -2 ... days
+        int shifted = typeFits ? 0 : MAX_PER_KIND;
+        for (int distance = 1; distance <= MAX_SHIFT_DAYS && shifted < MAX_PER_KIND; distance++) {
+            for (int shift : new int[]{distance, -distance}) {
+                if (shifted >= MAX_PER_KIND || System.nanoTime() > deadline) {
+                    break;
+                }
+                int start = offset + shift;
+                if (start < 0 || start + nights > remaining.length || min(remaining, start, nights) == 0) {
+                    continue;
+                }
+                alternatives.add(alternative("SHIFTED_DATES", roomType, from.plusDays(start), nights, typeRate));
+                shifted++;
+            }
+        }
+
+        // Upgrade: each pricier type that fits the party and has a unit on the requested dates
+        List<RoomInventoryService.TypeSummary> upgrades = new ArrayList<>();
+        for (Room.RoomType type : Room.RoomType.values()) {
+            if (type == roomType || System.nanoTime() > deadline) {
+                continue;
+            }
+            RoomInventoryService.TypeSummary summary = roomInventoryService.getSummary(type);
+            if (summary.rooms() > 0 && summary.maxCapacity() >= guests
+                    && rateOrZero(summary.lowestRate()) > referenceRate
+                    && roomInventoryService.remaining(type, checkIn, checkOut) > 0) {
+                upgrades.add(summary);
+            }
+        }
+        upgrades.sort(Comparator.comparingDouble(RoomInventoryService.TypeSummary::lowestRate));
+        upgrades.stream().limit(MAX_UPGRADES).forEach(summary -> alternatives.add(
+                alternative("UPGRADE", summary.type(), checkIn, nights, summary.lowestRate())));
+
+        if (System.nanoTime() > deadline) {
+            log.debug("Alternative search hit its {} ms budget with {} suggestions", budgetMillis, alternatives.size());
+        }
+        return alternatives;
+    }
+
+    private static int min(int[] remaining, int start, int nights) {
+        int min = Integer.MAX_VALUE;
+        for (int day = start; day < start + nights; day++) {
+            min = Math.min(min, remaining[day]);
+        }
+        return min;
+    }
+
+    // Room-type suggestions: the client books the type and a room is assigned later
+    private static BookingAlternativeResponse alternative(String kind, Room.RoomType type, LocalDate checkIn,
+                                                          int nights, double rate) {
+        return BookingAlternativeResponse.builder()
+                .kind(kind)
+                .roomType(type.name())
+                .checkInDate(checkIn)
+                .checkOutDate(checkIn.plusDays(nights))
+                .pricePerNight(rate)
+                .totalPrice(Math.round(rate * nights * 100.0) / 100.0)
+                .build();
+    }
+
+    private static double rateOrZero(Double rate) {
+        return rate != null ? rate : 0.0;
+    }
+}
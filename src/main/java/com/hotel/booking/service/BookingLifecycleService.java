@@ -0,0 +1,167 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.LifecycleSweepResponse;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingLifecycleService {
+
+    static final String SYSTEM_USER = "SYSTEM";
+    static final String EXPIRY_REASON = "Expired: payment not received within the hold window";
+
+    private static final Set<Booking.BookingStatus> NO_SHOW_CANDIDATES =
+            EnumSet.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED);
+    // Checked-in stays past their departure date are deliberately not completed: that would skip
+    // the check-out and its settlement while the guest may still be in the room. They stay on the
+    // front desk's departures, flagged overdue, and every sweep reports how many there are.
+    private static final Set<Booking.BookingStatus> COMPLETION_CANDIDATES =
+            EnumSet.of(Booking.BookingStatus.CHECKED_OUT);
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RoomInventoryService roomInventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${booking.lifecycle.pending-expiry-minutes:30}")
+    private long pendingExpiryMinutes;
+
+    @Value("${booking.lifecycle.chunk-size:500}")
+    private int chunkSize;
+
+    private volatile long lastOverdue;
+
+    @Scheduled(fixedDelayString = "${booking.lifecycle.sweep-interval-ms:60000}",
+            initialDelayString = "${booking.lifecycle.initial-delay-ms:30000}")
+    public void scheduledSweep() {
+        LifecycleSweepResponse result = sweep();
+        if (result.getTotalUpdated() > 0) {
+            log.info("Lifecycle sweep updated {} bookings (expired={}, noShow={}, completed={}) in {} ms",
+                    result.getTotalUpdated(), result.getExpiredPending(), result.getMarkedNoShow(),
+                    result.getCompleted(), result.getDurationMillis());
+        }
+        // Logged when the number changes, not on every run
+        if (result.getOverdueCheckedIn() != lastOverdue) {
+            lastOverdue = result.getOverdueCheckedIn();
+            if (lastOverdue > 0) {
+                log.warn("{} checked-in stays are past their departure date and still hold their rooms", lastOverdue);
+            }
+        }
+    }
+
+    // Synchronized so a manual sweep and the scheduled one never work the same chunks concurrently
+    public synchronized LifecycleSweepResponse sweep() {
+        long started = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        int[] chunks = new int[1];
+
+        // Unpaid holds that outlived the payment window
+        LocalDateTime cutoff = now.minusMinutes(pendingExpiryMinutes);
+        int expired = processInChunks(chunks, Booking.BookingStatus.CANCELLED,
+                page -> bookingRepository.findSnapshotsByStatusAndPaymentStatusCreatedBefore(
+                        Booking.BookingStatus.PENDING, Booking.PaymentStatus.PENDING, cutoff, page),
+                ids -> bookingRepository.bulkExpirePending(ids, SYSTEM_USER, EXPIRY_REASON, now));
+
+        // Guests that never arrived: the check-in day has fully passed without a check-in
+        int noShow = processInChunks(chunks, Booking.BookingStatus.NO_SHOW,
+                page -> bookingRepository.findSnapshotsByStatusInAndCheckInBefore(NO_SHOW_CANDIDATES, today, page),
+                ids -> bookingRepository.bulkTransition(ids, NO_SHOW_CANDIDATES,
+                        Booking.BookingStatus.NO_SHOW, now));
+
+        // Checked-out stays whose departure date is behind us
+        int completed = processInChunks(chunks, Booking.BookingStatus.COMPLETED,
+                page -> bookingRepository.findSnapshotsByStatusInAndCheckOutBefore(COMPLETION_CANDIDATES, today, page),
+                ids -> bookingRepository.bulkTransition(ids, COMPLETION_CANDIDATES,
+                        Booking.BookingStatus.COMPLETED, now));
+
+        // Left for the front desk to check out
+        long overdue = bookingRepository.countByStatusAndCheckOutDateBefore(Booking.BookingStatus.CHECKED_IN, today);
+
+        return LifecycleSweepResponse.builder()
+                .expiredPending(expired)
+                .markedNoShow(noShow)
+                .completed(completed)
+                .overdueCheckedIn(overdue)
+                .chunks(chunks[0])
+                .durationMillis(System.currentTimeMillis() - started)
+                .sweptAt(now)
+                .build();
+    }
+
+    // Every chunk runs in its own short transaction. Updated rows drop out of the selection
+    // predicate, so the first page is always the next chunk to process. Selected rows are then
+    // locked, skipping any another transaction holds, and re-read; only rows still exactly as
+    // selected are updated, so the guarded UPDATE changes every one of them and inventory and
+    // events follow the rows actually changed. Skipped rows are left for the next run. Change
+    // events are published inside the transaction and delivered once the chunk commits.
+    private int processInChunks(int[] chunks,
+                                Booking.BookingStatus target,
+                                Function<Pageable, List<BookingSnapshot>> selector,
+                                ToIntFunction<List<Long>> updater) {
+        Pageable firstPage = PageRequest.of(0, chunkSize);
+        int total = 0;
+        while (true) {
+            Integer updated = transactionTemplate.execute(status -> {
+                List<BookingSnapshot> selected = selector.apply(firstPage);
+                if (selected.isEmpty()) {
+                    return null;
+                }
+                List<Long> locked = bookingRepository.lockSkippingLocked(
+                        selected.stream().map(BookingSnapshot::id).collect(Collectors.toList()));
+                Set<BookingSnapshot> current = locked.isEmpty() ? Set.of()
+                        : new HashSet<>(bookingRepository.findSnapshotsByIdIn(locked));
+                List<BookingSnapshot> rows = selected.stream()
+                        .filter(current::contains)
+                        .collect(Collectors.toList());
+                if (rows.isEmpty()) {
+                    return 0;
+                }
+                int count = updater.applyAsInt(rows.stream().map(BookingSnapshot::id).collect(Collectors.toList()));
+                if (count != rows.size()) {
+                    // The rows are locked and unchanged, so this means the guard and the selection disagree
+                    throw new IllegalStateException("Lifecycle sweep updated " + count + " of " + rows.size()
+                            + " locked bookings");
+                }
+                if (!RoomInventoryService.holdsInventory(target)) {
+                    rows.forEach(roomInventoryService::release);
+                }
+                rows.forEach(row -> eventPublisher.publishEvent(
+                        new BookingChangedEvent(row, row.withStatus(target))));
+                return count;
+            });
+            if (updated == null) {
+                return total;
+            }
+            chunks[0]++;
+            total += updated;
+            if (updated == 0) {
+                // Everything left is held or changed by someone else; the next scheduled run retries it
+                return total;
+            }
+        }
+    }
+}
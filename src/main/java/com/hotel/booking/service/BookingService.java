@@ -6,19 +6,26 @@ import com.hotel.booking.dto.CancelBookingRequest;
 import com.hotel.booking.entity.Booking;
 import com.hotel.booking.entity.Guest;
 import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
 import com.hotel.booking.exception.ResourceNotFoundException;
 import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.exception.RoomUnavailableException;
 import com.hotel.booking.repository.BookingRepository;
 import com.hotel.booking.repository.GuestRepository;
+import com.hotel.booking.repository.MaintenanceBlockRepository;
 import com.hotel.booking.repository.RoomRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
-import java.util.Optional;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,6 +35,14 @@ public class BookingService {
     private final BookingRepository bookingRepository;
     private final RoomRepository roomRepository;
     private final GuestRepository guestRepository;
+    private final GuestIdentityService guestIdentityService;
+    private final RoomInventoryService roomInventoryService;
+    private final BookingAlternativesService bookingAlternativesService;
+    private final RecurringBookingService recurringBookingService;
+    private final MaintenanceBlockRepository maintenanceBlockRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicInteger bookingSequence = new AtomicInteger();
 
     public List<BookingResponse> getAllBookings() {
         return bookingRepository.findAll().stream()
@@ -35,6 +50,12 @@ public class BookingService {
                 .collect(Collectors.toList());
     }
 
+    public List<BookingResponse> getBookingsForGuest(Long guestId) {
+        return bookingRepository.findHistoryByGuestId(guestId).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
     public BookingResponse getBookingById(Long id) {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
@@ -43,31 +64,76 @@ public class BookingService {
 
     @Transactional
     public BookingResponse createBooking(BookingRequest request) {
+        return createBooking(request, true);
+    }
+
+    // For callers that retry on their own, e.g. waitlist matching: a rejection is a plain
+    // RoomUnavailableException without the alternatives search
+    @Transactional
+    public BookingResponse createHold(BookingRequest request) {
+        return createBooking(request, false);
+    }
+
+    private BookingResponse createBooking(BookingRequest request, boolean suggestAlternatives) {
         // Validate dates
-        if (request.getCheckInDate().isAfter(request.getCheckOutDate()) ||
+        if (!request.getCheckInDate().isBefore(request.getCheckOutDate()) ||
                 request.getCheckInDate().isBefore(java.time.LocalDate.now())) {
             throw new BadRequestException("Invalid booking dates");
         }
 
-        // Check room exists and is available
-        Room room = roomRepository.findById(request.getRoomId())
-                .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + request.getRoomId()));
+        Room room = null;
+        Room.RoomType roomType;
+        double pricePerNight;
+        if (request.getRoomId() != null) {
+            // Check room exists and is available
+            roomRepository.lockByIdIn(List.of(request.getRoomId()));
+            room = roomRepository.findById(request.getRoomId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + request.getRoomId()));
 
-        if (room.getMaintenanceStatus() != Room.MaintenanceStatus.AVAILABLE) {
-            throw new BadRequestException("Room is not available for booking");
-        }
+            if (!RoomInventoryService.isSellable(room)) {
+                throw unavailable("Room is not available for booking", room, room.getType(), request, suggestAlternatives);
+            }
 
-        // Check room availability for the requested dates
-        boolean isAvailable = bookingRepository.findConflictingBookings(
-                request.getRoomId(), request.getCheckInDate(), request.getCheckOutDate()).isEmpty();
+            // Check room availability for the requested dates
+            boolean isAvailable = bookingRepository.findConflictingBookings(
+                    request.getRoomId(), request.getCheckInDate(), request.getCheckOutDate()).isEmpty()
+                    && !recurringBookingService.hasConflict(
+                    request.getRoomId(), request.getCheckInDate(), request.getCheckOutDate())
+                    && !maintenanceBlockRepository.existsOverlapping(
+                    request.getRoomId(), request.getCheckInDate(), request.getCheckOutDate());
 
-        if (!isAvailable) {
-            throw new BadRequestException("Room is not available for the selected dates");
+            if (!isAvailable) {
+                throw unavailable("Room is not available for the selected dates", room, room.getType(), request, suggestAlternatives);
+            }
+
+            // Check room capacity
+            if (request.getNumberOfGuests() > room.getCapacity()) {
+                throw new BadRequestException("Number of guests exceeds room capacity");
+            }
+            roomType = room.getType();
+            pricePerNight = room.getPricePerNight();
+        } else if (request.getRoomType() != null) {
+            // Room-type booking: sold from the type inventory, a concrete room is assigned later
+            roomType = request.getRoomType();
+            RoomInventoryService.TypeSummary summary = roomInventoryService.getSummary(roomType);
+            if (summary.rooms() == 0) {
+                throw new ResourceNotFoundException("No rooms available of type: " + roomType);
+            }
+            if (request.getNumberOfGuests() > summary.maxCapacity()) {
+                throw new BadRequestException("Number of guests exceeds room capacity");
+            }
+            pricePerNight = summary.lowestRate();
+        } else {
+            throw new BadRequestException("Either room ID or room type is required");
         }
 
-        // Check room capacity
-        if (request.getNumberOfGuests() > room.getCapacity()) {
-            throw new BadRequestException("Number of guests exceeds room capacity");
+        // Every sale, room-level or type-level, takes a unit of the type inventory so type-level
+        // holds can never oversell the physical rooms
+        if (!roomInventoryService.reserve(roomType, request.getCheckInDate(), request.getCheckOutDate())) {
+            throw unavailable(room != null
+                    ? "Room is not available for the selected dates"
+                    : "Room type " + roomType + " is sold out for the selected dates", room, roomType, request,
+                    suggestAlternatives);
         }
 
         // Find or create guest
@@ -76,27 +142,24 @@ public class BookingService {
             guest = guestRepository.findById(request.getGuestId())
                     .orElseThrow(() -> new ResourceNotFoundException("Guest not found with id: " + request.getGuestId()));
         } else {
-            // Check if guest exists by email
-            Optional<Guest> existingGuest = guestRepository.findByEmail(request.getGuestEmail());
-            if (existingGuest.isPresent()) {
-                guest = existingGuest.get();
-            } else {
-                // Create new guest
-                guest = createGuestFromBooking(request);
-            }
+            guest = guestIdentityService.findOrCreate(request.getGuestEmail(), () -> newGuestFromBooking(request));
         }
 
         // Create booking
         Booking booking = convertToEntity(request);
         booking.setRoom(room);
+        booking.setRoomType(roomType);
         booking.setGuest(guest);
         booking.setBookingNumber(generateBookingNumber());
         booking.setStatus(Booking.BookingStatus.PENDING);
+        applyPricing(booking, pricePerNight);
 
         Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.created(BookingSnapshot.of(savedBooking)));
         return convertToResponse(savedBooking);
     }
 
+    @Transactional
     public BookingResponse updateBooking(Long id, BookingRequest request) {
         Booking existingBooking = bookingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
@@ -105,27 +168,67 @@ public class BookingService {
         if (existingBooking.getStatus() != Booking.BookingStatus.PENDING) {
             throw new BadRequestException("Can only update pending bookings");
         }
+        BookingSnapshot before = BookingSnapshot.of(existingBooking);
+
+        Long currentRoomId = existingBooking.getRoom() != null ? existingBooking.getRoom().getId() : null;
+        Room.RoomType requestedType = request.getRoomType() != null ? request.getRoomType() : before.roomType();
+        Double pricePerNight = existingBooking.getRoom() != null
+                ? existingBooking.getRoom().getPricePerNight()
+                : roomInventoryService.getSummary(before.roomType()).lowestRate();
 
         // Validate new dates if room is changing
-        if (!existingBooking.getRoom().getId().equals(request.getRoomId()) ||
+        if (!Objects.equals(currentRoomId, request.getRoomId()) ||
+                (request.getRoomId() == null && requestedType != before.roomType()) ||
                 !existingBooking.getCheckInDate().equals(request.getCheckInDate()) ||
                 !existingBooking.getCheckOutDate().equals(request.getCheckOutDate())) {
-            
-            Room room = roomRepository.findById(request.getRoomId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + request.getRoomId()));
 
-            boolean isAvailable = bookingRepository.findConflictingBookingsExcluding(
-                    request.getRoomId(), request.getCheckInDate(), request.getCheckOutDate(), id).isEmpty();
+            Room room = null;
+            Room.RoomType roomType = requestedType;
+            if (request.getRoomId() != null) {
+                // Same lock and checks as a new booking on the room
+                roomRepository.lockByIdIn(List.of(request.getRoomId()));
+                room = roomRepository.findById(request.getRoomId())
+                        .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + request.getRoomId()));
+                if (!RoomInventoryService.isSellable(room)) {
+                    throw new BadRequestException("Room is not available for booking");
+                }
+
+                boolean isAvailable = bookingRepository.findConflictingBookingsExcluding(
+                        request.getRoomId(), request.getCheckInDate(), request.getCheckOutDate(), id).isEmpty()
+                        && !recurringBookingService.hasConflict(
+                        request.getRoomId(), request.getCheckInDate(), request.getCheckOutDate())
+                        && !maintenanceBlockRepository.existsOverlapping(
+                        request.getRoomId(), request.getCheckInDate(), request.getCheckOutDate());
+
+                if (!isAvailable) {
+                    throw new BadRequestException("Room is not available for the selected dates");
+                }
+                roomType = room.getType();
+                pricePerNight = room.getPricePerNight();
+            } else {
+                RoomInventoryService.TypeSummary summary = roomInventoryService.getSummary(roomType);
+                if (summary.rooms() == 0) {
+                    throw new ResourceNotFoundException("No rooms available of type: " + roomType);
+                }
+                pricePerNight = summary.lowestRate();
+            }
 
-            if (!isAvailable) {
+            // Hand back the old nights first so an overlapping new stay can reuse them
+            roomInventoryService.release(before);
+            if (!roomInventoryService.reserve(roomType, request.getCheckInDate(), request.getCheckOutDate())) {
                 throw new BadRequestException("Room is not available for the selected dates");
             }
 
             existingBooking.setRoom(room);
+            existingBooking.setRoomType(roomType);
         }
 
         updateEntityFromRequest(existingBooking, request);
+        if (pricePerNight != null) {
+            applyPricing(existingBooking, pricePerNight);
+        }
         Booking updatedBooking = bookingRepository.save(existingBooking);
+        eventPublisher.publishEvent(new BookingChangedEvent(before, BookingSnapshot.of(updatedBooking)));
         return convertToResponse(updatedBooking);
     }
 
@@ -137,12 +240,15 @@ public class BookingService {
         if (booking.getStatus() == Booking.BookingStatus.CANCELLED) {
             throw new BadRequestException("Booking is already cancelled");
         }
+        BookingSnapshot before = BookingSnapshot.of(booking);
 
         booking.setStatus(Booking.BookingStatus.CANCELLED);
         booking.setCancellationReason(request.getReason());
         booking.setCancelledAt(LocalDateTime.now());
+        roomInventoryService.release(before);
 
         Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(before, BookingSnapshot.of(savedBooking)));
         return convertToResponse(savedBooking);
     }
 
@@ -153,12 +259,55 @@ public class BookingService {
         if (booking.getStatus() != Booking.BookingStatus.PENDING) {
             throw new BadRequestException("Can only confirm pending bookings");
         }
+        BookingSnapshot before = BookingSnapshot.of(booking);
 
         booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        booking.setConfirmedAt(LocalDateTime.now());
         Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(before, BookingSnapshot.of(savedBooking)));
         return convertToResponse(savedBooking);
     }
 
+    @Transactional
+    public BookingResponse assignRoom(Long id, Long roomId) {
+        Booking booking = bookingRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
+
+        if (!RoomInventoryService.holdsInventory(booking.getStatus())) {
+            throw new BadRequestException("Cannot assign a room to a " + booking.getStatus() + " booking");
+        }
+        BookingSnapshot before = BookingSnapshot.of(booking);
+
+        roomRepository.lockByIdIn(List.of(roomId));
+        Room room = roomRepository.findById(roomId)
+                .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + roomId));
+
+        // The type inventory is already held, so the room must come from the same type
+        if (room.getType() != before.roomType()) {
+            throw new BadRequestException("Room " + room.getRoomNumber() + " is not of type " + before.roomType());
+        }
+        if (!RoomInventoryService.isSellable(room)) {
+            throw new BadRequestException("Room " + room.getRoomNumber() + " is not available for booking");
+        }
+        if (booking.getNumberOfGuests() > room.getCapacity()) {
+            throw new BadRequestException("Number of guests exceeds room capacity");
+        }
+        boolean isAvailable = bookingRepository.findConflictingBookingsExcluding(
+                roomId, booking.getCheckInDate(), booking.getCheckOutDate(), id).isEmpty()
+                && !recurringBookingService.hasConflict(roomId, booking.getCheckInDate(), booking.getCheckOutDate())
+                && !maintenanceBlockRepository.existsOverlapping(roomId, booking.getCheckInDate(), booking.getCheckOutDate());
+        if (!isAvailable) {
+            throw new BadRequestException("Room is not available for the selected dates");
+        }
+
+        booking.setRoom(room);
+        booking.setRoomType(room.getType());
+        Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(before, BookingSnapshot.of(savedBooking)));
+        return convertToResponse(savedBooking);
+    }
+
+    @Transactional
     public void deleteBooking(Long id) {
         Booking booking = bookingRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
@@ -168,10 +317,13 @@ public class BookingService {
             throw new BadRequestException("Cannot delete confirmed bookings. Cancel first.");
         }
 
+        BookingSnapshot before = BookingSnapshot.of(booking);
+        roomInventoryService.release(before);
         bookingRepository.delete(booking);
+        eventPublisher.publishEvent(BookingChangedEvent.deleted(before));
     }
 
-    private Guest createGuestFromBooking(BookingRequest request) {
+    private Guest newGuestFromBooking(BookingRequest request) {
         Guest guest = new Guest();
         // Parse first and last name from full name
         String[] nameParts = request.getGuestName().split(" ", 2);
@@ -184,12 +336,29 @@ public class BookingService {
         guest.setAddressState(request.getAddressState());
         guest.setAddressCountry(request.getAddressCountry());
         guest.setAddressPostalCode(request.getAddressPostalCode());
-        return guestRepository.save(guest);
+        return guest;
+    }
+
+    private void applyPricing(Booking booking, double pricePerNight) {
+        int nights = (int) ChronoUnit.DAYS.between(booking.getCheckInDate(), booking.getCheckOutDate());
+        booking.setNumberOfNights(nights);
+        booking.setTotalPrice(nights * pricePerNight);
+    }
+
+    // Rejection carrying ranked alternatives, computed now so the client need not search again
+    private RoomUnavailableException unavailable(String message, Room room, Room.RoomType roomType,
+                                                 BookingRequest request, boolean suggestAlternatives) {
+        if (!suggestAlternatives) {
+            return new RoomUnavailableException(message, List.of());
+        }
+        return new RoomUnavailableException(message, bookingAlternativesService.suggest(room, roomType,
+                request.getCheckInDate(), request.getCheckOutDate(), request.getNumberOfGuests()));
     }
 
     private String generateBookingNumber() {
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        return "BK-" + timestamp;
+        // Sequence suffix keeps numbers unique when several bookings are created in the same second
+        return "BK-" + timestamp + "-" + String.format("%03d", Math.floorMod(bookingSequence.getAndIncrement(), 1000));
     }
 
     private Booking convertToEntity(BookingRequest request) {
@@ -218,8 +387,10 @@ public class BookingService {
         return BookingResponse.builder()
                 .id(booking.getId())
                 .bookingNumber(booking.getBookingNumber())
-                .roomId(booking.getRoom().getId())
-                .roomNumber(booking.getRoom().getRoomNumber())
+                .roomId(booking.getRoom() != null ? booking.getRoom().getId() : null)
+                .roomNumber(booking.getRoom() != null ? booking.getRoom().getRoomNumber() : null)
+                .roomType(booking.getRoomType() != null ? booking.getRoomType().name()
+                        : booking.getRoom() != null ? booking.getRoom().getType().name() : null)
                 .guestId(booking.getGuest() != null ? booking.getGuest().getId() : null)
                 .guestName(booking.getGuestName())
                 .guestEmail(booking.getGuestEmail())
@@ -227,9 +398,14 @@ public class BookingService {
                 .checkInDate(booking.getCheckInDate())
                 .checkOutDate(booking.getCheckOutDate())
                 .numberOfGuests(booking.getNumberOfGuests())
+                .numberOfNights(booking.getNumberOfNights())
                 .specialRequests(booking.getSpecialRequests())
                 .status(booking.getStatus() != null ? booking.getStatus().name() : null)
+                .paymentStatus(booking.getPaymentStatus() != null ? booking.getPaymentStatus().name() : null)
                 .totalPrice(booking.getTotalPrice())
+                .confirmedAt(booking.getConfirmedAt())
+                .checkedInAt(booking.getCheckedInAt())
+                .checkedOutAt(booking.getCheckedOutAt())
                 .createdAt(booking.getCreatedAt())
                 .updatedAt(booking.getUpdatedAt())
                 .build();
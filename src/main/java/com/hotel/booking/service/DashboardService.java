@@ -0,0 +1,203 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.LiveDashboardResponse;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.Message;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.event.MessageChangedEvent;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.MessageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardService {
+
+    private static final Set<Booking.BookingStatus> EXPECTED_ARRIVAL_STATUSES =
+            EnumSet.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED);
+    private static final Set<Booking.BookingStatus> ACTIVE_STATUSES = EnumSet.of(
+            Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.CHECKED_IN);
+    private static final Set<Booking.PaymentStatus> OUTSTANDING_PAYMENT_STATUSES =
+            EnumSet.of(Booking.PaymentStatus.PENDING, Booking.PaymentStatus.PARTIAL);
+
+    private final BookingRepository bookingRepository;
+    private final MessageRepository messageRepository;
+
+    private final AtomicReference<Counters> counters = new AtomicReference<>(new Counters(LocalDate.MIN));
+    // Held shared by a change from just before its commit until it is counted, and exclusively
+    // by a reseed, so a reseed never counts a commit whose adjustment is still to come
+    private final ReentrantReadWriteLock reseedLock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reseed();
+    }
+
+    // Periodic re-verification against the database corrects any drift from missed events
+    @Scheduled(fixedDelayString = "${dashboard.verify-interval-ms:300000}",
+            initialDelayString = "${dashboard.verify-interval-ms:300000}")
+    public void verify() {
+        Counters previous = counters.get();
+        Counters fresh = reseed();
+        if (previous.date.equals(fresh.date) && !previous.sameValues(fresh)) {
+            log.warn("Dashboard counters drifted from the database and were re-seeded");
+        }
+    }
+
+    public LiveDashboardResponse getLiveCounters() {
+        Counters current = counters.get();
+        if (!current.date.equals(LocalDate.now())) {
+            // Day rolled over: arrivals and departures belong to a new date
+            current = reseed();
+        }
+        return LiveDashboardResponse.builder()
+                .date(current.date)
+                .arrivals(current.arrivals.get())
+                .departures(current.departures.get())
+                .inHouse(current.inHouse.get())
+                .pendingConfirmations(current.pendingConfirmations.get())
+                .outstandingPayments(current.outstandingPayments.get())
+                .unreadMessages(current.unreadMessages.get())
+                .lastVerifiedAt(current.verifiedAt)
+                .build();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        afterCommit(() -> {
+            Counters current = counters.get();
+            adjust(current.arrivals, isArrival(event.before(), current.date), isArrival(event.after(), current.date));
+            adjust(current.departures, isDeparture(event.before(), current.date),
+                    isDeparture(event.after(), current.date));
+            adjust(current.inHouse, hasStatus(event.before(), Booking.BookingStatus.CHECKED_IN),
+                    hasStatus(event.after(), Booking.BookingStatus.CHECKED_IN));
+            adjust(current.pendingConfirmations, hasStatus(event.before(), Booking.BookingStatus.PENDING),
+                    hasStatus(event.after(), Booking.BookingStatus.PENDING));
+            adjust(current.outstandingPayments, isAwaitingPayment(event.before()), isAwaitingPayment(event.after()));
+        });
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onMessageChanged(MessageChangedEvent event) {
+        afterCommit(() -> adjust(counters.get().unreadMessages,
+                event.before() == Message.MessageStatus.NEW, event.after() == Message.MessageStatus.NEW));
+    }
+
+    // Applies the adjustment once the transaction has committed, holding the reseed fence from
+    // before the commit until then. Outside a transaction the change is already committed.
+    private void afterCommit(Runnable adjustment) {
+        reseedLock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                adjustment.run();
+            } finally {
+                reseedLock.readLock().unlock();
+            }
+            return;
+        }
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            adjustment.run();
+                        }
+                    } finally {
+                        reseedLock.readLock().unlock();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            reseedLock.readLock().unlock();
+            throw e;
+        }
+    }
+
+    private synchronized Counters reseed() {
+        LocalDate today = LocalDate.now();
+        Counters fresh = new Counters(today);
+        reseedLock.writeLock().lock();
+        try {
+            fresh.arrivals.set(bookingRepository.countByCheckInDateAndStatusIn(today, EXPECTED_ARRIVAL_STATUSES));
+            fresh.departures.set(bookingRepository.countByCheckOutDateAndStatus(today, Booking.BookingStatus.CHECKED_IN));
+            fresh.inHouse.set(bookingRepository.countByStatus(Booking.BookingStatus.CHECKED_IN));
+            fresh.pendingConfirmations.set(bookingRepository.countByStatus(Booking.BookingStatus.PENDING));
+            fresh.outstandingPayments.set(bookingRepository.countByStatusInAndPaymentStatusIn(
+                    ACTIVE_STATUSES, OUTSTANDING_PAYMENT_STATUSES));
+            fresh.unreadMessages.set(messageRepository.countByStatus(Message.MessageStatus.NEW));
+            counters.set(fresh);
+        } finally {
+            reseedLock.writeLock().unlock();
+        }
+        return fresh;
+    }
+
+    private static void adjust(AtomicLong counter, boolean before, boolean after) {
+        if (before != after) {
+            counter.addAndGet(after ? 1 : -1);
+        }
+    }
+
+    private static boolean isArrival(BookingSnapshot booking, LocalDate date) {
+        return booking != null && date.equals(booking.checkInDate())
+                && EXPECTED_ARRIVAL_STATUSES.contains(booking.status());
+    }
+
+    private static boolean isDeparture(BookingSnapshot booking, LocalDate date) {
+        return booking != null && date.equals(booking.checkOutDate())
+                && booking.status() == Booking.BookingStatus.CHECKED_IN;
+    }
+
+    private static boolean hasStatus(BookingSnapshot booking, Booking.BookingStatus status) {
+        return booking != null && booking.status() == status;
+    }
+
+    private static boolean isAwaitingPayment(BookingSnapshot booking) {
+        return booking != null && ACTIVE_STATUSES.contains(booking.status())
+                && OUTSTANDING_PAYMENT_STATUSES.contains(booking.paymentStatus());
+    }
+
+    private static final class Counters {
+        final LocalDate date;
+        final LocalDateTime verifiedAt = LocalDateTime.now();
+        final AtomicLong arrivals = new AtomicLong();
+        final AtomicLong departures = new AtomicLong();
+        final AtomicLong inHouse = new AtomicLong();
+        final AtomicLong pendingConfirmations = new AtomicLong();
+        final AtomicLong outstandingPayments = new AtomicLong();
+        final AtomicLong unreadMessages = new AtomicLong();
+
+        Counters(LocalDate date) {
+            this.date = date;
+        }
+
+        boolean sameValues(Counters other) {
+            return arrivals.get() == other.arrivals.get()
+                    && departures.get() == other.departures.get()
+                    && inHouse.get() == other.inHouse.get()
+                    && pendingConfirmations.get() == other.pendingConfirmations.get()
+                    && outstandingPayments.get() == other.outstandingPayments.get()
+                    && unreadMessages.get() == other.unreadMessages.get();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.FrontDeskBoardResponse;
+import com.hotel.booking.dto.FrontDeskEntryResponse;
+import com.hotel.booking.dto.FrontDeskResultResponse;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+// Check-in and check-out for the front desk. Today's arrivals and departures are staged once
+// with room, guest and payment state fetched in the same query, then kept current from booking
+// change events. Requests are validated against that working set and applied with bulk UPDATEs,
+// so a rush of hundreds of arrivals costs a handful of statements rather than a lookup each.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FrontDeskService {
+
+    private static final int BATCH_SIZE = 500;
+    private static final Set<Booking.BookingStatus> ARRIVAL_STATUSES =
+            EnumSet.of(Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED);
+
+    private final BookingRepository bookingRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // null until first use and after any change the events cannot patch in place
+    private volatile Board board;
+
+    public FrontDeskBoardResponse getBoard() {
+        Board current = board();
+        return FrontDeskBoardResponse.builder()
+                .date(current.date)
+                .arrivals(sorted(current.arrivals.values(), current.date))
+                .departures(sorted(current.departures.values(), current.date))
+                .loadedAt(current.loadedAt)
+                .build();
+    }
+
+    public FrontDeskResultResponse checkIn(Collection<Long> bookingIds) {
+        Board current = board();
+        return apply("CHECK_IN", bookingIds, current.arrivals, "Not on today's arrivals",
+                Booking.BookingStatus.CHECKED_IN,
+                (ids, now) -> bookingRepository.bulkCheckIn(ids, ARRIVAL_STATUSES, now),
+                bookingRepository::findIdsCheckedInAt);
+    }
+
+    public FrontDeskResultResponse checkOut(Collection<Long> bookingIds) {
+        Board current = board();
+        return apply("CHECK_OUT", bookingIds, current.departures, "Not on today's departures",
+                Booking.BookingStatus.CHECKED_OUT,
+                bookingRepository::bulkCheckOut,
+                bookingRepository::findIdsCheckedOutAt);
+    }
+
+    // Single-booking variants surface a rejection as an error instead of a partial result
+    public FrontDeskResultResponse checkIn(Long bookingId) {
+        return requireProcessed(checkIn(List.of(bookingId)), bookingId);
+    }
+
+    public FrontDeskResultResponse checkOut(Long bookingId) {
+        return requireProcessed(checkOut(List.of(bookingId)), bookingId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        Board current = board;
+        if (current == null) {
+            return;
+        }
+        BookingSnapshot after = event.after();
+        Long id = after != null ? after.id() : event.before().id();
+        if (!patch(current.arrivals, id, after, isArrival(after, current.date))
+                || !patch(current.departures, id, after, isDeparture(after, current.date))) {
+            // A new or reassigned booking needs its details loaded; restage on next use
+            if (board == current) {
+                board = null;
+            }
+        }
+    }
+
+    private FrontDeskResultResponse apply(String action, Collection<Long> bookingIds, Map<Long, Stay> workingSet,
+                                          String notListed, Booking.BookingStatus target,
+                                          BiFunction<List<Long>, LocalDateTime, Integer> bulkUpdate,
+                                          BiFunction<List<Long>, LocalDateTime, List<Long>> writtenAt) {
+        Set<Long> requested = new LinkedHashSet<>(bookingIds);
+        Map<Long, String> rejected = new LinkedHashMap<>();
+        List<Stay> eligible = new ArrayList<>();
+        for (Long id : requested) {
+            Stay stay = workingSet.get(id);
+            if (stay == null) {
+                rejected.put(id, notListed);
+            } else if (stay.snapshot.roomId() == null) {
+                rejected.put(id, "No room assigned");
+            } else {
+                eligible.add(stay);
+            }
+        }
+
+        List<Long> processed = eligible.isEmpty() ? List.of() : transactionTemplate.execute(status -> {
+            // Stored at the column's precision, so the rows this call wrote can be found by it
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            List<Long> ids = eligible.stream().map(stay -> stay.snapshot.id()).collect(Collectors.toList());
+            int updated = 0;
+            for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+                updated += bulkUpdate.apply(ids.subList(i, Math.min(ids.size(), i + BATCH_SIZE)), now);
+            }
+            Set<Long> done = new HashSet<>(ids);
+            if (updated < ids.size()) {
+                // Another desk or a booking change won the race for some rows. A row another desk
+                // moved to the same status is not ours; only the timestamp this call wrote is.
+                done.clear();
+                for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+                    done.addAll(writtenAt.apply(ids.subList(i, Math.min(ids.size(), i + BATCH_SIZE)), now));
+                }
+            }
+            List<Long> result = new ArrayList<>();
+            for (Stay stay : eligible) {
+                if (done.contains(stay.snapshot.id())) {
+                    eventPublisher.publishEvent(new BookingChangedEvent(stay.snapshot, stay.snapshot.withStatus(target)));
+                    result.add(stay.snapshot.id());
+                } else {
+                    rejected.put(stay.snapshot.id(), "Booking changed since the board was loaded");
+                }
+            }
+            return result;
+        });
+
+        if (!processed.isEmpty()) {
+            log.info("Front desk {} applied to {} of {} bookings", action, processed.size(), requested.size());
+        }
+        return FrontDeskResultResponse.builder()
+                .action(action)
+                .requested(requested.size())
+                .processed(processed.size())
+                .processedBookingIds(processed)
+                .rejected(rejected)
+                .build();
+    }
+
+    private static FrontDeskResultResponse requireProcessed(FrontDeskResultResponse result, Long bookingId) {
+        String reason = result.getRejected().get(bookingId);
+        if (reason != null) {
+            throw new BadRequestException(reason);
+        }
+        return result;
+    }
+
+    private Board board() {
+        Board current = board;
+        if (current != null && current.date.equals(LocalDate.now())) {
+            return current;
+        }
+        synchronized (this) {
+            current = board;
+            LocalDate today = LocalDate.now();
+            if (current == null || !current.date.equals(today)) {
+                current = new Board(today);
+                for (Booking booking : bookingRepository.findArrivalsWithDetails(today, ARRIVAL_STATUSES)) {
+                    current.arrivals.put(booking.getId(), Stay.of(booking));
+                }
+                for (Booking booking : bookingRepository.findDeparturesWithDetails(today)) {
+                    current.departures.put(booking.getId(), Stay.of(booking));
+                }
+                board = current;
+            }
+            return current;
+        }
+    }
+
+    // Applies a booking change to one working set. Returns false when the booking now belongs
+    // there but its staged details (room, payment) can no longer be trusted.
+    private static boolean patch(Map<Long, Stay> workingSet, Long id, BookingSnapshot after, boolean belongs) {
+        Stay staged = workingSet.get(id);
+        if (!belongs) {
+            workingSet.remove(id);
+            return true;
+        }
+        if (staged == null || !Objects.equals(staged.snapshot.roomId(), after.roomId())
+                || staged.snapshot.paymentStatus() != after.paymentStatus()) {
+            return false;
+        }
+        workingSet.put(id, staged.withSnapshot(after));
+        return true;
+    }
+
+    private static boolean isArrival(BookingSnapshot booking, LocalDate date) {
+        return booking != null && date.equals(booking.checkInDate()) && ARRIVAL_STATUSES.contains(booking.status());
+    }
+
+    private static boolean isDeparture(BookingSnapshot booking, LocalDate date) {
+        return booking != null && booking.status() == Booking.BookingStatus.CHECKED_IN
+                && !booking.checkOutDate().isAfter(date);
+    }
+
+    // Overdue departures first: they hold their rooms until the desk checks them out
+    private static List<FrontDeskEntryResponse> sorted(Collection<Stay> stays, LocalDate date) {
+        return stays.stream()
+                .map(stay -> stay.toResponse(date))
+                .sorted(Comparator.comparing(FrontDeskEntryResponse::isOverdue).reversed()
+                        .thenComparing(FrontDeskEntryResponse::getGuestName))
+                .collect(Collectors.toList());
+    }
+
+    private static final class Board {
+        final LocalDate date;
+        final LocalDateTime loadedAt = LocalDateTime.now();
+        final ConcurrentHashMap<Long, Stay> arrivals = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, Stay> departures = new ConcurrentHashMap<>();
+
+        Board(LocalDate date) {
+            this.date = date;
+        }
+    }
+
+    private record Stay(BookingSnapshot snapshot, String bookingNumber, String guestName, String guestPhone,
+                        String roomNumber, Integer numberOfGuests, Double remainingAmount, String specialRequests) {
+
+        static Stay of(Booking booking) {
+            return new Stay(BookingSnapshot.of(booking), booking.getBookingNumber(), booking.getGuestName(),
+                    booking.getGuestPhone(), booking.getRoom() != null ? booking.getRoom().getRoomNumber() : null,
+                    booking.getNumberOfGuests(), booking.getRemainingAmount(), booking.getSpecialRequests());
+        }
+
+        Stay withSnapshot(BookingSnapshot updated) {
+            return new Stay(updated, bookingNumber, guestName, guestPhone, roomNumber, numberOfGuests,
+                    remainingAmount, specialRequests);
+        }
+
+        FrontDeskEntryResponse toResponse(LocalDate date) {
+            return FrontDeskEntryResponse.builder()
+                    .bookingId(snapshot.id())
+                    .bookingNumber(bookingNumber)
+                    .guestId(snapshot.guestId())
+                    .guestName(guestName)
+                    .guestPhone(guestPhone)
+                    .roomId(snapshot.roomId())
+                    .roomNumber(roomNumber)
+                    .roomType(snapshot.roomType() != null ? snapshot.roomType().name() : null)
+                    .checkInDate(snapshot.checkInDate())
+                    .checkOutDate(snapshot.checkOutDate())
+                    .numberOfGuests(numberOfGuests)
+                    .status(snapshot.status().name())
+                    .paymentStatus(snapshot.paymentStatus() != null ? snapshot.paymentStatus().name() : null)
+                    .remainingAmount(remainingAmount)
+                    .specialRequests(specialRequests)
+                    .overdue(snapshot.status() == Booking.BookingStatus.CHECKED_IN
+                            && snapshot.checkOutDate().isBefore(date))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Guest booking totals and loyalty points. Booking changes only add to in-memory per-guest
+// adders; a periodic flush turns the accumulated deltas into one batch of relative updates,
+// so a busy guest never becomes a contended row. Deltas are derived from committed booking
+// changes, so the reconcile query can always rebuild the exact values after a crash.
+// A booking change holds a shared fence from just before its commit until its delta is
+// recorded; reconcile takes the fence exclusively, so every commit it can see is recorded.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GuestCounterService {
+
+    private static final String FLUSH_SQL = "UPDATE guests SET "
+            + "total_bookings = COALESCE(total_bookings, 0) + ?, "
+            + "loyalty_points = COALESCE(loyalty_points, 0) + ?, "
+            + "updated_at = ? WHERE id = ?";
+
+    // Stored values next to the recount, read in one statement so both come from the same commits
+    private static final String RECONCILE_SQL = "SELECT g.id, "
+            + "COALESCE(g.total_bookings, 0), COALESCE(g.loyalty_points, 0), "
+            + "(SELECT COUNT(*) FROM bookings b WHERE b.guest_id = g.id AND b.status <> 'CANCELLED'), "
+            + "(SELECT COALESCE(SUM(FLOOR(b.total_price)), 0) FROM bookings b "
+            + "WHERE b.guest_id = g.id AND b.payment_status = 'PAID') "
+            + "FROM guests g";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${guests.counters.reconcile-on-startup:true}")
+    private boolean reconcileOnStartup;
+
+    // Recording shares the read lock; swapping out a batch to flush takes the write lock so
+    // no delta lands in a map that has already been handed to the flusher. Committing booking
+    // changes hold it shared too, which is what fences reconcile.
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentHashMap<Long, Delta> pending = new ConcurrentHashMap<>();
+    // Batch being written; reads include it until the write commits
+    private volatile Map<Long, Delta> flushing = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (reconcileOnStartup) {
+            int guests = reconcile();
+            log.info("Guest counters reconciled for {} guests", guests);
+        }
+    }
+
+    // Runs just before the booking transaction commits: the delta is recorded once the commit
+    // succeeded, and the fence is held across the commit so reconcile never sees a change whose
+    // delta is still on its way. Outside a transaction the change is already committed.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(event);
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            apply(event);
+                        }
+                    } finally {
+                        swapLock.readLock().unlock();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            swapLock.readLock().unlock();
+            throw e;
+        }
+    }
+
+    private void apply(BookingChangedEvent event) {
+        BookingSnapshot before = event.before();
+        BookingSnapshot after = event.after();
+        Long beforeGuest = before != null ? before.guestId() : null;
+        Long afterGuest = after != null ? after.guestId() : null;
+        if (beforeGuest != null && beforeGuest.equals(afterGuest)) {
+            record(afterGuest, countsAsBooking(after) - countsAsBooking(before),
+                    loyaltyPoints(after) - loyaltyPoints(before));
+            return;
+        }
+        // Booking moved between guests (or was created/deleted): retract from one, credit the other
+        if (beforeGuest != null) {
+            record(beforeGuest, -countsAsBooking(before), -loyaltyPoints(before));
+        }
+        if (afterGuest != null) {
+            record(afterGuest, countsAsBooking(after), loyaltyPoints(after));
+        }
+    }
+
+    public void record(Long guestId, long bookings, long points) {
+        if (bookings == 0 && points == 0) {
+            return;
+        }
+        swapLock.readLock().lock();
+        try {
+            Delta delta = pending.computeIfAbsent(guestId, id -> new Delta());
+            delta.bookings.add(bookings);
+            delta.points.add(points);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    // Deltas recorded for the guest that have not reached the database yet: { bookings, points }
+    public long[] getPendingDelta(Long guestId) {
+        long[] result = new long[2];
+        for (Map<Long, Delta> source : List.of(flushing, pending)) {
+            Delta delta = source.get(guestId);
+            if (delta != null) {
+                result[0] += delta.bookings.sum();
+                result[1] += delta.points.sum();
+            }
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${guests.counters.flush-interval-ms:10000}",
+            initialDelayString = "${guests.counters.flush-interval-ms:10000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int guests = flush();
+        if (guests > 0) {
+            log.info("Flushed pending counters for {} guests on shutdown", guests);
+        }
+    }
+
+    // Writes every pending delta in one transaction. On failure the batch is merged back into
+    // the pending map and retried on the next run, so no delta is lost or applied twice.
+    public synchronized int flush() {
+        Map<Long, Delta> batch;
+        swapLock.writeLock().lock();
+        try {
+            if (pending.isEmpty()) {
+                return 0;
+            }
+            batch = pending;
+            flushing = batch;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        batch.forEach((guestId, delta) -> {
+            long bookings = delta.bookings.sum();
+            long points = delta.points.sum();
+            if (bookings != 0 || points != 0) {
+                rows.add(new Object[]{bookings, points, now, guestId});
+            }
+        });
+        try {
+            if (!rows.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(FLUSH_SQL, rows));
+            }
+            return rows.size();
+        } catch (RuntimeException e) {
+            batch.forEach((guestId, delta) -> record(guestId, delta.bookings.sum(), delta.points.sum()));
+            log.warn("Guest counter flush failed, {} guests kept for retry: {}", rows.size(), e.getMessage());
+            return 0;
+        } finally {
+            flushing = Map.of();
+        }
+    }
+
+    // Recomputes both counters from the bookings table. With the fence held exclusively no
+    // booking change is between its commit and its delta, so stored value plus pending delta
+    // is exactly what the recount should match; the difference replaces the pending deltas and
+    // goes out with the next flush. Only reads run under the fence, so a booking transaction
+    // waiting on it never holds a row reconcile needs.
+    public synchronized int reconcile() {
+        int corrected = 0;
+        List<Object[]> rows;
+        swapLock.writeLock().lock();
+        try {
+            rows = jdbcTemplate.query(RECONCILE_SQL, (rs, i) -> new Object[]{
+                    rs.getLong(1), rs.getLong(4) - rs.getLong(2), rs.getLong(5) - rs.getLong(3)});
+            ConcurrentHashMap<Long, Delta> corrections = new ConcurrentHashMap<>();
+            for (Object[] row : rows) {
+                long bookings = (Long) row[1];
+                long points = (Long) row[2];
+                if (bookings != 0 || points != 0) {
+                    Delta delta = new Delta();
+                    delta.bookings.add(bookings);
+                    delta.points.add(points);
+                    corrections.put((Long) row[0], delta);
+                    long[] expected = sums(pending.get((Long) row[0]));
+                    if (expected[0] != bookings || expected[1] != points) {
+                        corrected++;
+                    }
+                }
+            }
+            pending = corrections;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        if (corrected > 0) {
+            log.info("Guest counter reconcile corrected {} of {} guests", corrected, rows.size());
+        }
+        flush();
+        return rows.size();
+    }
+
+    private static long[] sums(Delta delta) {
+        return delta == null ? new long[2] : new long[]{delta.bookings.sum(), delta.points.sum()};
+    }
+
+    private static long countsAsBooking(BookingSnapshot booking) {
+        return booking != null && booking.status() != Booking.BookingStatus.CANCELLED ? 1 : 0;
+    }
+
+    // One point per whole unit of currency on a paid booking; a refund takes them back
+    private static long loyaltyPoints(BookingSnapshot booking) {
+        if (booking == null || booking.paymentStatus() != Booking.PaymentStatus.PAID
+                || booking.totalPrice() == null) {
+            return 0;
+        }
+        return (long) Math.floor(booking.totalPrice());
+    }
+
+    private static final class Delta {
+        final LongAdder bookings = new LongAdder();
+        final LongAdder points = new LongAdder();
+    }
+}
@@ -0,0 +1,369 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.GuestDedupResponse;
+import com.hotel.booking.exception.BadRequestException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Finds and merges duplicate guest records. Guests are loaded once as normalized keys and
+// blocked by email and phone, so only guests sharing one of them are ever compared; blocks are
+// compared in parallel and matches are grouped with union-find. The oldest guest of a group
+// survives, and the others' bookings, series, reviews and linked accounts are re-pointed with
+// batched UPDATEs.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GuestDedupService implements SmartInitializingSingleton {
+
+    private static final int FETCH_SIZE = 5000;
+    private static final int MIN_PHONE_DIGITS = 7;
+    private static final int PHONE_DIGITS = 10;
+    // A shared desk or agency number would turn into a quadratic block of unrelated guests
+    private static final int MAX_BLOCK_SIZE = 50;
+    private static final int MERGE_BATCH_SIZE = 500;
+    private static final int REPORT_LIMIT = 100;
+
+    private static final String LOAD_SQL = "SELECT id, first_name, last_name, email, phone FROM guests ORDER BY id";
+    // Every guest sharing an address with a row that is not yet stored lower-case
+    private static final String LOAD_UNNORMALIZED_SQL = "SELECT id, first_name, last_name, email, phone FROM guests "
+            + "WHERE LOWER(TRIM(email)) IN (SELECT LOWER(TRIM(email)) FROM guests WHERE email <> LOWER(TRIM(email))) "
+            + "ORDER BY id";
+    private static final String REPOINT_BOOKINGS_SQL = "UPDATE bookings SET guest_id = ? WHERE guest_id = ?";
+    private static final String REPOINT_SERIES_SQL = "UPDATE recurring_bookings SET guest_id = ? WHERE guest_id = ?";
+    private static final String REPOINT_REVIEWS_SQL = "UPDATE reviews SET guest_id = ? WHERE guest_id = ?";
+    private static final String REPOINT_USERS_SQL = "UPDATE users SET guest_id = ? WHERE guest_id = ?";
+    private static final String DELETE_RESTRICTIONS_SQL = "DELETE FROM guest_dietary_restrictions WHERE guest_id = ?";
+    private static final String DELETE_GUEST_SQL = "DELETE FROM guests WHERE id = ?";
+    private static final String UPDATE_EMAIL_SQL = "UPDATE guests SET email = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final GuestCounterService guestCounterService;
+    private final GuestIdentityService guestIdentityService;
+    private final GuestHistoryService guestHistoryService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Guest lookups only match lower-case addresses, so rows written before that would be missed
+    // and a booking would create a second guest beside them. Runs before the web server starts.
+    @Override
+    public void afterSingletonsInstantiated() {
+        int[] result = normalizeStoredEmails();
+        if (result[0] > 0) {
+            log.info("Guest emails normalized for {} guests, merging {} duplicates ({} groups failed)",
+                    result[0], result[1], result[2]);
+        }
+    }
+
+    // Folds every address onto its oldest guest and stores it lower-case; returns the guests
+    // rewritten, the duplicates merged and the groups that failed
+    public int[] normalizeStoredEmails() {
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("A guest de-duplication run is already in progress");
+        }
+        try {
+            List<Candidate> guests = load(LOAD_UNNORMALIZED_SQL);
+            Map<String, Cluster> clusters = new LinkedHashMap<>();
+            for (int i = 0; i < guests.size(); i++) {
+                int index = i;
+                Cluster cluster = clusters.computeIfAbsent(guests.get(i).email, email -> new Cluster(index));
+                if (cluster.survivor != i) {
+                    cluster.duplicates.add(i);
+                    cluster.reasons.add("EMAIL");
+                }
+            }
+            if (clusters.isEmpty()) {
+                return new int[]{0, 0, 0};
+            }
+            int[] merged = merge(guests, new ArrayList<>(clusters.values()));
+            return new int[]{guests.size(), merged[0], merged[2]};
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public GuestDedupResponse deduplicate(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            throw new BadRequestException("A guest de-duplication run is already in progress");
+        }
+        try {
+            return run(dryRun);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private GuestDedupResponse run(boolean dryRun) {
+        long started = System.currentTimeMillis();
+        List<Candidate> guests = load(LOAD_SQL);
+
+        Map<String, List<Integer>> blocks = new HashMap<>();
+        for (int i = 0; i < guests.size(); i++) {
+            Candidate guest = guests.get(i);
+            if (!guest.email.isEmpty()) {
+                blocks.computeIfAbsent("e:" + guest.email, key -> new ArrayList<>()).add(i);
+            }
+            if (guest.phone.length() >= MIN_PHONE_DIGITS) {
+                blocks.computeIfAbsent("p:" + guest.phone, key -> new ArrayList<>()).add(i);
+            }
+        }
+        List<List<Integer>> comparable = new ArrayList<>();
+        int oversized = 0;
+        for (List<Integer> block : blocks.values()) {
+            if (block.size() > MAX_BLOCK_SIZE) {
+                oversized++;
+            } else if (block.size() > 1) {
+                comparable.add(block);
+            }
+        }
+
+        LongAdder comparisons = new LongAdder();
+        List<Match> matches = comparable.parallelStream()
+                .flatMap(block -> compare(guests, block, comparisons).stream())
+                .collect(Collectors.toList());
+
+        // Indices follow guest id order, so the smallest index of a group is its oldest guest
+        int[] parent = new int[guests.size()];
+        Arrays.setAll(parent, i -> i);
+        for (Match match : matches) {
+            int a = find(parent, match.a);
+            int b = find(parent, match.b);
+            if (a != b) {
+                parent[Math.max(a, b)] = Math.min(a, b);
+            }
+        }
+        Map<Integer, Cluster> clusters = new LinkedHashMap<>();
+        for (Match match : matches) {
+            clusters.computeIfAbsent(find(parent, match.a), Cluster::new).reasons.add(match.reason);
+        }
+        for (int i = 0; i < guests.size(); i++) {
+            Cluster cluster = clusters.get(find(parent, i));
+            if (cluster != null && cluster.survivor != i) {
+                cluster.duplicates.add(i);
+            }
+        }
+        List<Cluster> groups = new ArrayList<>(clusters.values());
+        groups.sort((x, y) -> Integer.compare(x.survivor, y.survivor));
+        int duplicates = groups.stream().mapToInt(cluster -> cluster.duplicates.size()).sum();
+
+        int[] merged = {0, 0, 0};
+        if (!dryRun && !groups.isEmpty()) {
+            merged = merge(guests, groups);
+        }
+
+        GuestDedupResponse response = GuestDedupResponse.builder()
+                .dryRun(dryRun)
+                .guestsScanned(guests.size())
+                .blocks(blocks.size())
+                .oversizedBlocks(oversized)
+                .comparisons(comparisons.sum())
+                .duplicateGroups(groups.size())
+                .duplicatesFound(duplicates)
+                .guestsMerged(merged[0])
+                .bookingsRepointed(merged[1])
+                .failedGroups(merged[2])
+                .groups(groups.stream().limit(REPORT_LIMIT).map(cluster -> toGroup(guests, cluster))
+                        .collect(Collectors.toList()))
+                .durationMillis(System.currentTimeMillis() - started)
+                .build();
+        log.info("Guest de-duplication {} {} duplicates in {} groups across {} guests in {} ms",
+                dryRun ? "found" : "merged", dryRun ? duplicates : merged[0], groups.size(), guests.size(),
+                response.getDurationMillis());
+        return response;
+    }
+
+    private List<Candidate> load(String sql) {
+        List<Candidate> guests = new ArrayList<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) rs -> guests.add(Candidate.of(rs.getLong("id"), rs.getString("first_name"),
+                rs.getString("last_name"), rs.getString("email"), rs.getString("phone"))));
+        return guests;
+    }
+
+    private static List<Match> compare(List<Candidate> guests, List<Integer> block, LongAdder comparisons) {
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < block.size(); i++) {
+            Candidate a = guests.get(block.get(i));
+            for (int j = i + 1; j < block.size(); j++) {
+                Candidate b = guests.get(block.get(j));
+                String reason = matchReason(a, b);
+                if (reason != null) {
+                    matches.add(new Match(block.get(i), block.get(j), reason));
+                }
+            }
+        }
+        comparisons.add((long) block.size() * (block.size() - 1) / 2);
+        return matches;
+    }
+
+    // An address is one person; a shared phone number also needs the same name, in any word order
+    private static String matchReason(Candidate a, Candidate b) {
+        if (!a.email.isEmpty() && a.email.equals(b.email)) {
+            return "EMAIL";
+        }
+        if (a.phone.equals(b.phone) && !a.nameKey.isEmpty() && withinOneEdit(a.nameKey, b.nameKey)) {
+            return "PHONE_AND_NAME";
+        }
+        return null;
+    }
+
+    // Each batch is a transaction of whole groups, so a failed batch leaves its guests untouched
+    private int[] merge(List<Candidate> guests, List<Cluster> groups) {
+        // Counter deltas are keyed by guest id; write them before the ids they belong to disappear
+        guestCounterService.flush();
+
+        int merged = 0;
+        int repointed = 0;
+        int failed = 0;
+        List<Cluster> batch = new ArrayList<>();
+        int batchDuplicates = 0;
+        for (int i = 0; i < groups.size(); i++) {
+            batch.add(groups.get(i));
+            batchDuplicates += groups.get(i).duplicates.size();
+            if (batchDuplicates >= MERGE_BATCH_SIZE || i == groups.size() - 1) {
+                try {
+                    repointed += mergeBatch(guests, batch);
+                    merged += batchDuplicates;
+                } catch (DataAccessException e) {
+                    failed += batch.size();
+                    log.warn("Guest merge batch of {} groups failed and was skipped: {}", batch.size(), e.getMessage());
+                }
+                batch = new ArrayList<>();
+                batchDuplicates = 0;
+            }
+        }
+
+        guestCounterService.reconcile();
+        List<Long> affected = new ArrayList<>();
+        for (Cluster cluster : groups) {
+            guestIdentityService.evict(guests.get(cluster.survivor).email);
+            affected.add(guests.get(cluster.survivor).id);
+            for (int i : cluster.duplicates) {
+                guestIdentityService.evict(guests.get(i).email);
+                affected.add(guests.get(i).id);
+            }
+        }
+        guestHistoryService.invalidate(affected);
+        return new int[]{merged, repointed, failed};
+    }
+
+    private int mergeBatch(List<Candidate> guests, List<Cluster> batch) {
+        List<Object[]> repoints = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> emails = new ArrayList<>();
+        for (Cluster cluster : batch) {
+            Candidate survivor = guests.get(cluster.survivor);
+            for (int i : cluster.duplicates) {
+                Candidate duplicate = guests.get(i);
+                repoints.add(new Object[]{survivor.id, duplicate.id});
+                deletes.add(new Object[]{duplicate.id});
+            }
+            // Older rows predate lower-case emails; fix the survivor once its duplicates are gone
+            if (!survivor.email.isEmpty() && !survivor.email.equals(survivor.rawEmail)) {
+                emails.add(new Object[]{survivor.email, survivor.id});
+            }
+        }
+        return transactionTemplate.execute(status -> {
+            int bookings = Arrays.stream(jdbcTemplate.batchUpdate(REPOINT_BOOKINGS_SQL, repoints)).sum();
+            jdbcTemplate.batchUpdate(REPOINT_SERIES_SQL, repoints);
+            jdbcTemplate.batchUpdate(REPOINT_REVIEWS_SQL, repoints);
+            jdbcTemplate.batchUpdate(REPOINT_USERS_SQL, repoints);
+            jdbcTemplate.batchUpdate(DELETE_RESTRICTIONS_SQL, deletes);
+            jdbcTemplate.batchUpdate(DELETE_GUEST_SQL, deletes);
+            if (!emails.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_EMAIL_SQL, emails);
+            }
+            return bookings;
+        });
+    }
+
+    private static GuestDedupResponse.Group toGroup(List<Candidate> guests, Cluster cluster) {
+        Candidate survivor = guests.get(cluster.survivor);
+        return GuestDedupResponse.Group.builder()
+                .survivorId(survivor.id)
+                .survivorName(survivor.name)
+                .survivorEmail(survivor.rawEmail)
+                .duplicateIds(cluster.duplicates.stream().map(i -> guests.get(i).id).collect(Collectors.toList()))
+                .reasons(new ArrayList<>(cluster.reasons))
+                .build();
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    // Catches a single typo ("Jon Smith" / "John Smith") without a full edit-distance table
+    private static boolean withinOneEdit(String a, String b) {
+        if (a.equals(b)) {
+            return true;
+        }
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        String shorter = a.length() <= b.length() ? a : b;
+        String longer = shorter == a ? b : a;
+        int i = 0;
+        while (i < shorter.length() && shorter.charAt(i) == longer.charAt(i)) {
+            i++;
+        }
+        int skip = shorter.length() == longer.length() ? 1 : 0;
+        return shorter.regionMatches(i + skip, longer, i + 1, shorter.length() - i - skip);
+    }
+
+    private record Candidate(long id, String name, String rawEmail, String email, String phone, String nameKey) {
+
+        static Candidate of(long id, String firstName, String lastName, String email, String phone) {
+            String name = ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+            String normalizedEmail = GuestIdentityService.normalize(email);
+            String digits = phone != null ? phone.replaceAll("\\D", "") : "";
+            if (digits.length() > PHONE_DIGITS) {
+                // Drop country and trunk prefixes so "+1 555..." and "555..." block together
+                digits = digits.substring(digits.length() - PHONE_DIGITS);
+            }
+            String nameKey = Arrays.stream(name.toLowerCase(Locale.ROOT).split("[^\\p{L}]+"))
+                    .filter(part -> !part.isEmpty())
+                    .sorted()
+                    .collect(Collectors.joining(" "));
+            return new Candidate(id, name, email, normalizedEmail != null ? normalizedEmail : "", digits, nameKey);
+        }
+    }
+
+    private record Match(int a, int b, String reason) {
+    }
+
+    private static final class Cluster {
+        final int survivor;
+        final List<Integer> duplicates = new ArrayList<>();
+        final TreeSet<String> reasons = new TreeSet<>();
+
+        Cluster(int survivor) {
+            this.survivor = survivor;
+        }
+    }
+}
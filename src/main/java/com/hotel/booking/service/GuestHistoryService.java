@@ -0,0 +1,89 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.exception.ResourceNotFoundException;
+import com.hotel.booking.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Booking history for the signed-in guest. Each guest's list is read once along the
+// (guest_id, created_at) index and kept until a change to one of their bookings drops it.
+// A load records a placeholder first, so an invalidation that lands mid-query wins over
+// the now stale result.
+@Service
+@RequiredArgsConstructor
+public class GuestHistoryService {
+
+    private final BookingService bookingService;
+    private final UserRepository userRepository;
+
+    @Value("${guests.history.cache-size:5000}")
+    private int cacheSize;
+
+    private Map<Long, Entry> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    // Only the guest the account was explicitly linked to; usernames say nothing about guests
+    public List<BookingResponse> getMyBookings(String username) {
+        Long guestId = userRepository.findGuestIdByUsername(username).orElseThrow(() -> new ResourceNotFoundException(
+                "No guest profile is linked to this account; link one with a booking number and email"));
+        Entry entry;
+        synchronized (cache) {
+            entry = cache.get(guestId);
+            if (entry == null || entry.bookings == null) {
+                entry = new Entry();
+                cache.put(guestId, entry);
+            } else {
+                return entry.bookings;
+            }
+        }
+        List<BookingResponse> bookings = List.copyOf(bookingService.getBookingsForGuest(guestId));
+        synchronized (cache) {
+            if (cache.get(guestId) == entry) {
+                entry.bookings = bookings;
+            }
+        }
+        return bookings;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        synchronized (cache) {
+            if (event.before() != null && event.before().guestId() != null) {
+                cache.remove(event.before().guestId());
+            }
+            if (event.after() != null && event.after().guestId() != null) {
+                cache.remove(event.after().guestId());
+            }
+        }
+    }
+
+    // For writes that bypass booking events, such as guest merges
+    public void invalidate(Collection<Long> guestIds) {
+        synchronized (cache) {
+            guestIds.forEach(cache::remove);
+        }
+    }
+
+    private static final class Entry {
+        List<BookingResponse> bookings;
+    }
+}
@@ -0,0 +1,262 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.GuestIdentityStatsResponse;
+import com.hotel.booking.entity.Guest;
+import com.hotel.booking.exception.ServiceUnavailableException;
+import com.hotel.booking.repository.GuestRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Resolves a guest email to its guest, creating the guest on first sight. Emails are hashed
+// onto a fixed set of stripes; each stripe owns a small LRU map of email -> guest id behind a
+// lock that is only held for the map itself, never across a query. A cached email costs no
+// query at all. New guests are inserted in the caller's transaction and cached once it commits;
+// the unique index on email decides between concurrent creators, and the loser picks up the
+// winner's row.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GuestIdentityService {
+
+    private static final int STRIPES = 64;
+
+    private static final String INSERT_SQL = "INSERT INTO guests (first_name, last_name, email, phone, "
+            + "address_street, address_city, address_state, address_postal_code, address_country, "
+            + "smoking_preference, membership_tier, loyalty_points, total_bookings, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, ?, ?)";
+
+    private final GuestRepository guestRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${guests.identity.cache-size:10000}")
+    private int cacheSize;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        int perStripe = Math.max(1, cacheSize / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    public static String normalize(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // The returned guest is a reference; it is only loaded if the caller reads more than its id
+    public Guest findOrCreate(String email, Supplier<Guest> factory) {
+        return guestRepository.getReferenceById(findOrCreateId(email, factory));
+    }
+
+    public Long findOrCreateId(String email, Supplier<Guest> factory) {
+        String key = normalize(email);
+        Stripe stripe = stripeFor(key);
+        long generation;
+        stripe.lock.lock();
+        try {
+            Long id = stripe.ids.get(key);
+            if (id != null) {
+                hits.increment();
+                return id;
+            }
+            generation = stripe.generation;
+        } finally {
+            stripe.lock.unlock();
+        }
+        misses.increment();
+        Long id = guestRepository.findIdByEmail(key).orElse(null);
+        if (id == null) {
+            id = create(key, factory);
+        }
+        remember(stripe, key, id, generation);
+        return id;
+    }
+
+    // Lookup only: an unknown address is not cached, so a later booking still creates its guest
+    public Optional<Long> findId(String email) {
+        String key = normalize(email);
+        Stripe stripe = stripeFor(key);
+        long generation;
+        stripe.lock.lock();
+        try {
+            Long id = stripe.ids.get(key);
+            if (id != null) {
+                hits.increment();
+                return Optional.of(id);
+            }
+            generation = stripe.generation;
+        } finally {
+            stripe.lock.unlock();
+        }
+        misses.increment();
+        Optional<Long> found = guestRepository.findIdByEmail(key);
+        found.ifPresent(guestId -> remember(stripe, key, guestId, generation));
+        return found;
+    }
+
+    // Guests merged away or re-addressed must not be served from the cache; lookups that were
+    // already under way when the entry went are not cached either
+    public void evict(String email) {
+        String key = normalize(email);
+        Stripe stripe = stripeFor(key);
+        stripe.lock.lock();
+        try {
+            stripe.ids.remove(key);
+            stripe.generation++;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    public GuestIdentityStatsResponse getStats() {
+        int cached = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                cached += stripe.ids.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return GuestIdentityStatsResponse.builder()
+                .cachedEmails(cached)
+                .capacity(stripes[0].capacity * STRIPES)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(lookups > 0 ? Math.round(hitCount * 10000.0 / lookups) / 100.0 : 0.0)
+                .guestsCreated(created.sum())
+                .createConflicts(conflicts.sum())
+                .build();
+    }
+
+    // Inserted on the caller's connection under a savepoint, so losing the race to another
+    // creator leaves the caller's transaction usable
+    private Long create(String email, Supplier<Guest> factory) {
+        Guest guest = factory.get();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Long id = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            Savepoint savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                statement.setString(1, guest.getFirstName());
+                statement.setString(2, guest.getLastName());
+                statement.setString(3, email);
+                statement.setString(4, guest.getPhone());
+                statement.setString(5, guest.getAddressStreet());
+                statement.setString(6, guest.getAddressCity());
+                statement.setString(7, guest.getAddressState());
+                statement.setString(8, guest.getAddressPostalCode());
+                statement.setString(9, guest.getAddressCountry());
+                statement.setBoolean(10, Boolean.TRUE.equals(guest.getSmokingPreference()));
+                statement.setString(11, guest.getMembershipTier().name());
+                statement.setTimestamp(12, now);
+                statement.setTimestamp(13, now);
+                statement.executeUpdate();
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    keys.next();
+                    long generated = keys.getLong(1);
+                    if (savepoint != null) {
+                        connection.releaseSavepoint(savepoint);
+                    }
+                    return generated;
+                }
+            } catch (SQLException e) {
+                if (savepoint != null) {
+                    connection.rollback(savepoint);
+                }
+                // A duplicate key (SQLSTATE class 23), or a transient conflict on the row another
+                // creator just committed, means the guest exists by now
+                if (e instanceof SQLTransientException || (e.getSQLState() != null && e.getSQLState().startsWith("23"))) {
+                    return null;
+                }
+                throw e;
+            }
+        });
+        if (id != null) {
+            created.increment();
+            return id;
+        }
+        conflicts.increment();
+        log.debug("Guest for {} was created concurrently; using the existing row", email);
+        return guestRepository.findIdByEmail(email).orElseThrow(() -> new ServiceUnavailableException(
+                "The guest record for " + email + " is being created by another request; please retry"));
+    }
+
+    // A guest inserted by an open transaction only becomes cacheable once that transaction commits
+    private void remember(Stripe stripe, String key, Long id, long generation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(stripe, key, id, generation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(stripe, key, id, generation);
+            }
+        });
+    }
+
+    private static void put(Stripe stripe, String key, Long id, long generation) {
+        stripe.lock.lock();
+        try {
+            if (stripe.generation == generation) {
+                stripe.ids.put(key, id);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeFor(String key) {
+        return stripes[Math.floorMod(key.hashCode(), STRIPES)];
+    }
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final int capacity;
+        final Map<String, Long> ids;
+        // Bumped by every eviction, guarded by the lock
+        long generation;
+
+        Stripe(int capacity) {
+            this.capacity = capacity;
+            this.ids = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                    return size() > Stripe.this.capacity;
+                }
+            };
+        }
+    }
+}
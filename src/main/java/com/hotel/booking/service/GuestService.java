@@ -0,0 +1,67 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.GuestLinkRequest;
+import com.hotel.booking.dto.GuestResponse;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.Guest;
+import com.hotel.booking.entity.User;
+import com.hotel.booking.exception.ResourceNotFoundException;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.GuestRepository;
+import com.hotel.booking.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class GuestService {
+
+    private final GuestRepository guestRepository;
+    private final GuestCounterService guestCounterService;
+    private final BookingRepository bookingRepository;
+    private final UserRepository userRepository;
+
+    public GuestResponse getGuestById(Long id) {
+        Guest guest = guestRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Guest not found with id: " + id));
+        return convertToResponse(guest);
+    }
+
+    // The booking number and guest email together prove the account holder is that booking's guest
+    @Transactional
+    public GuestResponse linkAccount(String username, GuestLinkRequest request) {
+        Booking booking = bookingRepository.findByBookingNumber(request.getBookingNumber())
+                .filter(b -> b.getGuestEmail() != null && b.getGuestEmail().equalsIgnoreCase(request.getGuestEmail()))
+                .orElseThrow(() -> new ResourceNotFoundException("No booking found for the given booking number and email"));
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
+        user.setGuest(booking.getGuest());
+        return convertToResponse(booking.getGuest());
+    }
+
+    private GuestResponse convertToResponse(Guest guest) {
+        // Stored counters lag behind by at most one flush; add what is still pending
+        long[] pending = guestCounterService.getPendingDelta(guest.getId());
+        return GuestResponse.builder()
+                .id(guest.getId())
+                .firstName(guest.getFirstName())
+                .lastName(guest.getLastName())
+                .email(guest.getEmail())
+                .phone(guest.getPhone())
+                .nationality(guest.getNationality())
+                .preferredRoomType(guest.getPreferredRoomType() != null ? guest.getPreferredRoomType().name() : null)
+                .smokingPreference(guest.getSmokingPreference())
+                .floorPreference(guest.getFloorPreference())
+                .loyaltyPoints((int) (valueOf(guest.getLoyaltyPoints()) + pending[1]))
+                .membershipTier(guest.getMembershipTier() != null ? guest.getMembershipTier().name() : null)
+                .totalBookings((int) (valueOf(guest.getTotalBookings()) + pending[0]))
+                .createdAt(guest.getCreatedAt())
+                .updatedAt(guest.getUpdatedAt())
+                .build();
+    }
+
+    private static long valueOf(Integer counter) {
+        return counter != null ? counter : 0;
+    }
+}
@@ -0,0 +1,226 @@
+package com.hotel.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.booking.entity.IdempotencyRecord;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.exception.ConflictException;
+import com.hotel.booking.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Idempotency-Key support for non-repeatable POSTs. Keys are scoped per endpoint and per
+// caller, so one client can never replay or block another's. The first request with a key owns
+// it and runs; the result is shared through a future, so a duplicate arriving while it is still in
+// flight waits for the same outcome instead of running again. Successful results are kept for
+// the TTL in a bounded map and, when enabled, in the idempotency_keys table so a retry after a
+// restart is still replayed. Failures are not kept: the client may retry them.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    @Value("${idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMs;
+
+    @Value("${idempotency.persistent:false}")
+    private boolean persistent;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Admission order, for dropping the oldest completed keys once the map is full
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<>();
+
+    // Runs the action once per scope, client and key; without a key the request is not idempotent
+    public <T> T execute(String scope, String client, String key, Object request, Class<T> type, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        // Fixed length whatever the client and key, so it always fits the stored id
+        String id = scope + ":" + sha256(client + "\n" + key);
+        String requestHash = fingerprint(request);
+        Entry mine = new Entry(id, requestHash, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes));
+        while (true) {
+            Entry existing = entries.putIfAbsent(id, mine);
+            if (existing == null) {
+                break;
+            }
+            if (existing.isExpired(System.currentTimeMillis())) {
+                entries.remove(id, existing);
+                continue;
+            }
+            return type.cast(await(existing, requestHash));
+        }
+        order.add(mine);
+        trim();
+
+        try {
+            T result = persistent ? loadPersisted(id, requestHash, type).orElse(null) : null;
+            if (result == null) {
+                result = action.get();
+                if (persistent) {
+                    persist(mine, result);
+                }
+            }
+            mine.result.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            entries.remove(id, mine);
+            mine.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:300000}",
+            initialDelayString = "${idempotency.purge-interval-ms:300000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        order.removeIf(entry -> entry.isExpired(now));
+        if (persistent) {
+            Integer removed = transactionTemplate.execute(status ->
+                    idempotencyRecordRepository.deleteExpired(LocalDateTime.now()));
+            if (removed != null && removed > 0) {
+                log.debug("Purged {} expired idempotency keys", removed);
+            }
+        }
+    }
+
+    private Object await(Entry existing, String requestHash) {
+        if (!existing.requestHash.equals(requestHash)) {
+            throw new BadRequestException("Idempotency-Key was already used for a different request");
+        }
+        try {
+            return existing.result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for an idempotent request", e);
+        }
+    }
+
+    // Drops the oldest completed keys; one still in flight has waiters depending on it and is
+    // skipped rather than holding back everything admitted after it
+    private void trim() {
+        Iterator<Entry> oldestFirst = order.iterator();
+        while (entries.size() > maxEntries && oldestFirst.hasNext()) {
+            Entry entry = oldestFirst.next();
+            if (entry.result.isDone()) {
+                oldestFirst.remove();
+                entries.remove(entry.id, entry);
+            }
+        }
+    }
+
+    private <T> Optional<T> loadPersisted(String id, String requestHash, Class<T> type) {
+        Optional<IdempotencyRecord> record = idempotencyRecordRepository.findById(id)
+                .filter(r -> r.getExpiresAt().isAfter(LocalDateTime.now()));
+        if (record.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!record.get().getRequestHash().equals(requestHash)) {
+            throw new BadRequestException("Idempotency-Key was already used for a different request");
+        }
+        try {
+            return Optional.of(objectMapper.readValue(record.get().getResponseBody(), type));
+        } catch (JsonProcessingException e) {
+            log.warn("Stored response for idempotency key {} could not be read: {}", id, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // The action has already committed; losing the stored copy only costs the cross-restart replay
+    private void persist(Entry entry, Object result) {
+        try {
+            IdempotencyRecord record = new IdempotencyRecord();
+            record.setId(entry.id);
+            record.setRequestHash(entry.requestHash);
+            record.setResponseBody(objectMapper.writeValueAsString(result));
+            record.setCreatedAt(LocalDateTime.now());
+            record.setExpiresAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(entry.expiresAt), ZoneId.systemDefault()));
+            idempotencyRecordRepository.save(record);
+        } catch (JsonProcessingException | DataAccessException e) {
+            log.warn("Could not store response for idempotency key {}: {}", entry.id, e.getMessage());
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            return sha256(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not fingerprint request", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        return sha256(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class Entry {
+        final String id;
+        final String requestHash;
+        final long expiresAt;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Entry(String id, String requestHash, long expiresAt) {
+            this.id = id;
+            this.requestHash = requestHash;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
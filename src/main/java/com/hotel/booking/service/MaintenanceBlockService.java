@@ -0,0 +1,166 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.MaintenanceBlockRequest;
+import com.hotel.booking.dto.MaintenanceBlockResponse;
+import com.hotel.booking.entity.MaintenanceBlock;
+import com.hotel.booking.entity.RecurringBooking;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.MaintenanceBlockRemovedEvent;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.exception.ResourceNotFoundException;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.MaintenanceBlockRepository;
+import com.hotel.booking.repository.RecurringBookingRepository;
+import com.hotel.booking.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Scheduled maintenance and out-of-order periods. A block is a room-level interval like a stay:
+// it conflicts with bookings on the same room and takes a unit of the room type off sale.
+@Service
+@RequiredArgsConstructor
+public class MaintenanceBlockService {
+
+    private static final int MAX_BLOCK_DAYS = 366;
+
+    private final MaintenanceBlockRepository maintenanceBlockRepository;
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final RecurringBookingRepository recurringBookingRepository;
+    private final RoomInventoryService roomInventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public List<MaintenanceBlockResponse> createBlock(MaintenanceBlockRequest request) {
+        LocalDate from = request.getStartDate();
+        LocalDate to = request.getEndDate();
+        if (!from.isBefore(to) || from.isBefore(LocalDate.now())) {
+            throw new BadRequestException("Invalid block dates");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_BLOCK_DAYS) {
+            throw new BadRequestException("A block cannot span more than " + MAX_BLOCK_DAYS + " days");
+        }
+        if ((request.getRoomId() == null) == (request.getFloor() == null)) {
+            throw new BadRequestException("Exactly one of room or floor is required");
+        }
+        MaintenanceBlock.BlockKind kind = request.getKind() != null ? request.getKind() : MaintenanceBlock.BlockKind.MAINTENANCE;
+        return request.getRoomId() != null
+                ? List.of(blockRoom(request.getRoomId(), from, to, kind, request.getReason()))
+                : blockFloor(request.getFloor(), from, to, kind, request.getReason());
+    }
+
+    public List<MaintenanceBlockResponse> getBlocks(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new BadRequestException("Invalid date range");
+        }
+        return maintenanceBlockRepository.findOverlapping(from, to).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Nights still ahead go back on sale
+    @Transactional
+    public void deleteBlock(Long id) {
+        MaintenanceBlock block = maintenanceBlockRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Maintenance block not found with id: " + id));
+        Room room = block.getRoom();
+        // A room going on or off sale re-files its blocks under the same lock
+        roomRepository.lockByIdIn(List.of(room.getId()));
+        LocalDate today = LocalDate.now();
+        LocalDate from = block.getStartDate().isBefore(today) ? today : block.getStartDate();
+        // Gives back only what the block took, whatever the room's status is now
+        if (roomInventoryService.countsHoldingsOf(room.getId()) && from.isBefore(block.getEndDate())) {
+            roomInventoryService.release(room.getType(), from, block.getEndDate());
+            eventPublisher.publishEvent(new MaintenanceBlockRemovedEvent(room.getId(), room.getType(),
+                    from, block.getEndDate()));
+        }
+        maintenanceBlockRepository.delete(block);
+    }
+
+    private MaintenanceBlockResponse blockRoom(Long roomId, LocalDate from, LocalDate to,
+                                               MaintenanceBlock.BlockKind kind, String reason) {
+        // Bookings take the same lock, so none can land on the room between the checks and the insert
+        roomRepository.lockByIdIn(List.of(roomId));
+        Room room = roomRepository.findById(roomId)
+                .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + roomId));
+        if (!bookingRepository.findConflictingBookings(roomId, from, to).isEmpty()
+                || recurringBookingRepository.findActiveByRoomOverlapping(roomId, from, to).stream()
+                        .anyMatch(series -> RecurrencePattern.of(series).overlaps(from, to))) {
+            throw new BadRequestException("Room " + room.getRoomNumber() + " is booked during the block");
+        }
+        if (maintenanceBlockRepository.existsOverlapping(roomId, from, to)) {
+            throw new BadRequestException("Room " + room.getRoomNumber() + " is already blocked during these dates");
+        }
+        if (roomInventoryService.countsHoldingsOf(roomId) && !roomInventoryService.reserve(room.getType(), from, to)) {
+            throw new BadRequestException("Room type " + room.getType() + " is fully sold on some nights of the block");
+        }
+
+        MaintenanceBlock block = new MaintenanceBlock();
+        block.setRoom(room);
+        block.setStartDate(from);
+        block.setEndDate(to);
+        block.setKind(kind);
+        block.setReason(reason);
+        return convertToResponse(maintenanceBlockRepository.save(block));
+    }
+
+    // Conflicts are checked with one query per kind of booking for the whole floor, then the
+    // blocks are written with a single INSERT ... SELECT
+    private List<MaintenanceBlockResponse> blockFloor(Integer floor, LocalDate from, LocalDate to,
+                                                      MaintenanceBlock.BlockKind kind, String reason) {
+        // Every room on the floor, in id order like all other room locks
+        if (roomRepository.lockByFloor(floor).isEmpty()) {
+            throw new ResourceNotFoundException("No rooms on floor " + floor);
+        }
+        List<String> booked = new ArrayList<>(bookingRepository.findOccupiedRoomNumbersOnFloor(floor, from, to));
+        for (RecurringBooking series : recurringBookingRepository.findActiveOverlapping(from, to)) {
+            if (floor.equals(series.getRoom().getFloor()) && RecurrencePattern.of(series).overlaps(from, to)) {
+                booked.add(series.getRoom().getRoomNumber());
+            }
+        }
+        if (!booked.isEmpty()) {
+            throw new BadRequestException("Rooms booked during the block: " + booked.stream().distinct().sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        if (maintenanceBlockRepository.existsOverlappingOnFloor(floor, from, to)) {
+            throw new BadRequestException("Floor " + floor + " already has rooms blocked during these dates");
+        }
+        for (Object[] row : roomRepository.countSellableRoomsOnFloorByType(floor)) {
+            Room.RoomType type = (Room.RoomType) row[0];
+            for (long i = (Long) row[1]; i > 0; i--) {
+                if (!roomInventoryService.reserve(type, from, to)) {
+                    throw new BadRequestException("Room type " + type + " is fully sold on some nights of the block");
+                }
+            }
+        }
+
+        maintenanceBlockRepository.insertForFloor(floor, from, to, kind, reason, LocalDateTime.now());
+        return maintenanceBlockRepository.findFloorBlocks(floor, from, to).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    private MaintenanceBlockResponse convertToResponse(MaintenanceBlock block) {
+        Room room = block.getRoom();
+        return MaintenanceBlockResponse.builder()
+                .id(block.getId())
+                .roomId(room.getId())
+                .roomNumber(room.getRoomNumber())
+                .floor(room.getFloor())
+                .startDate(block.getStartDate())
+                .endDate(block.getEndDate())
+                .kind(block.getKind().name())
+                .reason(block.getReason())
+                .createdAt(block.getCreatedAt())
+                .build();
+    }
+}
@@ -6,12 +6,14 @@ import com.hotel.booking.dto.MessageResponseRequest;
 import com.hotel.booking.entity.Booking;
 import com.hotel.booking.entity.Message;
 import com.hotel.booking.entity.User;
+import com.hotel.booking.event.MessageChangedEvent;
 import com.hotel.booking.exception.ResourceNotFoundException;
 import com.hotel.booking.exception.BadRequestException;
 import com.hotel.booking.repository.BookingRepository;
 import com.hotel.booking.repository.MessageRepository;
 import com.hotel.booking.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
@@ -27,12 +29,14 @@ public class MessageService {
     private final MessageRepository messageRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public MessageResponse sendMessage(MessageRequest request) {
         Message message = convertToEntity(request);
         message.setStatus(Message.MessageStatus.NEW);
         
         Message savedMessage = messageRepository.save(message);
+        eventPublisher.publishEvent(MessageChangedEvent.of(savedMessage, null));
         return convertToResponse(savedMessage);
     }
 
@@ -51,6 +55,7 @@ public class MessageService {
             message.setStatus(Message.MessageStatus.READ);
             message.setReadAt(LocalDateTime.now());
             messageRepository.save(message);
+            eventPublisher.publishEvent(MessageChangedEvent.of(message, Message.MessageStatus.NEW));
         }
         
         return convertToResponse(message);
@@ -69,12 +74,14 @@ public class MessageService {
         User respondingUser = userRepository.findByUsername(authentication.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
+        Message.MessageStatus previousStatus = message.getStatus();
         message.setAdminResponse(request.getResponse());
         message.setRespondedAt(LocalDateTime.now());
         message.setAssignedTo(respondingUser);
         message.setStatus(Message.MessageStatus.RESPONDED);
 
         Message savedMessage = messageRepository.save(message);
+        eventPublisher.publishEvent(MessageChangedEvent.of(savedMessage, previousStatus));
         return convertToResponse(savedMessage);
     }
 
@@ -98,6 +105,7 @@ public class MessageService {
             message.setStatus(Message.MessageStatus.READ);
             message.setReadAt(LocalDateTime.now());
             messageRepository.save(message);
+            eventPublisher.publishEvent(MessageChangedEvent.of(message, Message.MessageStatus.NEW));
         }
     }
 
@@ -106,9 +114,11 @@ public class MessageService {
                 .orElseThrow(() -> new ResourceNotFoundException("Message not found with id: " + id));
 
         if (message.getStatus() != Message.MessageStatus.RESPONDED) {
+            Message.MessageStatus previousStatus = message.getStatus();
             message.setStatus(Message.MessageStatus.NEW);
             message.setReadAt(null);
             messageRepository.save(message);
+            eventPublisher.publishEvent(MessageChangedEvent.of(message, previousStatus));
         }
     }
 
@@ -0,0 +1,247 @@
+package com.hotel.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.booking.dto.MessageStreamEvent;
+import com.hotel.booking.event.MessageChangedEvent;
+import com.hotel.booking.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Pushes message changes to staff consoles over server-sent events. Each change is appended to
+// a ring buffer and one dispatcher thread fans it out into per-console outboxes that a small
+// writer pool drains, so neither the request that changed the message nor the other consoles
+// wait on a slow one. A console whose outbox overflows or whose write stalls past the send
+// timeout is dropped. An idle stream holds no thread, only its connection. A console that
+// reconnects with Last-Event-ID gets the unread count and the changes it missed; one that missed
+// more than the buffer holds, or whose id predates a restart, gets the count flagged for resync.
+@Service
+@Slf4j
+public class MessageStreamService {
+
+    private final DashboardService dashboardService;
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+    private final int queueSize;
+    private final long sendTimeoutNanos;
+    private final int capacity;
+    private final AtomicReferenceArray<Entry> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+    // Event ids are "<epoch>-<sequence>" so ids handed out before a restart are recognised
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "message-stream");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService writers;
+
+    public MessageStreamService(DashboardService dashboardService, ObjectMapper objectMapper,
+                                @Value("${messages.stream.buffer-size:1000}") int capacity,
+                                @Value("${messages.stream.max-subscribers:5000}") int maxSubscribers,
+                                @Value("${messages.stream.timeout-ms:1800000}") long timeoutMs,
+                                @Value("${messages.stream.queue-size:256}") int queueSize,
+                                @Value("${messages.stream.send-timeout-ms:10000}") long sendTimeoutMs,
+                                @Value("${messages.stream.writer-threads:4}") int writerThreads) {
+        this.dashboardService = dashboardService;
+        this.objectMapper = objectMapper;
+        this.capacity = capacity;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+        this.queueSize = queueSize;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.writers = Executors.newFixedThreadPool(writerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "message-stream-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        writers.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ServiceUnavailableException("Too many message streams open, please retry shortly");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        return register(emitter, lastEventId);
+    }
+
+    // Split from subscribe so the fan-out can be exercised without a servlet container
+    SseEmitter register(SseEmitter emitter, String lastEventId) {
+        long latest = sequence.get();
+        long resumeFrom = resumePoint(lastEventId, latest);
+        Subscriber subscriber = resumeFrom < 0
+                ? new Subscriber(emitter, latest, lastEventId != null)
+                : new Subscriber(emitter, resumeFrom, false);
+        subscriber.outbox = new SseOutbox(emitter, queueSize, writers, outbox -> subscribers.remove(subscriber));
+        emitter.onCompletion(subscriber.outbox::discard);
+        emitter.onTimeout(subscriber.outbox::discard);
+        emitter.onError(e -> subscriber.outbox.discard());
+        subscribers.add(subscriber);
+        scheduleDrain();
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageChanged(MessageChangedEvent event) {
+        append(MessageStreamEvent.builder()
+                .messageId(event.messageId())
+                .subject(event.subject())
+                .senderName(event.senderName())
+                .priority(event.priority() != null ? event.priority().name() : null)
+                .previousStatus(event.before() != null ? event.before().name() : null)
+                .status(event.after() != null ? event.after().name() : null)
+                .occurredAt(LocalDateTime.now())
+                .build());
+        scheduleDrain();
+    }
+
+    // Comments keep proxies from closing idle streams and reveal consoles that have gone away
+    @Scheduled(fixedDelayString = "${messages.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            send(subscriber, SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    // A console whose socket stopped draining would otherwise hold a writer until the container
+    // gives up on the write
+    @Scheduled(fixedDelayString = "${messages.stream.watchdog-ms:1000}")
+    public void expireStalledStreams() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.outbox.expire(now, sendTimeoutNanos)) {
+                log.debug("Dropped a message stream whose client stopped reading");
+            }
+        }
+    }
+
+    boolean isSubscribed(SseEmitter emitter) {
+        return subscribers.stream().anyMatch(subscriber -> subscriber.emitter == emitter);
+    }
+
+    // Serialized once for every console; writers only take the lock to fill one slot, and the
+    // slot is published before the sequence
+    private void append(MessageStreamEvent event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize change to message {}: {}", event.getMessageId(), e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            long id = sequence.get() + 1;
+            buffer.set((int) (id % capacity), new Entry(id, json));
+            sequence.set(id);
+        }
+    }
+
+    // Bursts of changes collapse into one pass over the subscribers
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        long latest = sequence.get();
+        for (Subscriber subscriber : subscribers) {
+            deliver(subscriber, latest);
+        }
+    }
+
+    // Runs only on the dispatcher thread, so each subscriber's cursor has a single writer
+    private void deliver(Subscriber subscriber, long latest) {
+        if (subscriber.needsCount) {
+            subscriber.needsCount = false;
+            if (!sendCount(subscriber, subscriber.resync)) {
+                return;
+            }
+        }
+        for (long id = subscriber.cursor + 1; id <= latest; id++) {
+            Entry entry = buffer.get((int) (id % capacity));
+            if (entry == null || entry.id != id) {
+                // Overwritten before this console caught up
+                subscriber.cursor = latest;
+                sendCount(subscriber, true);
+                return;
+            }
+            if (!send(subscriber, SseEmitter.event().id(epoch + "-" + id).name("message").data(entry.json, MediaType.APPLICATION_JSON))) {
+                return;
+            }
+            subscriber.cursor = id;
+        }
+    }
+
+    private boolean sendCount(Subscriber subscriber, boolean resync) {
+        MessageStreamEvent.UnreadCount count = MessageStreamEvent.UnreadCount.builder()
+                .unreadMessages(dashboardService.getLiveCounters().getUnreadMessages())
+                .resync(resync)
+                .build();
+        return send(subscriber, SseEmitter.event().id(epoch + "-" + subscriber.cursor).name("unread-count").data(count));
+    }
+
+    // Only queues the event; an overflowing outbox closes the stream and removes the subscriber
+    private boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        return subscriber.outbox.offer(event);
+    }
+
+    // Returns the sequence to resume after, or -1 when the id is absent, foreign or too old
+    private long resumePoint(String lastEventId, long latest) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            long id = Long.parseLong(lastEventId.substring(epoch.length() + 1));
+            return id <= latest && latest - id <= capacity ? id : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private record Entry(long id, String json) {
+    }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final boolean resync;
+        SseOutbox outbox;
+        long cursor;
+        boolean needsCount = true;
+
+        Subscriber(SseEmitter emitter, long cursor, boolean resync) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.resync = resync;
+        }
+    }
+}
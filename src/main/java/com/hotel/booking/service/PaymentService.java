@@ -5,11 +5,14 @@ import com.hotel.booking.dto.PaymentResponse;
 import com.hotel.booking.dto.RefundRequest;
 import com.hotel.booking.entity.Booking;
 import com.hotel.booking.entity.Payment;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
 import com.hotel.booking.exception.ResourceNotFoundException;
 import com.hotel.booking.exception.BadRequestException;
 import com.hotel.booking.repository.BookingRepository;
 import com.hotel.booking.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +26,7 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final BookingRepository bookingRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public PaymentResponse createPayment(PaymentRequest request) {
@@ -51,6 +55,9 @@ public class PaymentService {
         processPayment(payment);
 
         Payment savedPayment = paymentRepository.save(payment);
+        if (savedPayment.getStatus() == Payment.PaymentStatus.COMPLETED) {
+            updateBookingPaymentStatus(booking, Booking.PaymentStatus.PAID);
+        }
         return convertToResponse(savedPayment);
     }
 
@@ -97,6 +104,9 @@ public class PaymentService {
         payment.setRefundedAt(LocalDateTime.now());
 
         Payment savedPayment = paymentRepository.save(payment);
+        if (savedPayment.getRefundAmount().compareTo(savedPayment.getAmount()) >= 0) {
+            updateBookingPaymentStatus(savedPayment.getBooking(), Booking.PaymentStatus.REFUNDED);
+        }
         return convertToResponse(savedPayment);
     }
 
@@ -112,6 +122,16 @@ public class PaymentService {
                 .collect(Collectors.toList());
     }
 
+    private void updateBookingPaymentStatus(Booking booking, Booking.PaymentStatus paymentStatus) {
+        if (booking.getPaymentStatus() == paymentStatus) {
+            return;
+        }
+        BookingSnapshot before = BookingSnapshot.of(booking);
+        booking.setPaymentStatus(paymentStatus);
+        Booking savedBooking = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(before, BookingSnapshot.of(savedBooking)));
+    }
+
     private void processPayment(Payment payment) {
         // Simulate payment processing logic
         try {
@@ -0,0 +1,141 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.entity.RecurringBooking;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+// Nights of a recurring series: every night in [start, end) whose weekday is in the mask, minus
+// the exception nights. Nights are epoch days; bit 0 of the mask is Monday. Overlap checks count
+// matching nights arithmetically (whole weeks times mask bits, plus a partial week), so they
+// cost the same for a two-week series as for a two-year one.
+public final class RecurrencePattern {
+
+    private static final int DAYS_PER_WEEK = 7;
+
+    private final long start;
+    private final long end;
+    private final int mask;
+    private final NavigableSet<Long> exceptions;
+
+    public RecurrencePattern(LocalDate start, LocalDate end, int mask, Collection<LocalDate> exceptions) {
+        this.start = start.toEpochDay();
+        this.end = end.toEpochDay();
+        this.mask = mask;
+        this.exceptions = new TreeSet<>();
+        if (exceptions != null) {
+            exceptions.forEach(date -> this.exceptions.add(date.toEpochDay()));
+        }
+    }
+
+    public static RecurrencePattern of(RecurringBooking series) {
+        return new RecurrencePattern(series.getStartDate(), series.getEndDate(), series.getNightMask(),
+                series.getExceptions());
+    }
+
+    public static int maskOf(Collection<DayOfWeek> nights) {
+        int mask = 0;
+        for (DayOfWeek night : nights) {
+            mask |= 1 << (night.getValue() - 1);
+        }
+        return mask;
+    }
+
+    public static List<DayOfWeek> nightsOf(int mask) {
+        List<DayOfWeek> nights = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((mask & (1 << (day.getValue() - 1))) != 0) {
+                nights.add(day);
+            }
+        }
+        return nights;
+    }
+
+    public boolean occupies(LocalDate night) {
+        long day = night.toEpochDay();
+        return day >= start && day < end && (mask & bit(day)) != 0 && !exceptions.contains(day);
+    }
+
+    public int nightCount() {
+        return countNights(mask, start, end) - countExceptions(exceptions, mask, start, end);
+    }
+
+    // True when any night of the stay [checkIn, checkOut) belongs to the series
+    public boolean overlaps(LocalDate checkIn, LocalDate checkOut) {
+        long from = Math.max(start, checkIn.toEpochDay());
+        long to = Math.min(end, checkOut.toEpochDay());
+        if (from >= to) {
+            return false;
+        }
+        return countNights(mask, from, to) > countExceptions(exceptions, mask, from, to);
+    }
+
+    // True when both series claim at least one common night
+    public boolean overlaps(RecurrencePattern other) {
+        long from = Math.max(start, other.start);
+        long to = Math.min(end, other.end);
+        int common = mask & other.mask;
+        if (from >= to || common == 0) {
+            return false;
+        }
+        NavigableSet<Long> skipped = new TreeSet<>(exceptions.subSet(from, true, to, false));
+        skipped.addAll(other.exceptions.subSet(from, true, to, false));
+        return countNights(common, from, to) > countExceptions(skipped, common, from, to);
+    }
+
+    public List<LocalDate[]> occurrences() {
+        return occurrences(LocalDate.ofEpochDay(start), LocalDate.ofEpochDay(end));
+    }
+
+    // Lazily expands the nights inside [from, to) into contiguous stays of { checkIn, checkOut }
+    public List<LocalDate[]> occurrences(LocalDate from, LocalDate to) {
+        List<LocalDate[]> stays = new ArrayList<>();
+        long first = Math.max(start, from.toEpochDay());
+        long last = Math.min(end, to.toEpochDay());
+        long runStart = -1;
+        for (long day = first; day < last; day++) {
+            boolean booked = (mask & bit(day)) != 0 && !exceptions.contains(day);
+            if (booked && runStart < 0) {
+                runStart = day;
+            } else if (!booked && runStart >= 0) {
+                stays.add(new LocalDate[]{LocalDate.ofEpochDay(runStart), LocalDate.ofEpochDay(day)});
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            stays.add(new LocalDate[]{LocalDate.ofEpochDay(runStart), LocalDate.ofEpochDay(last)});
+        }
+        return stays;
+    }
+
+    private static int countNights(int mask, long from, long to) {
+        long days = to - from;
+        int count = (int) (days / DAYS_PER_WEEK) * Integer.bitCount(mask);
+        for (long day = from + days - days % DAYS_PER_WEEK; day < to; day++) {
+            if ((mask & bit(day)) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static int countExceptions(NavigableSet<Long> exceptions, int mask, long from, long to) {
+        int count = 0;
+        for (long day : exceptions.subSet(from, true, to, false)) {
+            if ((mask & bit(day)) != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // 1970-01-01 was a Thursday, so epoch day + 3 is Monday-based
+    private static int bit(long epochDay) {
+        return 1 << Math.floorMod(epochDay + 3, DAYS_PER_WEEK);
+    }
+}
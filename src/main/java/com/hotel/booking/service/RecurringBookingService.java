@@ -0,0 +1,281 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.RecurringBookingRequest;
+import com.hotel.booking.dto.RecurringBookingResponse;
+import com.hotel.booking.dto.RecurringOccurrenceResponse;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.Guest;
+import com.hotel.booking.entity.MaintenanceBlock;
+import com.hotel.booking.entity.RecurringBooking;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.RecurringBookingChangedEvent;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.exception.ResourceNotFoundException;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.MaintenanceBlockRepository;
+import com.hotel.booking.repository.RecurringBookingRepository;
+import com.hotel.booking.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Recurring series are stored as a weekday rule plus exception nights. Conflicts are decided
+// on the rule itself; individual stays are only expanded for the window a caller asks about.
+@Service
+@RequiredArgsConstructor
+public class RecurringBookingService {
+
+    private static final int MAX_SERIES_DAYS = 366;
+    private static final int MAX_OCCURRENCE_DAYS = 366;
+
+    private final RecurringBookingRepository recurringBookingRepository;
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final GuestIdentityService guestIdentityService;
+    private final MaintenanceBlockRepository maintenanceBlockRepository;
+    private final RoomInventoryService roomInventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AtomicInteger seriesSequence = new AtomicInteger();
+
+    @Transactional
+    public RecurringBookingResponse createSeries(RecurringBookingRequest request) {
+        if (!request.getStartDate().isBefore(request.getEndDate())
+                || request.getStartDate().isBefore(LocalDate.now())) {
+            throw new BadRequestException("Invalid series dates");
+        }
+        if (ChronoUnit.DAYS.between(request.getStartDate(), request.getEndDate()) > MAX_SERIES_DAYS) {
+            throw new BadRequestException("A series cannot span more than " + MAX_SERIES_DAYS + " days");
+        }
+
+        // Same room lock as single bookings, so the checks below cannot race another writer
+        roomRepository.lockByIdIn(List.of(request.getRoomId()));
+        Room room = roomRepository.findById(request.getRoomId())
+                .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + request.getRoomId()));
+        if (!RoomInventoryService.isSellable(room)) {
+            throw new BadRequestException("Room is not available for booking");
+        }
+        if (request.getNumberOfGuests() > room.getCapacity()) {
+            throw new BadRequestException("Number of guests exceeds room capacity");
+        }
+
+        Set<LocalDate> exceptions = request.getExceptions() != null ? new HashSet<>(request.getExceptions()) : new HashSet<>();
+        int mask = RecurrencePattern.maskOf(request.getNights());
+        RecurrencePattern pattern = new RecurrencePattern(request.getStartDate(), request.getEndDate(), mask, exceptions);
+        if (pattern.nightCount() == 0) {
+            throw new BadRequestException("The series does not book any night");
+        }
+
+        // One range query per kind of booking; each hit is checked against the rule, not per night
+        for (Booking booking : bookingRepository.findConflictingBookings(
+                room.getId(), request.getStartDate(), request.getEndDate())) {
+            if (pattern.overlaps(booking.getCheckInDate(), booking.getCheckOutDate())) {
+                throw new BadRequestException("Room is booked from " + booking.getCheckInDate() + " to "
+                        + booking.getCheckOutDate() + " by booking " + booking.getBookingNumber());
+            }
+        }
+        for (RecurringBooking other : recurringBookingRepository.findActiveByRoomOverlapping(
+                room.getId(), request.getStartDate(), request.getEndDate())) {
+            if (pattern.overlaps(RecurrencePattern.of(other))) {
+                throw new BadRequestException("Room is already held by recurring series " + other.getSeriesNumber());
+            }
+        }
+        for (MaintenanceBlock block : maintenanceBlockRepository.findByRoomOverlapping(
+                room.getId(), request.getStartDate(), request.getEndDate())) {
+            if (pattern.overlaps(block.getStartDate(), block.getEndDate())) {
+                throw new BadRequestException("Room is blocked for maintenance from " + block.getStartDate()
+                        + " to " + block.getEndDate());
+            }
+        }
+
+        List<LocalDate[]> stays = pattern.occurrences(request.getStartDate(), request.getEndDate());
+        if (!roomInventoryService.reserve(room.getType(), stays)) {
+            throw new BadRequestException("Room type " + room.getType() + " is sold out on some nights of the series");
+        }
+
+        RecurringBooking series = new RecurringBooking();
+        series.setSeriesNumber(generateSeriesNumber());
+        series.setRoom(room);
+        series.setGuest(guestIdentityService.findOrCreate(request.getGuestEmail(), () -> newGuest(request)));
+        series.setGuestName(request.getGuestName());
+        series.setGuestEmail(request.getGuestEmail());
+        series.setGuestPhone(request.getGuestPhone());
+        series.setNumberOfGuests(request.getNumberOfGuests());
+        series.setStartDate(request.getStartDate());
+        series.setEndDate(request.getEndDate());
+        series.setNightMask(mask);
+        series.setExceptions(exceptions);
+        series.setPricePerNight(room.getPricePerNight());
+        series.setStatus(RecurringBooking.SeriesStatus.ACTIVE);
+        series.setNotes(request.getNotes());
+
+        RecurringBooking saved = recurringBookingRepository.save(series);
+        publish(saved, null, pattern);
+        return convertToResponse(saved);
+    }
+
+    public List<RecurringBookingResponse> getAllSeries() {
+        return recurringBookingRepository.findAllWithRoom().stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    public RecurringBookingResponse getSeriesById(Long id) {
+        return convertToResponse(findSeries(id));
+    }
+
+    public List<RecurringOccurrenceResponse> getOccurrences(Long id, LocalDate from, LocalDate to) {
+        RecurringBooking series = findSeries(id);
+        LocalDate start = from != null ? from : series.getStartDate();
+        LocalDate end = to != null ? to : series.getEndDate();
+        if (!start.isBefore(end) || ChronoUnit.DAYS.between(start, end) > MAX_OCCURRENCE_DAYS) {
+            throw new BadRequestException("Invalid date range");
+        }
+        return RecurrencePattern.of(series).occurrences(start, end).stream()
+                .map(stay -> RecurringOccurrenceResponse.builder()
+                        .checkInDate(stay[0])
+                        .checkOutDate(stay[1])
+                        .nights((int) ChronoUnit.DAYS.between(stay[0], stay[1]))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    // Skipped nights go back on sale; only future nights of an active series can be skipped
+    @Transactional
+    public RecurringBookingResponse addExceptions(Long id, List<LocalDate> nights) {
+        RecurringBooking series = findActiveSeries(id);
+        RecurrencePattern before = RecurrencePattern.of(series);
+        LocalDate today = LocalDate.now();
+        for (LocalDate night : new HashSet<>(nights)) {
+            if (night.isBefore(today) || !before.occupies(night)) {
+                throw new BadRequestException("Series does not book the night of " + night);
+            }
+            series.getExceptions().add(night);
+            if (roomInventoryService.countsHoldingsOf(series.getRoom().getId())) {
+                roomInventoryService.release(series.getRoom().getType(), night, night.plusDays(1));
+            }
+        }
+        RecurringBooking saved = recurringBookingRepository.save(series);
+        publish(saved, before, RecurrencePattern.of(saved));
+        return convertToResponse(saved);
+    }
+
+    @Transactional
+    public RecurringBookingResponse cancelSeries(Long id) {
+        RecurringBooking series = findActiveSeries(id);
+        RecurrencePattern before = RecurrencePattern.of(series);
+        LocalDate today = LocalDate.now();
+        // Nights of a room that is off sale were handed back when it went off sale
+        if (today.isBefore(series.getEndDate()) && roomInventoryService.countsHoldingsOf(series.getRoom().getId())) {
+            roomInventoryService.release(series.getRoom().getType(), before.occurrences(today, series.getEndDate()));
+        }
+        series.setStatus(RecurringBooking.SeriesStatus.CANCELLED);
+        series.setCancelledAt(LocalDateTime.now());
+        RecurringBooking saved = recurringBookingRepository.save(series);
+        publish(saved, before, null);
+        return convertToResponse(saved);
+    }
+
+    public boolean hasConflict(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return recurringBookingRepository.findActiveByRoomOverlapping(roomId, checkIn, checkOut).stream()
+                .anyMatch(series -> RecurrencePattern.of(series).overlaps(checkIn, checkOut));
+    }
+
+    // Rooms held by a series on at least one night of [checkIn, checkOut)
+    public Set<Long> findOccupiedRoomIds(LocalDate checkIn, LocalDate checkOut) {
+        return recurringBookingRepository.findActiveOverlapping(checkIn, checkOut).stream()
+                .filter(series -> RecurrencePattern.of(series).overlaps(checkIn, checkOut))
+                .map(series -> series.getRoom().getId())
+                .collect(Collectors.toSet());
+    }
+
+    // Series stays inside [from, to), expanded per room
+    public Map<Long, List<LocalDate[]>> findOccupancy(LocalDate from, LocalDate to) {
+        Map<Long, List<LocalDate[]>> occupancy = new HashMap<>();
+        for (RecurringBooking series : recurringBookingRepository.findActiveOverlapping(from, to)) {
+            List<LocalDate[]> stays = RecurrencePattern.of(series).occurrences(from, to);
+            if (!stays.isEmpty()) {
+                occupancy.computeIfAbsent(series.getRoom().getId(), id -> new ArrayList<>()).addAll(stays);
+            }
+        }
+        return occupancy;
+    }
+
+    private RecurringBooking findSeries(Long id) {
+        return recurringBookingRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurring booking not found with id: " + id));
+    }
+
+    private RecurringBooking findActiveSeries(Long id) {
+        RecurringBooking series = findSeries(id);
+        if (series.getStatus() != RecurringBooking.SeriesStatus.ACTIVE) {
+            throw new BadRequestException("Recurring booking is already cancelled");
+        }
+        return series;
+    }
+
+    private void publish(RecurringBooking series, RecurrencePattern before, RecurrencePattern after) {
+        eventPublisher.publishEvent(new RecurringBookingChangedEvent(series.getId(), series.getRoom().getId(),
+                series.getRoom().getType(), series.getPricePerNight(), before, after));
+    }
+
+    private Guest newGuest(RecurringBookingRequest request) {
+        Guest guest = new Guest();
+        String[] nameParts = request.getGuestName().split(" ", 2);
+        guest.setFirstName(nameParts[0]);
+        guest.setLastName(nameParts.length > 1 ? nameParts[1] : "");
+        guest.setEmail(request.getGuestEmail());
+        guest.setPhone(request.getGuestPhone());
+        return guest;
+    }
+
+    private String generateSeriesNumber() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        return "RB-" + timestamp + "-" + String.format("%03d", Math.floorMod(seriesSequence.getAndIncrement(), 1000));
+    }
+
+    private RecurringBookingResponse convertToResponse(RecurringBooking series) {
+        RecurrencePattern pattern = RecurrencePattern.of(series);
+        int nights = pattern.nightCount();
+        Room room = series.getRoom();
+        return RecurringBookingResponse.builder()
+                .id(series.getId())
+                .seriesNumber(series.getSeriesNumber())
+                .roomId(room.getId())
+                .roomNumber(room.getRoomNumber())
+                .roomType(room.getType() != null ? room.getType().name() : null)
+                .guestId(series.getGuest() != null ? series.getGuest().getId() : null)
+                .guestName(series.getGuestName())
+                .guestEmail(series.getGuestEmail())
+                .guestPhone(series.getGuestPhone())
+                .numberOfGuests(series.getNumberOfGuests())
+                .startDate(series.getStartDate())
+                .endDate(series.getEndDate())
+                .nights(RecurrencePattern.nightsOf(series.getNightMask()).stream()
+                        .map(DayOfWeek::name).collect(Collectors.toList()))
+                .exceptions(series.getExceptions().stream().sorted().collect(Collectors.toList()))
+                .totalNights(nights)
+                .pricePerNight(series.getPricePerNight())
+                .totalPrice(series.getPricePerNight() * nights)
+                .status(series.getStatus().name())
+                .notes(series.getNotes())
+                .cancelledAt(series.getCancelledAt())
+                .createdAt(series.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,349 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.OccupancyReportResponse;
+import com.hotel.booking.dto.ReportRebuildResponse;
+import com.hotel.booking.dto.RoomRevenueResponse;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.RecurringBooking;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.event.RecurringBookingChangedEvent;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.RecurringBookingRepository;
+import com.hotel.booking.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReportService {
+
+    private static final int MAX_REPORT_DAYS = 366;
+    private static final Room.RoomType[] ROOM_TYPES = Room.RoomType.values();
+    private static final Set<Booking.BookingStatus> SOLD_STATUSES = EnumSet.of(
+            Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.CHECKED_IN,
+            Booking.BookingStatus.CHECKED_OUT, Booking.BookingStatus.COMPLETED,
+            Booking.BookingStatus.NO_SHOW);
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final RecurringBookingRepository recurringBookingRepository;
+
+    // Incremental updates share the read lock; a rebuild takes the write lock so no delta
+    // is applied to rollups that are about to be replaced. A change holds the read lock from just
+    // before its commit until its delta is applied, so a rebuild either reads the change and
+    // starts after its delta landed in the rollups it replaces, or does not see it and gets the
+    // delta applied to its own rollups; never both.
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile Rollups rollups = new Rollups();
+    private volatile long[] sellableRooms = new long[ROOM_TYPES.length];
+    private volatile Map<Long, Room> roomIndex = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        ReportRebuildResponse result = rebuild();
+        log.info("Report rollups built from {} bookings in {} ms",
+                result.getBookingsProcessed(), result.getDurationMillis());
+    }
+
+    @Scheduled(cron = "${reports.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${reports.room-refresh-interval-ms:300000}",
+            initialDelayString = "${reports.room-refresh-interval-ms:300000}")
+    public void refreshRooms() {
+        Map<Long, Room> rooms = new HashMap<>();
+        roomRepository.findAll().forEach(room -> rooms.put(room.getId(), room));
+        long[] counts = new long[ROOM_TYPES.length];
+        for (Object[] row : roomRepository.summarizeSellableRoomsByType()) {
+            counts[((Room.RoomType) row[0]).ordinal()] = (Long) row[1];
+        }
+        roomIndex = rooms;
+        sellableRooms = counts;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        afterCommit(() -> {
+            Rollups current = rollups;
+            current.apply(event.before(), -1);
+            current.apply(event.after(), 1);
+        });
+    }
+
+    // An active series is sold at its locked nightly rate. A change only reaches nights from the
+    // day it is made: cancelling takes the remaining nights back out, the consumed ones stay sold.
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onRecurringBookingChanged(RecurringBookingChangedEvent event) {
+        LocalDate changedOn = LocalDate.now();
+        afterCommit(() -> {
+            Rollups current = rollups;
+            current.applySeries(event.roomId(), event.roomType(), event.pricePerNight(), event.before(), -1,
+                    changedOn, LocalDate.MAX);
+            current.applySeries(event.roomId(), event.roomType(), event.pricePerNight(), event.after(), 1,
+                    changedOn, LocalDate.MAX);
+        });
+    }
+
+    // Holds the read lock across the commit and applies the delta once it succeeded. Outside a
+    // transaction the change is already committed.
+    private void afterCommit(Runnable delta) {
+        rebuildLock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                delta.run();
+            } finally {
+                rebuildLock.readLock().unlock();
+            }
+            return;
+        }
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            delta.run();
+                        }
+                    } finally {
+                        rebuildLock.readLock().unlock();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            rebuildLock.readLock().unlock();
+            throw e;
+        }
+    }
+
+    public ReportRebuildResponse rebuild() {
+        long started = System.currentTimeMillis();
+        rebuildLock.writeLock().lock();
+        try {
+            refreshRooms();
+            List<BookingSnapshot> bookings = bookingRepository.findAllSnapshots();
+            Rollups fresh = new Rollups();
+            ForkJoinPool.commonPool().invoke(new RollupTask(bookings, 0, bookings.size(), fresh));
+            for (RecurringBooking series : recurringBookingRepository.findAllActive()) {
+                fresh.applySeries(series.getRoom().getId(), series.getRoom().getType(), series.getPricePerNight(),
+                        RecurrencePattern.of(series), 1, LocalDate.MIN, LocalDate.MAX);
+            }
+            // A cancelled series keeps the nights it consumed before the cancellation
+            for (RecurringBooking series : recurringBookingRepository.findAllCancelled()) {
+                LocalDate cancelledOn = series.getCancelledAt() != null
+                        ? series.getCancelledAt().toLocalDate()
+                        : series.getStartDate();
+                fresh.applySeries(series.getRoom().getId(), series.getRoom().getType(), series.getPricePerNight(),
+                        RecurrencePattern.of(series), 1, LocalDate.MIN, cancelledOn);
+            }
+            rollups = fresh;
+            return ReportRebuildResponse.builder()
+                    .bookingsProcessed(bookings.size())
+                    .daysTracked(fresh.days.size())
+                    .durationMillis(System.currentTimeMillis() - started)
+                    .rebuiltAt(LocalDateTime.now())
+                    .build();
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public List<OccupancyReportResponse> getDailyOccupancy(LocalDate from, LocalDate to, Room.RoomType roomType) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new BadRequestException("Invalid date range");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_REPORT_DAYS) {
+            throw new BadRequestException("Date range cannot exceed " + MAX_REPORT_DAYS + " days");
+        }
+
+        Rollups current = rollups;
+        long[] available = sellableRooms;
+        List<OccupancyReportResponse> report = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            DayRollup day = current.days.get(date);
+            for (Room.RoomType type : ROOM_TYPES) {
+                if (roomType != null && roomType != type) {
+                    continue;
+                }
+                int i = type.ordinal();
+                long sold = day != null ? day.roomNights[i].sum() : 0;
+                double revenue = day != null ? day.revenue[i].sum() : 0.0;
+                report.add(OccupancyReportResponse.builder()
+                        .date(date)
+                        .roomType(type.name())
+                        .roomsAvailable(available[i])
+                        .roomNightsSold(sold)
+                        .occupancyPercent(available[i] > 0 ? round(sold * 100.0 / available[i]) : 0.0)
+                        .revenue(round(revenue))
+                        .adr(sold > 0 ? round(revenue / sold) : 0.0)
+                        .revpar(available[i] > 0 ? round(revenue / available[i]) : 0.0)
+                        .build());
+            }
+        }
+        return report;
+    }
+
+    public List<RoomRevenueResponse> getTopRoomsByRevenue(int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("Limit must be at least 1");
+        }
+        // Bounded min-heap keeps the selection at O(rooms * log limit)
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+        rollups.roomRevenue.forEach((roomId, revenue) -> {
+            top.offer(Map.entry(roomId, revenue.sum()));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        });
+
+        Map<Long, Room> rooms = roomIndex;
+        List<RoomRevenueResponse> result = new ArrayList<>(top.size());
+        for (Map.Entry<Long, Double> entry : top) {
+            Room room = rooms.get(entry.getKey());
+            result.add(RoomRevenueResponse.builder()
+                    .roomId(entry.getKey())
+                    .roomNumber(room != null ? room.getRoomNumber() : null)
+                    .roomType(room != null && room.getType() != null ? room.getType().name() : null)
+                    .revenue(round(entry.getValue()))
+                    .build());
+        }
+        result.sort(Comparator.comparingDouble(RoomRevenueResponse::getRevenue).reversed());
+        return result;
+    }
+
+    // A booking counts towards occupancy and revenue once it is confirmed or paid, until it
+    // is cancelled or refunded
+    static boolean isRevenueBearing(BookingSnapshot booking) {
+        if (booking == null || booking.roomType() == null || booking.totalPrice() == null
+                || booking.paymentStatus() == Booking.PaymentStatus.REFUNDED) {
+            return false;
+        }
+        return SOLD_STATUSES.contains(booking.status())
+                || (booking.status() == Booking.BookingStatus.PENDING
+                    && booking.paymentStatus() == Booking.PaymentStatus.PAID);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+
+    static final class Rollups {
+        final ConcurrentHashMap<LocalDate, DayRollup> days = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<Long, DoubleAdder> roomRevenue = new ConcurrentHashMap<>();
+
+        void apply(BookingSnapshot booking, int sign) {
+            if (!isRevenueBearing(booking)) {
+                return;
+            }
+            int nights = booking.nights();
+            if (nights <= 0) {
+                return;
+            }
+            int type = booking.roomType().ordinal();
+            double nightlyRevenue = sign * booking.totalPrice() / nights;
+            LocalDate night = booking.checkInDate();
+            for (int i = 0; i < nights; i++) {
+                days.computeIfAbsent(night, d -> new DayRollup()).add(type, sign, nightlyRevenue);
+                night = night.plusDays(1);
+            }
+            if (booking.roomId() != null) {
+                roomRevenue.computeIfAbsent(booking.roomId(), id -> new DoubleAdder())
+                        .add(sign * booking.totalPrice());
+            }
+        }
+
+        // Nights of the series inside [from, to)
+        void applySeries(Long roomId, Room.RoomType roomType, double pricePerNight, RecurrencePattern pattern,
+                         int sign, LocalDate from, LocalDate to) {
+            if (pattern == null) {
+                return;
+            }
+            int type = roomType.ordinal();
+            double nightlyRevenue = sign * pricePerNight;
+            int nights = 0;
+            for (LocalDate[] stay : pattern.occurrences(from, to)) {
+                for (LocalDate night = stay[0]; night.isBefore(stay[1]); night = night.plusDays(1)) {
+                    days.computeIfAbsent(night, d -> new DayRollup()).add(type, sign, nightlyRevenue);
+                    nights++;
+                }
+            }
+            roomRevenue.computeIfAbsent(roomId, id -> new DoubleAdder()).add(nightlyRevenue * nights);
+        }
+    }
+
+    static final class DayRollup {
+        final LongAdder[] roomNights = new LongAdder[ROOM_TYPES.length];
+        final DoubleAdder[] revenue = new DoubleAdder[ROOM_TYPES.length];
+
+        DayRollup() {
+            for (int i = 0; i < ROOM_TYPES.length; i++) {
+                roomNights[i] = new LongAdder();
+                revenue[i] = new DoubleAdder();
+            }
+        }
+
+        void add(int type, int nights, double amount) {
+            roomNights[type].add(nights);
+            revenue[type].add(amount);
+        }
+    }
+
+    private static final class RollupTask extends RecursiveAction {
+        private static final int THRESHOLD = 2048;
+
+        private final List<BookingSnapshot> bookings;
+        private final int from;
+        private final int to;
+        private final Rollups target;
+
+        RollupTask(List<BookingSnapshot> bookings, int from, int to, Rollups target) {
+            this.bookings = bookings;
+            this.from = from;
+            this.to = to;
+            this.target = target;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    target.apply(bookings.get(i), 1);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RollupTask(bookings, from, mid, target), new RollupTask(bookings, mid, to, target));
+        }
+    }
+}
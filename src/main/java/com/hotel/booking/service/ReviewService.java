@@ -0,0 +1,106 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.ReviewRequest;
+import com.hotel.booking.dto.ReviewResponse;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.Review;
+import com.hotel.booking.event.ReviewPostedEvent;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.exception.ResourceNotFoundException;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.ReviewRepository;
+import com.hotel.booking.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ReviewService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final Set<Booking.BookingStatus> REVIEWABLE_STATUSES =
+            EnumSet.of(Booking.BookingStatus.CHECKED_OUT, Booking.BookingStatus.COMPLETED);
+
+    private final ReviewRepository reviewRepository;
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public ReviewResponse createReview(Long roomId, ReviewRequest request) {
+        // The booking number and guest email together prove the reviewer stayed in the room
+        Booking booking = bookingRepository.findByBookingNumber(request.getBookingNumber())
+                .filter(b -> b.getGuestEmail() != null && b.getGuestEmail().equalsIgnoreCase(request.getGuestEmail()))
+                .orElseThrow(() -> new ResourceNotFoundException("No booking found for the given booking number and email"));
+
+        if (booking.getRoom() == null || !booking.getRoom().getId().equals(roomId)) {
+            throw new BadRequestException("Booking is not for this room");
+        }
+        if (!REVIEWABLE_STATUSES.contains(booking.getStatus())) {
+            throw new BadRequestException("Only checked-out stays can be reviewed");
+        }
+        if (reviewRepository.existsByBookingId(booking.getId())) {
+            throw new BadRequestException("This stay has already been reviewed");
+        }
+
+        Review review = new Review();
+        review.setRoom(booking.getRoom());
+        review.setBooking(booking);
+        review.setGuest(booking.getGuest());
+        review.setReviewerName(displayName(booking.getGuestName()));
+        review.setRating(request.getRating());
+        review.setTitle(request.getTitle());
+        review.setComment(request.getComment());
+        try {
+            review = reviewRepository.saveAndFlush(review);
+        } catch (DataIntegrityViolationException e) {
+            // Lost a race with a concurrent review of the same stay
+            throw new BadRequestException("This stay has already been reviewed");
+        }
+
+        eventPublisher.publishEvent(new ReviewPostedEvent(roomId, review.getRating()));
+        return convertToResponse(review);
+    }
+
+    public List<ReviewResponse> getReviewsByRoom(Long roomId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!roomRepository.existsById(roomId)) {
+            throw new ResourceNotFoundException("Room not found with id: " + roomId);
+        }
+        return reviewRepository.findByRoomId(roomId, PageRequest.of(0, limit)).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Public reviews show the first name and last initial only
+    private static String displayName(String guestName) {
+        if (guestName == null || guestName.isBlank()) {
+            return "Guest";
+        }
+        String[] parts = guestName.trim().split("\\s+");
+        return parts.length == 1 ? parts[0] : parts[0] + " " + parts[parts.length - 1].charAt(0) + ".";
+    }
+
+    private ReviewResponse convertToResponse(Review review) {
+        return ReviewResponse.builder()
+                .id(review.getId())
+                .roomId(review.getRoom().getId())
+                .reviewerName(review.getReviewerName())
+                .rating(review.getRating())
+                .title(review.getTitle())
+                .comment(review.getComment())
+                .createdAt(review.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,405 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.RoomAssignmentResponse;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.Guest;
+import com.hotel.booking.entity.MaintenanceBlock;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.MaintenanceBlockRepository;
+import com.hotel.booking.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+// Maps room-type bookings onto physical rooms. Per room type, bookings are scheduled in
+// check-in order; each group of same-day arrivals is solved as a bipartite matching where
+// every booking tries its cheapest rooms first (tight fit against neighbouring stays,
+// then guest preferences).
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomAssignmentService {
+
+    private static final int MAX_WINDOW_DAYS = 120;
+    private static final int NEIGHBOUR_MARGIN_DAYS = 14;
+    private static final int GAP_CAP = 7;
+    private static final int ORPHAN_GAP_PENALTY = 5;
+    private static final int SMOKING_MISMATCH_PENALTY = 6;
+    private static final int NON_SMOKER_IN_SMOKING_ROOM_PENALTY = 8;
+    private static final int MAX_FLOOR_PENALTY = 6;
+    private static final int BATCH_SIZE = 500;
+
+    private static final String ASSIGN_SQL =
+            "UPDATE bookings b SET room_id = ?, updated_at = ? WHERE b.id = ? AND b.room_id IS NULL " +
+            "AND b.status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW') " +
+            "AND NOT EXISTS (SELECT 1 FROM bookings o WHERE o.room_id = ? " +
+            "AND o.status NOT IN ('CANCELLED', 'COMPLETED', 'NO_SHOW') " +
+            "AND o.check_in_date < b.check_out_date AND o.check_out_date > b.check_in_date) " +
+            "AND NOT EXISTS (SELECT 1 FROM maintenance_blocks m WHERE m.room_id = ? " +
+            "AND m.start_date < b.check_out_date AND m.end_date > b.check_in_date) " +
+            "AND EXISTS (SELECT 1 FROM rooms r WHERE r.id = ? AND r.is_available = TRUE " +
+            "AND r.maintenance_status = 'AVAILABLE')";
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final MaintenanceBlockRepository maintenanceBlockRepository;
+    private final RecurringBookingService recurringBookingService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public RoomAssignmentResponse assignRooms(LocalDate from, LocalDate to, boolean dryRun) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new BadRequestException("Invalid date range");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_WINDOW_DAYS) {
+            throw new BadRequestException("Assignment window cannot exceed " + MAX_WINDOW_DAYS + " days");
+        }
+        long started = System.currentTimeMillis();
+
+        List<Booking> pending = bookingRepository.findUnassignedOverlapping(from, to);
+        Map<Room.RoomType, List<Booking>> pendingByType = pending.stream()
+                .filter(b -> b.getRoomType() != null)
+                .collect(Collectors.groupingBy(Booking::getRoomType, () -> new EnumMap<>(Room.RoomType.class),
+                        Collectors.toList()));
+
+        List<Plan> plans = new ArrayList<>();
+        if (!pendingByType.isEmpty()) {
+            LocalDate earliest = pending.stream().map(Booking::getCheckInDate).min(Comparator.naturalOrder()).get();
+            LocalDate latest = pending.stream().map(Booking::getCheckOutDate).max(Comparator.naturalOrder()).get();
+            Map<Long, RoomSlot> slots = loadRoomSlots(
+                    earliest.minusDays(NEIGHBOUR_MARGIN_DAYS), latest.plusDays(NEIGHBOUR_MARGIN_DAYS));
+            Map<Room.RoomType, List<RoomSlot>> slotsByType = slots.values().stream()
+                    .collect(Collectors.groupingBy(slot -> slot.room.getType()));
+
+            // Room types share no rooms, so each type is planned independently and in parallel
+            plans = pendingByType.entrySet().parallelStream()
+                    .map(entry -> planType(entry.getValue(),
+                            slotsByType.getOrDefault(entry.getKey(), List.of())))
+                    .collect(Collectors.toList());
+        }
+
+        List<Assignment> assignments = plans.stream()
+                .flatMap(plan -> plan.assignments.stream())
+                .collect(Collectors.toList());
+        List<Assignment> written = dryRun ? assignments : writeAssignments(assignments);
+
+        Map<String, Integer> byType = new LinkedHashMap<>();
+        written.forEach(a -> byType.merge(a.slot.room.getType().name(), 1, Integer::sum));
+        List<Long> unassigned = new ArrayList<>();
+        plans.forEach(plan -> plan.unassigned.forEach(b -> unassigned.add(b.getId())));
+        if (!dryRun) {
+            // Lost a race with a manual assignment; nothing was written for these
+            Set<Long> writtenIds = written.stream().map(a -> a.booking.getId()).collect(Collectors.toSet());
+            assignments.stream().map(a -> a.booking.getId()).filter(id -> !writtenIds.contains(id))
+                    .forEach(unassigned::add);
+        }
+
+        RoomAssignmentResponse response = RoomAssignmentResponse.builder()
+                .from(from)
+                .to(to)
+                .dryRun(dryRun)
+                .candidates(pending.size())
+                .assigned(written.size())
+                .assignedByRoomType(byType)
+                .unassignedBookingIds(unassigned)
+                .assignments(written.stream().map(a -> RoomAssignmentResponse.Assignment.builder()
+                        .bookingId(a.booking.getId())
+                        .bookingNumber(a.booking.getBookingNumber())
+                        .roomId(a.slot.room.getId())
+                        .roomNumber(a.slot.room.getRoomNumber())
+                        .cost(a.cost)
+                        .build()).collect(Collectors.toList()))
+                .durationMillis(System.currentTimeMillis() - started)
+                .build();
+        log.info("Room assignment {} {} of {} bookings between {} and {} in {} ms", dryRun ? "planned" : "wrote",
+                response.getAssigned(), response.getCandidates(), from, to, response.getDurationMillis());
+        return response;
+    }
+
+    private Map<Long, RoomSlot> loadRoomSlots(LocalDate from, LocalDate to) {
+        Map<Long, RoomSlot> slots = new HashMap<>();
+        for (Room room : roomRepository.findAll()) {
+            if (Boolean.TRUE.equals(room.getIsAvailable())
+                    && room.getMaintenanceStatus() == Room.MaintenanceStatus.AVAILABLE) {
+                slots.put(room.getId(), new RoomSlot(room));
+            }
+        }
+        for (BookingSnapshot stay : bookingRepository.findAssignedHoldingSnapshotsOverlapping(from, to)) {
+            RoomSlot slot = slots.get(stay.roomId());
+            if (slot != null) {
+                slot.occupy(stay.checkInDate().toEpochDay(), stay.checkOutDate().toEpochDay());
+            }
+        }
+        for (MaintenanceBlock block : maintenanceBlockRepository.findOverlapping(from, to)) {
+            RoomSlot slot = slots.get(block.getRoom().getId());
+            if (slot != null) {
+                slot.occupy(block.getStartDate().toEpochDay(), block.getEndDate().toEpochDay());
+            }
+        }
+        recurringBookingService.findOccupancy(from, to).forEach((roomId, stays) -> {
+            RoomSlot slot = slots.get(roomId);
+            if (slot != null) {
+                stays.forEach(stay -> slot.occupy(stay[0].toEpochDay(), stay[1].toEpochDay()));
+            }
+        });
+        return slots;
+    }
+
+    private Plan planType(List<Booking> bookings, List<RoomSlot> rooms) {
+        Plan plan = new Plan();
+        if (rooms.isEmpty()) {
+            plan.unassigned.addAll(bookings);
+            return plan;
+        }
+        int minFloor = rooms.stream().mapToInt(s -> floorOf(s.room)).min().getAsInt();
+        int maxFloor = rooms.stream().mapToInt(s -> floorOf(s.room)).max().getAsInt();
+
+        // Interval scheduling order: by arrival, longest stays first within a day
+        Map<LocalDate, List<Booking>> arrivals = bookings.stream()
+                .sorted(Comparator.comparing(Booking::getCheckInDate)
+                        .thenComparing(Booking::getCheckOutDate, Comparator.reverseOrder()))
+                .collect(Collectors.groupingBy(Booking::getCheckInDate, TreeMap::new, Collectors.toList()));
+
+        for (List<Booking> group : arrivals.values()) {
+            matchGroup(group, rooms, minFloor, maxFloor, plan);
+        }
+        return plan;
+    }
+
+    // Same-day arrivals all overlap on their first night, so each room takes at most one of
+    // them: a bipartite matching solved with augmenting paths over cost-ordered edges.
+    private void matchGroup(List<Booking> group, List<RoomSlot> rooms, int minFloor, int maxFloor, Plan plan) {
+        int[][] edges = new int[group.size()][];
+        int[][] costs = new int[group.size()][];
+        for (int b = 0; b < group.size(); b++) {
+            Booking booking = group.get(b);
+            long in = booking.getCheckInDate().toEpochDay();
+            long out = booking.getCheckOutDate().toEpochDay();
+            List<int[]> candidates = new ArrayList<>();
+            for (int r = 0; r < rooms.size(); r++) {
+                RoomSlot slot = rooms.get(r);
+                if (slot.room.getCapacity() >= booking.getNumberOfGuests() && slot.fits(in, out)) {
+                    candidates.add(new int[]{r, cost(booking, slot, in, out, minFloor, maxFloor)});
+                }
+            }
+            candidates.sort(Comparator.comparingInt(c -> c[1]));
+            edges[b] = candidates.stream().mapToInt(c -> c[0]).toArray();
+            costs[b] = candidates.stream().mapToInt(c -> c[1]).toArray();
+        }
+
+        int[] roomMatch = new int[rooms.size()];
+        Arrays.fill(roomMatch, -1);
+        for (int b = 0; b < group.size(); b++) {
+            augment(b, edges, roomMatch, new boolean[rooms.size()]);
+        }
+
+        int[] bookingMatch = new int[group.size()];
+        Arrays.fill(bookingMatch, -1);
+        for (int r = 0; r < roomMatch.length; r++) {
+            if (roomMatch[r] >= 0) {
+                bookingMatch[roomMatch[r]] = r;
+            }
+        }
+        for (int b = 0; b < group.size(); b++) {
+            Booking booking = group.get(b);
+            if (bookingMatch[b] < 0) {
+                plan.unassigned.add(booking);
+                continue;
+            }
+            RoomSlot slot = rooms.get(bookingMatch[b]);
+            int cost = 0;
+            for (int e = 0; e < edges[b].length; e++) {
+                if (edges[b][e] == bookingMatch[b]) {
+                    cost = costs[b][e];
+                    break;
+                }
+            }
+            slot.occupy(booking.getCheckInDate().toEpochDay(), booking.getCheckOutDate().toEpochDay());
+            plan.assignments.add(new Assignment(booking, slot, cost));
+        }
+    }
+
+    private static boolean augment(int booking, int[][] edges, int[] roomMatch, boolean[] visited) {
+        for (int room : edges[booking]) {
+            if (visited[room]) {
+                continue;
+            }
+            visited[room] = true;
+            if (roomMatch[room] < 0 || augment(roomMatch[room], edges, roomMatch, visited)) {
+                roomMatch[room] = booking;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int cost(Booking booking, RoomSlot slot, long in, long out, int minFloor, int maxFloor) {
+        int cost = gapCost(slot.gapBefore(in)) + gapCost(slot.gapAfter(out));
+        Guest guest = booking.getGuest();
+        if (guest != null) {
+            boolean smoker = Boolean.TRUE.equals(guest.getSmokingPreference());
+            boolean smokingRoom = Boolean.TRUE.equals(slot.room.getSmokingAllowed());
+            if (smoker && !smokingRoom) {
+                cost += SMOKING_MISMATCH_PENALTY;
+            } else if (!smoker && smokingRoom) {
+                cost += NON_SMOKER_IN_SMOKING_ROOM_PENALTY;
+            }
+            cost += floorCost(guest.getFloorPreference(), floorOf(slot.room), minFloor, maxFloor);
+        }
+        return cost;
+    }
+
+    // Tight fits leave no gap; one- and two-night holes between stays are hard to sell
+    private static int gapCost(long gap) {
+        int cost = (int) Math.min(gap, GAP_CAP);
+        return gap > 0 && gap <= 2 ? cost + ORPHAN_GAP_PENALTY : cost;
+    }
+
+    static int floorCost(String preference, int floor, int minFloor, int maxFloor) {
+        if (preference == null || preference.isBlank()) {
+            return 0;
+        }
+        String value = preference.trim().toLowerCase();
+        if (value.chars().allMatch(Character::isDigit)) {
+            return Math.min(Math.abs(floor - Integer.parseInt(value)) * 2, MAX_FLOOR_PENALTY);
+        }
+        if (value.startsWith("high") || value.startsWith("upper") || value.startsWith("top")) {
+            return Math.min(maxFloor - floor, MAX_FLOOR_PENALTY);
+        }
+        if (value.startsWith("low") || value.startsWith("ground") || value.startsWith("bottom")) {
+            return Math.min(floor - minFloor, MAX_FLOOR_PENALTY);
+        }
+        return 0;
+    }
+
+    private static int floorOf(Room room) {
+        return room.getFloor() != null ? room.getFloor() : 0;
+    }
+
+    // All assignments go out in one transaction as a JDBC batch. The target rooms are locked first,
+    // so manual assignments, room bookings, series and blocks wait for us; anything they committed
+    // while the plan was computed is caught by the guards: the booking already has a room, the room
+    // now has an overlapping stay or block, or a series re-read under the lock holds one of its nights.
+    private List<Assignment> writeAssignments(List<Assignment> planned) {
+        if (planned.isEmpty()) {
+            return planned;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        return transactionTemplate.execute(status -> {
+            roomRepository.lockByIdIn(planned.stream().map(a -> a.slot.room.getId()).collect(Collectors.toSet()));
+            List<Assignment> assignments = withoutSeriesConflicts(planned);
+            if (assignments.isEmpty()) {
+                return assignments;
+            }
+            int[][] counts = jdbcTemplate.batchUpdate(ASSIGN_SQL, assignments, BATCH_SIZE, (ps, a) -> {
+                ps.setLong(1, a.slot.room.getId());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, a.booking.getId());
+                ps.setLong(4, a.slot.room.getId());
+                ps.setLong(5, a.slot.room.getId());
+                ps.setLong(6, a.slot.room.getId());
+            });
+            List<Assignment> written = new ArrayList<>();
+            int index = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    Assignment assignment = assignments.get(index++);
+                    if (count != 0) {
+                        written.add(assignment);
+                        BookingSnapshot before = BookingSnapshot.of(assignment.booking);
+                        eventPublisher.publishEvent(new BookingChangedEvent(
+                                before, before.withRoomId(assignment.slot.room.getId())));
+                    }
+                }
+            }
+            return written;
+        });
+    }
+
+    // Series nights are a rule rather than rows, so they are expanded once for the whole batch
+    private List<Assignment> withoutSeriesConflicts(List<Assignment> assignments) {
+        LocalDate from = assignments.stream().map(a -> a.booking.getCheckInDate()).min(Comparator.naturalOrder()).get();
+        LocalDate to = assignments.stream().map(a -> a.booking.getCheckOutDate()).max(Comparator.naturalOrder()).get();
+        Map<Long, List<LocalDate[]>> occupancy = recurringBookingService.findOccupancy(from, to);
+        if (occupancy.isEmpty()) {
+            return assignments;
+        }
+        return assignments.stream()
+                .filter(a -> occupancy.getOrDefault(a.slot.room.getId(), List.of()).stream()
+                        .noneMatch(stay -> stay[0].isBefore(a.booking.getCheckOutDate())
+                                && a.booking.getCheckInDate().isBefore(stay[1])))
+                .collect(Collectors.toList());
+    }
+
+    private static final class RoomSlot {
+        final Room room;
+        // Disjoint half-open intervals [checkIn, checkOut) as epoch days, keyed by check-in;
+        // stays, blocks and series nights that overlap or touch are merged on the way in
+        final TreeMap<Long, Long> stays = new TreeMap<>();
+
+        RoomSlot(Room room) {
+            this.room = room;
+        }
+
+        boolean fits(long in, long out) {
+            Map.Entry<Long, Long> previous = stays.lowerEntry(out);
+            return previous == null || previous.getValue() <= in;
+        }
+
+        void occupy(long in, long out) {
+            Map.Entry<Long, Long> previous = stays.floorEntry(in);
+            if (previous != null && previous.getValue() >= in) {
+                in = previous.getKey();
+                out = Math.max(out, previous.getValue());
+            }
+            for (Map.Entry<Long, Long> next = stays.ceilingEntry(in); next != null && next.getKey() <= out;
+                 next = stays.ceilingEntry(in)) {
+                out = Math.max(out, next.getValue());
+                stays.remove(next.getKey());
+            }
+            stays.put(in, out);
+        }
+
+        long gapBefore(long in) {
+            Map.Entry<Long, Long> previous = stays.floorEntry(in);
+            return previous == null ? GAP_CAP : in - previous.getValue();
+        }
+
+        long gapAfter(long out) {
+            Map.Entry<Long, Long> next = stays.ceilingEntry(out);
+            return next == null ? GAP_CAP : next.getKey() - out;
+        }
+    }
+
+    private record Assignment(Booking booking, RoomSlot slot, int cost) {
+    }
+
+    private static final class Plan {
+        final List<Assignment> assignments = new ArrayList<>();
+        final List<Booking> unassigned = new ArrayList<>();
+    }
+}
@@ -0,0 +1,135 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.RoomCalendarResponse;
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.MaintenanceBlock;
+import com.hotel.booking.entity.RecurringBooking;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.MaintenanceBlockRepository;
+import com.hotel.booking.repository.RecurringBookingRepository;
+import com.hotel.booking.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Month grid of every room, filled in one pass over a single overlap query per kind of booking.
+// Each row is a char array encoded as a string, so the payload grows by one byte per room-night.
+@Service
+@RequiredArgsConstructor
+public class RoomCalendarService {
+
+    private static final char FREE = '.';
+    private static final char OUT_OF_SERVICE = 'X';
+    private static final char RECURRING = 'R';
+    private static final char MAINTENANCE = 'M';
+    private static final Map<Booking.BookingStatus, Character> STATUS_CODES = new EnumMap<>(Map.of(
+            Booking.BookingStatus.PENDING, 'P',
+            Booking.BookingStatus.CONFIRMED, 'C',
+            Booking.BookingStatus.CHECKED_IN, 'I',
+            Booking.BookingStatus.CHECKED_OUT, 'O',
+            Booking.BookingStatus.NO_SHOW, 'N',
+            Booking.BookingStatus.COMPLETED, 'D'));
+    private static final Map<Character, String> LEGEND = legend();
+
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final RecurringBookingRepository recurringBookingRepository;
+    private final MaintenanceBlockRepository maintenanceBlockRepository;
+
+    public RoomCalendarResponse getCalendar(YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        int days = month.lengthOfMonth();
+
+        List<Room> rooms = roomRepository.findAllByOrderByRoomNumberAsc();
+        Map<Long, Integer> positions = new HashMap<>();
+        long[] roomIds = new long[rooms.size()];
+        String[] roomNumbers = new String[rooms.size()];
+        String[] roomTypes = new String[rooms.size()];
+        char[][] cells = new char[rooms.size()][days];
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            positions.put(room.getId(), i);
+            roomIds[i] = room.getId();
+            roomNumbers[i] = room.getRoomNumber();
+            roomTypes[i] = room.getType() != null ? room.getType().name() : null;
+            boolean inService = Boolean.TRUE.equals(room.getIsAvailable())
+                    && room.getMaintenanceStatus() == Room.MaintenanceStatus.AVAILABLE;
+            Arrays.fill(cells[i], inService ? FREE : OUT_OF_SERVICE);
+        }
+        long[] bookingIds = new long[rooms.size() * days];
+
+        for (BookingSnapshot stay : bookingRepository.findAssignedSnapshotsOverlapping(from, to)) {
+            Integer row = positions.get(stay.roomId());
+            if (row != null) {
+                mark(cells[row], bookingIds, row * days, from, stay.checkInDate(), stay.checkOutDate(),
+                        STATUS_CODES.get(stay.status()), stay.id());
+            }
+        }
+        for (RecurringBooking series : recurringBookingRepository.findActiveOverlapping(from, to)) {
+            Integer row = positions.get(series.getRoom().getId());
+            if (row != null) {
+                for (LocalDate[] stay : RecurrencePattern.of(series).occurrences(from, to)) {
+                    mark(cells[row], bookingIds, row * days, from, stay[0], stay[1], RECURRING, series.getId());
+                }
+            }
+        }
+
+        // Scheduled blocks have no booking id; out-of-order blocks share the out-of-service code
+        for (MaintenanceBlock block : maintenanceBlockRepository.findOverlapping(from, to)) {
+            Integer row = positions.get(block.getRoom().getId());
+            if (row != null) {
+                char code = block.getKind() == MaintenanceBlock.BlockKind.OUT_OF_ORDER ? OUT_OF_SERVICE : MAINTENANCE;
+                mark(cells[row], bookingIds, row * days, from, block.getStartDate(), block.getEndDate(), code, 0);
+            }
+        }
+
+        String[] statuses = new String[rooms.size()];
+        for (int i = 0; i < rooms.size(); i++) {
+            statuses[i] = new String(cells[i]);
+        }
+        return RoomCalendarResponse.builder()
+                .month(month.toString())
+                .firstNight(from)
+                .days(days)
+                .legend(LEGEND)
+                .roomIds(roomIds)
+                .roomNumbers(roomNumbers)
+                .roomTypes(roomTypes)
+                .statuses(statuses)
+                .bookingIds(bookingIds)
+                .build();
+    }
+
+    // Stays are clipped to the month; a stay crossing either edge fills only its nights inside it
+    private static void mark(char[] row, long[] bookingIds, int offset, LocalDate from,
+                             LocalDate checkIn, LocalDate checkOut, char code, long id) {
+        int start = (int) Math.max(0, ChronoUnit.DAYS.between(from, checkIn));
+        int end = (int) Math.min(row.length, ChronoUnit.DAYS.between(from, checkOut));
+        for (int night = start; night < end; night++) {
+            row[night] = code;
+            bookingIds[offset + night] = id;
+        }
+    }
+
+    private static Map<Character, String> legend() {
+        Map<Character, String> legend = new LinkedHashMap<>();
+        legend.put(FREE, "FREE");
+        legend.put(OUT_OF_SERVICE, "OUT_OF_SERVICE");
+        STATUS_CODES.forEach((status, code) -> legend.put(code, status.name()));
+        legend.put(RECURRING, "RECURRING");
+        legend.put(MAINTENANCE, "MAINTENANCE");
+        return legend;
+    }
+}
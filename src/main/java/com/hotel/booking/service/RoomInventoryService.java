@@ -0,0 +1,340 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.entity.Booking;
+import com.hotel.booking.entity.MaintenanceBlock;
+import com.hotel.booking.entity.RecurringBooking;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.MaintenanceBlockRepository;
+import com.hotel.booking.repository.RecurringBookingRepository;
+import com.hotel.booking.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Per room type, per night count of sold units. Selling a type is a CAS increment on each night
+// of the stay, so concurrent sales of the same type never serialize on a database row.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomInventoryService {
+
+    private static final Room.RoomType[] ROOM_TYPES = Room.RoomType.values();
+
+    private final BookingRepository bookingRepository;
+    private final RoomRepository roomRepository;
+    private final RecurringBookingRepository recurringBookingRepository;
+    private final MaintenanceBlockRepository maintenanceBlockRepository;
+
+    private final ConcurrentHashMap<Long, AtomicInteger> sold = new ConcurrentHashMap<>();
+    // Rooms off sale: they are not in capacity, so their stays, series nights and blocks are not counted either
+    private final Set<Long> uncountedRooms = ConcurrentHashMap.newKeySet();
+    private volatile TypeSummary[] summaries = emptySummaries();
+    private volatile boolean loaded;
+
+    public record TypeSummary(Room.RoomType type, int rooms, Double lowestRate, int maxCapacity) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        ensureLoaded();
+    }
+
+    // Nights before today can no longer be sold; drop their counters
+    @Scheduled(cron = "${inventory.evict-cron:0 5 0 * * *}")
+    public void evictPastNights() {
+        long today = LocalDate.now().toEpochDay();
+        sold.keySet().removeIf(key -> key / ROOM_TYPES.length < today);
+    }
+
+    public void refreshCapacity() {
+        TypeSummary[] fresh = emptySummaries();
+        for (Object[] row : roomRepository.summarizeSellableRoomsByType()) {
+            Room.RoomType type = (Room.RoomType) row[0];
+            fresh[type.ordinal()] = new TypeSummary(type, ((Long) row[1]).intValue(),
+                    (Double) row[2], (Integer) row[3]);
+        }
+        summaries = fresh;
+    }
+
+    public TypeSummary getSummary(Room.RoomType type) {
+        ensureLoaded();
+        return summaries[type.ordinal()];
+    }
+
+    // A no-show gives up the rest of its stay, so it no longer holds a unit
+    public static boolean holdsInventory(Booking.BookingStatus status) {
+        return status != Booking.BookingStatus.CANCELLED && status != Booking.BookingStatus.COMPLETED
+                && status != Booking.BookingStatus.NO_SHOW;
+    }
+
+    // Counted in capacity; a maintenance block only takes a unit off sale on such a room
+    public static boolean isSellable(Room room) {
+        return Boolean.TRUE.equals(room.getIsAvailable())
+                && room.getMaintenanceStatus() == Room.MaintenanceStatus.AVAILABLE;
+    }
+
+    public static boolean holdsInventory(BookingSnapshot booking) {
+        return booking != null && booking.roomType() != null && holdsInventory(booking.status());
+    }
+
+    // Takes one unit of the type for every night in [checkIn, checkOut). All-or-nothing: nights
+    // already taken are handed back when a later night is sold out. Inside a transaction the
+    // sale is undone automatically if the transaction rolls back.
+    public boolean reserve(Room.RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        ensureLoaded();
+        int capacity = summaries[type.ordinal()].rooms();
+        long first = checkIn.toEpochDay();
+        long last = checkOut.toEpochDay();
+        for (long night = first; night < last; night++) {
+            AtomicInteger counter = sold.computeIfAbsent(key(type, night), k -> new AtomicInteger());
+            if (!tryIncrement(counter, capacity)) {
+                decrement(type, first, night);
+                return false;
+            }
+        }
+        onRollback(() -> decrement(type, first, last));
+        return true;
+    }
+
+    // All-or-nothing over several stays, e.g. the occurrences of a recurring series
+    public boolean reserve(Room.RoomType type, List<LocalDate[]> stays) {
+        for (int i = 0; i < stays.size(); i++) {
+            if (!reserve(type, stays.get(i)[0], stays.get(i)[1])) {
+                stays.subList(0, i).forEach(stay -> release(type, stay[0], stay[1]));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void release(Room.RoomType type, List<LocalDate[]> stays) {
+        stays.forEach(stay -> release(type, stay[0], stay[1]));
+    }
+
+    public void release(Room.RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        ensureLoaded();
+        long first = checkIn.toEpochDay();
+        long last = checkOut.toEpochDay();
+        decrement(type, first, last);
+        onRollback(() -> increment(type, first, last));
+    }
+
+    public void release(BookingSnapshot booking) {
+        if (holdsInventory(booking) && countsHoldingsOf(booking.roomId())) {
+            release(booking.roomType(), booking.checkInDate(), booking.checkOutDate());
+        }
+    }
+
+    // Re-files a unit from one type to another for every night in [checkIn, checkOut), e.g. when
+    // the room holding it changes type. Capacity is not checked: the unit is already sold.
+    public void move(Room.RoomType from, Room.RoomType to, LocalDate checkIn, LocalDate checkOut) {
+        ensureLoaded();
+        long first = checkIn.toEpochDay();
+        long last = checkOut.toEpochDay();
+        decrement(from, first, last);
+        increment(to, first, last);
+        onRollback(() -> {
+            decrement(to, first, last);
+            increment(from, first, last);
+        });
+    }
+
+    // Whether what sits on the room was counted against its type, i.e. whether releasing it gives a
+    // unit back. Follows the inventory's own bookkeeping rather than the room's current columns.
+    public boolean countsHoldingsOf(Long roomId) {
+        ensureLoaded();
+        return roomId == null || !uncountedRooms.contains(roomId);
+    }
+
+    // Brings the counted holdings in line with the room's sellability: a room taken off sale hands
+    // back the units its upcoming stays, series nights and blocks took, and one put back on sale
+    // takes them again. Capacity moves by the same unit on the next refreshCapacity. Callers hold
+    // the room lock, so nothing is added to the room in between.
+    public void recount(Room room) {
+        boolean counted = isSellable(room);
+        if (counted == countsHoldingsOf(room.getId())) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        for (BookingSnapshot stay : bookingRepository.findHoldingSnapshotsForRoomEndingAfter(room.getId(), today)) {
+            if (stay.roomType() != null) {
+                adjust(stay.roomType(), stay.checkInDate().isBefore(today) ? today : stay.checkInDate(),
+                        stay.checkOutDate(), counted);
+            }
+        }
+        for (RecurringBooking series : recurringBookingRepository.findAllActive()) {
+            if (series.getRoom().getId().equals(room.getId())) {
+                for (LocalDate[] stay : RecurrencePattern.of(series).occurrences(today, series.getEndDate())) {
+                    adjust(room.getType(), stay[0], stay[1], counted);
+                }
+            }
+        }
+        for (MaintenanceBlock block : maintenanceBlockRepository.findEndingAfter(today)) {
+            if (block.getRoom().getId().equals(room.getId())) {
+                adjust(room.getType(), block.getStartDate().isBefore(today) ? today : block.getStartDate(),
+                        block.getEndDate(), counted);
+            }
+        }
+        Long roomId = room.getId();
+        if (counted) {
+            uncountedRooms.remove(roomId);
+            onRollback(() -> uncountedRooms.add(roomId));
+        } else {
+            uncountedRooms.add(roomId);
+            onRollback(() -> uncountedRooms.remove(roomId));
+        }
+    }
+
+    // Units still sellable across the whole stay, i.e. the tightest night
+    public int remaining(Room.RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        ensureLoaded();
+        int capacity = summaries[type.ordinal()].rooms();
+        int maxSold = 0;
+        for (long night = checkIn.toEpochDay(); night < checkOut.toEpochDay(); night++) {
+            AtomicInteger counter = sold.get(key(type, night));
+            if (counter != null) {
+                maxSold = Math.max(maxSold, counter.get());
+            }
+        }
+        return Math.max(0, capacity - maxSold);
+    }
+
+    // Sellable units of the type for each night in [from, to)
+    public int[] remainingByNight(Room.RoomType type, LocalDate from, LocalDate to) {
+        ensureLoaded();
+        int capacity = summaries[type.ordinal()].rooms();
+        long first = from.toEpochDay();
+        int[] remaining = new int[(int) (to.toEpochDay() - first)];
+        for (int i = 0; i < remaining.length; i++) {
+            AtomicInteger counter = sold.get(key(type, first + i));
+            remaining[i] = Math.max(0, capacity - (counter != null ? counter.get() : 0));
+        }
+        return remaining;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            refreshCapacity();
+            uncountedRooms.addAll(roomRepository.findUnsellableRoomIds());
+            LocalDate today = LocalDate.now();
+            int bookings = 0;
+            for (BookingSnapshot booking : bookingRepository.findHoldingSnapshotsEndingAfter(today)) {
+                if (booking.roomType() == null || uncountedRooms.contains(booking.roomId())) {
+                    continue;
+                }
+                LocalDate from = booking.checkInDate().isBefore(today) ? today : booking.checkInDate();
+                increment(booking.roomType(), from.toEpochDay(), booking.checkOutDate().toEpochDay());
+                bookings++;
+            }
+            // Recurring series are expanded from today on; past nights are no longer sold
+            int series = 0;
+            for (RecurringBooking recurring : recurringBookingRepository.findAllActive()) {
+                if (uncountedRooms.contains(recurring.getRoom().getId())) {
+                    continue;
+                }
+                Room.RoomType type = recurring.getRoom().getType();
+                for (LocalDate[] stay : RecurrencePattern.of(recurring).occurrences(today, recurring.getEndDate())) {
+                    increment(type, stay[0].toEpochDay(), stay[1].toEpochDay());
+                }
+                series++;
+            }
+            // A blocked room is one unit of its type off sale; rooms already out of sale are not counted
+            for (MaintenanceBlock block : maintenanceBlockRepository.findEndingAfter(today)) {
+                Room room = block.getRoom();
+                if (!uncountedRooms.contains(room.getId())) {
+                    LocalDate from = block.getStartDate().isBefore(today) ? today : block.getStartDate();
+                    increment(room.getType(), from.toEpochDay(), block.getEndDate().toEpochDay());
+                }
+            }
+            loaded = true;
+            log.info("Room type inventory seeded from {} active bookings and {} recurring series", bookings, series);
+        }
+    }
+
+    private static boolean tryIncrement(AtomicInteger counter, int capacity) {
+        while (true) {
+            int current = counter.get();
+            if (current >= capacity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // Capacity is not checked when taking: the units belong to a room that is joining the type
+    private void adjust(Room.RoomType type, LocalDate from, LocalDate to, boolean take) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        if (take) {
+            increment(type, first, last);
+            onRollback(() -> decrement(type, first, last));
+        } else {
+            decrement(type, first, last);
+            onRollback(() -> increment(type, first, last));
+        }
+    }
+
+    private void increment(Room.RoomType type, long first, long last) {
+        for (long night = first; night < last; night++) {
+            sold.computeIfAbsent(key(type, night), k -> new AtomicInteger()).incrementAndGet();
+        }
+    }
+
+    // Releasing a unit that was never sold means a caller released twice; the counter stays at
+    // zero but the mismatch is reported rather than absorbed
+    private void decrement(Room.RoomType type, long first, long last) {
+        for (long night = first; night < last; night++) {
+            AtomicInteger counter = sold.get(key(type, night));
+            if (counter != null && counter.getAndUpdate(v -> Math.max(0, v - 1)) == 0) {
+                log.error("Room type {} inventory underflow on {}: released a unit that was not sold",
+                        type, LocalDate.ofEpochDay(night));
+            }
+        }
+    }
+
+    private static void onRollback(Runnable compensation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        compensation.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private static long key(Room.RoomType type, long epochDay) {
+        return epochDay * ROOM_TYPES.length + type.ordinal();
+    }
+
+    private static TypeSummary[] emptySummaries() {
+        TypeSummary[] empty = new TypeSummary[ROOM_TYPES.length];
+        for (Room.RoomType type : ROOM_TYPES) {
+            empty[type.ordinal()] = new TypeSummary(type, 0, null, 0);
+        }
+        return empty;
+    }
+}
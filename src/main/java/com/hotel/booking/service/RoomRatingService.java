@@ -0,0 +1,148 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.event.ReviewPostedEvent;
+import com.hotel.booking.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Running rating aggregates per room. Each room keeps its review count (high 32 bits) and
+// rating sum (low 32 bits) in one AtomicLong, so a new review is a single atomic add and the
+// mean is always sum / count. The rooms table is brought up to date by a periodic batch
+// instead of one row update per review. A review holds the seed fence shared from before its
+// commit until it is counted, so the seed, which holds it exclusively, sees every review it
+// replaces and none that is still to be added.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomRatingService {
+
+    private static final long ONE_REVIEW = 1L << 32;
+    private static final long SUM_MASK = ONE_REVIEW - 1;
+    private static final String FLUSH_SQL = "UPDATE rooms SET rating = ?, review_count = ? WHERE id = ?";
+
+    private final ReviewRepository reviewRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, AtomicLong> aggregates = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyRooms = ConcurrentHashMap.newKeySet();
+    private final ReentrantReadWriteLock seedLock = new ReentrantReadWriteLock();
+
+    public record RatingSummary(Double rating, int reviewCount) {
+    }
+
+    // Seeds from the reviews table and marks every room dirty, so the first flush also repairs
+    // rating columns that were never maintained. Values are replaced, not added to, so reviews
+    // counted before the seed are not counted again.
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        seedLock.writeLock().lock();
+        try {
+            Set<Long> unreviewed = new HashSet<>(aggregates.keySet());
+            for (Object[] row : reviewRepository.summarizeRatingsByRoom()) {
+                Long roomId = (Long) row[0];
+                long sum = ((Number) row[1]).longValue();
+                long count = ((Number) row[2]).longValue();
+                aggregates.computeIfAbsent(roomId, id -> new AtomicLong()).set(count * ONE_REVIEW + sum);
+                unreviewed.remove(roomId);
+                dirtyRooms.add(roomId);
+            }
+            for (Long roomId : unreviewed) {
+                aggregates.get(roomId).set(0);
+                dirtyRooms.add(roomId);
+            }
+        } finally {
+            seedLock.writeLock().unlock();
+        }
+        log.info("Room rating aggregates seeded for {} rooms", aggregates.size());
+        flush();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onReviewPosted(ReviewPostedEvent event) {
+        Runnable count = () -> {
+            aggregates.computeIfAbsent(event.roomId(), id -> new AtomicLong()).addAndGet(ONE_REVIEW + event.rating());
+            dirtyRooms.add(event.roomId());
+        };
+        seedLock.readLock().lock();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                count.run();
+            } finally {
+                seedLock.readLock().unlock();
+            }
+            return;
+        }
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            count.run();
+                        }
+                    } finally {
+                        seedLock.readLock().unlock();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            seedLock.readLock().unlock();
+            throw e;
+        }
+    }
+
+    public RatingSummary getSummary(Long roomId) {
+        AtomicLong aggregate = aggregates.get(roomId);
+        if (aggregate == null) {
+            return null;
+        }
+        long packed = aggregate.get();
+        int count = (int) (packed >>> 32);
+        return new RatingSummary(count > 0 ? round((packed & SUM_MASK) / (double) count) : null, count);
+    }
+
+    // Values written are absolute, so a failed flush simply leaves its rooms dirty for the
+    // next run. Rooms are taken off the dirty set before reading so a concurrent review
+    // re-marks them.
+    @Scheduled(fixedDelayString = "${reviews.rating-flush-interval-ms:30000}",
+            initialDelayString = "${reviews.rating-flush-interval-ms:30000}")
+    public synchronized void flush() {
+        List<Long> rooms = new ArrayList<>(dirtyRooms);
+        if (rooms.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(rooms.size());
+        for (Long roomId : rooms) {
+            dirtyRooms.remove(roomId);
+            RatingSummary summary = getSummary(roomId);
+            rows.add(new Object[]{summary.rating(), summary.reviewCount(), roomId});
+        }
+        try {
+            jdbcTemplate.batchUpdate(FLUSH_SQL, rows);
+        } catch (RuntimeException e) {
+            dirtyRooms.addAll(rooms);
+            log.warn("Room rating flush failed, {} rooms kept for retry: {}", rooms.size(), e.getMessage());
+        }
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,376 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.RoomRecommendationResponse;
+import com.hotel.booking.entity.Guest;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.ReviewPostedEvent;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.exception.ResourceNotFoundException;
+import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.GuestRepository;
+import com.hotel.booking.repository.RoomRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Ranks free rooms against a guest's stored preferences and past stays. Every sellable room is
+// reduced once to a row of primitive features (type, floor, flags, amenity bitmask, view code,
+// price, rating), so scoring a request is a single loop over arrays. The index is rebuilt when
+// rooms change; ratings are patched in place as reviews arrive.
+@Service
+@RequiredArgsConstructor
+public class RoomRecommendationService {
+
+    private static final int MAX_STAY_NIGHTS = 30;
+    private static final Room.RoomType[] ROOM_TYPES = Room.RoomType.values();
+    private static final int MAX_RESULTS = 50;
+
+    private static final double W_TYPE = 40;
+    private static final double W_SMOKING = 20;
+    private static final double W_FLOOR = 15;
+    private static final double W_KITCHEN = 5;
+    private static final double W_VIEW = 10;
+    private static final double W_AMENITIES = 10;
+    private static final double W_RATING = 10;
+    private static final double W_PRICE = 5;
+
+    private static final int SMOKING = 1;
+    private static final int KITCHEN = 2;
+
+    private static final int FLOOR_ANY = 0;
+    private static final int FLOOR_EXACT = 1;
+    private static final int FLOOR_HIGH = 2;
+    private static final int FLOOR_LOW = 3;
+    private static final int NO_FLOOR = Integer.MIN_VALUE;
+
+    private static final long ONE_REVIEW = 1L << 32;
+    private static final long SUM_MASK = ONE_REVIEW - 1;
+
+    private final RoomRepository roomRepository;
+    private final GuestRepository guestRepository;
+    private final BookingRepository bookingRepository;
+    private final AvailabilityService availabilityService;
+    private final RoomInventoryService roomInventoryService;
+    private final RoomRatingService roomRatingService;
+
+    private volatile FeatureIndex index;
+
+    public void invalidate() {
+        index = null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReviewPosted(ReviewPostedEvent event) {
+        FeatureIndex current = index;
+        Integer position = current != null ? current.positions.get(event.roomId()) : null;
+        if (position != null) {
+            current.ratings.addAndGet(position, ONE_REVIEW + event.rating());
+        }
+    }
+
+    public List<RoomRecommendationResponse> recommend(Long guestId, LocalDate checkIn, LocalDate checkOut,
+                                                      int guests, int limit) {
+        if (checkIn == null || checkOut == null || !checkIn.isBefore(checkOut) || checkIn.isBefore(LocalDate.now())) {
+            throw new BadRequestException("Invalid date range");
+        }
+        int nights = (int) ChronoUnit.DAYS.between(checkIn, checkOut);
+        if (nights > MAX_STAY_NIGHTS) {
+            throw new BadRequestException("Stays longer than " + MAX_STAY_NIGHTS + " nights cannot be ranked");
+        }
+        if (guests < 1) {
+            throw new BadRequestException("At least 1 guest is required");
+        }
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_RESULTS);
+        }
+        Guest guest = guestRepository.findById(guestId)
+                .orElseThrow(() -> new ResourceNotFoundException("Guest not found with id: " + guestId));
+
+        FeatureIndex features = index();
+        Preferences preferences = preferencesOf(guest, features);
+
+        // Free rooms whose type still has a unit left on every night. The index already holds the
+        // rooms, so only their occupancy is read; type counts come from the in-memory inventory.
+        BitSet[] occupied = availabilityService.occupancy(features.positions, features.size(), checkIn, checkOut);
+        boolean[] typeOpen = new boolean[ROOM_TYPES.length];
+        for (Room.RoomType type : ROOM_TYPES) {
+            typeOpen[type.ordinal()] = roomInventoryService.remaining(type, checkIn, checkOut) > 0;
+        }
+        boolean[] free = new boolean[features.size()];
+        for (int i = 0; i < features.size(); i++) {
+            free[i] = occupied[i].isEmpty() && typeOpen[features.types[i]];
+        }
+
+        double[] scores = new double[features.size()];
+        PriorityQueue<Integer> best = new PriorityQueue<>(Comparator.comparingDouble(i -> scores[i]));
+        for (int i = 0; i < features.size(); i++) {
+            if (!free[i] || features.capacities[i] < guests) {
+                continue;
+            }
+            scores[i] = score(features, i, preferences, null);
+            best.offer(i);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        List<RoomRecommendationResponse> result = new ArrayList<>(best.size());
+        for (int i : best) {
+            List<String> reasons = new ArrayList<>();
+            score(features, i, preferences, reasons);
+            result.add(RoomRecommendationResponse.builder()
+                    .roomId(features.ids[i])
+                    .roomNumber(features.roomNumbers[i])
+                    .roomType(ROOM_TYPES[features.types[i]].name())
+                    .floor(features.floors[i] != NO_FLOOR ? features.floors[i] : null)
+                    .view(features.views[i])
+                    .pricePerNight(features.prices[i])
+                    .totalPrice(Math.round(features.prices[i] * nights * 100.0) / 100.0)
+                    .score(Math.round(scores[i] * 100.0) / 100.0)
+                    .reasons(reasons)
+                    .build());
+        }
+        result.sort(Comparator.comparingDouble(RoomRecommendationResponse::getScore).reversed());
+        return result;
+    }
+
+    // reasons is only collected for the rooms that made the cut
+    private static double score(FeatureIndex f, int i, Preferences p, List<String> reasons) {
+        double score = 0;
+        if (f.types[i] == p.type) {
+            score += W_TYPE;
+            addReason(reasons, "Preferred room type");
+        }
+        boolean smokingRoom = (f.flags[i] & SMOKING) != 0;
+        if (smokingRoom) {
+            score += p.smoker ? W_SMOKING : -W_SMOKING;
+            if (p.smoker) {
+                addReason(reasons, "Smoking allowed");
+            }
+        }
+        int floor = f.floors[i];
+        if (floor != NO_FLOOR && p.floorMode != FLOOR_ANY) {
+            double fit;
+            if (p.floorMode == FLOOR_EXACT) {
+                fit = Math.max(0, 1 - Math.abs(floor - p.floorTarget) / 4.0);
+            } else {
+                double height = f.maxFloor > f.minFloor ? (double) (floor - f.minFloor) / (f.maxFloor - f.minFloor) : 1;
+                fit = p.floorMode == FLOOR_HIGH ? height : 1 - height;
+            }
+            score += W_FLOOR * fit;
+            if (fit >= 0.75) {
+                addReason(reasons, "Matches floor preference");
+            }
+        }
+        if (p.dietary && (f.flags[i] & KITCHEN) != 0) {
+            score += W_KITCHEN;
+            addReason(reasons, "Kitchen for dietary needs");
+        }
+        if (p.stays > 0) {
+            double sameView = f.viewCodes[i] >= 0 ? (double) p.viewCounts[f.viewCodes[i]] / p.stays : 0;
+            score += W_VIEW * sameView;
+            if (sameView >= 0.5) {
+                addReason(reasons, "Same view as past stays");
+            }
+            if (p.pastAmenities != 0) {
+                double overlap = (double) Long.bitCount(f.amenities[i] & p.pastAmenities) / Long.bitCount(p.pastAmenities);
+                score += W_AMENITIES * overlap;
+                if (overlap == 1) {
+                    addReason(reasons, "Has every amenity of past stays");
+                }
+            }
+        }
+        long rating = f.ratings.get(i);
+        long reviews = rating >>> 32;
+        if (reviews > 0) {
+            double mean = (double) (rating & SUM_MASK) / reviews;
+            score += W_RATING * mean / 5;
+            if (mean >= 4.5) {
+                addReason(reasons, "Highly rated");
+            }
+        }
+        score -= f.maxPrice > 0 ? W_PRICE * f.prices[i] / f.maxPrice : 0;
+        return score;
+    }
+
+    private static void addReason(List<String> reasons, String reason) {
+        if (reasons != null) {
+            reasons.add(reason);
+        }
+    }
+
+    private Preferences preferencesOf(Guest guest, FeatureIndex features) {
+        Preferences p = new Preferences(features.viewNames.size());
+        p.type = guest.getPreferredRoomType() != null
+                ? Room.RoomType.valueOf(guest.getPreferredRoomType().name()).ordinal() : -1;
+        p.smoker = Boolean.TRUE.equals(guest.getSmokingPreference());
+        p.dietary = guest.getDietaryRestrictions() != null && !guest.getDietaryRestrictions().isEmpty();
+
+        String floor = guest.getFloorPreference() != null ? guest.getFloorPreference().trim().toUpperCase(Locale.ROOT) : "";
+        if (floor.matches("-?\\d+")) {
+            p.floorMode = FLOOR_EXACT;
+            p.floorTarget = Integer.parseInt(floor);
+        } else if (floor.equals("HIGH") || floor.equals("TOP") || floor.equals("UPPER")) {
+            p.floorMode = FLOOR_HIGH;
+        } else if (floor.equals("LOW") || floor.equals("GROUND") || floor.equals("LOWER")) {
+            p.floorMode = FLOOR_LOW;
+        }
+
+        // Past stays contribute their views and amenities as soft preferences
+        for (Long roomId : bookingRepository.findStayedRoomIdsByGuestId(guest.getId())) {
+            Integer position = features.positions.get(roomId);
+            if (position == null) {
+                continue;
+            }
+            p.stays++;
+            if (features.viewCodes[position] >= 0) {
+                p.viewCounts[features.viewCodes[position]]++;
+            }
+            p.pastAmenities |= features.amenities[position];
+        }
+        return p;
+    }
+
+    private FeatureIndex index() {
+        FeatureIndex current = index;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (index == null) {
+                index = build(roomRepository.findSellableRoomsWithAmenities());
+            }
+            return index;
+        }
+    }
+
+    private FeatureIndex build(List<Room> rooms) {
+        FeatureIndex f = new FeatureIndex(rooms.size());
+        Map<String, Integer> amenityBits = new HashMap<>();
+        Map<String, Integer> viewCodes = new HashMap<>();
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            f.positions.put(room.getId(), i);
+            f.ids[i] = room.getId();
+            f.roomNumbers[i] = room.getRoomNumber();
+            f.views[i] = room.getView();
+            f.types[i] = room.getType().ordinal();
+            f.floors[i] = room.getFloor() != null ? room.getFloor() : NO_FLOOR;
+            f.capacities[i] = room.getCapacity();
+            f.prices[i] = room.getPricePerNight();
+            f.maxPrice = Math.max(f.maxPrice, room.getPricePerNight());
+            if (room.getFloor() != null) {
+                f.minFloor = Math.min(f.minFloor, room.getFloor());
+                f.maxFloor = Math.max(f.maxFloor, room.getFloor());
+            }
+
+            int flags = 0;
+            if (Boolean.TRUE.equals(room.getSmokingAllowed())) {
+                flags |= SMOKING;
+            }
+            long amenities = 0;
+            for (String amenity : room.getAmenities()) {
+                String key = amenity.trim().toLowerCase(Locale.ROOT);
+                if (key.contains("kitchen")) {
+                    flags |= KITCHEN;
+                }
+                // Only the first 64 distinct amenities get a bit; the rest are rare enough to ignore
+                Integer bit = amenityBits.get(key);
+                if (bit == null && amenityBits.size() < Long.SIZE) {
+                    bit = amenityBits.size();
+                    amenityBits.put(key, bit);
+                }
+                if (bit != null) {
+                    amenities |= 1L << bit;
+                }
+            }
+            f.flags[i] = flags;
+            f.amenities[i] = amenities;
+
+            if (room.getView() != null && !room.getView().isBlank()) {
+                String view = room.getView().trim().toLowerCase(Locale.ROOT);
+                f.viewCodes[i] = viewCodes.computeIfAbsent(view, v -> {
+                    f.viewNames.add(v);
+                    return f.viewNames.size() - 1;
+                });
+            } else {
+                f.viewCodes[i] = -1;
+            }
+
+            RoomRatingService.RatingSummary rating = roomRatingService.getSummary(room.getId());
+            if (rating != null && rating.reviewCount() > 0 && rating.rating() != null) {
+                f.ratings.set(i, rating.reviewCount() * ONE_REVIEW + Math.round(rating.rating() * rating.reviewCount()));
+            }
+        }
+        if (f.minFloor > f.maxFloor) {
+            f.minFloor = 0;
+            f.maxFloor = 0;
+        }
+        return f;
+    }
+
+    private static final class FeatureIndex {
+        final Map<Long, Integer> positions = new HashMap<>();
+        final long[] ids;
+        final String[] roomNumbers;
+        final String[] views;
+        final int[] types;
+        final int[] floors;
+        final int[] capacities;
+        final int[] flags;
+        final int[] viewCodes;
+        final long[] amenities;
+        final double[] prices;
+        // Review count in the high 32 bits, rating sum in the low 32, as in RoomRatingService
+        final AtomicLongArray ratings;
+        final List<String> viewNames = new ArrayList<>();
+        int minFloor = Integer.MAX_VALUE;
+        int maxFloor = Integer.MIN_VALUE;
+        double maxPrice;
+
+        FeatureIndex(int size) {
+            ids = new long[size];
+            roomNumbers = new String[size];
+            views = new String[size];
+            types = new int[size];
+            floors = new int[size];
+            capacities = new int[size];
+            flags = new int[size];
+            viewCodes = new int[size];
+            amenities = new long[size];
+            prices = new double[size];
+            ratings = new AtomicLongArray(size);
+        }
+
+        int size() {
+            return ids.length;
+        }
+    }
+
+    private static final class Preferences {
+        int type;
+        boolean smoker;
+        boolean dietary;
+        int floorMode = FLOOR_ANY;
+        int floorTarget;
+        int stays;
+        final int[] viewCounts;
+        long pastAmenities;
+
+        Preferences(int views) {
+            viewCounts = new int[views];
+        }
+    }
+}
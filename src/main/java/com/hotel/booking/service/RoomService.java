@@ -2,17 +2,29 @@ package com.hotel.booking.service;
 
 import com.hotel.booking.dto.RoomRequest;
 import com.hotel.booking.dto.RoomResponse;
+import com.hotel.booking.dto.RoomTypeAvailabilityResponse;
+import com.hotel.booking.entity.MaintenanceBlock;
+import com.hotel.booking.entity.RecurringBooking;
 import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
 import com.hotel.booking.exception.ResourceNotFoundException;
 import com.hotel.booking.exception.BadRequestException;
 import com.hotel.booking.repository.RoomRepository;
 import com.hotel.booking.repository.BookingRepository;
+import com.hotel.booking.repository.MaintenanceBlockRepository;
+import com.hotel.booking.repository.RecurringBookingRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +33,13 @@ public class RoomService {
 
     private final RoomRepository roomRepository;
     private final BookingRepository bookingRepository;
+    private final RoomInventoryService roomInventoryService;
+    private final RoomRatingService roomRatingService;
+    private final RecurringBookingService recurringBookingService;
+    private final RoomRecommendationService roomRecommendationService;
+    private final RecurringBookingRepository recurringBookingRepository;
+    private final MaintenanceBlockRepository maintenanceBlockRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<RoomResponse> getAllRooms() {
         return roomRepository.findAll().stream()
@@ -35,6 +54,18 @@ public class RoomService {
     }
 
     public List<RoomResponse> getAvailableRooms(LocalDate checkIn, LocalDate checkOut) {
+        return findAvailableRooms(checkIn, checkOut).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    public List<Long> getAvailableRoomIds(LocalDate checkIn, LocalDate checkOut) {
+        return findAvailableRooms(checkIn, checkOut).stream()
+                .map(Room::getId)
+                .collect(Collectors.toList());
+    }
+
+    private List<Room> findAvailableRooms(LocalDate checkIn, LocalDate checkOut) {
         if (checkIn == null || checkOut == null) {
             throw new BadRequestException("Check-in and check-out dates are required");
         }
@@ -43,11 +74,41 @@ public class RoomService {
         }
 
         List<Room> availableRooms = roomRepository.findAvailableRooms(checkIn, checkOut);
+        Set<Long> heldBySeries = recurringBookingService.findOccupiedRoomIds(checkIn, checkOut);
+        // A free room is only sellable while room-type holds have not used up its type
+        Map<Room.RoomType, Integer> remainingByType = new EnumMap<>(Room.RoomType.class);
         return availableRooms.stream()
-                .map(this::convertToResponse)
+                .filter(room -> !heldBySeries.contains(room.getId()))
+                .filter(room -> remainingByType.computeIfAbsent(room.getType(),
+                        type -> roomInventoryService.remaining(type, checkIn, checkOut)) > 0)
                 .collect(Collectors.toList());
     }
 
+    public List<RoomTypeAvailabilityResponse> getRoomTypeAvailability(LocalDate checkIn, LocalDate checkOut) {
+        if (checkIn == null || checkOut == null) {
+            throw new BadRequestException("Check-in and check-out dates are required");
+        }
+        if (!checkIn.isBefore(checkOut) || checkIn.isBefore(LocalDate.now())) {
+            throw new BadRequestException("Invalid date range");
+        }
+
+        List<RoomTypeAvailabilityResponse> availability = new ArrayList<>();
+        for (Room.RoomType type : Room.RoomType.values()) {
+            RoomInventoryService.TypeSummary summary = roomInventoryService.getSummary(type);
+            if (summary.rooms() == 0) {
+                continue;
+            }
+            availability.add(RoomTypeAvailabilityResponse.builder()
+                    .roomType(type.name())
+                    .totalRooms(summary.rooms())
+                    .remaining(roomInventoryService.remaining(type, checkIn, checkOut))
+                    .fromPricePerNight(summary.lowestRate())
+                    .maxCapacity(summary.maxCapacity())
+                    .build());
+        }
+        return availability;
+    }
+
     public RoomResponse createRoom(RoomRequest request) {
         // Check if room number already exists
         if (roomRepository.existsByRoomNumber(request.getRoomNumber())) {
@@ -57,10 +118,15 @@ public class RoomService {
         Room room = convertToEntity(request);
         room.setMaintenanceStatus(Room.MaintenanceStatus.AVAILABLE);
         Room savedRoom = roomRepository.save(room);
+        roomInventoryService.refreshCapacity();
+        roomRecommendationService.invalidate();
         return convertToResponse(savedRoom);
     }
 
+    @Transactional
     public RoomResponse updateRoom(Long id, RoomRequest request) {
+        // Bookings, series and blocks take the same lock, so the holdings re-filed below stay complete
+        roomRepository.lockByIdIn(List.of(id));
         Room existingRoom = roomRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + id));
 
@@ -70,11 +136,54 @@ public class RoomService {
             throw new BadRequestException("Room number already exists: " + request.getRoomNumber());
         }
 
+        Room.RoomType previousType = existingRoom.getType();
         updateEntityFromRequest(existingRoom, request);
         Room updatedRoom = roomRepository.save(existingRoom);
+        if (previousType != updatedRoom.getType()) {
+            moveHoldings(updatedRoom, previousType);
+        }
+        // Taking the room off sale or putting it back moves its unit out of or into capacity, and
+        // its holdings with it
+        roomInventoryService.recount(updatedRoom);
+        roomInventoryService.refreshCapacity();
+        roomRecommendationService.invalidate();
         return convertToResponse(updatedRoom);
     }
 
+    // A retyped room takes its upcoming stays, series nights and blocks with it, so the units they
+    // hold are re-filed under the new type instead of staying sold under the old one
+    private void moveHoldings(Room room, Room.RoomType previousType) {
+        LocalDate today = LocalDate.now();
+        boolean counted = roomInventoryService.countsHoldingsOf(room.getId());
+        List<BookingSnapshot> stays = bookingRepository.findHoldingSnapshotsForRoomEndingAfter(room.getId(), today);
+        if (!stays.isEmpty()) {
+            bookingRepository.updateRoomType(room.getId(),
+                    stays.stream().map(BookingSnapshot::id).collect(Collectors.toList()), room.getType());
+        }
+        for (BookingSnapshot stay : stays) {
+            if (counted && stay.roomType() != null) {
+                LocalDate from = stay.checkInDate().isBefore(today) ? today : stay.checkInDate();
+                roomInventoryService.move(stay.roomType(), room.getType(), from, stay.checkOutDate());
+            }
+            eventPublisher.publishEvent(new BookingChangedEvent(stay, stay.withRoomType(room.getType())));
+        }
+        for (RecurringBooking series : recurringBookingRepository.findAllActive()) {
+            if (counted && series.getRoom().getId().equals(room.getId())) {
+                for (LocalDate[] stay : RecurrencePattern.of(series).occurrences(today, series.getEndDate())) {
+                    roomInventoryService.move(previousType, room.getType(), stay[0], stay[1]);
+                }
+            }
+        }
+        if (counted) {
+            for (MaintenanceBlock block : maintenanceBlockRepository.findEndingAfter(today)) {
+                if (block.getRoom().getId().equals(room.getId())) {
+                    LocalDate from = block.getStartDate().isBefore(today) ? today : block.getStartDate();
+                    roomInventoryService.move(previousType, room.getType(), from, block.getEndDate());
+                }
+            }
+        }
+    }
+
     public void deleteRoom(Long id) {
         Room room = roomRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + id));
@@ -88,6 +197,8 @@ public class RoomService {
         }
 
         roomRepository.delete(room);
+        roomInventoryService.refreshCapacity();
+        roomRecommendationService.invalidate();
     }
 
     private Room convertToEntity(RoomRequest request) {
@@ -124,9 +235,17 @@ public class RoomService {
         room.setView(request.getView());
         room.setSmokingAllowed(request.getSmokingAllowed() != null ? request.getSmokingAllowed() : false);
         room.setPetFriendly(request.getPetFriendly() != null ? request.getPetFriendly() : false);
+        if (request.getIsAvailable() != null) {
+            room.setIsAvailable(request.getIsAvailable());
+        }
+        if (request.getMaintenanceStatus() != null) {
+            room.setMaintenanceStatus(request.getMaintenanceStatus());
+        }
     }
 
     private RoomResponse convertToResponse(Room room) {
+        // Live aggregates run ahead of the stored columns until the next rating flush
+        RoomRatingService.RatingSummary ratings = roomRatingService.getSummary(room.getId());
         return RoomResponse.builder()
                 .id(room.getId())
                 .roomNumber(room.getRoomNumber())
@@ -144,8 +263,8 @@ public class RoomService {
                 .petFriendly(room.getPetFriendly())
                 .isAvailable(room.getIsAvailable())
                 .maintenanceStatus(room.getMaintenanceStatus() != null ? room.getMaintenanceStatus().name() : null)
-                .rating(room.getRating())
-                .reviewCount(room.getReviewCount())
+                .rating(ratings != null ? ratings.rating() : room.getRating())
+                .reviewCount(ratings != null ? ratings.reviewCount() : room.getReviewCount())
                 .createdAt(room.getCreatedAt())
                 .updatedAt(room.getUpdatedAt())
                 .build();
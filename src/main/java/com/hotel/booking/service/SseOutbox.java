@@ -0,0 +1,134 @@
+package com.hotel.booking.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Outgoing events of one server-sent event stream. Producers only offer to a bounded queue and
+// a shared writer pool drains it, at most one writer per stream at a time, so a slow client
+// never holds up the thread that fans events out. A stream whose queue overflows, or whose
+// current write has run past the send timeout, is closed and handed to the owner's close hook.
+// A write that is stuck in the socket keeps the emitter locked, so such a stream is completed
+// by its own writer once the container gives up on the write.
+final class SseOutbox {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+    private final Executor writers;
+    private final Consumer<SseOutbox> onClose;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private volatile Throwable closeCause;
+    private volatile boolean sending;
+    private volatile long sendStartedAt;
+
+    SseOutbox(SseEmitter emitter, int capacity, Executor writers, Consumer<SseOutbox> onClose) {
+        this.emitter = emitter;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writers = writers;
+        this.onClose = onClose;
+    }
+
+    // False once the stream is closed, including when this event overflowed it
+    boolean offer(SseEmitter.SseEventBuilder event) {
+        if (closed.get()) {
+            return false;
+        }
+        if (!queue.offer(event)) {
+            close(new IOException("Client is not keeping up with the stream"));
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    // Closes the stream when its current write started more than the timeout ago
+    boolean expire(long now, long sendTimeoutNanos) {
+        if (sending && now - sendStartedAt > sendTimeoutNanos) {
+            close(new IOException("Client stopped reading the stream"));
+            return true;
+        }
+        return false;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    // A null cause completes the stream normally
+    void close(Throwable cause) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        closeCause = cause;
+        queue.clear();
+        onClose.accept(this);
+        if (!sending) {
+            complete();
+        }
+    }
+
+    // The emitter already ended (client gone, timeout, shutdown); just stop feeding it
+    void discard() {
+        if (closed.compareAndSet(false, true)) {
+            queue.clear();
+            completed.set(true);
+            onClose.accept(this);
+        }
+    }
+
+    private void schedule() {
+        if (!scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            writers.execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+            close(e);
+        }
+    }
+
+    private void flush() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!closed.get() && (event = queue.poll()) != null) {
+                sendStartedAt = System.nanoTime();
+                sending = true;
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    close(e);
+                } finally {
+                    sending = false;
+                }
+            }
+            if (closed.get()) {
+                complete();
+            }
+        } finally {
+            scheduled.set(false);
+        }
+        if (!closed.get() && !queue.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void complete() {
+        if (!completed.compareAndSet(false, true)) {
+            return;
+        }
+        if (closeCause == null) {
+            emitter.complete();
+        } else {
+            emitter.completeWithError(closeCause);
+        }
+    }
+}
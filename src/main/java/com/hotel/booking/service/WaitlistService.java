@@ -0,0 +1,336 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.dto.WaitlistRequest;
+import com.hotel.booking.dto.WaitlistResponse;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.entity.WaitlistEntry;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.event.MaintenanceBlockRemovedEvent;
+import com.hotel.booking.event.RecurringBookingChangedEvent;
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.exception.ResourceNotFoundException;
+import com.hotel.booking.repository.RoomRepository;
+import com.hotel.booking.repository.WaitlistRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+// Guests wait for dates that are sold out. Whenever a booking, a recurring series or a
+// maintenance block gives nights back, the freed range
+// is matched against the waiting entries and the oldest ones that now fit are turned into
+// PENDING holds. Matching runs on a single background thread so request threads never wait
+// on it and two matches never race for the same nights.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WaitlistService {
+
+    static final int MAX_STAY_NIGHTS = 30;
+
+    private final WaitlistRepository waitlistRepository;
+    private final RoomRepository roomRepository;
+    private final BookingService bookingService;
+    private final RoomInventoryService roomInventoryService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final WaitlistIndex index = new WaitlistIndex();
+    private final ExecutorService matcher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "waitlist-matcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        List<WaitlistEntry> open = waitlistRepository.findOpenEntries(LocalDate.now());
+        open.forEach(entry -> index.add(IndexEntry.of(entry)));
+        log.info("Waitlist index loaded with {} waiting entries", open.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matcher.shutdownNow();
+    }
+
+    public WaitlistResponse joinWaitlist(WaitlistRequest request) {
+        if (!request.getCheckInDate().isBefore(request.getCheckOutDate())
+                || request.getCheckInDate().isBefore(LocalDate.now())) {
+            throw new BadRequestException("Invalid waitlist dates");
+        }
+        if (ChronoUnit.DAYS.between(request.getCheckInDate(), request.getCheckOutDate()) > MAX_STAY_NIGHTS) {
+            throw new BadRequestException("Waitlist stays cannot exceed " + MAX_STAY_NIGHTS + " nights");
+        }
+
+        WaitlistEntry entry = new WaitlistEntry();
+        if (request.getRoomId() != null) {
+            Room room = roomRepository.findById(request.getRoomId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Room not found with id: " + request.getRoomId()));
+            if (request.getNumberOfGuests() > room.getCapacity()) {
+                throw new BadRequestException("Number of guests exceeds room capacity");
+            }
+            entry.setRoom(room);
+            entry.setRoomType(room.getType());
+        } else if (request.getRoomType() != null) {
+            if (request.getNumberOfGuests() > roomInventoryService.getSummary(request.getRoomType()).maxCapacity()) {
+                throw new BadRequestException("Number of guests exceeds room capacity");
+            }
+            entry.setRoomType(request.getRoomType());
+        } else {
+            throw new BadRequestException("Either room ID or room type is required");
+        }
+        if (waitlistRepository.existsWaiting(request.getGuestEmail(), request.getCheckInDate(),
+                request.getCheckOutDate(), entry.getRoomType())) {
+            throw new BadRequestException("Guest is already on the waitlist for these dates");
+        }
+
+        entry.setGuestName(request.getGuestName());
+        entry.setGuestEmail(request.getGuestEmail());
+        entry.setGuestPhone(request.getGuestPhone());
+        entry.setCheckInDate(request.getCheckInDate());
+        entry.setCheckOutDate(request.getCheckOutDate());
+        entry.setNumberOfGuests(request.getNumberOfGuests());
+        entry.setStatus(WaitlistEntry.WaitlistStatus.WAITING);
+        WaitlistEntry saved = waitlistRepository.save(entry);
+
+        IndexEntry indexed = IndexEntry.of(saved);
+        index.add(indexed);
+        // Nights may have been freed between the failed booking and joining the waitlist
+        matcher.execute(() -> match(indexed.roomType(), indexed.roomId(), indexed.checkIn(), indexed.checkOut()));
+        return convertToResponse(saved);
+    }
+
+    public List<WaitlistResponse> getWaitingEntries() {
+        return waitlistRepository.findByStatusOrderByCreatedAtAsc(WaitlistEntry.WaitlistStatus.WAITING).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+
+    public WaitlistResponse getEntryById(Long id) {
+        return convertToResponse(findEntry(id));
+    }
+
+    @Transactional
+    public WaitlistResponse cancelEntry(Long id) {
+        if (waitlistRepository.cancelWaiting(id, LocalDateTime.now()) == 0) {
+            findEntry(id);
+            throw new BadRequestException("Only waiting entries can be cancelled");
+        }
+        WaitlistEntry cancelled = findEntry(id);
+        index.remove(IndexEntry.of(cancelled));
+        return convertToResponse(cancelled);
+    }
+
+    @Scheduled(cron = "${waitlist.expire-cron:0 10 0 * * *}")
+    @Transactional
+    public void expireStartedEntries() {
+        LocalDate today = LocalDate.now();
+        int expired = waitlistRepository.expireStarted(today, LocalDateTime.now());
+        index.removeCheckInBefore(today.toEpochDay());
+        if (expired > 0) {
+            log.info("Expired {} waitlist entries whose stay has started", expired);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        BookingSnapshot before = event.before();
+        if (!RoomInventoryService.holdsInventory(before)) {
+            return;
+        }
+        BookingSnapshot after = event.after();
+        if (RoomInventoryService.holdsInventory(after)
+                && after.roomType() == before.roomType()
+                && Objects.equals(after.roomId(), before.roomId())
+                && after.checkInDate().equals(before.checkInDate())
+                && after.checkOutDate().equals(before.checkOutDate())) {
+            return;
+        }
+        Room.RoomType type = before.roomType();
+        Long roomId = before.roomId();
+        long from = before.checkInDate().toEpochDay();
+        long to = before.checkOutDate().toEpochDay();
+        matcher.execute(() -> match(type, roomId, from, to));
+    }
+
+    // Nights the series held before the change and no longer holds
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRecurringBookingChanged(RecurringBookingChangedEvent event) {
+        if (event.before() == null) {
+            return;
+        }
+        List<LocalDate[]> freed = new ArrayList<>();
+        for (LocalDate[] stay : event.before().occurrences(LocalDate.now(), LocalDate.MAX)) {
+            if (event.after() == null || !stay[0].datesUntil(stay[1]).allMatch(event.after()::occupies)) {
+                freed.add(stay);
+            }
+        }
+        if (!freed.isEmpty()) {
+            matcher.execute(() -> freed.forEach(stay -> match(event.roomType(), event.roomId(),
+                    stay[0].toEpochDay(), stay[1].toEpochDay())));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMaintenanceBlockRemoved(MaintenanceBlockRemovedEvent event) {
+        matcher.execute(() -> match(event.roomType(), event.roomId(),
+                event.from().toEpochDay(), event.to().toEpochDay()));
+    }
+
+    // Entries are tried oldest first; each fulfilment takes inventory, so later entries only
+    // succeed while freed nights remain. The counter check is all a candidate costs when its
+    // nights are still sold out.
+    private void match(Room.RoomType type, Long freedRoomId, long from, long to) {
+        try {
+            for (IndexEntry candidate : index.overlapping(type, from, to)) {
+                if (candidate.roomId() != null && freedRoomId != null && !candidate.roomId().equals(freedRoomId)) {
+                    continue;
+                }
+                if (roomInventoryService.remaining(type,
+                        LocalDate.ofEpochDay(candidate.checkIn()), LocalDate.ofEpochDay(candidate.checkOut())) == 0) {
+                    continue;
+                }
+                tryFulfil(candidate);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Waitlist matching failed for {} {} - {}: {}", type,
+                    LocalDate.ofEpochDay(from), LocalDate.ofEpochDay(to), e.getMessage());
+        }
+    }
+
+    // The hold and the entry update commit together, so an entry is never fulfilled twice. The
+    // update only applies to a still waiting entry; if a cancellation got there first the hold
+    // is rolled back.
+    private void tryFulfil(IndexEntry candidate) {
+        try {
+            BookingResponse booking = transactionTemplate.execute(status -> {
+                WaitlistEntry entry = waitlistRepository.findById(candidate.id()).orElse(null);
+                if (entry == null || entry.getStatus() != WaitlistEntry.WaitlistStatus.WAITING) {
+                    return null;
+                }
+                BookingResponse created = bookingService.createHold(BookingRequest.builder()
+                        .roomId(candidate.roomId())
+                        .roomType(entry.getRoomType())
+                        .guestName(entry.getGuestName())
+                        .guestEmail(entry.getGuestEmail())
+                        .guestPhone(entry.getGuestPhone())
+                        .checkInDate(entry.getCheckInDate())
+                        .checkOutDate(entry.getCheckOutDate())
+                        .numberOfGuests(entry.getNumberOfGuests())
+                        .build());
+                if (waitlistRepository.fulfilWaiting(entry.getId(), created.getId(), LocalDateTime.now()) == 0) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                return created;
+            });
+            index.remove(candidate);
+            if (booking != null) {
+                log.info("Waitlist entry {} fulfilled with booking {}", candidate.id(), booking.getBookingNumber());
+            }
+        } catch (BadRequestException | ResourceNotFoundException e) {
+            // Still not bookable; the entry keeps waiting
+        } catch (RuntimeException e) {
+            // Keeps waiting too, and the rest of the candidates are still tried
+            log.warn("Waitlist entry {} could not be fulfilled: {}", candidate.id(), e.getMessage());
+        }
+    }
+
+    private WaitlistEntry findEntry(Long id) {
+        return waitlistRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Waitlist entry not found with id: " + id));
+    }
+
+    private WaitlistResponse convertToResponse(WaitlistEntry entry) {
+        return WaitlistResponse.builder()
+                .id(entry.getId())
+                .guestName(entry.getGuestName())
+                .guestEmail(entry.getGuestEmail())
+                .checkInDate(entry.getCheckInDate())
+                .checkOutDate(entry.getCheckOutDate())
+                .numberOfGuests(entry.getNumberOfGuests())
+                .roomId(entry.getRoom() != null ? entry.getRoom().getId() : null)
+                .roomType(entry.getRoomType() != null ? entry.getRoomType().name() : null)
+                .status(entry.getStatus() != null ? entry.getStatus().name() : null)
+                .bookingId(entry.getBookingId())
+                .fulfilledAt(entry.getFulfilledAt())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+
+    private record IndexEntry(Long id, Room.RoomType roomType, Long roomId, long checkIn, long checkOut) {
+        static IndexEntry of(WaitlistEntry entry) {
+            return new IndexEntry(entry.getId(), entry.getRoomType(),
+                    entry.getRoom() != null ? entry.getRoom().getId() : null,
+                    entry.getCheckInDate().toEpochDay(), entry.getCheckOutDate().toEpochDay());
+        }
+    }
+
+    // Interval index over waiting entries: per room type, entries keyed by check-in day. Stays
+    // are at most MAX_STAY_NIGHTS long, so everything overlapping [from, to) has its check-in
+    // in (from - MAX_STAY_NIGHTS, to) and a single sub-map scan finds it.
+    private static final class WaitlistIndex {
+        private final Map<Room.RoomType, TreeMap<Long, List<IndexEntry>>> byType = new EnumMap<>(Room.RoomType.class);
+
+        synchronized void add(IndexEntry entry) {
+            byType.computeIfAbsent(entry.roomType(), type -> new TreeMap<>())
+                    .computeIfAbsent(entry.checkIn(), day -> new ArrayList<>())
+                    .add(entry);
+        }
+
+        synchronized void remove(IndexEntry entry) {
+            TreeMap<Long, List<IndexEntry>> days = byType.get(entry.roomType());
+            List<IndexEntry> entries = days != null ? days.get(entry.checkIn()) : null;
+            if (entries != null) {
+                entries.removeIf(e -> e.id().equals(entry.id()));
+                if (entries.isEmpty()) {
+                    days.remove(entry.checkIn());
+                }
+            }
+        }
+
+        synchronized void removeCheckInBefore(long day) {
+            byType.values().forEach(days -> days.headMap(day).clear());
+        }
+
+        synchronized List<IndexEntry> overlapping(Room.RoomType type, long from, long to) {
+            TreeMap<Long, List<IndexEntry>> days = byType.get(type);
+            if (days == null) {
+                return List.of();
+            }
+            List<IndexEntry> result = new ArrayList<>();
+            days.subMap(from - MAX_STAY_NIGHTS, false, to, false).values().forEach(entries -> {
+                for (IndexEntry entry : entries) {
+                    if (entry.checkOut() > from) {
+                        result.add(entry);
+                    }
+                }
+            });
+            result.sort(Comparator.comparing(IndexEntry::id));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.hotel.booking.config;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BulkheadStatsResponse;
+import com.hotel.booking.entity.Room;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "bulkheads.wait-timeout-ms=30000")
+@ActiveProfiles("test")
+class BulkheadRegistryTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private BulkheadRegistry bulkheadRegistry;
+
+    @Test
+    void compartmentNeverAdmitsMoreRequestsThanItsPoolHasConnections() {
+        for (BulkheadStatsResponse stats : bulkheadRegistry.getStats()) {
+            if (stats.getPoolSize() != null) {
+                assertThat(stats.getMaxConcurrent()).as(stats.getGroup()).isLessThanOrEqualTo(stats.getPoolSize());
+            }
+        }
+    }
+
+    @Test
+    void moreConcurrentNewGuestBookingsThanPoolConnectionsAllSucceed() throws Exception {
+        int poolSize = bookingsStats().getPoolSize();
+        int requests = poolSize + 1;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(requests);
+        try {
+            List<CompletableFuture<ResponseEntity<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                BookingRequest request = bookingRequest(i);
+                responses.add(CompletableFuture.supplyAsync(() -> {
+                    awaitStart(start);
+                    return restTemplate.postForEntity("/bookings", request, String.class);
+                }, clients));
+            }
+            start.countDown();
+
+            for (CompletableFuture<ResponseEntity<String>> response : responses) {
+                ResponseEntity<String> result = response.get(60, TimeUnit.SECONDS);
+                assertThat(result.getStatusCode().value()).as(result.getBody()).isEqualTo(200);
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        assertThat(bookingsStats().getRejected()).isZero();
+    }
+
+    private BulkheadStatsResponse bookingsStats() {
+        return bulkheadRegistry.getStats().stream()
+                .filter(stats -> stats.getGroup().equals(Bulkhead.Group.BOOKINGS.name()))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    // A new guest each, on nights of their own, so every request inserts a guest and a stay
+    private static BookingRequest bookingRequest(int i) {
+        LocalDate checkIn = LocalDate.now().plusDays(600 + 3L * i);
+        BookingRequest request = new BookingRequest();
+        request.setRoomType(Room.RoomType.SINGLE);
+        request.setGuestName("Bulkhead Guest");
+        request.setGuestEmail("bulkhead-" + i + "@example.com");
+        request.setGuestPhone("5550001010");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkIn.plusDays(1));
+        request.setNumberOfGuests(1);
+        return request;
+    }
+
+    private static void awaitStart(CountDownLatch start) {
+        try {
+            start.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
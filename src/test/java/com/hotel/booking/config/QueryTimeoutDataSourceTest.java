@@ -0,0 +1,76 @@
+package com.hotel.booking.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryTimeoutDataSourceTest {
+
+    private final QueryTimeoutDataSource dataSource = new QueryTimeoutDataSource(h2());
+
+    @AfterEach
+    void clearTimeout() {
+        QueryTimeoutDataSource.clearTimeout();
+    }
+
+    @Test
+    void statementsTakeTheThreadsTimeoutUntilItIsCleared() throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            QueryTimeoutDataSource.setTimeoutSeconds(3);
+            try (Statement statement = connection.createStatement()) {
+                assertThat(statement.getQueryTimeout()).isEqualTo(3);
+            }
+
+            QueryTimeoutDataSource.clearTimeout();
+            try (Statement statement = connection.prepareStatement("SELECT 1")) {
+                assertThat(statement.getQueryTimeout()).isZero();
+            }
+        }
+    }
+
+    @Test
+    void timeoutDoesNotLeakIntoOtherThreads() throws Exception {
+        QueryTimeoutDataSource.setTimeoutSeconds(3);
+        int[] seen = new int[1];
+        Thread other = new Thread(() -> {
+            try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+                seen[0] = statement.getQueryTimeout();
+            } catch (Exception e) {
+                seen[0] = -1;
+            }
+        });
+        other.start();
+        other.join();
+
+        assertThat(seen[0]).isZero();
+    }
+
+    @Test
+    void proxyIsEqualToItselfAndUnwrapsLikeAConnectionProxy() throws Exception {
+        try (Connection connection = dataSource.getConnection(); Connection another = dataSource.getConnection()) {
+            assertThat(connection.equals(connection)).isTrue();
+            assertThat(connection).isNotEqualTo(another);
+            assertThat(connection.hashCode()).isEqualTo(connection.hashCode());
+
+            assertThat(connection).isInstanceOf(ConnectionProxy.class);
+            Connection target = ((ConnectionProxy) connection).getTargetConnection();
+            assertThat(target).isNotSameAs(connection);
+            assertThat(connection.unwrap(Connection.class)).isSameAs(connection);
+            assertThat(connection.isWrapperFor(ConnectionProxy.class)).isTrue();
+            // Anything else is the driver's to answer
+            assertThat(connection.unwrap(org.h2.jdbc.JdbcConnection.class)).isSameAs(target);
+        }
+    }
+
+    private static JdbcDataSource h2() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:query-timeouts;DB_CLOSE_DELAY=-1");
+        return h2;
+    }
+}
@@ -0,0 +1,172 @@
+package com.hotel.booking.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.booking.config.PoolMonitor;
+import com.hotel.booking.config.QueryTimeoutDataSource;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlFilterTest {
+
+    private final FakePoolMonitor pool = new FakePoolMonitor();
+    private final AdmissionControlFilter filter = new AdmissionControlFilter(pool, new ObjectMapper());
+    private final QueryTimeoutDataSource dataSource = new QueryTimeoutDataSource(h2());
+
+    @BeforeEach
+    void configure() {
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "lowMaxWaitMs", 50L);
+        ReflectionTestUtils.setField(filter, "lowMaxInFlight", 100);
+        ReflectionTestUtils.setField(filter, "normalMaxWaitMs", 250L);
+        ReflectionTestUtils.setField(filter, "normalMaxInFlight", 180);
+        ReflectionTestUtils.setField(filter, "lowQueryTimeout", 3);
+        ReflectionTestUtils.setField(filter, "normalQueryTimeout", 10);
+        ReflectionTestUtils.setField(filter, "criticalQueryTimeout", 30);
+    }
+
+    @Test
+    void requestsAreClassedByRoute() throws Exception {
+        send("POST", "/bookings");
+        send("POST", "/payments");
+        send("GET", "/front-desk/arrivals");
+        send("GET", "/rooms");
+        send("GET", "/rooms/4/reviews");
+        send("GET", "/messages/unread");
+        send("GET", "/reports/occupancy");
+        send("PUT", "/bookings/7");
+        send("POST", "/rooms");
+
+        assertThat(filter.getStats().getAdmitted())
+                .containsEntry("CRITICAL", 3L)
+                .containsEntry("LOW", 4L)
+                .containsEntry("NORMAL", 2L);
+    }
+
+    @Test
+    void queueingPoolShedsLowPriorityReadsFirst() throws Exception {
+        pool.pending = 1;
+        pool.max = 10;
+        pool.averageWaitMillis = 100;
+
+        assertThat(send("GET", "/rooms").getStatus()).isEqualTo(503);
+        assertThat(send("PUT", "/bookings/7").getStatus()).isEqualTo(200);
+        assertThat(send("POST", "/bookings").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void saturatedPoolStillAdmitsCriticalRequests() throws Exception {
+        pool.pending = 10;
+        pool.max = 10;
+        pool.averageWaitMillis = 300;
+
+        MockHttpServletResponse shed = send("PUT", "/bookings/7");
+        assertThat(shed.getStatus()).isEqualTo(503);
+        assertThat(shed.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(send("GET", "/rooms").getStatus()).isEqualTo(503);
+        assertThat(send("GET", "/front-desk/departures").getStatus()).isEqualTo(200);
+
+        assertThat(filter.getStats().getShed()).containsEntry("NORMAL", 1L).containsEntry("LOW", 1L)
+                .containsEntry("CRITICAL", 0L);
+    }
+
+    @Test
+    void inFlightCapShedsWithoutPoolPressure() throws Exception {
+        ReflectionTestUtils.setField(filter, "lowMaxInFlight", 1);
+        AtomicInteger nested = new AtomicInteger();
+
+        // A second low-priority request arriving while the first is still running
+        filter.doFilter(request("GET", "/rooms"), new MockHttpServletResponse(), (request, response) ->
+                nested.set(send("GET", "/rooms").getStatus()));
+
+        assertThat(nested.get()).isEqualTo(503);
+        assertThat(send("GET", "/rooms").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void statementsCarryTheClassTimeoutOnlyWhileTheRequestRuns() throws Exception {
+        assertThat(timeoutSeenBy("GET", "/rooms")).isEqualTo(3);
+        assertThat(timeoutSeenBy("PUT", "/bookings/7")).isEqualTo(10);
+        assertThat(timeoutSeenBy("POST", "/bookings")).isEqualTo(30);
+        assertThat(currentTimeout()).isZero();
+
+        // Cleared even when the request fails
+        assertThatThrownBy(() -> filter.doFilter(request("GET", "/rooms"), new MockHttpServletResponse(),
+                (request, response) -> {
+                    throw new IllegalStateException("boom");
+                })).isInstanceOf(IllegalStateException.class);
+        assertThat(currentTimeout()).isZero();
+    }
+
+    private int timeoutSeenBy(String method, String path) throws Exception {
+        int[] seen = new int[1];
+        filter.doFilter(request(method, path), new MockHttpServletResponse(), (request, response) -> {
+            try {
+                seen[0] = currentTimeout();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return seen[0];
+    }
+
+    private int currentTimeout() throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            return statement.getQueryTimeout();
+        }
+    }
+
+    private MockHttpServletResponse send(String method, String path) throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (request, ignored) -> { };
+        filter.doFilter(request(method, path), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/v1" + path);
+        request.setContextPath("/api/v1");
+        return request;
+    }
+
+    private static JdbcDataSource h2() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1");
+        return h2;
+    }
+
+    // Pool readings the test controls; no pool is registered
+    private static final class FakePoolMonitor extends PoolMonitor {
+        int pending;
+        int max;
+        double averageWaitMillis;
+
+        @Override
+        public int getPendingThreads() {
+            return pending;
+        }
+
+        @Override
+        public int getMaxConnections() {
+            return max;
+        }
+
+        @Override
+        public double getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.hotel.booking.security;
+
+import com.hotel.booking.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHasherTest {
+
+    private final List<PasswordHasher> hashers = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        hashers.forEach(PasswordHasher::shutdown);
+    }
+
+    @Test
+    void fullQueueTurnsLoginsAwayAtOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHasher hasher = hasher(new BlockingEncoder(release), 1, 10_000);
+        List<CompletableFuture<Boolean>> running = new ArrayList<>();
+        try {
+            // Every hashing thread busy and the one queue slot taken
+            for (int i = 0; i <= hasher.getThreads(); i++) {
+                running.add(CompletableFuture.supplyAsync(() -> hasher.matches("secret", "hash")));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while ((hasher.getActive() < hasher.getThreads() || hasher.getQueued() < 1)
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+
+            long started = System.nanoTime();
+            assertThatThrownBy(() -> hasher.matches("secret", "hash")).isInstanceOf(ServiceUnavailableException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1_000);
+        } finally {
+            release.countDown();
+        }
+        for (CompletableFuture<Boolean> login : running) {
+            assertThat(login.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    void checkThatOutlivesTheTimeoutIsTurnedAway() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHasher hasher = hasher(new BlockingEncoder(release), 4, 50);
+        try {
+            assertThatThrownBy(() -> hasher.matches("secret", "hash")).isInstanceOf(ServiceUnavailableException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void unknownUserIsCheckedAgainstAHashOfTheConfiguredCost() {
+        RecordingEncoder encoder = new RecordingEncoder(new BCryptPasswordEncoder(4));
+        PasswordHasher hasher = hasher(encoder, 4, 5_000);
+
+        assertThat(hasher.matches("secret", null)).isFalse();
+
+        // A full BCrypt comparison at the same cost as real users, so the miss costs as much as a hit
+        assertThat(encoder.lastHash).isNotNull().startsWith("$2a$04$");
+        assertThat(hasher.needsRehash(encoder.lastHash)).isFalse();
+    }
+
+    @Test
+    void anyOtherCostOrFormatNeedsRehash() {
+        PasswordHasher hasher = hasher(new BCryptPasswordEncoder(4), 4, 5_000);
+
+        assertThat(hasher.needsRehash("$2a$04$abcdefghijklmnopqrstuu")).isFalse();
+        assertThat(hasher.needsRehash("$2y$04$abcdefghijklmnopqrstuu")).isFalse();
+        assertThat(hasher.needsRehash("$2$04$abcdefghijklmnopqrstuu")).isFalse();
+        assertThat(hasher.needsRehash("$2b$10$abcdefghijklmnopqrstuu")).isTrue();
+        assertThat(hasher.needsRehash("$2a$03$abcdefghijklmnopqrstuu")).isTrue();
+        assertThat(hasher.needsRehash("{noop}secret")).isTrue();
+        assertThat(hasher.needsRehash("")).isTrue();
+    }
+
+    private PasswordHasher hasher(PasswordEncoder encoder, int queueLimit, long timeoutMs) {
+        PasswordHasher hasher = new PasswordHasher(encoder, 4, queueLimit, timeoutMs);
+        hashers.add(hasher);
+        return hasher;
+    }
+
+    // Holds every check until released, like a login stuck behind a slow hash
+    private static final class BlockingEncoder implements PasswordEncoder {
+        private final CountDownLatch release;
+
+        BlockingEncoder(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+    }
+
+    private static final class RecordingEncoder implements PasswordEncoder {
+        private final PasswordEncoder delegate;
+        volatile String lastHash;
+
+        RecordingEncoder(PasswordEncoder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            lastHash = encodedPassword;
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+    }
+}
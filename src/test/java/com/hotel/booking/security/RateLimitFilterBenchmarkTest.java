@@ -0,0 +1,140 @@
+package com.hotel.booking.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.booking.dto.RateLimitStatsResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jakarta.servlet.FilterChain;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Throughput harness for the limiter alone and for the whole filter path (client resolution,
+// group routing and the bucket update), with far more distinct clients than the limiter tracks.
+// Each thread reuses one request and response, so only the code under test is timed. Logs the
+// cost per call, fails past a loose ceiling and checks that the bucket map stays bounded while
+// every client is still limited. Tagged out of the regular build; run with -Pbenchmark.
+@Tag("benchmark")
+class RateLimitFilterBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilterBenchmarkTest.class);
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 100_000;
+    private static final int WARMUP = 20_000;
+    private static final int CLIENTS = 200_000;
+    private static final int MAX_CLIENTS = 50_000;
+    private static final long MAX_NANOS_PER_CALL = Long.getLong("benchmark.max-ns-per-call", 20_000);
+    private static final FilterChain PASS = (request, response) -> { };
+
+    private final String[] addresses = new String[CLIENTS];
+
+    RateLimitFilterBenchmarkTest() {
+        for (int client = 0; client < CLIENTS; client++) {
+            addresses[client] = "10." + (client >> 16 & 0xff) + "." + (client >> 8 & 0xff) + "." + (client & 0xff);
+        }
+    }
+
+    @Test
+    void limiterWithManyClients() throws Exception {
+        RateLimiter rateLimiter = newRateLimiter();
+
+        measure("RateLimiter.tryAcquire", () -> client ->
+                rateLimiter.tryAcquire(RateLimiter.Group.BROWSE, addresses[client]) != 0);
+
+        assertBounded(rateLimiter);
+    }
+
+    @Test
+    void filterPathWithManyClients() throws Exception {
+        RateLimiter rateLimiter = newRateLimiter();
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, new ClientIdentity(), new ObjectMapper());
+        ReflectionTestUtils.setField(filter, "enabled", true);
+
+        measure("RateLimitFilter", () -> {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/rooms");
+            request.setContextPath("/api/v1");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            return client -> {
+                request.setRemoteAddr(addresses[client]);
+                response.setCommitted(false);
+                response.reset();
+                // Straight to the filter body: OncePerRequestFilter would skip a request it has seen
+                filter.doFilterInternal(request, response, PASS);
+                return response.getStatus() == 429;
+            };
+        });
+
+        assertBounded(rateLimiter);
+    }
+
+    private void measure(String name, Call.Factory factory) throws Exception {
+        Call warmup = factory.create();
+        for (int i = 0; i < WARMUP; i++) {
+            warmup.limited(i % CLIENTS);
+        }
+
+        LongAdder limited = new LongAdder();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                Call call = factory.create();
+                workers.add(pool.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        if (call.limited((thread * REQUESTS_PER_THREAD + i) % CLIENTS)) {
+                            limited.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get(2, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        long elapsed = System.nanoTime() - started;
+        long calls = (long) THREADS * REQUESTS_PER_THREAD;
+        // Wall time over all threads' calls: the cost each call adds to the server's throughput
+        long nanosPerCall = elapsed / calls;
+        log.info("{}: {} calls from {} clients on {} threads, {} ns/call, {} limited",
+                name, calls, CLIENTS, THREADS, nanosPerCall, limited.sum());
+        assertThat(nanosPerCall).as("%s ns/call", name).isLessThan(MAX_NANOS_PER_CALL);
+    }
+
+    private static RateLimiter newRateLimiter() {
+        return new RateLimiter(MAX_CLIENTS, 10, 5, 30, 10, 600, 60, 1200, 200);
+    }
+
+    private static void assertBounded(RateLimiter rateLimiter) {
+        RateLimitStatsResponse browse = rateLimiter.getStats().get(RateLimiter.Group.BROWSE.ordinal());
+        assertThat(browse.getTrackedClients()).isLessThanOrEqualTo(MAX_CLIENTS);
+        assertThat(browse.getAllowed() + browse.getRejected()).isEqualTo((long) THREADS * REQUESTS_PER_THREAD + WARMUP);
+        assertThat(browse.getOverflowed()).isPositive();
+    }
+
+    // One thread's view of the code under test, built once so nothing is allocated per call
+    private interface Call {
+        boolean limited(int client) throws Exception;
+
+        interface Factory {
+            Call create();
+        }
+    }
+}
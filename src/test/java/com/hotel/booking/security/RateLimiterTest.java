@@ -0,0 +1,87 @@
+package com.hotel.booking.security;
+
+import com.hotel.booking.dto.RateLimitStatsResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    // 60 per minute is one request a second, with bursts of 5
+    private static final long INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    private final long start = System.nanoTime();
+
+    @Test
+    void fullBucketAdmitsTheBurstThenRejectsUntilTheNextInterval() {
+        RateLimiter limiter = limiter(1000);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", start)).isZero();
+        }
+
+        assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", start)).isEqualTo(INTERVAL);
+        assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", start + INTERVAL / 2))
+                .isEqualTo(INTERVAL / 2);
+    }
+
+    @Test
+    void bucketRefillsOneRequestPerIntervalUpToTheBurst() {
+        RateLimiter limiter = limiter(1000);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", start);
+        }
+
+        long later = start + INTERVAL;
+        assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", later)).isZero();
+        assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", later)).isPositive();
+
+        // Idle for longer than a full refill: the burst is back, and no more than the burst
+        long idle = later + 10 * INTERVAL;
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", idle)).isZero();
+        }
+        assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", idle)).isPositive();
+    }
+
+    @Test
+    void clientsAndGroupsHaveSeparateBuckets() {
+        RateLimiter limiter = limiter(1000);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", start);
+        }
+
+        assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", start)).isPositive();
+        assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:bob", start)).isZero();
+        assertThat(limiter.tryAcquire(RateLimiter.Group.BROWSE, "user:alice", start)).isZero();
+    }
+
+    @Test
+    void clientsBeyondTheLimitAreStillLimitedAndIdleBucketsAreSwept() {
+        RateLimiter limiter = limiter(1);
+        limiter.tryAcquire(RateLimiter.Group.WRITES, "user:alice", start);
+
+        // Bob has no room of his own yet; he is limited through a shared hashed bucket
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:bob", start)).isZero();
+        }
+        assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:bob", start)).isPositive();
+        assertThat(stats(limiter).getOverflowed()).isEqualTo(6);
+
+        // Once Alice's bucket has refilled it holds no state, and a new client takes her place
+        long later = start + 10 * INTERVAL;
+        assertThat(limiter.tryAcquire(RateLimiter.Group.WRITES, "user:carol", later)).isZero();
+        assertThat(stats(limiter).getTrackedClients()).isEqualTo(1);
+        assertThat(stats(limiter).getOverflowed()).isEqualTo(6);
+    }
+
+    private static RateLimiter limiter(int maxClients) {
+        return new RateLimiter(maxClients, 10, 5, 60, 5, 600, 60, 1200, 200);
+    }
+
+    private static RateLimitStatsResponse stats(RateLimiter limiter) {
+        return limiter.getStats().get(RateLimiter.Group.WRITES.ordinal());
+    }
+}
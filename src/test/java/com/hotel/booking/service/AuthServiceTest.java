@@ -0,0 +1,144 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.LoginRequest;
+import com.hotel.booking.entity.User;
+import com.hotel.booking.repository.UserRepository;
+import com.hotel.booking.security.PasswordHasher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private GatedPasswordHasher passwordHasher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The test profile hashes at cost 4; these were stored at another cost
+    private final BCryptPasswordEncoder olderCost = new BCryptPasswordEncoder(5);
+
+    @Test
+    void loginReplacesAHashOfAnotherCost() throws Exception {
+        Long id = createUser("rehash-user", olderCost.encode("secret"));
+        long rehashed = authService.getStats().getRehashed();
+
+        authService.login(new LoginRequest("rehash-user", "secret"));
+        passwordHasher.drain();
+
+        String hash = passwordOf(id);
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(passwordHasher.matches("secret", hash)).isTrue();
+        assertThat(authService.getStats().getRehashed()).isEqualTo(rehashed + 1);
+    }
+
+    @Test
+    void rehashKeepsAPasswordChangedSinceTheLogin() throws Exception {
+        Long id = createUser("changed-user", olderCost.encode("secret"));
+        long rehashed = authService.getStats().getRehashed();
+        passwordHasher.gate = new CountDownLatch(1);
+
+        try {
+            authService.login(new LoginRequest("changed-user", "secret"));
+            // The user changes the password while the rehash is still running
+            String changed = new BCryptPasswordEncoder(4).encode("new-secret");
+            jdbcTemplate.update("UPDATE users SET password = ? WHERE id = ?", changed, id);
+        } finally {
+            passwordHasher.gate.countDown();
+        }
+        passwordHasher.drain();
+
+        assertThat(passwordHasher.matches("new-secret", passwordOf(id))).isTrue();
+        assertThat(authService.getStats().getRehashed()).isEqualTo(rehashed);
+    }
+
+    @Test
+    void unknownUserFailsLikeAWrongPassword() {
+        createUser("known-user", new BCryptPasswordEncoder(4).encode("secret"));
+        long failed = authService.getStats().getFailed();
+
+        assertThatThrownBy(() -> authService.login(new LoginRequest("nobody-at-all", "secret")))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Invalid username or password");
+        assertThatThrownBy(() -> authService.login(new LoginRequest("known-user", "wrong")))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Invalid username or password");
+        assertThat(authService.getStats().getFailed()).isEqualTo(failed + 2);
+    }
+
+    private Long createUser(String username, String hash) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(hash);
+        user.setName("Auth User");
+        user.setRole(User.UserRole.USER);
+        return userRepository.save(user).getId();
+    }
+
+    private String passwordOf(Long id) {
+        return jdbcTemplate.queryForObject("SELECT password FROM users WHERE id = ?", String.class, id);
+    }
+
+    @TestConfiguration
+    static class GatedRehashConfig {
+        @Bean
+        @Primary
+        GatedPasswordHasher gatedPasswordHasher(PasswordEncoder passwordEncoder) {
+            return new GatedPasswordHasher(passwordEncoder);
+        }
+    }
+
+    // Rehashes finish on one thread behind a gate, so a test can hold one back and wait for all
+    static final class GatedPasswordHasher extends PasswordHasher {
+        private final ExecutorService rehashes = Executors.newSingleThreadExecutor();
+        volatile CountDownLatch gate = new CountDownLatch(0);
+
+        GatedPasswordHasher(PasswordEncoder passwordEncoder) {
+            super(passwordEncoder, 4, 64, 5_000);
+        }
+
+        @Override
+        public CompletableFuture<String> encodeAsync(String rawPassword) {
+            CountDownLatch current = gate;
+            return super.encodeAsync(rawPassword).thenApplyAsync(hash -> {
+                try {
+                    current.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return hash;
+            }, rehashes);
+        }
+
+        // The update runs on the rehash thread as soon as the hash is handed over
+        void drain() throws Exception {
+            rehashes.submit(() -> { }).get(10, TimeUnit.SECONDS);
+        }
+    }
+}
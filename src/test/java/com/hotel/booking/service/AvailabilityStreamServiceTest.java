@@ -0,0 +1,156 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.exception.BadRequestException;
+import com.hotel.booking.exception.ServiceUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "availability.stream.max-per-client=2",
+        "availability.stream.max-ranges=4",
+        "availability.stream.max-days-ahead=60",
+        "availability.stream.send-timeout-ms=300",
+        "availability.stream.watchdog-ms=50"
+})
+@ActiveProfiles("test")
+class AvailabilityStreamServiceTest {
+
+    @Autowired
+    private AvailabilityStreamService availabilityStreamService;
+
+    @Test
+    void stalledPageNeitherHoldsUpOthersNorStaysSubscribed() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(release, false);
+        RecordingEmitter healthy = new RecordingEmitter(null, false);
+        availabilityStreamService.register(stalled, checkIn, checkIn.plusDays(2), "ip:stalled");
+        assertThat(stalled.awaitSent(1)).isTrue();
+
+        availabilityStreamService.register(healthy, checkIn, checkIn.plusDays(2), "ip:healthy");
+
+        // The snapshot
+        assertThat(healthy.awaitSent(1)).isTrue();
+        assertThat(awaitStreams("ip:stalled", 0)).isTrue();
+        assertThat(availabilityStreamService.streamCount("ip:healthy")).isEqualTo(1);
+        release.countDown();
+        assertThat(stalled.failure.get(5, TimeUnit.SECONDS)).hasMessageContaining("stopped reading");
+    }
+
+    @Test
+    void clientCannotHoldMoreThanItsShareOfStreams() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(20);
+        availabilityStreamService.register(new RecordingEmitter(null, false), checkIn, checkIn.plusDays(1), "ip:greedy");
+        availabilityStreamService.register(new RecordingEmitter(null, false), checkIn, checkIn.plusDays(1), "ip:greedy");
+
+        assertThatThrownBy(() -> availabilityStreamService.register(
+                new RecordingEmitter(null, false), checkIn, checkIn.plusDays(1), "ip:greedy"))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(availabilityStreamService.streamCount("ip:greedy")).isEqualTo(2);
+
+        // A stream that ends hands its slot back
+        availabilityStreamService.register(new RecordingEmitter(null, true), checkIn, checkIn.plusDays(1), "ip:brief");
+        assertThat(awaitStreams("ip:brief", 0)).isTrue();
+    }
+
+    @Test
+    void rangesMustStartWithinTheHorizonAndStayFewInNumber() throws Exception {
+        LocalDate today = LocalDate.now();
+        assertThatThrownBy(() -> availabilityStreamService.register(
+                new RecordingEmitter(null, false), today.plusDays(61), today.plusDays(62), "ip:far"))
+                .isInstanceOf(BadRequestException.class);
+
+        List<RecordingEmitter> pages = new ArrayList<>();
+        int night = 30;
+        try {
+            while (availabilityStreamService.rangeCount() < 4) {
+                RecordingEmitter page = new RecordingEmitter(null, false);
+                pages.add(page);
+                availabilityStreamService.register(page, today.plusDays(night), today.plusDays(night + 1),
+                        "ip:range-" + night);
+                night++;
+            }
+            LocalDate unwatched = today.plusDays(50);
+            assertThatThrownBy(() -> availabilityStreamService.register(
+                    new RecordingEmitter(null, false), unwatched, unwatched.plusDays(1), "ip:late"))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            assertThat(availabilityStreamService.streamCount("ip:late")).isZero();
+
+            // Pages watching a range that is already computed are still welcome
+            RecordingEmitter page = new RecordingEmitter(null, false);
+            pages.add(page);
+            availabilityStreamService.register(page, today.plusDays(night - 1), today.plusDays(night), "ip:late");
+            assertThat(availabilityStreamService.streamCount("ip:late")).isEqualTo(1);
+        } finally {
+            // Frees the ranges for the other tests
+            pages.forEach(page -> page.disconnected = true);
+            availabilityStreamService.heartbeat();
+            assertThat(awaitStreams("ip:late", 0)).isTrue();
+        }
+    }
+
+    private boolean awaitStreams(String client, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (availabilityStreamService.streamCount(client) != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return availabilityStreamService.streamCount(client) == expected;
+    }
+
+    // Stands in for a page; a release latch makes every write hang like a full socket buffer
+    private static final class RecordingEmitter extends SseEmitter {
+        final AtomicInteger sent = new AtomicInteger();
+        final CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        private final CountDownLatch release;
+        volatile boolean disconnected;
+
+        RecordingEmitter(CountDownLatch release, boolean disconnected) {
+            this.release = release;
+            this.disconnected = disconnected;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sent.incrementAndGet();
+            if (disconnected) {
+                throw new IOException("Broken pipe");
+            }
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            failure.complete(ex);
+        }
+
+        boolean awaitSent(int expected) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (sent.get() < expected && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return sent.get() >= expected;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.dto.FrontDeskEntryResponse;
+import com.hotel.booking.dto.LifecycleSweepResponse;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.event.BookingSnapshot;
+import com.hotel.booking.repository.BookingRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class BookingLifecycleServiceTest {
+
+    @Autowired
+    private BookingLifecycleService lifecycleService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private FrontDeskService frontDeskService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void expiresStalePendingBookingAndReleasesItsNightsOnce() {
+        LocalDate checkIn = LocalDate.now().plusDays(40);
+        BookingResponse booking = createStalePendingBooking(checkIn);
+        int remainingBefore = roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkIn.plusDays(2));
+
+        LifecycleSweepResponse result = lifecycleService.sweep();
+
+        assertThat(result.getExpiredPending()).isGreaterThanOrEqualTo(1);
+        assertThat(status(booking.getId())).isEqualTo("CANCELLED");
+        assertThat(roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkIn.plusDays(2)))
+                .isEqualTo(remainingBefore + 1);
+        assertThat(changesOf(booking.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void skipsBookingChangedConcurrentlyAndNeitherReleasesNorPublishesForIt() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(50);
+        BookingResponse booking = createStalePendingBooking(checkIn);
+        int remainingBefore = roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkIn.plusDays(2));
+
+        // Another transaction has the row locked and is cancelling it while the sweep runs
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch proceed = new CountDownLatch(1);
+        Thread other = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("SELECT id FROM bookings WHERE id = ? FOR UPDATE", booking.getId());
+            jdbcTemplate.update("UPDATE bookings SET status = 'CANCELLED' WHERE id = ?", booking.getId());
+            locked.countDown();
+            try {
+                proceed.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        other.start();
+        assertThat(locked.await(10, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            lifecycleService.sweep();
+        } finally {
+            proceed.countDown();
+            other.join(10_000);
+        }
+
+        assertThat(changesOf(booking.getId())).isZero();
+        assertThat(roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkIn.plusDays(2)))
+                .isEqualTo(remainingBefore);
+
+        // Once the other transaction has committed the booking no longer qualifies
+        lifecycleService.sweep();
+        assertThat(changesOf(booking.getId())).isZero();
+        assertThat(status(booking.getId())).isEqualTo("CANCELLED");
+    }
+
+    @Test
+    void overdueCheckedInStayIsReportedAndListedForCheckOutNotCompleted() {
+        BookingResponse booking = createStalePendingBooking(LocalDate.now().plusDays(560));
+        BookingSnapshot before = bookingRepository.findSnapshotsByIdIn(List.of(booking.getId())).get(0);
+        // Checked in three days ago and due out yesterday
+        jdbcTemplate.update("UPDATE bookings SET status = 'CHECKED_IN', check_in_date = ?, check_out_date = ? "
+                + "WHERE id = ?", LocalDate.now().minusDays(3), LocalDate.now().minusDays(1), booking.getId());
+        BookingSnapshot after = bookingRepository.findSnapshotsByIdIn(List.of(booking.getId())).get(0);
+        frontDeskService.onBookingChanged(new BookingChangedEvent(before, after));
+
+        LifecycleSweepResponse result = lifecycleService.sweep();
+
+        assertThat(result.getOverdueCheckedIn()).isGreaterThanOrEqualTo(1);
+        assertThat(status(booking.getId())).isEqualTo("CHECKED_IN");
+        assertThat(changesOf(booking.getId())).isZero();
+        List<FrontDeskEntryResponse> departures = frontDeskService.getBoard().getDepartures();
+        FrontDeskEntryResponse listed = departures.stream()
+                .filter(entry -> entry.getBookingId().equals(booking.getId()))
+                .findFirst().orElseThrow();
+        assertThat(listed.isOverdue()).isTrue();
+        assertThat(departures.get(0).isOverdue()).isTrue();
+    }
+
+    private BookingResponse createStalePendingBooking(LocalDate checkIn) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(1L);
+        request.setGuestName("Sweep Guest");
+        request.setGuestEmail("sweep-" + checkIn + "@example.com");
+        request.setGuestPhone("5550001111");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkIn.plusDays(2));
+        request.setNumberOfGuests(1);
+        BookingResponse booking = bookingService.createBooking(request);
+        jdbcTemplate.update("UPDATE bookings SET created_at = ? WHERE id = ?",
+                LocalDateTime.now().minusHours(2), booking.getId());
+        return booking;
+    }
+
+    private String status(Long bookingId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM bookings WHERE id = ?", String.class, bookingId);
+    }
+
+    private long changesOf(Long bookingId) {
+        return events.stream(BookingChangedEvent.class)
+                .filter(event -> event.before() != null && bookingId.equals(event.before().id()))
+                .count();
+    }
+}
@@ -0,0 +1,145 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.dto.CancelBookingRequest;
+import com.hotel.booking.dto.LiveDashboardResponse;
+import com.hotel.booking.dto.RoomRequest;
+import com.hotel.booking.entity.Room;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class DashboardServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private FrontDeskService frontDeskService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> roomIds = new ArrayList<>();
+    private final List<Long> bookingIds = new ArrayList<>();
+
+    // Tonight's stays would otherwise keep holding their type's inventory for the other tests
+    @AfterEach
+    void cancelBookingsAndRetireRooms() {
+        bookingIds.forEach(id -> bookingService.cancelBooking(id, new CancelBookingRequest()));
+        roomIds.forEach(id -> jdbcTemplate.update("UPDATE rooms SET is_available = false WHERE id = ?", id));
+        roomInventoryService.refreshCapacity();
+    }
+
+    @Test
+    void countersFollowABookingFromArrivalToCheckIn() {
+        Long roomId = createRoom("DSH-901");
+        // Other tests write some rows directly, so start from a recount
+        dashboardService.verify();
+        LiveDashboardResponse before = dashboardService.getLiveCounters();
+
+        BookingResponse booking = createBooking(roomId, "dashboard-arrival@example.com");
+        LiveDashboardResponse booked = dashboardService.getLiveCounters();
+        assertThat(booked.getArrivals()).isEqualTo(before.getArrivals() + 1);
+        assertThat(booked.getPendingConfirmations()).isEqualTo(before.getPendingConfirmations() + 1);
+        assertThat(booked.getOutstandingPayments()).isEqualTo(before.getOutstandingPayments() + 1);
+        assertThat(booked.getInHouse()).isEqualTo(before.getInHouse());
+
+        frontDeskService.checkIn(booking.getId());
+        LiveDashboardResponse checkedIn = dashboardService.getLiveCounters();
+        assertThat(checkedIn.getArrivals()).isEqualTo(before.getArrivals());
+        assertThat(checkedIn.getPendingConfirmations()).isEqualTo(before.getPendingConfirmations());
+        assertThat(checkedIn.getInHouse()).isEqualTo(before.getInHouse() + 1);
+        assertThat(checkedIn.getOutstandingPayments()).isEqualTo(before.getOutstandingPayments() + 1);
+
+        // The counters kept from events match a recount from the database
+        dashboardService.verify();
+        assertThat(dashboardService.getLiveCounters()).usingRecursiveComparison()
+                .ignoringFields("lastVerifiedAt")
+                .isEqualTo(checkedIn);
+    }
+
+    @Test
+    void reseedRacingACommittedBookingCountsItOnce() throws Exception {
+        Long roomId = createRoom("DSH-902");
+        long arrivals = dashboardService.getLiveCounters().getArrivals();
+
+        // The reseed starts after the commit but before the booking's adjustment is applied
+        CompletableFuture<?>[] reseed = new CompletableFuture<?>[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reseed[0] = CompletableFuture.runAsync(dashboardService::verify);
+                    try {
+                        reseed[0].get(500, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // Held off until the adjustment is applied
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            createBooking(roomId, "dashboard-race@example.com");
+        });
+        reseed[0].get(10, TimeUnit.SECONDS);
+
+        assertThat(dashboardService.getLiveCounters().getArrivals()).isEqualTo(arrivals + 1);
+    }
+
+    private Long createRoom(String roomNumber) {
+        RoomRequest request = new RoomRequest();
+        request.setRoomNumber(roomNumber);
+        request.setType(Room.RoomType.SINGLE);
+        request.setPricePerNight(95.0);
+        request.setCapacity(1);
+        request.setFloor(9);
+        Long id = roomService.createRoom(request).getId();
+        roomIds.add(id);
+        return id;
+    }
+
+    private BookingResponse createBooking(Long roomId, String email) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(roomId);
+        request.setGuestName("Dashboard Guest");
+        request.setGuestEmail(email);
+        request.setGuestPhone("5550009999");
+        request.setCheckInDate(LocalDate.now());
+        request.setCheckOutDate(LocalDate.now().plusDays(1));
+        request.setNumberOfGuests(1);
+        BookingResponse booking = bookingService.createBooking(request);
+        bookingIds.add(booking.getId());
+        return booking;
+    }
+}
@@ -0,0 +1,59 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.dto.FrontDeskResultResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class FrontDeskServiceTest {
+
+    @Autowired
+    private FrontDeskService frontDeskService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void arrivalCheckedInByAnotherDeskIsNotReportedAsOurs() {
+        LocalDate today = LocalDate.now();
+        BookingResponse ours = createBooking(1L, today);
+        BookingResponse theirs = createBooking(2L, today);
+        frontDeskService.getBoard();
+
+        // Another desk checks the second guest in after our board was staged
+        jdbcTemplate.update("UPDATE bookings SET status = 'CHECKED_IN', checked_in_at = ? WHERE id = ?",
+                LocalDateTime.now().minusSeconds(5), theirs.getId());
+
+        FrontDeskResultResponse result = frontDeskService.checkIn(List.of(ours.getId(), theirs.getId()));
+
+        assertThat(result.getProcessedBookingIds()).containsExactly(ours.getId());
+        assertThat(result.getRejected()).containsOnlyKeys(theirs.getId());
+    }
+
+    private BookingResponse createBooking(Long roomId, LocalDate checkIn) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(roomId);
+        request.setGuestName("Arriving Guest");
+        request.setGuestEmail("arrival-" + roomId + "@example.com");
+        request.setGuestPhone("5550007777");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkIn.plusDays(1));
+        request.setNumberOfGuests(1);
+        return bookingService.createBooking(request);
+    }
+}
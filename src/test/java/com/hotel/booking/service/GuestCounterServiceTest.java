@@ -0,0 +1,106 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GuestCounterServiceTest {
+
+    @Autowired
+    private GuestCounterService guestCounterService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void reconcileCorrectsDriftWithoutDroppingPendingDeltas() {
+        BookingResponse first = createBooking("counter-drift@example.com", LocalDate.now().plusDays(400));
+        guestCounterService.flush();
+        jdbcTemplate.update("UPDATE guests SET total_bookings = 7 WHERE id = ?", first.getGuestId());
+        createBooking("counter-drift@example.com", LocalDate.now().plusDays(410));
+
+        guestCounterService.reconcile();
+
+        assertThat(storedBookings(first.getGuestId())).isEqualTo(2);
+        assertThat(guestCounterService.getPendingDelta(first.getGuestId())).containsExactly(0, 0);
+    }
+
+    @Test
+    void bookingCommittedWhileReconcileRunsIsCountedOnce() throws Exception {
+        CountDownLatch committed = new CountDownLatch(1);
+        AtomicReference<CompletableFuture<Integer>> reconcile = new AtomicReference<>();
+        AtomicReference<BookingResponse> booking = new AtomicReference<>();
+
+        // Registered ahead of the booking's own callbacks, so it runs after the commit but before
+        // the delta is recorded; reconcile starts in that window
+        Thread writer = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    committed.countDown();
+                    try {
+                        awaitStarted(reconcile).get(500, TimeUnit.MILLISECONDS);
+                    } catch (Exception e) {
+                        // Reconcile is expected to wait for this commit's delta
+                    }
+                }
+            });
+            booking.set(createBooking("counter-race@example.com", LocalDate.now().plusDays(420)));
+        }));
+        writer.start();
+        assertThat(committed.await(10, TimeUnit.SECONDS)).isTrue();
+        reconcile.set(CompletableFuture.supplyAsync(guestCounterService::reconcile));
+        writer.join(10_000);
+        reconcile.get().get(10, TimeUnit.SECONDS);
+        guestCounterService.flush();
+
+        assertThat(storedBookings(booking.get().getGuestId())).isEqualTo(1);
+    }
+
+    private static CompletableFuture<Integer> awaitStarted(AtomicReference<CompletableFuture<Integer>> future)
+            throws InterruptedException {
+        while (future.get() == null) {
+            Thread.sleep(5);
+        }
+        return future.get();
+    }
+
+    private BookingResponse createBooking(String email, LocalDate checkIn) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(2L);
+        request.setGuestName("Counter Guest");
+        request.setGuestEmail(email);
+        request.setGuestPhone("5550004444");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkIn.plusDays(1));
+        request.setNumberOfGuests(1);
+        return bookingService.createBooking(request);
+    }
+
+    private long storedBookings(Long guestId) {
+        return jdbcTemplate.queryForObject("SELECT total_bookings FROM guests WHERE id = ?", Long.class, guestId);
+    }
+}
@@ -0,0 +1,149 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.dto.GuestDedupResponse;
+import com.hotel.booking.dto.RecurringBookingRequest;
+import com.hotel.booking.dto.RecurringBookingResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Merges run over every guest, so this class keeps a database of its own
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:guest-dedup;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class GuestDedupServiceTest {
+
+    @Autowired
+    private GuestDedupService guestDedupService;
+
+    @Autowired
+    private GuestCounterService guestCounterService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RecurringBookingService recurringBookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void dryRunGroupsDuplicatesOntoTheOldestGuestWithoutWriting() {
+        Long smith = insertGuest("John", "Smith", "john.smith@example.com", "555-010-1000");
+        Long reordered = insertGuest("Smith", "John", "j.smith@example.net", "+1 (555) 010-1000");
+        Long jones = insertGuest("Mary", "Jones", " Mary.Jones@Example.com", "5550102000");
+        Long sameAddress = insertGuest("M", "Jones", "mary.jones@example.com", "5550103000");
+        Long brown = insertGuest("Peter", "Brown", "peter.brown@example.com", "5550104000");
+        Long green = insertGuest("Paula", "Green", "paula.green@example.com", "5550104000");
+        int guests = count("SELECT COUNT(*) FROM guests");
+
+        GuestDedupResponse response = guestDedupService.deduplicate(true);
+
+        // Same phone, same name in another word order
+        GuestDedupResponse.Group byPhone = groupOf(response, smith).orElseThrow();
+        assertThat(byPhone.getDuplicateIds()).containsExactly(reordered);
+        assertThat(byPhone.getReasons()).containsExactly("PHONE_AND_NAME");
+        // One address in different case, different phones
+        GuestDedupResponse.Group byEmail = groupOf(response, jones).orElseThrow();
+        assertThat(byEmail.getDuplicateIds()).containsExactly(sameAddress);
+        assertThat(byEmail.getReasons()).containsExactly("EMAIL");
+        // A shared phone alone is not enough
+        assertThat(groupOf(response, brown)).isEmpty();
+        assertThat(groupOf(response, green)).isEmpty();
+
+        assertThat(response.isDryRun()).isTrue();
+        assertThat(response.getGuestsMerged()).isZero();
+        assertThat(count("SELECT COUNT(*) FROM guests")).isEqualTo(guests);
+        assertThat(jdbcTemplate.queryForObject("SELECT email FROM guests WHERE id = ?", String.class, jones))
+                .isEqualTo(" Mary.Jones@Example.com");
+    }
+
+    @Test
+    void mergeRepointsEveryReferenceAndReconcilesCounters() {
+        // Written before lookups were normalized, so the booking below created a second guest
+        Long survivor = insertGuest("Merge", "Target", "Merge.Target@Example.com", "5550105000");
+        jdbcTemplate.update("UPDATE guests SET total_bookings = 7, loyalty_points = 99 WHERE id = ?", survivor);
+        BookingResponse booking = createBooking("merge.target@example.com", LocalDate.now().plusDays(470));
+        Long duplicate = booking.getGuestId();
+        assertThat(duplicate).isNotEqualTo(survivor);
+        RecurringBookingResponse series = recurringBookingService.createSeries(RecurringBookingRequest.builder()
+                .roomId(2L)
+                .guestName("Merge Target")
+                .guestEmail("merge.target@example.com")
+                .guestPhone("5550105000")
+                .numberOfGuests(1)
+                .startDate(LocalDate.now().plusDays(480))
+                .endDate(LocalDate.now().plusDays(482))
+                .nights(List.of(DayOfWeek.values()))
+                .build());
+        jdbcTemplate.update("INSERT INTO reviews (room_id, booking_id, guest_id, reviewer_name, rating, created_at) "
+                + "VALUES (1, ?, ?, 'Merge Target', 5, ?)", booking.getId(), duplicate, LocalDateTime.now());
+        jdbcTemplate.update("INSERT INTO users (username, password, name, role, enabled, guest_id, created_at) "
+                + "VALUES ('merge-target', 'not-a-real-hash', 'Merge Target', 'USER', true, ?, ?)",
+                duplicate, LocalDateTime.now());
+
+        GuestDedupResponse response = guestDedupService.deduplicate(false);
+
+        assertThat(response.getFailedGroups()).isZero();
+        assertThat(groupOf(response, survivor).orElseThrow().getDuplicateIds()).containsExactly(duplicate);
+        assertThat(count("SELECT COUNT(*) FROM guests WHERE id = " + duplicate)).isZero();
+        assertThat(guestOf("bookings", "id", booking.getId())).isEqualTo(survivor);
+        assertThat(guestOf("recurring_bookings", "id", series.getId())).isEqualTo(survivor);
+        assertThat(guestOf("reviews", "booking_id", booking.getId())).isEqualTo(survivor);
+        assertThat(jdbcTemplate.queryForObject("SELECT guest_id FROM users WHERE username = 'merge-target'",
+                Long.class)).isEqualTo(survivor);
+        assertThat(jdbcTemplate.queryForObject("SELECT email FROM guests WHERE id = ?", String.class, survivor))
+                .isEqualTo("merge.target@example.com");
+
+        // The stored counters are recounted from the bookings the survivor now owns
+        Map<String, Object> counters = jdbcTemplate.queryForMap(
+                "SELECT total_bookings, loyalty_points FROM guests WHERE id = ?", survivor);
+        assertThat(((Number) counters.get("TOTAL_BOOKINGS")).intValue()).isEqualTo(1);
+        assertThat(((Number) counters.get("LOYALTY_POINTS")).intValue()).isZero();
+        assertThat(guestCounterService.getPendingDelta(survivor)).containsExactly(0, 0);
+    }
+
+    private static Optional<GuestDedupResponse.Group> groupOf(GuestDedupResponse response, Long survivorId) {
+        return response.getGroups().stream().filter(group -> group.getSurvivorId().equals(survivorId)).findFirst();
+    }
+
+    private Long insertGuest(String firstName, String lastName, String email, String phone) {
+        jdbcTemplate.update("INSERT INTO guests (first_name, last_name, email, phone, membership_tier, "
+                + "loyalty_points, total_bookings, created_at) VALUES (?, ?, ?, ?, 'BRONZE', 0, 0, ?)",
+                firstName, lastName, email, phone, LocalDateTime.now());
+        return jdbcTemplate.queryForObject("SELECT id FROM guests WHERE email = ?", Long.class, email);
+    }
+
+    private Long guestOf(String table, String key, Long id) {
+        return jdbcTemplate.queryForObject("SELECT guest_id FROM " + table + " WHERE " + key + " = ?", Long.class, id);
+    }
+
+    private int count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Integer.class);
+    }
+
+    private BookingResponse createBooking(String email, LocalDate checkIn) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(1L);
+        request.setGuestName("Merge Target");
+        request.setGuestEmail(email);
+        request.setGuestPhone("5550105000");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkIn.plusDays(1));
+        request.setNumberOfGuests(1);
+        return bookingService.createBooking(request);
+    }
+}
@@ -0,0 +1,88 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.dto.GuestLinkRequest;
+import com.hotel.booking.entity.User;
+import com.hotel.booking.exception.ResourceNotFoundException;
+import com.hotel.booking.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GuestHistoryServiceTest {
+
+    @Autowired
+    private GuestHistoryService guestHistoryService;
+
+    @Autowired
+    private GuestService guestService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void usernameMatchingAGuestEmailSeesNothingUntilLinked() {
+        createBooking("history-owner@example.com", LocalDate.now().plusDays(440));
+        createUser("history-owner@example.com");
+
+        assertThatThrownBy(() -> guestHistoryService.getMyBookings("history-owner@example.com"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void linkingNeedsTheBookingsEmail() {
+        BookingResponse booking = createBooking("history-victim@example.com", LocalDate.now().plusDays(445));
+        createUser("history-attacker");
+
+        assertThatThrownBy(() -> guestService.linkAccount("history-attacker",
+                new GuestLinkRequest(booking.getBookingNumber(), "history-attacker@example.com")))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(userRepository.findGuestIdByUsername("history-attacker")).isEmpty();
+    }
+
+    @Test
+    void linkedAccountSeesItsGuestsBookings() {
+        BookingResponse booking = createBooking("history-linked@example.com", LocalDate.now().plusDays(450));
+        createUser("history-linked");
+
+        guestService.linkAccount("history-linked",
+                new GuestLinkRequest(booking.getBookingNumber(), "History-Linked@example.com"));
+
+        assertThat(guestHistoryService.getMyBookings("history-linked"))
+                .extracting(BookingResponse::getId)
+                .containsExactly(booking.getId());
+    }
+
+    private void createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("not-a-real-hash");
+        user.setName("History User");
+        user.setRole(User.UserRole.USER);
+        userRepository.save(user);
+    }
+
+    private BookingResponse createBooking(String email, LocalDate checkIn) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(1L);
+        request.setGuestName("History Guest");
+        request.setGuestEmail(email);
+        request.setGuestPhone("5550009999");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkIn.plusDays(1));
+        request.setNumberOfGuests(1);
+        return bookingService.createBooking(request);
+    }
+}
@@ -0,0 +1,131 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.entity.Guest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class GuestIdentityServiceTest {
+
+    @Autowired
+    private GuestIdentityService guestIdentityService;
+
+    @Autowired
+    private GuestDedupService guestDedupService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void mixedCaseEmailsAreFoldedOntoTheOldestGuest() {
+        jdbcTemplate.update("INSERT INTO guests (first_name, last_name, email, phone, membership_tier, "
+                        + "loyalty_points, total_bookings, created_at) VALUES ('Legacy', 'Guest', ?, '5550008888', "
+                        + "'BRONZE', 0, 0, ?)", " Legacy.Guest@Example.com", LocalDateTime.now());
+        Long legacyId = jdbcTemplate.queryForObject("SELECT id FROM guests WHERE email = ?", Long.class,
+                " Legacy.Guest@Example.com");
+        // Written after the switch to normalized lookups, so it missed the legacy row
+        BookingResponse booking = createBooking("legacy.guest@example.com", LocalDate.now().plusDays(430));
+        assertThat(booking.getGuestId()).isNotEqualTo(legacyId);
+
+        guestDedupService.normalizeStoredEmails();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT email FROM guests WHERE id = ?", String.class, legacyId))
+                .isEqualTo("legacy.guest@example.com");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM guests WHERE id = ?", Integer.class,
+                booking.getGuestId())).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT guest_id FROM bookings WHERE id = ?", Long.class,
+                booking.getId())).isEqualTo(legacyId);
+        assertThat(guestIdentityService.findId("Legacy.Guest@example.com")).contains(legacyId);
+    }
+
+    @Test
+    void guestCreatedInRolledBackTransactionIsNeitherKeptNorCached() {
+        transactionTemplate.executeWithoutResult(status -> {
+            guestIdentityService.findOrCreateId("rolled-back@example.com", () -> newGuest("Rolled Back"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(guestIdentityService.findId("rolled-back@example.com")).isEmpty();
+    }
+
+    @Test
+    void concurrentCreatorsOfOneAddressShareTheGuest() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        AtomicReference<Thread> second = new AtomicReference<>();
+        CompletableFuture<Long> first = CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> {
+            Long id = guestIdentityService.findOrCreateId("same-time@example.com", () -> newGuest("First Caller"));
+            inserted.countDown();
+            awaitWaiting(second);
+            return id;
+        }));
+        assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+
+        // Waits on the first caller's uncommitted row, then takes it over
+        CompletableFuture<Long> secondId = new CompletableFuture<>();
+        Thread thread = new Thread(() -> secondId.complete(transactionTemplate.execute(status ->
+                guestIdentityService.findOrCreateId("same-time@example.com", () -> newGuest("Second Caller")))));
+        second.set(thread);
+        thread.start();
+
+        assertThat(secondId.get(10, TimeUnit.SECONDS)).isEqualTo(first.get(10, TimeUnit.SECONDS));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM guests WHERE email = ?", Integer.class,
+                "same-time@example.com")).isEqualTo(1);
+    }
+
+    // H2 keeps re-checking a conflicting unique key until the other transaction ends
+    private static void awaitWaiting(AtomicReference<Thread> thread) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Thread waiting = thread.get();
+            if (waiting != null && Arrays.stream(waiting.getStackTrace())
+                    .anyMatch(frame -> frame.getMethodName().equals("checkUnique"))) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static Guest newGuest(String name) {
+        Guest guest = new Guest();
+        String[] nameParts = name.split(" ", 2);
+        guest.setFirstName(nameParts[0]);
+        guest.setLastName(nameParts[1]);
+        guest.setPhone("5550008888");
+        return guest;
+    }
+
+    private BookingResponse createBooking(String email, LocalDate checkIn) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(3L);
+        request.setGuestName("Legacy Guest");
+        request.setGuestEmail(email);
+        request.setGuestPhone("5550008888");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkIn.plusDays(1));
+        request.setNumberOfGuests(1);
+        return bookingService.createBooking(request);
+    }
+}
@@ -0,0 +1,97 @@
+package com.hotel.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hotel.booking.exception.ConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IdempotencyServiceTest {
+
+    private static final Map<String, String> REQUEST = Map.of("room", "101");
+
+    private IdempotencyService idempotencyService;
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(null, new ObjectMapper(), null);
+        ReflectionTestUtils.setField(idempotencyService, "ttlMinutes", 60L);
+        ReflectionTestUtils.setField(idempotencyService, "maxEntries", 2);
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMs", 100L);
+    }
+
+    @Test
+    void sameKeyFromAnotherClientRunsSeparately() {
+        assertThat(run("user:alice", "key-1")).isEqualTo(1);
+        assertThat(run("user:alice", "key-1")).isEqualTo(1);
+
+        assertThat(run("ip:10.0.0.7", "key-1")).isEqualTo(2);
+    }
+
+    @Test
+    void keyInFlightPastTheLimitIsKeptWhileCompletedKeysMakeRoom() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Integer> slow = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("bookings", "user:alice", "slow", REQUEST, Integer.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return -1;
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        run("user:alice", "a");
+        run("user:alice", "b");
+        run("user:alice", "c");
+
+        // Older completed keys went; the newest is still replayed
+        assertThat(run("user:alice", "c")).isEqualTo(3);
+        assertThat(run("user:alice", "a")).isEqualTo(4);
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo(-1);
+        assertThat(idempotencyService.execute("bookings", "user:alice", "slow", REQUEST, Integer.class,
+                runs::incrementAndGet)).isEqualTo(-1);
+    }
+
+    @Test
+    void waitingOutADuplicateInFlightIsAConflict() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("payments", "user:alice", "pay-1", REQUEST, Integer.class, () -> {
+                    started.countDown();
+                    await(release);
+                    return 7;
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> idempotencyService.execute("payments", "user:alice", "pay-1", REQUEST,
+                Integer.class, runs::incrementAndGet))
+                .isInstanceOf(ConflictException.class);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(7);
+        assertThat(runs.get()).isZero();
+    }
+
+    private int run(String client, String key) {
+        return idempotencyService.execute("bookings", client, key, REQUEST, Integer.class, runs::incrementAndGet);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.entity.Message;
+import com.hotel.booking.event.MessageChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "messages.stream.queue-size=4",
+        "messages.stream.send-timeout-ms=300",
+        "messages.stream.watchdog-ms=50"
+})
+@ActiveProfiles("test")
+class MessageStreamServiceTest {
+
+    @Autowired
+    private MessageStreamService messageStreamService;
+
+    @Test
+    void stalledConsoleNeitherHoldsUpOthersNorStaysSubscribed() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        RecordingEmitter healthy = new RecordingEmitter(null);
+        messageStreamService.register(stalled, null);
+        messageStreamService.register(healthy, null);
+
+        messageStreamService.onMessageChanged(changed(9001L));
+
+        // The unread count, then the change
+        assertThat(healthy.awaitSent(2)).isTrue();
+        assertThat(awaitDropped(stalled)).isTrue();
+        assertThat(messageStreamService.isSubscribed(healthy)).isTrue();
+        release.countDown();
+        assertThat(stalled.failure.get(5, TimeUnit.SECONDS)).hasMessageContaining("stopped reading");
+    }
+
+    @Test
+    void consoleThatFallsTooFarBehindIsDropped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        messageStreamService.register(slow, null);
+        assertThat(slow.awaitSent(1)).isTrue();
+
+        for (long id = 9100; id < 9110; id++) {
+            messageStreamService.onMessageChanged(changed(id));
+        }
+
+        // Well before the send timeout would have caught it
+        assertThat(awaitDropped(slow)).isTrue();
+        release.countDown();
+        assertThat(slow.failure.get(5, TimeUnit.SECONDS)).hasMessageContaining("keeping up");
+        assertThat(slow.sent.get()).isLessThan(11);
+    }
+
+    private boolean awaitDropped(SseEmitter emitter) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (messageStreamService.isSubscribed(emitter) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        return !messageStreamService.isSubscribed(emitter);
+    }
+
+    private static MessageChangedEvent changed(Long messageId) {
+        return new MessageChangedEvent(messageId, "Late checkout", "Front Desk", Message.Priority.NORMAL,
+                null, Message.MessageStatus.NEW);
+    }
+
+    // Stands in for a console; a release latch makes every write hang like a full socket buffer
+    private static final class RecordingEmitter extends SseEmitter {
+        final AtomicInteger sent = new AtomicInteger();
+        final CompletableFuture<Throwable> failure = new CompletableFuture<>();
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sent.incrementAndGet();
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable ex) {
+            failure.complete(ex);
+        }
+
+        boolean awaitSent(int expected) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (sent.get() < expected && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            return sent.get() >= expected;
+        }
+    }
+}
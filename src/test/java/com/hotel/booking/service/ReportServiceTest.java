@@ -0,0 +1,142 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.RecurringBookingRequest;
+import com.hotel.booking.dto.RecurringBookingResponse;
+import com.hotel.booking.dto.RoomRequest;
+import com.hotel.booking.entity.Room;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReportServiceTest {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private RecurringBookingService recurringBookingService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Long roomId;
+
+    @AfterEach
+    void retireRoom() {
+        if (roomId != null) {
+            jdbcTemplate.update("UPDATE rooms SET is_available = false WHERE id = ?", roomId);
+            roomInventoryService.refreshCapacity();
+        }
+    }
+
+    @Test
+    void cancellingPartiallyConsumedSeriesOnlyRemovesRemainingNights() {
+        roomId = createDeluxeRoom("RPT-601");
+        LocalDate today = LocalDate.now();
+        RecurringBookingResponse series = recurringBookingService.createSeries(RecurringBookingRequest.builder()
+                .roomId(roomId)
+                .guestName("Series Guest")
+                .guestEmail("report-series@example.com")
+                .guestPhone("5550006666")
+                .numberOfGuests(1)
+                .startDate(today)
+                .endDate(today.plusDays(14))
+                .nights(List.of(DayOfWeek.values()))
+                .build());
+        // The series has been running for a week
+        jdbcTemplate.update("UPDATE recurring_bookings SET start_date = ? WHERE id = ?",
+                today.minusDays(7), series.getId());
+        reportService.rebuild();
+        long pastBefore = deluxeSold(today.minusDays(3));
+        long futureBefore = deluxeSold(today.plusDays(3));
+
+        recurringBookingService.cancelSeries(series.getId());
+
+        assertThat(deluxeSold(today.minusDays(3))).isEqualTo(pastBefore);
+        assertThat(deluxeSold(today.plusDays(3))).isEqualTo(futureBefore - 1);
+
+        // A rebuild arrives at the same numbers
+        reportService.rebuild();
+        assertThat(deluxeSold(today.minusDays(3))).isEqualTo(pastBefore);
+        assertThat(deluxeSold(today.plusDays(3))).isEqualTo(futureBefore - 1);
+    }
+
+    @Test
+    void rebuildRacingACommittedSeriesCountsItOnce() throws Exception {
+        roomId = createDeluxeRoom("RPT-602");
+        LocalDate night = LocalDate.now().plusDays(30);
+        reportService.rebuild();
+        long before = deluxeSold(night);
+
+        // The rebuild starts after the commit but before the series' delta reaches the rollups
+        CompletableFuture<?>[] rebuild = new CompletableFuture<?>[1];
+        transactionTemplate.executeWithoutResult(status -> {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    rebuild[0] = CompletableFuture.runAsync(reportService::rebuild);
+                    try {
+                        rebuild[0].get(500, TimeUnit.MILLISECONDS);
+                    } catch (TimeoutException e) {
+                        // Held off until the delta is applied
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            recurringBookingService.createSeries(RecurringBookingRequest.builder()
+                    .roomId(roomId)
+                    .guestName("Racing Guest")
+                    .guestEmail("report-race@example.com")
+                    .guestPhone("5550006667")
+                    .numberOfGuests(1)
+                    .startDate(night)
+                    .endDate(night.plusDays(3))
+                    .nights(List.of(DayOfWeek.values()))
+                    .build());
+        });
+        rebuild[0].get(10, TimeUnit.SECONDS);
+
+        assertThat(deluxeSold(night)).isEqualTo(before + 1);
+    }
+
+    private long deluxeSold(LocalDate night) {
+        return reportService.getDailyOccupancy(night, night, Room.RoomType.DELUXE).get(0).getRoomNightsSold();
+    }
+
+    private Long createDeluxeRoom(String roomNumber) {
+        RoomRequest request = new RoomRequest();
+        request.setRoomNumber(roomNumber);
+        request.setType(Room.RoomType.DELUXE);
+        request.setPricePerNight(250.0);
+        request.setCapacity(2);
+        request.setFloor(6);
+        return roomService.createRoom(request).getId();
+    }
+}
@@ -0,0 +1,253 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.dto.CancelBookingRequest;
+import com.hotel.booking.dto.RoomAssignmentResponse;
+import com.hotel.booking.dto.RoomRequest;
+import com.hotel.booking.dto.RoomResponse;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingChangedEvent;
+import com.hotel.booking.repository.RoomRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class RoomAssignmentServiceTest {
+
+    @Autowired
+    private RoomAssignmentService roomAssignmentService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private RoomRepository roomRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    // DELUXE is not seeded, so each test plans against exactly the rooms it creates
+    private final List<Long> rooms = new ArrayList<>();
+
+    @AfterEach
+    void retireRooms() {
+        rooms.forEach(id -> jdbcTemplate.update("UPDATE rooms SET is_available = false WHERE id = ?", id));
+        roomInventoryService.refreshCapacity();
+    }
+
+    @Test
+    void overlappingStaysNeverShareARoom() {
+        Long first = createRoom("ASG-101");
+        Long second = createRoom("ASG-102");
+        LocalDate day = LocalDate.now().plusDays(300);
+        BookingResponse a = createBooking(day, day.plusDays(3));
+        BookingResponse b = createBooking(day.plusDays(1), day.plusDays(4));
+        BookingResponse c = createBooking(day.plusDays(3), day.plusDays(5));
+
+        RoomAssignmentResponse result = roomAssignmentService.assignRooms(day, day.plusDays(5), false);
+
+        assertThat(result.getAssigned()).isEqualTo(3);
+        assertThat(result.getUnassignedBookingIds()).isEmpty();
+        assertThat(roomOf(a.getId())).isIn(first, second);
+        assertThat(roomOf(b.getId())).isIn(first, second).isNotEqualTo(roomOf(a.getId()));
+        assertThat(roomOf(c.getId())).isIn(first, second).isNotEqualTo(roomOf(b.getId()));
+    }
+
+    @Test
+    void dryRunPlansWithoutWritingOrPublishing() {
+        Long room = createRoom("ASG-201");
+        LocalDate day = LocalDate.now().plusDays(310);
+        BookingResponse booking = createBooking(day, day.plusDays(2));
+
+        RoomAssignmentResponse result = roomAssignmentService.assignRooms(day, day.plusDays(2), true);
+
+        assertThat(result.isDryRun()).isTrue();
+        assertThat(result.getAssigned()).isEqualTo(1);
+        assertThat(result.getAssignments()).singleElement()
+                .satisfies(a -> assertThat(a.getRoomId()).isEqualTo(room));
+        assertThat(roomOf(booking.getId())).isNull();
+        assertThat(assignmentEventsFor(booking.getId())).isZero();
+    }
+
+    @Test
+    void bookingAssignedManuallyWhilePlanningIsLeftAlone() throws Exception {
+        Long room = createRoom("ASG-301");
+        LocalDate day = LocalDate.now().plusDays(320);
+        BookingResponse booking = createBooking(day, day.plusDays(2));
+
+        RoomAssignmentResponse result = assignWhile(day, day.plusDays(2), room,
+                () -> bookingService.assignRoom(booking.getId(), room));
+
+        assertThat(result.getAssigned()).isZero();
+        assertThat(result.getUnassignedBookingIds()).containsExactly(booking.getId());
+        assertThat(roomOf(booking.getId())).isEqualTo(room);
+        // Only the manual assignment announced a room
+        assertThat(assignmentEventsFor(booking.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void stayCommittedOnThePlannedRoomWhilePlanningBlocksTheAssignment() throws Exception {
+        Long room = createRoom("ASG-401");
+        LocalDate day = LocalDate.now().plusDays(330);
+        BookingResponse earlier = createRoomBooking(room, day, day.plusDays(2));
+        bookingService.cancelBooking(earlier.getId(), new CancelBookingRequest());
+        BookingResponse booking = createBooking(day, day.plusDays(2));
+
+        // The cancelled stay comes back on the only room after the planner saw it free
+        RoomAssignmentResponse result = assignWhile(day, day.plusDays(2), room,
+                () -> jdbcTemplate.update("UPDATE bookings SET status = 'CONFIRMED' WHERE id = ?", earlier.getId()));
+
+        assertThat(result.getAssigned()).isZero();
+        assertThat(result.getUnassignedBookingIds()).containsExactly(booking.getId());
+        assertThat(roomOf(booking.getId())).isNull();
+    }
+
+    @Test
+    void seriesCommittedOnThePlannedRoomWhilePlanningBlocksTheAssignment() throws Exception {
+        Long room = createRoom("ASG-501");
+        LocalDate day = LocalDate.now().plusDays(340);
+        BookingResponse booking = createBooking(day, day.plusDays(2));
+
+        RoomAssignmentResponse result = assignWhile(day, day.plusDays(2), room, () -> jdbcTemplate.update(
+                "INSERT INTO recurring_bookings (series_number, room_id, guest_name, guest_email, guest_phone, "
+                        + "number_of_guests, start_date, end_date, night_mask, price_per_night, status, created_at) "
+                        + "VALUES ('SER-ASG-501', ?, 'Series Guest', 'assignment-series@example.com', '5550003333', "
+                        + "1, ?, ?, 127, 250.0, 'ACTIVE', CURRENT_TIMESTAMP)", room, day, day.plusDays(7)));
+
+        assertThat(result.getAssigned()).isZero();
+        assertThat(result.getUnassignedBookingIds()).containsExactly(booking.getId());
+        assertThat(roomOf(booking.getId())).isNull();
+    }
+
+    @Test
+    void stayNestedInsideALongerBlockStillRulesTheRoomOut() {
+        Long room = createRoom("ASG-601");
+        LocalDate day = LocalDate.now().plusDays(350);
+        createRoomBooking(room, day.plusDays(2), day.plusDays(3));
+        // Written directly, as a block around an existing stay would be by an older release
+        jdbcTemplate.update("INSERT INTO maintenance_blocks (room_id, start_date, end_date, kind, reason, created_at) "
+                + "VALUES (?, ?, ?, 'MAINTENANCE', 'Refit', CURRENT_TIMESTAMP)", room, day, day.plusDays(10));
+        BookingResponse booking = createBooking(day.plusDays(5), day.plusDays(8));
+
+        RoomAssignmentResponse result = roomAssignmentService.assignRooms(day, day.plusDays(10), true);
+
+        assertThat(result.getAssigned()).isZero();
+        assertThat(result.getUnassignedBookingIds()).containsExactly(booking.getId());
+    }
+
+    // Runs the change in another transaction that holds the room lock until the assignment run,
+    // having planned against the old state, is waiting on it
+    private RoomAssignmentResponse assignWhile(LocalDate from, LocalDate to, Long room, Runnable change)
+            throws Exception {
+        CountDownLatch changed = new CountDownLatch(1);
+        Thread other = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            roomRepository.lockByIdIn(List.of(room));
+            change.run();
+            changed.countDown();
+            awaitBlockedSession();
+        }));
+        other.start();
+        try {
+            assertThat(changed.await(10, TimeUnit.SECONDS)).isTrue();
+            return roomAssignmentService.assignRooms(from, to, false);
+        } finally {
+            other.join(10_000);
+        }
+    }
+
+    private void awaitBlockedSession() {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            Integer blocked = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS WHERE BLOCKER_ID IS NOT NULL", Integer.class);
+            if (blocked != null && blocked > 0) {
+                return;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private Long createRoom(String roomNumber) {
+        RoomRequest request = new RoomRequest();
+        request.setRoomNumber(roomNumber);
+        request.setType(Room.RoomType.DELUXE);
+        request.setPricePerNight(250.0);
+        request.setCapacity(2);
+        request.setFloor(4);
+        RoomResponse room = roomService.createRoom(request);
+        rooms.add(room.getId());
+        return room.getId();
+    }
+
+    private BookingResponse createBooking(LocalDate checkIn, LocalDate checkOut) {
+        return bookingService.createBooking(
+                bookingRequest(checkIn, checkOut, request -> request.setRoomType(Room.RoomType.DELUXE)));
+    }
+
+    private BookingResponse createRoomBooking(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return bookingService.createBooking(bookingRequest(checkIn, checkOut, request -> request.setRoomId(roomId)));
+    }
+
+    private static BookingRequest bookingRequest(LocalDate checkIn, LocalDate checkOut,
+                                                 Consumer<BookingRequest> target) {
+        BookingRequest request = new BookingRequest();
+        target.accept(request);
+        request.setGuestName("Assignment Guest");
+        request.setGuestEmail("assignment-" + checkIn + "@example.com");
+        request.setGuestPhone("5550003333");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkOut);
+        request.setNumberOfGuests(1);
+        return request;
+    }
+
+    private Long roomOf(Long bookingId) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT room_id FROM bookings WHERE id = ?", bookingId);
+        Object roomId = rows.get(0).get("ROOM_ID");
+        return roomId != null ? ((Number) roomId).longValue() : null;
+    }
+
+    private long assignmentEventsFor(Long bookingId) {
+        return events.stream(BookingChangedEvent.class)
+                .filter(event -> event.before() != null && bookingId.equals(event.before().id()))
+                .filter(event -> event.before().roomId() == null && event.after().roomId() != null)
+                .count();
+    }
+}
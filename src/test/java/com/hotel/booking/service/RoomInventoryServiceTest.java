@@ -0,0 +1,240 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.dto.MaintenanceBlockRequest;
+import com.hotel.booking.dto.MaintenanceBlockResponse;
+import com.hotel.booking.dto.RoomRequest;
+import com.hotel.booking.dto.RoomResponse;
+import com.hotel.booking.entity.Room;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomInventoryServiceTest {
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private MaintenanceBlockService maintenanceBlockService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrentReservesNeverSellMoreThanRemaining() throws Exception {
+        LocalDate checkIn = LocalDate.now().plusDays(200);
+        LocalDate checkOut = checkIn.plusDays(3);
+        int remaining = roomInventoryService.remaining(Room.RoomType.DOUBLE, checkIn, checkOut);
+        int attempts = remaining + 16;
+
+        ExecutorService pool = Executors.newFixedThreadPool(attempts);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < attempts; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return roomInventoryService.reserve(Room.RoomType.DOUBLE, checkIn, checkOut);
+                }));
+            }
+            start.countDown();
+            int sold = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(10, TimeUnit.SECONDS)) {
+                    sold++;
+                }
+            }
+            assertThat(sold).isEqualTo(remaining);
+            assertThat(roomInventoryService.remainingByNight(Room.RoomType.DOUBLE, checkIn, checkOut))
+                    .containsOnly(0);
+        } finally {
+            pool.shutdownNow();
+            for (Future<Boolean> result : results) {
+                if (result.isDone() && !result.isCancelled() && Boolean.TRUE.equals(result.get())) {
+                    roomInventoryService.release(Room.RoomType.DOUBLE, checkIn, checkOut);
+                }
+            }
+        }
+        assertThat(roomInventoryService.remaining(Room.RoomType.DOUBLE, checkIn, checkOut)).isEqualTo(remaining);
+    }
+
+    @Test
+    void reserveInsideRolledBackTransactionIsHandedBack() {
+        LocalDate checkIn = LocalDate.now().plusDays(210);
+        LocalDate checkOut = checkIn.plusDays(2);
+        int remaining = roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkOut);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            assertThat(roomInventoryService.reserve(Room.RoomType.SINGLE, checkIn, checkOut)).isTrue();
+            assertThat(roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkOut))
+                    .isEqualTo(remaining - 1);
+            status.setRollbackOnly();
+        });
+
+        assertThat(roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkOut)).isEqualTo(remaining);
+    }
+
+    @Test
+    void releaseInsideRolledBackTransactionIsTakenAgain() {
+        LocalDate checkIn = LocalDate.now().plusDays(220);
+        LocalDate checkOut = checkIn.plusDays(2);
+        assertThat(roomInventoryService.reserve(Room.RoomType.SINGLE, checkIn, checkOut)).isTrue();
+        int remaining = roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkOut);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            roomInventoryService.release(Room.RoomType.SINGLE, checkIn, checkOut);
+            status.setRollbackOnly();
+        });
+
+        assertThat(roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkOut)).isEqualTo(remaining);
+        roomInventoryService.release(Room.RoomType.SINGLE, checkIn, checkOut);
+    }
+
+    @Test
+    void releasingAnUnsoldNightDoesNotCreateCapacity() {
+        LocalDate checkIn = LocalDate.now().plusDays(230);
+        LocalDate checkOut = checkIn.plusDays(1);
+        assertThat(roomInventoryService.reserve(Room.RoomType.SUITE, checkIn, checkOut)).isTrue();
+        int capacity = roomInventoryService.getSummary(Room.RoomType.SUITE).rooms();
+
+        roomInventoryService.release(Room.RoomType.SUITE, checkIn, checkOut);
+        roomInventoryService.release(Room.RoomType.SUITE, checkIn, checkOut);
+
+        assertThat(roomInventoryService.remaining(Room.RoomType.SUITE, checkIn, checkOut)).isEqualTo(capacity);
+    }
+
+    @Test
+    void retypingRoomMovesItsUpcomingStayToTheNewType() {
+        RoomResponse room = roomService.createRoom(roomRequest("INV-901", Room.RoomType.SINGLE));
+        LocalDate checkIn = LocalDate.now().plusDays(240);
+        LocalDate checkOut = checkIn.plusDays(2);
+        BookingResponse booking = bookingService.createBooking(bookingRequest(room.getId(), checkIn, checkOut));
+        int singleRemaining = roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkOut);
+        int suiteRemaining = roomInventoryService.remaining(Room.RoomType.SUITE, checkIn, checkOut);
+
+        roomService.updateRoom(room.getId(), roomRequest("INV-901", Room.RoomType.SUITE));
+
+        // The room left SINGLE with its stay and joined SUITE with it, so neither type gains a unit
+        assertThat(roomInventoryService.remaining(Room.RoomType.SINGLE, checkIn, checkOut)).isEqualTo(singleRemaining);
+        assertThat(roomInventoryService.remaining(Room.RoomType.SUITE, checkIn, checkOut)).isEqualTo(suiteRemaining);
+        assertThat(jdbcTemplate.queryForObject("SELECT room_type FROM bookings WHERE id = ?",
+                String.class, booking.getId())).isEqualTo("SUITE");
+    }
+
+    @Test
+    void roomUnderMaintenanceIsNotCountedInCapacity() {
+        RoomResponse room = roomService.createRoom(roomRequest("INV-902", Room.RoomType.DOUBLE));
+        int capacity = roomInventoryService.getSummary(Room.RoomType.DOUBLE).rooms();
+
+        jdbcTemplate.update("UPDATE rooms SET maintenance_status = 'UNDER_MAINTENANCE' WHERE id = ?", room.getId());
+        roomInventoryService.refreshCapacity();
+
+        assertThat(roomInventoryService.getSummary(Room.RoomType.DOUBLE).rooms()).isEqualTo(capacity - 1);
+        jdbcTemplate.update("UPDATE rooms SET maintenance_status = 'AVAILABLE' WHERE id = ?", room.getId());
+        roomInventoryService.refreshCapacity();
+    }
+
+    @Test
+    void takingRoomOffSaleHandsBackWhatItsStayAndBlocksHeld() {
+        RoomResponse room = roomService.createRoom(roomRequest("INV-903", Room.RoomType.DOUBLE));
+        LocalDate day = LocalDate.now().plusDays(250);
+        bookingService.createBooking(bookingRequest(room.getId(), day, day.plusDays(2)));
+        MaintenanceBlockResponse early = maintenanceBlockService.createBlock(
+                blockRequest(room.getId(), day.plusDays(3), day.plusDays(5))).get(0);
+        MaintenanceBlockResponse late = maintenanceBlockService.createBlock(
+                blockRequest(room.getId(), day.plusDays(6), day.plusDays(8))).get(0);
+        int stayRemaining = roomInventoryService.remaining(Room.RoomType.DOUBLE, day, day.plusDays(2));
+        int earlyRemaining = roomInventoryService.remaining(Room.RoomType.DOUBLE, day.plusDays(3), day.plusDays(5));
+        int lateRemaining = roomInventoryService.remaining(Room.RoomType.DOUBLE, day.plusDays(6), day.plusDays(8));
+
+        RoomRequest offSale = roomRequest("INV-903", Room.RoomType.DOUBLE);
+        offSale.setMaintenanceStatus(Room.MaintenanceStatus.OUT_OF_ORDER);
+        roomService.updateRoom(room.getId(), offSale);
+
+        // The unit left capacity together with what it held, so the type loses nothing twice
+        assertThat(roomInventoryService.remaining(Room.RoomType.DOUBLE, day, day.plusDays(2))).isEqualTo(stayRemaining);
+        assertThat(roomInventoryService.remaining(Room.RoomType.DOUBLE, day.plusDays(3), day.plusDays(5)))
+                .isEqualTo(earlyRemaining);
+
+        // Removing a block of an off-sale room gives nothing back; it took nothing
+        maintenanceBlockService.deleteBlock(early.getId());
+        assertThat(roomInventoryService.remaining(Room.RoomType.DOUBLE, day.plusDays(3), day.plusDays(5)))
+                .isEqualTo(earlyRemaining);
+
+        RoomRequest onSale = roomRequest("INV-903", Room.RoomType.DOUBLE);
+        onSale.setMaintenanceStatus(Room.MaintenanceStatus.AVAILABLE);
+        roomService.updateRoom(room.getId(), onSale);
+
+        assertThat(roomInventoryService.remaining(Room.RoomType.DOUBLE, day, day.plusDays(2))).isEqualTo(stayRemaining);
+        assertThat(roomInventoryService.remaining(Room.RoomType.DOUBLE, day.plusDays(3), day.plusDays(5)))
+                .isEqualTo(earlyRemaining + 1);
+        assertThat(roomInventoryService.remaining(Room.RoomType.DOUBLE, day.plusDays(6), day.plusDays(8)))
+                .isEqualTo(lateRemaining);
+
+        // The block re-taken when the room came back hands its unit back once
+        maintenanceBlockService.deleteBlock(late.getId());
+        assertThat(roomInventoryService.remaining(Room.RoomType.DOUBLE, day.plusDays(6), day.plusDays(8)))
+                .isEqualTo(lateRemaining + 1);
+
+        RoomRequest retired = roomRequest("INV-903", Room.RoomType.DOUBLE);
+        retired.setIsAvailable(false);
+        roomService.updateRoom(room.getId(), retired);
+    }
+
+    private static MaintenanceBlockRequest blockRequest(Long roomId, LocalDate from, LocalDate to) {
+        MaintenanceBlockRequest request = new MaintenanceBlockRequest();
+        request.setRoomId(roomId);
+        request.setStartDate(from);
+        request.setEndDate(to);
+        return request;
+    }
+
+    private static RoomRequest roomRequest(String roomNumber, Room.RoomType type) {
+        RoomRequest request = new RoomRequest();
+        request.setRoomNumber(roomNumber);
+        request.setType(type);
+        request.setPricePerNight(120.0);
+        request.setCapacity(2);
+        request.setFloor(9);
+        return request;
+    }
+
+    private static BookingRequest bookingRequest(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(roomId);
+        request.setGuestName("Inventory Guest");
+        request.setGuestEmail("inventory-" + checkIn + "@example.com");
+        request.setGuestPhone("5550002222");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkOut);
+        request.setNumberOfGuests(1);
+        return request;
+    }
+}
@@ -0,0 +1,158 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.BookingResponse;
+import com.hotel.booking.dto.RoomRequest;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.ReviewPostedEvent;
+import com.hotel.booking.repository.ReviewRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomRatingServiceTest {
+
+    @Autowired
+    private RoomRatingService roomRatingService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private ReviewRepository reviewRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> roomIds = new ArrayList<>();
+
+    @AfterEach
+    void retireRooms() {
+        roomIds.forEach(id -> jdbcTemplate.update("UPDATE rooms SET is_available = false WHERE id = ?", id));
+        roomInventoryService.refreshCapacity();
+    }
+
+    @Test
+    void countAndSumShareOneValueWithoutSpillingIntoEachOther() {
+        RoomRatingService service = new RoomRatingService(reviewRepository, jdbcTemplate);
+        // Outside a transaction each review is counted at once
+        for (int i = 0; i < 100_000; i++) {
+            service.onReviewPosted(new ReviewPostedEvent(1L, 5));
+        }
+        service.onReviewPosted(new ReviewPostedEvent(2L, 5));
+        service.onReviewPosted(new ReviewPostedEvent(2L, 4));
+        service.onReviewPosted(new ReviewPostedEvent(2L, 4));
+
+        assertThat(service.getSummary(1L)).isEqualTo(new RoomRatingService.RatingSummary(5.0, 100_000));
+        assertThat(service.getSummary(2L)).isEqualTo(new RoomRatingService.RatingSummary(4.33, 3));
+        assertThat(service.getSummary(3L)).isNull();
+    }
+
+    @Test
+    void failedFlushKeepsItsRoomsForTheNextRun() {
+        Long roomId = createRoom("RAT-801");
+        FlakyJdbcTemplate flaky = new FlakyJdbcTemplate(jdbcTemplate);
+        RoomRatingService service = new RoomRatingService(reviewRepository, flaky);
+        service.onReviewPosted(new ReviewPostedEvent(roomId, 3));
+        service.onReviewPosted(new ReviewPostedEvent(roomId, 4));
+
+        flaky.failuresLeft = 1;
+        service.flush();
+        assertThat(flaky.batches).isEqualTo(1);
+        assertThat(storedRating(roomId).get("REVIEW_COUNT")).isEqualTo(0);
+
+        service.flush();
+        assertThat(flaky.batches).isEqualTo(2);
+        Map<String, Object> stored = storedRating(roomId);
+        assertThat(((Number) stored.get("RATING")).doubleValue()).isEqualTo(3.5);
+        assertThat(stored.get("REVIEW_COUNT")).isEqualTo(2);
+
+        // Nothing left dirty, nothing written
+        service.flush();
+        assertThat(flaky.batches).isEqualTo(2);
+    }
+
+    @Test
+    void seedReplacesReviewsAlreadyCounted() {
+        Long roomId = createRoom("RAT-802");
+        BookingResponse booking = createBooking(roomId, LocalDate.now().plusDays(510));
+        jdbcTemplate.update("INSERT INTO reviews (room_id, booking_id, guest_id, reviewer_name, rating, created_at) "
+                + "VALUES (?, ?, ?, 'Rating Guest', 4, ?)", roomId, booking.getId(), booking.getGuestId(),
+                LocalDateTime.now());
+        // The review committed and was counted before the seed ran
+        roomRatingService.onReviewPosted(new ReviewPostedEvent(roomId, 4));
+
+        roomRatingService.initialize();
+
+        assertThat(roomRatingService.getSummary(roomId)).isEqualTo(new RoomRatingService.RatingSummary(4.0, 1));
+        assertThat(storedRating(roomId).get("REVIEW_COUNT")).isEqualTo(1);
+    }
+
+    private Map<String, Object> storedRating(Long roomId) {
+        return jdbcTemplate.queryForMap("SELECT rating, review_count FROM rooms WHERE id = ?", roomId);
+    }
+
+    private Long createRoom(String roomNumber) {
+        RoomRequest request = new RoomRequest();
+        request.setRoomNumber(roomNumber);
+        request.setType(Room.RoomType.SINGLE);
+        request.setPricePerNight(90.0);
+        request.setCapacity(1);
+        request.setFloor(8);
+        Long id = roomService.createRoom(request).getId();
+        roomIds.add(id);
+        return id;
+    }
+
+    private BookingResponse createBooking(Long roomId, LocalDate checkIn) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(roomId);
+        request.setGuestName("Rating Guest");
+        request.setGuestEmail("rating-guest@example.com");
+        request.setGuestPhone("5550008888");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkIn.plusDays(1));
+        request.setNumberOfGuests(1);
+        return bookingService.createBooking(request);
+    }
+
+    // Fails the next batches on demand, as a lock timeout would
+    private static final class FlakyJdbcTemplate extends JdbcTemplate {
+        int failuresLeft;
+        int batches;
+
+        FlakyJdbcTemplate(JdbcTemplate delegate) {
+            super(delegate.getDataSource());
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            batches++;
+            if (failuresLeft > 0) {
+                failuresLeft--;
+                throw new QueryTimeoutException("Timeout trying to lock table");
+            }
+            return super.batchUpdate(sql, batchArgs);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.BookingRequest;
+import com.hotel.booking.dto.RoomRecommendationResponse;
+import com.hotel.booking.dto.RoomRequest;
+import com.hotel.booking.entity.Room;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class RoomRecommendationServiceTest {
+
+    @Autowired
+    private RoomRecommendationService roomRecommendationService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final List<Long> roomIds = new ArrayList<>();
+
+    @AfterEach
+    void retireRooms() {
+        roomIds.forEach(id -> jdbcTemplate.update("UPDATE rooms SET is_available = false WHERE id = ?", id));
+        roomInventoryService.refreshCapacity();
+        roomRecommendationService.invalidate();
+    }
+
+    @Test
+    void occupiedRoomsAreLeftOutWithoutReloadingRooms() {
+        Long booked = createDeluxeRoom("REC-701");
+        Long free = createDeluxeRoom("REC-702");
+        LocalDate checkIn = LocalDate.now().plusDays(460);
+        LocalDate checkOut = checkIn.plusDays(2);
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(booked);
+        request.setGuestName("Recommended Guest");
+        request.setGuestEmail("recommend-guest@example.com");
+        request.setGuestPhone("5550007777");
+        request.setCheckInDate(checkIn);
+        request.setCheckOutDate(checkOut);
+        request.setNumberOfGuests(1);
+        Long guestId = bookingService.createBooking(request).getGuestId();
+        // Builds the feature index
+        recommend(guestId, checkIn.plusDays(5), checkOut.plusDays(5));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long roomLoads = statistics.getEntityStatistics(Room.class.getName()).getLoadCount();
+        List<Long> recommended = recommend(guestId, checkIn, checkOut);
+
+        assertThat(recommended).contains(free).doesNotContain(booked);
+        assertThat(statistics.getEntityStatistics(Room.class.getName()).getLoadCount()).isEqualTo(roomLoads);
+    }
+
+    // Inside a transaction, as the web layer keeps a session open across the request
+    private List<Long> recommend(Long guestId, LocalDate checkIn, LocalDate checkOut) {
+        return transactionTemplate.execute(status -> roomRecommendationService.recommend(guestId, checkIn, checkOut, 1, 50)
+                .stream()
+                .map(RoomRecommendationResponse::getRoomId)
+                .toList());
+    }
+
+    private Long createDeluxeRoom(String roomNumber) {
+        RoomRequest request = new RoomRequest();
+        request.setRoomNumber(roomNumber);
+        request.setType(Room.RoomType.DELUXE);
+        request.setPricePerNight(260.0);
+        request.setCapacity(2);
+        request.setFloor(7);
+        Long id = roomService.createRoom(request).getId();
+        roomIds.add(id);
+        return id;
+    }
+}
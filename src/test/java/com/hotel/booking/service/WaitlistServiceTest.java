@@ -0,0 +1,202 @@
+package com.hotel.booking.service;
+
+import com.hotel.booking.dto.MaintenanceBlockRequest;
+import com.hotel.booking.dto.MaintenanceBlockResponse;
+import com.hotel.booking.dto.RoomRequest;
+import com.hotel.booking.dto.WaitlistRequest;
+import com.hotel.booking.dto.WaitlistResponse;
+import com.hotel.booking.entity.Room;
+import com.hotel.booking.event.BookingChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class WaitlistServiceTest {
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private MaintenanceBlockService maintenanceBlockService;
+
+    @Autowired
+    private RoomService roomService;
+
+    @Autowired
+    private RoomInventoryService roomInventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private HoldHook holdHook;
+
+    private Long roomId;
+
+    @AfterEach
+    void retireRoom() {
+        holdHook.onHold = null;
+        if (roomId != null) {
+            jdbcTemplate.update("UPDATE rooms SET is_available = false WHERE id = ?", roomId);
+            roomInventoryService.refreshCapacity();
+        }
+    }
+
+    @Test
+    void removingMaintenanceBlockFulfilsWaitingEntry() throws Exception {
+        roomId = createDeluxeRoom("WL-501");
+        LocalDate checkIn = LocalDate.now().plusDays(500);
+        LocalDate checkOut = checkIn.plusDays(2);
+        List<MaintenanceBlockResponse> blocks = maintenanceBlockService.createBlock(MaintenanceBlockRequest.builder()
+                .roomId(roomId)
+                .startDate(checkIn)
+                .endDate(checkOut)
+                .reason("Repainting")
+                .build());
+        assertThat(roomInventoryService.remaining(Room.RoomType.DELUXE, checkIn, checkOut)).isZero();
+        WaitlistResponse entry = waitlistService.joinWaitlist(WaitlistRequest.builder()
+                .roomType(Room.RoomType.DELUXE)
+                .guestName("Waiting Guest")
+                .guestEmail("waitlist-block@example.com")
+                .guestPhone("5550005555")
+                .checkInDate(checkIn)
+                .checkOutDate(checkOut)
+                .numberOfGuests(1)
+                .build());
+
+        maintenanceBlockService.deleteBlock(blocks.get(0).getId());
+
+        assertThat(awaitStatus(entry.getId(), "FULFILLED")).isEqualTo("FULFILLED");
+        assertThat(roomInventoryService.remaining(Room.RoomType.DELUXE, checkIn, checkOut)).isZero();
+    }
+
+    @Test
+    void cancellationWhileAHoldIsBeingMadeWins() throws Exception {
+        roomId = createDeluxeRoom("WL-502");
+        LocalDate checkIn = LocalDate.now().plusDays(540);
+        LocalDate checkOut = checkIn.plusDays(2);
+        List<MaintenanceBlockResponse> blocks = block(roomId, checkIn, checkOut);
+        WaitlistResponse entry = join("waitlist-cancel@example.com", checkIn, checkOut);
+        // The guest cancels after the match has read the entry but before it is marked fulfilled
+        CompletableFuture<WaitlistResponse> cancelled = new CompletableFuture<>();
+        holdHook.onHold = event -> {
+            try {
+                cancelled.complete(CompletableFuture.supplyAsync(() -> waitlistService.cancelEntry(entry.getId()))
+                        .get(5, TimeUnit.SECONDS));
+            } catch (Exception e) {
+                cancelled.completeExceptionally(e);
+            }
+        };
+
+        maintenanceBlockService.deleteBlock(blocks.get(0).getId());
+
+        assertThat(cancelled.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo("CANCELLED");
+        Thread.sleep(200);
+        WaitlistResponse after = waitlistService.getEntryById(entry.getId());
+        assertThat(after.getStatus()).isEqualTo("CANCELLED");
+        assertThat(after.getBookingId()).isNull();
+        // The hold was rolled back with the fulfilment
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM bookings b JOIN guests g ON g.id = b.guest_id "
+                + "WHERE g.email = 'waitlist-cancel@example.com'", Integer.class)).isZero();
+        assertThat(roomInventoryService.remaining(Room.RoomType.DELUXE, checkIn, checkOut)).isEqualTo(1);
+    }
+
+    @Test
+    void unexpectedFailureForOneEntryLeavesTheOthersMatched() throws Exception {
+        roomId = createDeluxeRoom("WL-503");
+        LocalDate checkIn = LocalDate.now().plusDays(520);
+        List<MaintenanceBlockResponse> blocks = block(roomId, checkIn, checkIn.plusDays(4));
+        WaitlistResponse failing = join("waitlist-failing@example.com", checkIn, checkIn.plusDays(2));
+        WaitlistResponse next = join("waitlist-next@example.com", checkIn.plusDays(2), checkIn.plusDays(4));
+        holdHook.onHold = event -> {
+            if (event.after().checkInDate().equals(checkIn)) {
+                throw new IllegalStateException("Connection reset");
+            }
+        };
+
+        maintenanceBlockService.deleteBlock(blocks.get(0).getId());
+
+        assertThat(awaitStatus(next.getId(), "FULFILLED")).isEqualTo("FULFILLED");
+        assertThat(waitlistService.getEntryById(failing.getId()).getStatus()).isEqualTo("WAITING");
+    }
+
+    private List<MaintenanceBlockResponse> block(Long roomId, LocalDate from, LocalDate to) {
+        List<MaintenanceBlockResponse> blocks = maintenanceBlockService.createBlock(MaintenanceBlockRequest.builder()
+                .roomId(roomId)
+                .startDate(from)
+                .endDate(to)
+                .reason("Repainting")
+                .build());
+        assertThat(roomInventoryService.remaining(Room.RoomType.DELUXE, from, to)).isZero();
+        return blocks;
+    }
+
+    private WaitlistResponse join(String email, LocalDate checkIn, LocalDate checkOut) {
+        return waitlistService.joinWaitlist(WaitlistRequest.builder()
+                .roomType(Room.RoomType.DELUXE)
+                .guestName("Waiting Guest")
+                .guestEmail(email)
+                .guestPhone("5550005555")
+                .checkInDate(checkIn)
+                .checkOutDate(checkOut)
+                .numberOfGuests(1)
+                .build());
+    }
+
+    private String awaitStatus(Long entryId, String expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String status = waitlistService.getEntryById(entryId).getStatus();
+        while (!expected.equals(status) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            status = waitlistService.getEntryById(entryId).getStatus();
+        }
+        return status;
+    }
+
+    private Long createDeluxeRoom(String roomNumber) {
+        RoomRequest request = new RoomRequest();
+        request.setRoomNumber(roomNumber);
+        request.setType(Room.RoomType.DELUXE);
+        request.setPricePerNight(250.0);
+        request.setCapacity(2);
+        request.setFloor(5);
+        return roomService.createRoom(request).getId();
+    }
+
+    @TestConfiguration
+    static class HoldHookConfig {
+        @Bean
+        HoldHook holdHook() {
+            return new HoldHook();
+        }
+    }
+
+    // Runs inside the transaction that creates a hold, between the booking and the entry update
+    static class HoldHook {
+        volatile Consumer<BookingChangedEvent> onHold;
+
+        @EventListener
+        public void onBookingChanged(BookingChangedEvent event) {
+            Consumer<BookingChangedEvent> hook = onHold;
+            if (hook != null && event.before() == null) {
+                hook.accept(event);
+            }
+        }
+    }
+}